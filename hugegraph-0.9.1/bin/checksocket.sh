@@ -0,0 +1,22 @@
+#!/bin/bash
+
+# Returns the absolute path of this script regardless of symlinks
+abs_path() {
+    SOURCE="${BASH_SOURCE[0]}"
+    while [ -h "$SOURCE" ]; do
+        DIR="$( cd -P "$( dirname "$SOURCE" )" && pwd )"
+        SOURCE="$(readlink "$SOURCE")"
+        [[ $SOURCE != /* ]] && SOURCE="$DIR/$SOURCE"
+    done
+    echo "$( cd -P "$( dirname "$SOURCE" )" && pwd )"
+}
+
+cd "`abs_path`"/..
+
+if [ -n "$JAVA_HOME" ]; then
+    JAVA="$JAVA_HOME"/bin/java
+else
+    JAVA=java
+fi
+
+"$JAVA" -cp lib/hugegraph-common-*.jar com.baidu.hugegraph.util.CheckSocket $1 $2
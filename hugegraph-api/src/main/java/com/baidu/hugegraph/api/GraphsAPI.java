@@ -40,7 +40,12 @@ import javax.ws.rs.core.SecurityContext;
 import org.slf4j.Logger;
 
 import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.api.filter.StatusFilter.Status;
+import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.core.GraphManager;
+import com.baidu.hugegraph.job.JobBuilder;
+import com.baidu.hugegraph.job.snapshot.CreateSnapshotJob;
+import com.baidu.hugegraph.job.snapshot.RestoreSnapshotJob;
 import com.baidu.hugegraph.server.RestServer;
 import com.baidu.hugegraph.type.define.GraphMode;
 import com.baidu.hugegraph.util.E;
@@ -129,6 +134,46 @@ public class GraphsAPI extends API {
         g.truncateBackend();
     }
 
+    @PUT
+    @Timed
+    @Path("{name}/snapshot_create")
+    @Status(Status.ACCEPTED)
+    @Produces(APPLICATION_JSON_WITH_CHARSET)
+    @RolesAllowed("admin")
+    public Map<String, Id> createSnapshot(@Context GraphManager manager,
+                                          @PathParam("name") String name,
+                                          @QueryParam("snapshot")
+                                          String snapshot) {
+        LOG.debug("Create snapshot '{}' for graph '{}'", snapshot, name);
+
+        E.checkArgument(snapshot != null && !snapshot.isEmpty(),
+                        "The snapshot name can't be null or empty");
+        HugeGraph g = graph(manager, name);
+        JobBuilder<Object> builder = JobBuilder.of(g);
+        builder.name(snapshot).job(new CreateSnapshotJob());
+        return ImmutableMap.of("task_id", builder.schedule().id());
+    }
+
+    @PUT
+    @Timed
+    @Path("{name}/snapshot_restore")
+    @Status(Status.ACCEPTED)
+    @Produces(APPLICATION_JSON_WITH_CHARSET)
+    @RolesAllowed("admin")
+    public Map<String, Id> restoreSnapshot(@Context GraphManager manager,
+                                           @PathParam("name") String name,
+                                           @QueryParam("snapshot")
+                                           String snapshot) {
+        LOG.debug("Restore snapshot '{}' for graph '{}'", snapshot, name);
+
+        E.checkArgument(snapshot != null && !snapshot.isEmpty(),
+                        "The snapshot name can't be null or empty");
+        HugeGraph g = graph(manager, name);
+        JobBuilder<Object> builder = JobBuilder.of(g);
+        builder.name(snapshot).job(new RestoreSnapshotJob());
+        return ImmutableMap.of("task_id", builder.schedule().id());
+    }
+
     @PUT
     @Timed
     @Path("{name}/mode")
@@ -19,6 +19,12 @@
 
 package com.baidu.hugegraph.api;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 import javax.inject.Singleton;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
@@ -31,14 +37,28 @@ import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import com.baidu.hugegraph.api.filter.AuthenticationFilter.Authorizer;
 import com.baidu.hugegraph.api.filter.CompressInterceptor;
 import com.baidu.hugegraph.api.filter.CompressInterceptor.Compress;
+import com.baidu.hugegraph.auth.HugeAuthenticator.User;
+import com.baidu.hugegraph.auth.HugeGraphAuthProxy;
+import com.baidu.hugegraph.backend.query.QueryBudget;
 import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.config.ServerOptions;
+import com.baidu.hugegraph.core.GraphManager;
+import com.baidu.hugegraph.core.GremlinEvaluator;
 import com.baidu.hugegraph.metric.MetricsUtil;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.JsonUtil;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.annotation.Timed;
 
@@ -51,6 +71,9 @@ public class GremlinAPI extends API {
     private static final Histogram gremlinOutputHistogram =
             MetricsUtil.registerHistogram(GremlinAPI.class, "gremlin-output");
 
+    private static final String BINDINGS_PREFIX = "bindings.";
+    private static final String ALIASES_PREFIX = "aliases.";
+
     private Client client = ClientBuilder.newClient();
 
     private Response doGetRequest(String location, String auth, String query) {
@@ -97,7 +120,9 @@ public class GremlinAPI extends API {
     @Consumes(APPLICATION_JSON)
     @Produces(APPLICATION_JSON_WITH_CHARSET)
     public Response post(@Context HugeConfig conf,
+                         @Context GraphManager manager,
                          @Context HttpHeaders headers,
+                         @Context SecurityContext security,
                          String request) {
         /* The following code is reserved for forwarding request */
         // context.getRequestDispatcher(location).forward(request, response);
@@ -105,6 +130,22 @@ public class GremlinAPI extends API {
         // .build();
         // Response.temporaryRedirect(UriBuilder.fromUri(location).build())
         // .build();
+        GremlinEvaluator evaluator = manager.gremlinEvaluator();
+        if (evaluator != null) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> req = JsonUtil.fromJson(request, Map.class);
+            E.checkArgumentNotNull(req, "The request body can't be empty");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> bindings = (Map<String, Object>)
+                                           req.get("bindings");
+            @SuppressWarnings("unchecked")
+            Map<String, String> aliases = (Map<String, String>)
+                                          req.get("aliases");
+            return this.doEval(manager, security, request.length(),
+                               (String) req.get("gremlin"),
+                               (String) req.get("language"),
+                               bindings, aliases);
+        }
         String location = conf.get(ServerOptions.GREMLIN_SERVER_URL);
         String auth = headers.getHeaderString(HttpHeaders.AUTHORIZATION);
         return doPostRequest(location, auth, request);
@@ -115,11 +156,85 @@ public class GremlinAPI extends API {
     @Compress(buffer=(1024 * 40))
     @Produces(APPLICATION_JSON_WITH_CHARSET)
     public Response get(@Context HugeConfig conf,
+                        @Context GraphManager manager,
                         @Context HttpHeaders headers,
+                        @Context SecurityContext security,
                         @Context UriInfo uriInfo) {
+        GremlinEvaluator evaluator = manager.gremlinEvaluator();
+        if (evaluator != null) {
+            // See HttpGremlinEndpointHandler of gremlin server
+            MultivaluedMap<String, String> params;
+            params = uriInfo.getQueryParameters();
+            Map<String, Object> bindings = new HashMap<>();
+            Map<String, String> aliases = new HashMap<>();
+            for (Map.Entry<String, List<String>> e : params.entrySet()) {
+                String key = e.getKey();
+                String value = e.getValue().get(0);
+                if (key.startsWith(BINDINGS_PREFIX)) {
+                    bindings.put(key.substring(BINDINGS_PREFIX.length()),
+                                 value);
+                } else if (key.startsWith(ALIASES_PREFIX)) {
+                    aliases.put(key.substring(ALIASES_PREFIX.length()),
+                                value);
+                }
+            }
+            String gremlin = params.getFirst("gremlin");
+            return this.doEval(manager, security,
+                               gremlin == null ? 0 : gremlin.length(),
+                               gremlin, params.getFirst("language"),
+                               bindings, aliases);
+        }
         String location = conf.get(ServerOptions.GREMLIN_SERVER_URL);
         String auth = headers.getHeaderString(HttpHeaders.AUTHORIZATION);
         String query = uriInfo.getRequestUri().getRawQuery();
         return doGetRequest(location, auth, query);
     }
+
+    private Response doEval(GraphManager manager, SecurityContext security,
+                            int inputLength, String gremlin, String language,
+                            Map<String, Object> bindings,
+                            Map<String, String> aliases) {
+        GremlinEvaluator evaluator = manager.gremlinEvaluator();
+        String requestId = UUID.randomUUID().toString();
+        User user = manager.requireAuthentication() ?
+                    authorizedUser(security) : null;
+        /*
+         * The response filters are called before writing the entity, so
+         * keep the query budget of the request to pass to the eval threads
+         */
+        QueryBudget budget = QueryBudget.current();
+        gremlinInputHistogram.update(inputLength);
+
+        // Write the results to the response while iterating them
+        StreamingOutput output = out -> {
+            CountingOutputStream counter = new CountingOutputStream(out);
+            QueryBudget.current(budget);
+            if (user != null) {
+                // Pass the user to the auth graphs bound in the eval threads
+                HugeGraphAuthProxy.setContext(
+                                   new HugeGraphAuthProxy.Context(user));
+            }
+            try {
+                evaluator.eval(gremlin, language, bindings, aliases, r -> {
+                    Iterator<?> results = IteratorUtils.asIterator(r);
+                    manager.serializer().writeGremlinResult(requestId,
+                                                            results,
+                                                            counter);
+                    return null;
+                });
+            } finally {
+                HugeGraphAuthProxy.resetContext();
+                QueryBudget.current(null);
+            }
+            gremlinOutputHistogram.update(counter.getByteCount());
+        };
+        return Response.ok(output, APPLICATION_JSON_WITH_CHARSET).build();
+    }
+
+    private static User authorizedUser(SecurityContext security) {
+        E.checkState(security instanceof Authorizer,
+                     "Can't get the authorized user from '%s'", security);
+        Authorizer authorizer = (Authorizer) security;
+        return new User(authorizer.username(), authorizer.role());
+    }
 }
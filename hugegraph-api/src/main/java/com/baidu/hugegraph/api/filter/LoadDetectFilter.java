@@ -31,6 +31,9 @@ import javax.ws.rs.ext.Provider;
 
 import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.config.ServerOptions;
+import com.baidu.hugegraph.core.AdmissionController;
+import com.baidu.hugegraph.core.AdmissionController.Permit;
+import com.baidu.hugegraph.core.AdmissionController.RequestClass;
 import com.baidu.hugegraph.core.WorkLoad;
 
 @Provider
@@ -38,10 +41,14 @@ import com.baidu.hugegraph.core.WorkLoad;
 @PreMatching
 public class LoadDetectFilter implements ContainerRequestFilter {
 
+    public static final String ADMISSION_PERMIT = "admission.permit";
+
     @Context
     private javax.inject.Provider<HugeConfig> configProvider;
     @Context
     private javax.inject.Provider<WorkLoad> loadProvider;
+    @Context
+    private javax.inject.Provider<AdmissionController> admissionProvider;
 
     @Override
     public void filter(ContainerRequestContext context) throws IOException {
@@ -54,5 +61,19 @@ public class LoadDetectFilter implements ContainerRequestFilter {
                       "The server is too busy to process the request, " +
                       "please try again later");
         }
+
+        AdmissionController admission = this.admissionProvider.get();
+        if (!admission.enabled()) {
+            return;
+        }
+        String path = context.getUriInfo().getPath();
+        String method = context.getMethod();
+        RequestClass clazz = AdmissionController.classify(method, path);
+        if (clazz != null) {
+            // Wait a moment in the queue if the limit of the class reached
+            String route = AdmissionController.route(method, path);
+            Permit permit = admission.acquire(clazz, route);
+            context.setProperty(ADMISSION_PERMIT, permit);
+        }
     }
 }
@@ -21,18 +21,36 @@ package com.baidu.hugegraph.api.filter;
 
 import java.io.IOException;
 
+import javax.annotation.Priority;
 import javax.inject.Singleton;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
 
+import com.baidu.hugegraph.core.AdmissionController.Permit;
 import com.baidu.hugegraph.core.WorkLoad;
 
+/**
+ * Release the load and the admission permit of a request after its response
+ * is written. The entity of a response, like a StreamingOutput which keeps
+ * iterating the results, is written after the response filters, so the
+ * release of a response with entity is delayed until the entity is written.
+ */
 @Provider
 @Singleton
-public class LoadReleaseFilter implements ContainerResponseFilter {
+// Wrap the other writer interceptors like the compression
+@Priority(Priorities.USER - 1)
+public class LoadReleaseFilter implements ContainerResponseFilter,
+                                          WriterInterceptor {
+
+    private static final String LOAD_RELEASED = "load.released";
 
     @Context
     private javax.inject.Provider<WorkLoad> loadProvider;
@@ -41,7 +59,39 @@ public class LoadReleaseFilter implements ContainerResponseFilter {
     public void filter(ContainerRequestContext requestContext,
                        ContainerResponseContext responseContext)
                        throws IOException {
+        if (responseContext.hasEntity() &&
+            !HttpMethod.HEAD.equals(requestContext.getMethod())) {
+            // Release in aroundWriteTo() after the entity is written
+            return;
+        }
+        if (requestContext.getProperty(LOAD_RELEASED) == null) {
+            requestContext.setProperty(LOAD_RELEASED, true);
+            this.release(requestContext.getProperty(
+                         LoadDetectFilter.ADMISSION_PERMIT));
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context)
+                              throws IOException, WebApplicationException {
+        try {
+            context.proceed();
+        } finally {
+            // The response may be rewritten with the error if write failed
+            if (context.getProperty(LOAD_RELEASED) == null) {
+                context.setProperty(LOAD_RELEASED, true);
+                this.release(context.getProperty(
+                             LoadDetectFilter.ADMISSION_PERMIT));
+            }
+        }
+    }
+
+    private void release(Object permit) {
         WorkLoad load = this.loadProvider.get();
         load.decrementAndGet();
+
+        if (permit != null) {
+            ((Permit) permit).release();
+        }
     }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.api.filter;
+
+import java.io.IOException;
+
+import javax.inject.Singleton;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+
+import org.glassfish.grizzly.CloseListener;
+import org.glassfish.grizzly.Closeable;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.ICloseType;
+import org.glassfish.grizzly.http.server.Request;
+
+import com.baidu.hugegraph.backend.query.QueryBudget;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.ServerOptions;
+import com.baidu.hugegraph.metric.MetricsUtil;
+import com.codahale.metrics.Histogram;
+
+/**
+ * Bind a query budget to the thread processing the request, cancel it if the
+ * client disconnects before the response, and report the consumed cost by
+ * the response headers and the metrics
+ */
+@Provider
+@Singleton
+public class QueryBudgetFilter implements ContainerRequestFilter,
+                                          ContainerResponseFilter {
+
+    public static final String HEADER_ROWS_SCANNED = "X-Query-Rows-Scanned";
+    public static final String HEADER_BYTES_READ = "X-Query-Bytes-Read";
+    public static final String HEADER_ELEMENTS_VISITED =
+                               "X-Query-Elements-Visited";
+
+    private static final Histogram rowsHistogram =
+            MetricsUtil.registerHistogram(QueryBudgetFilter.class,
+                                          "rows-scanned");
+    private static final Histogram bytesHistogram =
+            MetricsUtil.registerHistogram(QueryBudgetFilter.class,
+                                          "bytes-read");
+    private static final Histogram elementsHistogram =
+            MetricsUtil.registerHistogram(QueryBudgetFilter.class,
+                                          "elements-visited");
+
+    @Context
+    private javax.inject.Provider<HugeConfig> configProvider;
+    @Context
+    private javax.inject.Provider<Request> requestProvider;
+
+    @Override
+    public void filter(ContainerRequestContext context) throws IOException {
+        HugeConfig config = this.configProvider.get();
+        QueryBudget budget = new QueryBudget(
+                config.get(ServerOptions.QUERY_TIMEOUT),
+                config.get(ServerOptions.QUERY_MAX_ROWS_SCANNED),
+                config.get(ServerOptions.QUERY_MAX_BYTES_READ),
+                config.get(ServerOptions.QUERY_MAX_ELEMENTS_VISITED));
+        // Override the budget left by the previous request if any
+        QueryBudget.current(budget);
+
+        Request request = this.requestProvider.get();
+        if (request != null && request.getContext() != null) {
+            Connection<?> connection = request.getContext().getConnection();
+            Canceller canceller = new Canceller(budget);
+            connection.addCloseListener(canceller);
+            /*
+             * The connection may be kept alive for the next requests, stop
+             * listening after the response is written (the entity may be
+             * streamed after the response filters)
+             */
+            request.addAfterServiceListener(r -> {
+                connection.removeCloseListener(canceller);
+            });
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext,
+                       ContainerResponseContext responseContext)
+                       throws IOException {
+        QueryBudget budget = QueryBudget.current(null);
+        if (budget == null) {
+            return;
+        }
+        rowsHistogram.update(budget.rows());
+        bytesHistogram.update(budget.bytes());
+        elementsHistogram.update(budget.elements());
+
+        MultivaluedMap<String, Object> headers = responseContext.getHeaders();
+        headers.putSingle(HEADER_ROWS_SCANNED, budget.rows());
+        headers.putSingle(HEADER_BYTES_READ, budget.bytes());
+        headers.putSingle(HEADER_ELEMENTS_VISITED, budget.elements());
+    }
+
+    /**
+     * Cancel the queries of the request once the client disconnected, no
+     * one will receive the result of them
+     */
+    private static class Canceller
+                   implements CloseListener<Closeable, ICloseType> {
+
+        private final QueryBudget budget;
+
+        public Canceller(QueryBudget budget) {
+            this.budget = budget;
+        }
+
+        @Override
+        public void onClosed(Closeable closeable, ICloseType type) {
+            this.budget.cancel();
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package com.baidu.hugegraph.api.graph;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
@@ -40,6 +41,8 @@ public class BatchAPI extends API {
 
     // NOTE: VertexAPI and EdgeAPI should share a counter
     private static final AtomicInteger batchWriteThreads = new AtomicInteger(0);
+    // NOTE: the batch APIs and the ingest workers share the write permits
+    private static volatile Semaphore writePermits = null;
 
     static {
         MetricsUtil.registerGauge(RestServer.class, "batch-write-threads",
@@ -55,13 +58,44 @@ public class BatchAPI extends API {
 
     public <R> R commit(HugeConfig config, HugeGraph g, int size,
                         Callable<R> callable) {
-        int maxWriteThreads = config.get(ServerOptions.MAX_WRITE_THREADS);
-        int writingThreads = batchWriteThreads.incrementAndGet();
-        if (writingThreads > maxWriteThreads) {
-            batchWriteThreads.decrementAndGet();
+        if (config.get(ServerOptions.ADMISSION_ENABLE)) {
+            /*
+             * The batch requests hold the permits of the admission
+             * controller, which queues them instead of rejecting
+             */
+            return this.commit((Semaphore) null, g, size, callable);
+        }
+        Semaphore permits = writePermits(config);
+        if (!permits.tryAcquire()) {
+            throw new HugeException("The rest server is too busy to write");
+        }
+        return this.commit(permits, g, size, callable);
+    }
+
+    /**
+     * Like commit(), but wait for a write permit instead of rejecting if
+     * batch.max_write_threads writes are in progress, used by the workers
+     * which have no client to retry
+     */
+    public <R> R commitOrWait(HugeConfig config, HugeGraph g, int size,
+                              Callable<R> callable) {
+        if (config.get(ServerOptions.MAX_WRITE_THREADS) == 0) {
+            // No write permit would ever be released
             throw new HugeException("The rest server is too busy to write");
         }
+        Semaphore permits = writePermits(config);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HugeException("Interrupted while waiting to write", e);
+        }
+        return this.commit(permits, g, size, callable);
+    }
 
+    private <R> R commit(Semaphore permits, HugeGraph g, int size,
+                         Callable<R> callable) {
+        batchWriteThreads.incrementAndGet();
         LOG.debug("The batch writing threads is {}", batchWriteThreads);
         try {
             R result = commit(g, callable);
@@ -69,6 +103,21 @@ public class BatchAPI extends API {
             return result;
         } finally {
             batchWriteThreads.decrementAndGet();
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    private static Semaphore writePermits(HugeConfig config) {
+        if (writePermits == null) {
+            synchronized (BatchAPI.class) {
+                if (writePermits == null) {
+                    int permits = config.get(ServerOptions.MAX_WRITE_THREADS);
+                    writePermits = new Semaphore(permits);
+                }
+            }
         }
+        return writePermits;
     }
 }
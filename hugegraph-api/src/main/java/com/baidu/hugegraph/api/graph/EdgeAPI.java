@@ -20,7 +20,9 @@
 package com.baidu.hugegraph.api.graph;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -64,6 +66,7 @@ import com.baidu.hugegraph.server.RestServer;
 import com.baidu.hugegraph.structure.HugeEdge;
 import com.baidu.hugegraph.structure.HugeVertex;
 import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.define.UpdateStrategy;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
 import com.codahale.metrics.annotation.Timed;
@@ -135,7 +138,7 @@ public class EdgeAPI extends BatchAPI {
         checkBatchSize(config, jsonEdges);
 
         TriFunction<HugeGraph, Object, String, Vertex> getVertex =
-                    checkVertex ? EdgeAPI::getVertex : EdgeAPI::newVertex;
+                    vertexGetter(g, jsonEdges, checkVertex);
 
         return this.commit(config, g, jsonEdges.size(), () -> {
             List<String> ids = new ArrayList<>(jsonEdges.size());
@@ -157,6 +160,48 @@ public class EdgeAPI extends BatchAPI {
         });
     }
 
+    @PUT
+    @Timed
+    @Decompress
+    @Path("batch")
+    @Consumes(APPLICATION_JSON)
+    @Produces(APPLICATION_JSON_WITH_CHARSET)
+    public List<String> update(@Context HugeConfig config,
+                               @Context GraphManager manager,
+                               @PathParam("graph") String graph,
+                               BatchEdgeRequest req) {
+        LOG.debug("Graph [{}] update edges: {}", graph, req);
+        checkUpdatingBody(req);
+
+        HugeGraph g = graph(manager, graph);
+        checkBatchSize(config, req.jsonEdges);
+        Map<Id, UpdateStrategy> strategies = VertexAPI.parseStrategies(
+                                             g, req.updateStrategies);
+
+        TriFunction<HugeGraph, Object, String, Vertex> getVertex =
+                    vertexGetter(g, req.jsonEdges, req.checkVertex);
+
+        return this.commit(config, g, req.jsonEdges.size(), () -> {
+            List<HugeEdge> edges = new ArrayList<>(req.jsonEdges.size());
+            for (JsonEdge jsonEdge : req.jsonEdges) {
+                HugeVertex srcVertex = (HugeVertex) getVertex.apply(
+                                       g, jsonEdge.source,
+                                       jsonEdge.sourceLabel);
+                Vertex tgtVertex = getVertex.apply(g, jsonEdge.target,
+                                                   jsonEdge.targetLabel);
+                edges.add(srcVertex.constructEdge(jsonEdge.label, tgtVertex,
+                                                  jsonEdge.properties()));
+            }
+            g.graphTransaction().upsertEdges(edges, strategies);
+
+            List<String> ids = new ArrayList<>(edges.size());
+            for (HugeEdge edge : edges) {
+                ids.add(edge.id().toString());
+            }
+            return ids;
+        });
+    }
+
     @PUT
     @Timed
     @Path("{id}")
@@ -314,7 +359,35 @@ public class EdgeAPI extends BatchAPI {
         }
     }
 
-    private static Vertex getVertex(HugeGraph graph, Object id, String label) {
+    private static TriFunction<HugeGraph, Object, String, Vertex>
+                   vertexGetter(HugeGraph graph, List<JsonEdge> jsonEdges,
+                                boolean checkVertex) {
+        if (!checkVertex) {
+            return EdgeAPI::newVertex;
+        }
+        // Query all the source and target vertices by one multi-get
+        Map<Id, Object> ids = new LinkedHashMap<>();
+        for (JsonEdge jsonEdge : jsonEdges) {
+            ids.putIfAbsent(HugeVertex.getIdValue(jsonEdge.source),
+                            jsonEdge.source);
+            ids.putIfAbsent(HugeVertex.getIdValue(jsonEdge.target),
+                            jsonEdge.target);
+        }
+        Map<Id, Vertex> vertices = new HashMap<>(ids.size());
+        Iterator<Vertex> iter = graph.vertices(ids.values().toArray());
+        while (iter.hasNext()) {
+            HugeVertex vertex = (HugeVertex) iter.next();
+            // Clone a new vertex to support multi-thread access
+            vertices.put(vertex.id(), vertex.copy().resetTx());
+        }
+        return (g, id, label) -> {
+            Vertex vertex = vertices.get(HugeVertex.getIdValue(id));
+            E.checkArgument(vertex != null, "Invalid vertex id '%s'", id);
+            return vertex;
+        };
+    }
+
+    static Vertex getVertex(HugeGraph graph, Object id, String label) {
         HugeVertex vertex;
         try {
             vertex = (HugeVertex) graph.vertices(id).next();
@@ -326,7 +399,7 @@ public class EdgeAPI extends BatchAPI {
         return vertex.copy().resetTx();
     }
 
-    private static Vertex newVertex(HugeGraph graph, Object id, String label) {
+    static Vertex newVertex(HugeGraph graph, Object id, String label) {
         // NOTE: Not use SchemaManager because it will throw 404
         VertexLabel vl = graph.schemaTransaction().getVertexLabel(label);
         E.checkArgumentNotNull(vl, "Invalid vertex label '%s'", label);
@@ -347,6 +420,46 @@ public class EdgeAPI extends BatchAPI {
         }
     }
 
+    private static class BatchEdgeRequest implements Checkable {
+
+        @JsonProperty("edges")
+        public List<JsonEdge> jsonEdges;
+        @JsonProperty("update_strategies")
+        public Map<String, UpdateStrategy> updateStrategies;
+        @JsonProperty("check_vertex")
+        public boolean checkVertex = true;
+
+        @Override
+        public void checkCreate(boolean isBatch) {
+            this.checkUpdate();
+        }
+
+        @Override
+        public void checkUpdate() {
+            E.checkArgumentNotNull(this.jsonEdges, "The edges can't be null");
+            for (JsonEdge edge : this.jsonEdges) {
+                E.checkArgumentNotNull(edge, "The edge can't be null");
+                edge.checkCreate(true);
+            }
+            if (this.updateStrategies != null) {
+                for (UpdateStrategy strategy :
+                     this.updateStrategies.values()) {
+                    E.checkArgumentNotNull(strategy,
+                                           "The update strategy can't be " +
+                                           "null");
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("BatchEdgeRequest{edges=%s, " +
+                                 "update_strategies=%s, check_vertex=%s}",
+                                 this.jsonEdges, this.updateStrategies,
+                                 this.checkVertex);
+        }
+    }
+
     @JsonIgnoreProperties(value = {"type"})
     private static class JsonEdge implements Checkable {
 
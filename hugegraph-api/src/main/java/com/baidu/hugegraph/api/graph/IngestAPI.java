@@ -0,0 +1,457 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.api.graph;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Singleton;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.api.API;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.api.filter.DecompressInterceptor.Decompress;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.ServerOptions;
+import com.baidu.hugegraph.core.GraphManager;
+import com.baidu.hugegraph.server.RestServer;
+import com.baidu.hugegraph.structure.HugeVertex;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.ExecutorUtil;
+import com.baidu.hugegraph.util.Log;
+import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Streaming ingest of vertices and edges formatted as newline-delimited JSON,
+ * one element per line. The request thread parses the lines into groups and
+ * submits them to the ingest workers shared by all the requests (blocking
+ * the reading of the request body if too many groups of it are pending),
+ * and the workers build, serialize and commit each group in parallel under
+ * the same write permits as the batch APIs (waiting for a permit instead of
+ * being rejected if all are in use). The acknowledged offset is the number
+ * of leading lines all committed, a client can resume from it by passing it
+ * as the offset of the next request with the same body.
+ */
+@Path("graphs/{graph}/graph/ingest")
+@Singleton
+public class IngestAPI extends BatchAPI {
+
+    private static final Logger LOG = Log.logger(RestServer.class);
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final String INGEST_WORKER = "ingest-worker-%d";
+    // NOTE: JsonUtil uses the shaded jackson which ignores @JsonProperty
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static volatile ExecutorService workers = null;
+
+    @POST
+    @Timed
+    @Decompress
+    @Consumes({APPLICATION_NDJSON, APPLICATION_JSON})
+    @Produces(APPLICATION_JSON_WITH_CHARSET)
+    public Map<String, Long> ingest(@Context HugeConfig config,
+                                    @Context GraphManager manager,
+                                    @PathParam("graph") String graph,
+                                    @QueryParam("offset") @DefaultValue("0")
+                                    long offset,
+                                    InputStream body) {
+        LOG.debug("Graph [{}] ingest elements from offset {}", graph, offset);
+        E.checkArgument(offset >= 0L,
+                        "The offset must be >= 0, but got '%s'", offset);
+        E.checkArgumentNotNull(body, "The request body can't be empty");
+
+        HugeGraph g = graph(manager, graph);
+        Ingester ingester = new Ingester(this, g, config, offset);
+        return ingester.ingest(workers(config), body);
+    }
+
+    private static ExecutorService workers(HugeConfig config) {
+        if (workers == null) {
+            synchronized (IngestAPI.class) {
+                if (workers == null) {
+                    int threads = config.get(
+                                  ServerOptions.INGEST_WORKER_THREADS);
+                    workers = ExecutorUtil.newFixedThreadPool(threads,
+                                                              INGEST_WORKER);
+                }
+            }
+        }
+        return workers;
+    }
+
+    private static class Ingester {
+
+        private final BatchAPI api;
+        private final HugeGraph graph;
+        private final HugeConfig config;
+        private final int commitSize;
+        private final int capacity;
+        private final Semaphore pending;
+        private final Acknowledger acknowledger;
+        private final AtomicLong vertices;
+        private final AtomicLong edges;
+        private final AtomicReference<Throwable> error;
+        private volatile boolean failed;
+
+        public Ingester(BatchAPI api, HugeGraph graph, HugeConfig config,
+                        long offset) {
+            this.api = api;
+            this.graph = graph;
+            this.config = config;
+            this.commitSize = config.get(ServerOptions.INGEST_COMMIT_SIZE);
+            this.capacity = config.get(ServerOptions.INGEST_QUEUE_CAPACITY);
+            this.pending = new Semaphore(this.capacity);
+            this.acknowledger = new Acknowledger(offset);
+            this.vertices = new AtomicLong(0L);
+            this.edges = new AtomicLong(0L);
+            this.error = new AtomicReference<>();
+            this.failed = false;
+        }
+
+        public Map<String, Long> ingest(ExecutorService executor,
+                                        InputStream body) {
+            try {
+                this.produce(executor, body);
+            } catch (Throwable e) {
+                this.fail(e);
+            } finally {
+                // Wait for all the submitted groups even if failed
+                this.pending.acquireUninterruptibly(this.capacity);
+            }
+
+            long acknowledged = this.acknowledger.acknowledged();
+            Throwable error = this.error.get();
+            if (error instanceof IllegalArgumentException) {
+                throw new IllegalArgumentException(String.format(
+                          "%s, the acknowledged offset is %s",
+                          error.getMessage(), acknowledged), error);
+            } else if (error != null) {
+                throw new HugeException("Failed to ingest elements, " +
+                                        "the acknowledged offset is %s",
+                                        error, acknowledged);
+            }
+            return ImmutableMap.of("acknowledged", acknowledged,
+                                   "vertices", this.vertices.get(),
+                                   "edges", this.edges.get());
+        }
+
+        private void produce(ExecutorService executor, InputStream body)
+                             throws Exception {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                                    body, StandardCharsets.UTF_8));
+            long line = 0L;
+            long start = this.acknowledger.acknowledged();
+            List<Record> records = new ArrayList<>(this.commitSize);
+            String text;
+            while ((text = reader.readLine()) != null && !this.failed) {
+                if (++line <= this.acknowledger.base()) {
+                    // Skip the lines acknowledged by previous requests
+                    continue;
+                }
+                if (!text.trim().isEmpty()) {
+                    records.add(parse(text, line));
+                }
+                if (records.size() >= this.commitSize) {
+                    this.submit(executor, new Group(start, line, records));
+                    records = new ArrayList<>(this.commitSize);
+                    start = line;
+                }
+            }
+            if (line > start && !this.failed) {
+                this.submit(executor, new Group(start, line, records));
+            }
+        }
+
+        private void submit(ExecutorService executor, Group group)
+                            throws InterruptedException {
+            // Block the parsing until the pending groups are below capacity
+            this.pending.acquire();
+            try {
+                executor.submit(() -> this.consume(group));
+            } catch (Throwable e) {
+                this.pending.release();
+                throw e;
+            }
+        }
+
+        private void fail(Throwable e) {
+            this.error.compareAndSet(null, e);
+            this.failed = true;
+        }
+
+        private void consume(Group group) {
+            try {
+                if (!this.failed) {
+                    this.commit(group);
+                }
+            } catch (Throwable e) {
+                LOG.warn("Failed to ingest lines ({}, {}]",
+                         group.start, group.end, e);
+                this.fail(e);
+            } finally {
+                // Close the transactions opened implicitly by this thread
+                this.graph.closeTx();
+                this.pending.release();
+            }
+        }
+
+        private void commit(Group group) {
+            HugeGraph g = this.graph;
+            int size = group.records.size();
+            this.api.commitOrWait(this.config, g, size, () -> {
+                List<Record> edges = new ArrayList<>();
+                for (Record record : group.records) {
+                    if (record.isVertex()) {
+                        g.addVertex(record.vertexProperties());
+                    } else {
+                        edges.add(record);
+                    }
+                }
+                Map<Id, Vertex> vertices = queryVertices(g, edges);
+                for (Record record : edges) {
+                    record.addEdge(g, vertices);
+                }
+                return null;
+            });
+            long vertices = 0L;
+            for (Record record : group.records) {
+                if (record.isVertex()) {
+                    vertices++;
+                }
+            }
+            this.vertices.addAndGet(vertices);
+            this.edges.addAndGet(size - vertices);
+            this.acknowledger.acknowledge(group);
+        }
+
+        /**
+         * Query the source and target vertices of the edges without vertex
+         * labels by one multi-get, the vertices added in the same group are
+         * also visible here since they are in the same transaction
+         */
+        private static Map<Id, Vertex> queryVertices(HugeGraph graph,
+                                                     List<Record> edges) {
+            Map<Id, Object> ids = new LinkedHashMap<>();
+            for (Record edge : edges) {
+                if (edge.sourceLabel == null) {
+                    ids.putIfAbsent(HugeVertex.getIdValue(edge.source),
+                                    edge.source);
+                    ids.putIfAbsent(HugeVertex.getIdValue(edge.target),
+                                    edge.target);
+                }
+            }
+            Map<Id, Vertex> vertices = new HashMap<>(ids.size());
+            if (ids.isEmpty()) {
+                return vertices;
+            }
+            Iterator<Vertex> iter = graph.vertices(ids.values().toArray());
+            while (iter.hasNext()) {
+                Vertex vertex = iter.next();
+                vertices.put((Id) vertex.id(), vertex);
+            }
+            return vertices;
+        }
+
+        private static Record parse(String text, long line) {
+            Record record;
+            try {
+                record = MAPPER.readValue(text, Record.class);
+            } catch (Exception e) {
+                throw new IllegalArgumentException(String.format(
+                          "Invalid element at line %s: %s",
+                          line, e.getMessage()));
+            }
+            record.check(line);
+            return record;
+        }
+    }
+
+    /**
+     * Track the committed groups which may be completed out of order, and
+     * advance the acknowledged offset only when all the lines before it
+     * have been committed
+     */
+    private static class Acknowledger {
+
+        private final long base;
+        private final Map<Long, Long> committed;
+        private long acknowledged;
+
+        public Acknowledger(long base) {
+            this.base = base;
+            this.committed = new HashMap<>();
+            this.acknowledged = base;
+        }
+
+        public long base() {
+            return this.base;
+        }
+
+        public synchronized long acknowledged() {
+            return this.acknowledged;
+        }
+
+        public synchronized void acknowledge(Group group) {
+            this.committed.put(group.start, group.end);
+            Long end;
+            while ((end = this.committed.remove(this.acknowledged)) != null) {
+                this.acknowledged = end;
+            }
+        }
+    }
+
+    private static class Group {
+
+        // The lines in range (start, end] are included in this group
+        private final long start;
+        private final long end;
+        private final List<Record> records;
+
+        public Group(long start, long end, List<Record> records) {
+            this.start = start;
+            this.end = end;
+            this.records = records;
+        }
+    }
+
+    private static class Record {
+
+        private static final String VERTEX = "vertex";
+        private static final String EDGE = "edge";
+
+        @JsonProperty("type")
+        public String type;
+        @JsonProperty("id")
+        public Object id;
+        @JsonProperty("label")
+        public String label;
+        @JsonProperty("outV")
+        public Object source;
+        @JsonProperty("outVLabel")
+        public String sourceLabel;
+        @JsonProperty("inV")
+        public Object target;
+        @JsonProperty("inVLabel")
+        public String targetLabel;
+        @JsonProperty("properties")
+        public Map<String, Object> properties;
+
+        public boolean isVertex() {
+            return VERTEX.equals(this.type);
+        }
+
+        public void check(long line) {
+            E.checkArgument(VERTEX.equals(this.type) || EDGE.equals(this.type),
+                            "The type of element at line %s must be " +
+                            "'vertex' or 'edge', but got '%s'",
+                            line, this.type);
+            E.checkArgumentNotNull(this.label,
+                                   "The label of element at line %s " +
+                                   "can't be null", line);
+            if (this.isVertex()) {
+                return;
+            }
+            E.checkArgument(this.source != null && this.target != null,
+                            "The source and target vertex id of edge at " +
+                            "line %s can't be null", line);
+            E.checkArgument(this.sourceLabel == null &&
+                            this.targetLabel == null ||
+                            this.sourceLabel != null &&
+                            this.targetLabel != null,
+                            "The both source and target vertex label of " +
+                            "edge at line %s are either passed in, or not " +
+                            "passed in", line);
+        }
+
+        public void addEdge(HugeGraph graph, Map<Id, Vertex> vertices) {
+            Vertex srcVertex;
+            Vertex tgtVertex;
+            if (this.sourceLabel != null) {
+                // Don't check the existence of vertices if labels passed in
+                srcVertex = EdgeAPI.newVertex(graph, this.source,
+                                              this.sourceLabel);
+                tgtVertex = EdgeAPI.newVertex(graph, this.target,
+                                              this.targetLabel);
+            } else {
+                srcVertex = getVertex(vertices, this.source);
+                tgtVertex = getVertex(vertices, this.target);
+            }
+            srcVertex.addEdge(this.label, tgtVertex, this.edgeProperties());
+        }
+
+        private static Vertex getVertex(Map<Id, Vertex> vertices, Object id) {
+            Vertex vertex = vertices.get(HugeVertex.getIdValue(id));
+            E.checkArgument(vertex != null, "Invalid vertex id '%s'", id);
+            return vertex;
+        }
+
+        private Object[] vertexProperties() {
+            int fixed = this.id == null ? 2 : 4;
+            Object[] props = this.properties == null ? new Object[0] :
+                             API.properties(this.properties);
+            Object[] list = new Object[fixed + props.length];
+            list[0] = T.label;
+            list[1] = this.label;
+            if (this.id != null) {
+                list[2] = T.id;
+                list[3] = this.id;
+            }
+            System.arraycopy(props, 0, list, fixed, props.length);
+            return list;
+        }
+
+        private Object[] edgeProperties() {
+            if (this.properties == null) {
+                return new Object[0];
+            }
+            return API.properties(this.properties);
+        }
+    }
+}
@@ -21,6 +21,7 @@ package com.baidu.hugegraph.api.graph;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +51,7 @@ import com.baidu.hugegraph.api.filter.DecompressInterceptor.Decompress;
 import com.baidu.hugegraph.api.filter.StatusFilter.Status;
 import com.baidu.hugegraph.api.schema.Checkable;
 import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.tx.GraphTransaction;
 import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.config.ServerOptions;
 import com.baidu.hugegraph.core.GraphManager;
@@ -58,6 +60,7 @@ import com.baidu.hugegraph.schema.VertexLabel;
 import com.baidu.hugegraph.server.RestServer;
 import com.baidu.hugegraph.structure.HugeVertex;
 import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.define.UpdateStrategy;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.JsonUtil;
 import com.baidu.hugegraph.util.Log;
@@ -114,6 +117,41 @@ public class VertexAPI extends BatchAPI {
         });
     }
 
+    @PUT
+    @Timed
+    @Decompress
+    @Path("batch")
+    @Consumes(APPLICATION_JSON)
+    @Produces(APPLICATION_JSON_WITH_CHARSET)
+    public List<String> update(@Context HugeConfig config,
+                               @Context GraphManager manager,
+                               @PathParam("graph") String graph,
+                               BatchVertexRequest req) {
+        LOG.debug("Graph [{}] update vertices: {}", graph, req);
+        checkUpdatingBody(req);
+
+        HugeGraph g = graph(manager, graph);
+        checkBatchSize(config, req.jsonVertices);
+        Map<Id, UpdateStrategy> strategies = parseStrategies(
+                                             g, req.updateStrategies);
+
+        return this.commit(config, g, req.jsonVertices.size(), () -> {
+            GraphTransaction tx = g.graphTransaction();
+            List<HugeVertex> vertices = new ArrayList<>(
+                                        req.jsonVertices.size());
+            for (JsonVertex vertex : req.jsonVertices) {
+                vertices.add(tx.constructVertex(true, vertex.properties()));
+            }
+            tx.upsertVertices(vertices, strategies);
+
+            List<String> ids = new ArrayList<>(vertices.size());
+            for (HugeVertex vertex : vertices) {
+                ids.add(vertex.id().toString());
+            }
+            return ids;
+        });
+    }
+
     @PUT
     @Timed
     @Path("{id}")
@@ -261,6 +299,56 @@ public class VertexAPI extends BatchAPI {
         }
     }
 
+    public static Map<Id, UpdateStrategy> parseStrategies(
+                  HugeGraph g, Map<String, UpdateStrategy> strategies) {
+        Map<Id, UpdateStrategy> results = new HashMap<>();
+        if (strategies == null) {
+            return results;
+        }
+        for (Map.Entry<String, UpdateStrategy> e : strategies.entrySet()) {
+            results.put(g.propertyKey(e.getKey()).id(), e.getValue());
+        }
+        return results;
+    }
+
+    private static class BatchVertexRequest implements Checkable {
+
+        @JsonProperty("vertices")
+        public List<JsonVertex> jsonVertices;
+        @JsonProperty("update_strategies")
+        public Map<String, UpdateStrategy> updateStrategies;
+
+        @Override
+        public void checkCreate(boolean isBatch) {
+            this.checkUpdate();
+        }
+
+        @Override
+        public void checkUpdate() {
+            E.checkArgumentNotNull(this.jsonVertices,
+                                   "The vertices can't be null");
+            for (JsonVertex vertex : this.jsonVertices) {
+                E.checkArgumentNotNull(vertex, "The vertex can't be null");
+                vertex.checkCreate(true);
+            }
+            if (this.updateStrategies != null) {
+                for (UpdateStrategy strategy :
+                     this.updateStrategies.values()) {
+                    E.checkArgumentNotNull(strategy,
+                                           "The update strategy can't be " +
+                                           "null");
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("BatchVertexRequest{vertices=%s, " +
+                                 "update_strategies=%s}",
+                                 this.jsonVertices, this.updateStrategies);
+        }
+    }
+
     @JsonIgnoreProperties(value = {"type"})
     private static class JsonVertex implements Checkable {
 
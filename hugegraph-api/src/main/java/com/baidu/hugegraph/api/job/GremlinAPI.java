@@ -25,6 +25,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +37,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 
 import org.slf4j.Logger;
@@ -47,11 +49,14 @@ import com.baidu.hugegraph.api.filter.StatusFilter.Status;
 import com.baidu.hugegraph.api.schema.Checkable;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.query.QueryBudget;
 import com.baidu.hugegraph.core.GraphManager;
 import com.baidu.hugegraph.job.Job;
 import com.baidu.hugegraph.job.JobBuilder;
 import com.baidu.hugegraph.metric.MetricsUtil;
 import com.baidu.hugegraph.server.RestServer;
+import com.baidu.hugegraph.task.ResourceClass;
+import com.baidu.hugegraph.task.TaskPriority;
 import com.baidu.hugegraph.traversal.optimize.HugeScriptTraversal;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.JsonUtil;
@@ -80,6 +85,7 @@ public class GremlinAPI extends API {
     @Produces(APPLICATION_JSON_WITH_CHARSET)
     public Map<String, Id> post(@Context GraphManager manager,
                                 @PathParam("graph") String graph,
+                                @QueryParam("priority") String priority,
                                 GremlinRequest request) {
         LOG.debug("Graph [{}] schedule gremlin job: {}", graph, request);
         checkCreatingBody(request);
@@ -91,9 +97,22 @@ public class GremlinAPI extends API {
         builder.name(request.name())
                .input(request.toJson())
                .job(new GremlinJob());
+        if (priority != null) {
+            builder.priority(parsePriority(priority));
+        }
         return ImmutableMap.of("task_id", builder.schedule().id());
     }
 
+    private static TaskPriority parsePriority(String priority) {
+        try {
+            return TaskPriority.valueOf(priority.toUpperCase());
+        } catch (Exception e) {
+            throw new IllegalArgumentException(String.format(
+                      "Priority value must be in %s, but got '%s'",
+                      Arrays.asList(TaskPriority.values()), priority));
+        }
+    }
+
     public static class GremlinJob extends Job<Object> {
 
         public static final String TASK_TYPE = "gremlin";
@@ -105,6 +124,11 @@ public class GremlinAPI extends API {
             return TASK_TYPE;
         }
 
+        @Override
+        public ResourceClass resourceClass() {
+            return ResourceClass.CPU_HEAVY;
+        }
+
         @Override
         public Object execute() throws Exception {
             GremlinRequest input = GremlinRequest.fromJson(this.task().input());
@@ -116,6 +140,8 @@ public class GremlinAPI extends API {
                                            input.bindings(), input.aliases());
             List<Object> results = new ArrayList<>();
             long capacity = Query.defaultCapacity(Query.NO_CAPACITY);
+            // The unlimited budget bound by Job to account the cost
+            QueryBudget budget = QueryBudget.current();
             try {
                 while (st.hasNext()) {
                     Object result = st.next();
@@ -125,6 +151,7 @@ public class GremlinAPI extends API {
                 }
             } finally {
                 Query.defaultCapacity(capacity);
+                LOG.debug("Gremlin job {} cost {}", this.task().id(), budget);
                 st.close();
                 this.graph().tx().commit();
             }
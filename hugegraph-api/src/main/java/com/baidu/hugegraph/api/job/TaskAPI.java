@@ -111,6 +111,18 @@ public class TaskAPI extends API {
         return ImmutableMap.of("tasks", tasks);
     }
 
+    @GET
+    @Timed
+    @Path("stats")
+    @Produces(APPLICATION_JSON_WITH_CHARSET)
+    public Map<String, Object> stats(@Context GraphManager manager,
+                                     @PathParam("graph") String graph) {
+        LOG.debug("Graph [{}] get stats of tasks", graph);
+
+        TaskScheduler scheduler = graph(manager, graph).taskScheduler();
+        return ImmutableMap.of("classes", scheduler.stats());
+    }
+
     @GET
     @Timed
     @Path("{id}")
@@ -21,9 +21,14 @@ package com.baidu.hugegraph.api.traversers;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import javax.annotation.security.RolesAllowed;
 import javax.inject.Singleton;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
@@ -46,6 +51,7 @@ import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
 import com.codahale.metrics.annotation.Timed;
+import com.google.common.collect.ImmutableMap;
 
 @Path("graphs/{graph}/traversers/vertices")
 @Singleton
@@ -101,7 +107,9 @@ public class VerticesAPI extends API {
     public String scan(@Context GraphManager manager,
                        @PathParam("graph") String graph,
                        @QueryParam("start") String start,
-                       @QueryParam("end") String end) {
+                       @QueryParam("end") String end,
+                       @QueryParam("read_snapshot") @DefaultValue("0")
+                       long snapshot) {
         LOG.debug("Graph [{}] query vertices by shard(start: {}, end: {}) ",
                   graph, start, end);
 
@@ -109,8 +117,52 @@ public class VerticesAPI extends API {
 
         ConditionQuery query = new ConditionQuery(HugeType.VERTEX);
         query.scan(start, end);
-        Iterator<Vertex> vertices = g.vertices(query);
 
-        return manager.serializer(g).writeVertices(vertices, false);
+        if (snapshot == 0L) {
+            Iterator<Vertex> vertices = g.vertices(query);
+            return manager.serializer(g).writeVertices(vertices, false);
+        }
+
+        // Scan the shard against the read snapshot opened by caller
+        g.graphTransaction().metadata(HugeType.VERTEX, "read_snapshot",
+                                      "use", snapshot);
+        try {
+            Iterator<Vertex> vertices = g.vertices(query);
+            return manager.serializer(g).writeVertices(vertices, false);
+        } finally {
+            g.graphTransaction().metadata(HugeType.VERTEX, "read_snapshot",
+                                          "use", 0L);
+        }
+    }
+
+    @POST
+    @Timed
+    @Path("read_snapshot")
+    @Produces(APPLICATION_JSON_WITH_CHARSET)
+    @RolesAllowed({"admin", "$owner=graph"})
+    public Map<String, Long> openReadSnapshot(@Context GraphManager manager,
+                                              @PathParam("graph")
+                                              String graph) {
+        LOG.debug("Graph [{}] open vertex read snapshot", graph);
+
+        HugeGraph g = graph(manager, graph);
+        long snapshot = g.graphTransaction()
+                         .metadata(HugeType.VERTEX, "read_snapshot", "open");
+        return ImmutableMap.of("read_snapshot", snapshot);
+    }
+
+    @DELETE
+    @Timed
+    @Path("read_snapshot/{id}")
+    @RolesAllowed({"admin", "$owner=graph"})
+    public void closeReadSnapshot(@Context GraphManager manager,
+                                  @PathParam("graph") String graph,
+                                  @PathParam("id") long snapshot) {
+        LOG.debug("Graph [{}] close vertex read snapshot '{}'",
+                  graph, snapshot);
+
+        HugeGraph g = graph(manager, graph);
+        g.graphTransaction().metadata(HugeType.VERTEX, "read_snapshot",
+                                      "close", snapshot);
     }
 }
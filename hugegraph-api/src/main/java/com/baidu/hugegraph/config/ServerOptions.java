@@ -19,9 +19,11 @@
 
 package com.baidu.hugegraph.config;
 
+import static com.baidu.hugegraph.config.OptionChecker.allowValues;
 import static com.baidu.hugegraph.config.OptionChecker.disallowEmpty;
 import static com.baidu.hugegraph.config.OptionChecker.nonNegativeInt;
 import static com.baidu.hugegraph.config.OptionChecker.positiveInt;
+import static com.baidu.hugegraph.config.OptionChecker.rangeDouble;
 import static com.baidu.hugegraph.config.OptionChecker.rangeInt;
 
 public class ServerOptions extends OptionHolder {
@@ -55,6 +57,80 @@ public class ServerOptions extends OptionHolder {
                     positiveInt(),
                     2 * Runtime.getRuntime().availableProcessors());
 
+    public static final ConfigOption<Boolean> ADMISSION_ENABLE =
+            new ConfigOption<>(
+                    "admission.enable",
+                    "Whether to admit the requests of point reads, " +
+                    "traversals, batch writes and gremlin with separate " +
+                    "concurrency limits adapted to the observed latency.",
+                    disallowEmpty(),
+                    false
+            );
+
+    public static final ConfigOption<Integer> ADMISSION_QUEUE_SIZE =
+            new ConfigOption<>(
+                    "admission.queue_size",
+                    "The max number of requests of each request class " +
+                    "waiting for admission, more ones are rejected.",
+                    nonNegativeInt(),
+                    64
+            );
+
+    public static final ConfigOption<Long> ADMISSION_QUEUE_TIMEOUT =
+            new ConfigOption<>(
+                    "admission.queue_timeout",
+                    "The max time in ms of a request waiting for admission, " +
+                    "it's rejected if timeout.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    500L
+            );
+
+    public static final ConfigOption<Double> ADMISSION_LATENCY_TOLERANCE =
+            new ConfigOption<>(
+                    "admission.latency_tolerance",
+                    "The concurrency limit of a request class is decreased " +
+                    "if the latency exceeds the baseline latency multiplied " +
+                    "by this tolerance, otherwise it's increased slowly.",
+                    rangeDouble(1.0, Double.MAX_VALUE),
+                    2.0
+            );
+
+    public static final ConfigOption<Long> QUERY_TIMEOUT =
+            new ConfigOption<>(
+                    "query.timeout",
+                    "The max time in ms of the backend queries of a request, " +
+                    "0 means no timeout.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    0L
+            );
+
+    public static final ConfigOption<Long> QUERY_MAX_ROWS_SCANNED =
+            new ConfigOption<>(
+                    "query.max_rows_scanned",
+                    "The max number of rows scanned from backend by a " +
+                    "request, 0 means no limit.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    0L
+            );
+
+    public static final ConfigOption<Long> QUERY_MAX_BYTES_READ =
+            new ConfigOption<>(
+                    "query.max_bytes_read",
+                    "The max bytes read from backend by a request, " +
+                    "0 means no limit.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    0L
+            );
+
+    public static final ConfigOption<Long> QUERY_MAX_ELEMENTS_VISITED =
+            new ConfigOption<>(
+                    "query.max_elements_visited",
+                    "The max number of vertices/edges visited by the " +
+                    "traversers of a request, 0 means no limit.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    0L
+            );
+
     public static final ConfigOption<String> GREMLIN_SERVER_URL =
             new ConfigOption<>(
                     "gremlinserver.url",
@@ -63,6 +139,34 @@ public class ServerOptions extends OptionHolder {
                     "http://127.0.0.1:8182"
             );
 
+    public static final ConfigOption<String> GREMLIN_EXECUTION_MODE =
+            new ConfigOption<>(
+                    "gremlin.execution_mode",
+                    "The way to execute the gremlin requests of rest server, " +
+                    "'proxy' means forwarding them to the gremlin server, " +
+                    "'embedded' means evaluating them in the rest server.",
+                    allowValues("proxy", "embedded"),
+                    "proxy"
+            );
+
+    public static final ConfigOption<Long> GREMLIN_EVALUATION_TIMEOUT =
+            new ConfigOption<>(
+                    "gremlin.evaluation_timeout",
+                    "The timeout in ms of evaluating a gremlin request in " +
+                    "embedded mode, 0 means no timeout.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    30000L
+            );
+
+    public static final ConfigOption<Integer> GREMLIN_WORKER_THREADS =
+            new ConfigOption<>(
+                    "gremlin.worker_threads",
+                    "The number of threads to evaluate gremlin requests in " +
+                    "embedded mode.",
+                    positiveInt(),
+                    Runtime.getRuntime().availableProcessors()
+            );
+
     public static final ConfigListOption<String> GRAPHS =
             new ConfigListOption<>(
                     "graphs",
@@ -105,6 +209,36 @@ public class ServerOptions extends OptionHolder {
                     nonNegativeInt(),
                     0);
 
+    public static final ConfigOption<Integer> INGEST_WORKER_THREADS =
+            new ConfigOption<>(
+                    "ingest.worker_threads",
+                    "The number of threads shared by all the streaming " +
+                    "ingest requests to build and commit the elements, " +
+                    "the commits wait for the write permits of " +
+                    "batch.max_write_threads.",
+                    positiveInt(),
+                    4
+            );
+
+    public static final ConfigOption<Integer> INGEST_QUEUE_CAPACITY =
+            new ConfigOption<>(
+                    "ingest.queue_capacity",
+                    "The maximum number of parsed groups of one streaming " +
+                    "ingest request waiting for or in committing, the " +
+                    "parsing of the request will be blocked if it's full.",
+                    positiveInt(),
+                    16
+            );
+
+    public static final ConfigOption<Integer> INGEST_COMMIT_SIZE =
+            new ConfigOption<>(
+                    "ingest.commit_size",
+                    "The number of elements committed together by the " +
+                    "streaming ingest workers.",
+                    positiveInt(),
+                    500
+            );
+
     public static final ConfigOption<Boolean> ALLOW_TRACE =
             new ConfigOption<>(
                     "exception.allow_trace",
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.core;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.ServiceUnavailableException;
+
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.ServerOptions;
+import com.baidu.hugegraph.metric.MetricsUtil;
+import com.baidu.hugegraph.util.E;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+
+/**
+ * Admit the requests of each request class with a concurrency limit which
+ * adapts to the observed latency: the limit is decreased multiplicatively
+ * if the latency of a request exceeds the tolerance of the baseline latency
+ * of its route, otherwise it's increased additively while the limit is in
+ * use (AIMD). The requests exceeding the limit wait in a bounded queue for
+ * a short time instead of being rejected immediately.
+ */
+public final class AdmissionController {
+
+    public enum RequestClass {
+
+        POINT_READ("point-read"),
+
+        POINT_WRITE("point-write"),
+
+        TRAVERSAL("traversal"),
+
+        BATCH_WRITE("batch-write"),
+
+        GREMLIN("gremlin");
+
+        private final String name;
+
+        private RequestClass(String name) {
+            this.name = name;
+        }
+
+        public String string() {
+            return this.name;
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<RequestClass, Limiter> limiters;
+
+    public AdmissionController(HugeConfig conf) {
+        this.enabled = conf.get(ServerOptions.ADMISSION_ENABLE);
+        this.limiters = new EnumMap<>(RequestClass.class);
+        if (!this.enabled) {
+            return;
+        }
+
+        int maxWorkerThreads = conf.get(ServerOptions.MAX_WORKER_THREADS);
+        int maxWriteThreads = conf.get(ServerOptions.MAX_WRITE_THREADS);
+        int queueSize = conf.get(ServerOptions.ADMISSION_QUEUE_SIZE);
+        long queueTimeout = conf.get(ServerOptions.ADMISSION_QUEUE_TIMEOUT);
+        double tolerance = conf.get(ServerOptions.ADMISSION_LATENCY_TOLERANCE);
+        for (RequestClass clazz : RequestClass.values()) {
+            int maxLimit = clazz == RequestClass.BATCH_WRITE ?
+                           maxWriteThreads : maxWorkerThreads;
+            Limiter limiter = new Limiter(clazz.string(), maxLimit, queueSize,
+                                          queueTimeout, tolerance);
+            this.limiters.put(clazz, limiter);
+
+            String name = clazz.string();
+            MetricsUtil.registerGauge(AdmissionController.class,
+                                      name + "-limit", () -> limiter.limit());
+            MetricsUtil.registerGauge(AdmissionController.class,
+                                      name + "-inflight",
+                                      () -> limiter.inflight());
+            MetricsUtil.registerGauge(AdmissionController.class,
+                                      name + "-queued",
+                                      () -> limiter.waiting());
+        }
+    }
+
+    public boolean enabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Acquire a permit of the request class, wait in the queue of the class
+     * if the concurrency limit is reached
+     * @param clazz the request class returned by classify()
+     * @param route the route returned by route(), the latency of requests
+     *              is compared with the baseline of the same route
+     * @return the permit which must be released after the request is done,
+     *         or null if the admission is disabled
+     * @throws ServiceUnavailableException if the queue is full or waiting
+     *         timeout
+     */
+    public Permit acquire(RequestClass clazz, String route) {
+        if (!this.enabled) {
+            return null;
+        }
+        E.checkArgumentNotNull(clazz, "The request class can't be null");
+        return this.limiters.get(clazz).acquire(route);
+    }
+
+    public int limit(RequestClass clazz) {
+        return this.limiters.get(clazz).limit();
+    }
+
+    /**
+     * Classify a request by the http method and the path relative to the
+     * base uri, return null if the request is exempted from admission.
+     * The requests to manage graphs, schema, tasks and variables are
+     * exempted, they should be served even if the server is busy.
+     */
+    public static RequestClass classify(String method, String path) {
+        String[] parts = split(path);
+        switch (parts[0]) {
+            case "gremlin":
+                return RequestClass.GREMLIN;
+            case "graphs":
+                break;
+            default:
+                // Like metrics and versions
+                return null;
+        }
+        if (parts.length < 4) {
+            // Like graphs/{graph}/clear
+            return null;
+        }
+        switch (parts[2]) {
+            case "traversers":
+                // Like graphs/{graph}/traversers/kout
+                return RequestClass.TRAVERSAL;
+            case "graph":
+                break;
+            case "jobs":
+                // Like graphs/{graph}/jobs/gremlin
+                return parts[3].equals("gremlin") ? RequestClass.GREMLIN :
+                                                    null;
+            default:
+                // Like graphs/{graph}/schema/vertexlabels
+                return null;
+        }
+
+        // Like graphs/{graph}/graph/vertices/{id}
+        if (parts[3].equals("ingest") ||
+            parts.length == 5 && parts[4].equals("batch")) {
+            return RequestClass.BATCH_WRITE;
+        }
+        if (!method.equals(HttpMethod.GET)) {
+            return RequestClass.POINT_WRITE;
+        }
+        // Query by conditions instead of id
+        return parts.length == 4 ? RequestClass.TRAVERSAL :
+                                   RequestClass.POINT_READ;
+    }
+
+    /**
+     * Get the route of a request to track its baseline latency, the graph
+     * name and the ids in the path are not included
+     */
+    public static String route(String method, String path) {
+        String[] parts = split(path);
+        if (!parts[0].equals("graphs") || parts.length < 4) {
+            return method + " " + parts[0];
+        }
+        // Like "GET graph/vertices/{id}"
+        StringBuilder route = new StringBuilder();
+        route.append(method).append(" ")
+             .append(parts[2]).append("/").append(parts[3]);
+        if (parts.length > 4) {
+            route.append("/").append(parts[4].equals("batch") ?
+                                     "batch" : "{id}");
+        }
+        return route.toString();
+    }
+
+    private static String[] split(String path) {
+        return path.startsWith("/") ? path.substring(1).split("/") :
+                                      path.split("/");
+    }
+
+    public static final class Permit {
+
+        private final Limiter limiter;
+        private final String route;
+        private final long start;
+        private boolean released;
+
+        private Permit(Limiter limiter, String route) {
+            this.limiter = limiter;
+            this.route = route;
+            this.start = System.nanoTime();
+            this.released = false;
+        }
+
+        public void release() {
+            if (this.released) {
+                return;
+            }
+            this.released = true;
+            this.limiter.release(this.route, System.nanoTime() - this.start);
+        }
+    }
+
+    public static final class Limiter {
+
+        private static final double BACKOFF_RATIO = 0.9;
+        private static final int BASELINE_SMOOTHING = 100;
+        // Track the baselines of the most routes and share one for others
+        private static final int MAX_ROUTES = 1024;
+        private static final String OTHER_ROUTES = "*";
+
+        private final String name;
+        private final int maxLimit;
+        private final int queueSize;
+        private final long queueTimeout;
+        private final double tolerance;
+
+        private final Histogram latencyHistogram;
+        private final Meter rejectedMeter;
+        private final Meter timeoutMeter;
+
+        private double limit;
+        private int inflight;
+        private int waiting;
+        // The smoothed latency in nanoseconds of each route
+        private final Map<String, Long> baselines;
+        private long lastBackoff;
+
+        public Limiter(String name, int maxLimit, int queueSize,
+                       long queueTimeout, double tolerance) {
+            this.name = name;
+            this.maxLimit = maxLimit;
+            this.queueSize = queueSize;
+            this.queueTimeout = TimeUnit.MILLISECONDS.toNanos(queueTimeout);
+            this.tolerance = tolerance;
+
+            this.limit = maxLimit;
+            this.inflight = 0;
+            this.waiting = 0;
+            this.baselines = new HashMap<>();
+            this.lastBackoff = 0L;
+
+            this.latencyHistogram = MetricsUtil.registerHistogram(
+                                    AdmissionController.class,
+                                    name + "-latency");
+            this.rejectedMeter = MetricsUtil.registerMeter(
+                                 AdmissionController.class,
+                                 name + "-rejected");
+            this.timeoutMeter = MetricsUtil.registerMeter(
+                                AdmissionController.class,
+                                name + "-queue-timeout");
+        }
+
+        public synchronized int limit() {
+            return (int) this.limit;
+        }
+
+        public synchronized int inflight() {
+            return this.inflight;
+        }
+
+        public synchronized int waiting() {
+            return this.waiting;
+        }
+
+        public synchronized long baseline(String route) {
+            Long baseline = this.baselines.get(route);
+            return baseline == null ? 0L : baseline;
+        }
+
+        public synchronized Permit acquire(String route) {
+            if (this.inflight < (int) this.limit) {
+                this.inflight++;
+                return new Permit(this, route);
+            }
+            if (this.maxLimit <= 0 || this.waiting >= this.queueSize) {
+                this.rejectedMeter.mark();
+                throw new ServiceUnavailableException(String.format(
+                          "The server is too busy to process the %s " +
+                          "request, please try again later", this.name));
+            }
+
+            this.waiting++;
+            try {
+                long deadline = System.nanoTime() + this.queueTimeout;
+                while (this.inflight >= (int) this.limit) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L) {
+                        this.timeoutMeter.mark();
+                        throw new ServiceUnavailableException(String.format(
+                                  "Timeout to wait for processing the %s " +
+                                  "request, please try again later",
+                                  this.name));
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } catch (InterruptedException e) {
+                throw new ServiceUnavailableException(
+                          "Interrupted while waiting for processing request");
+            } finally {
+                this.waiting--;
+            }
+            this.inflight++;
+            return new Permit(this, route);
+        }
+
+        public synchronized void release(String route, long latency) {
+            assert this.inflight > 0;
+            this.latencyHistogram.update(
+                 TimeUnit.NANOSECONDS.toMillis(latency));
+
+            if (!this.baselines.containsKey(route) &&
+                this.baselines.size() >= MAX_ROUTES) {
+                route = OTHER_ROUTES;
+            }
+            Long baseline = this.baselines.get(route);
+            if (baseline == null) {
+                // The first request of the route only sets the baseline
+                this.baselines.put(route, latency);
+            } else {
+                boolean inUse = this.inflight * 2 >= this.limit;
+                long now = System.nanoTime();
+                if (latency > baseline * this.tolerance) {
+                    /*
+                     * Back off at most once in the baseline latency since
+                     * the requests inflight at the same time are all slow
+                     */
+                    if (inUse && now - this.lastBackoff > baseline) {
+                        this.limit = Math.max(1.0,
+                                              this.limit * BACKOFF_RATIO);
+                        this.lastBackoff = now;
+                    }
+                } else if (inUse) {
+                    this.limit = Math.min(this.maxLimit,
+                                          this.limit + 1.0 / this.limit);
+                }
+                // Follow the latency of the route slowly in both directions
+                baseline += (latency - baseline) / BASELINE_SMOOTHING;
+                this.baselines.put(route, baseline);
+            }
+
+            this.inflight--;
+            this.notifyAll();
+        }
+    }
+}
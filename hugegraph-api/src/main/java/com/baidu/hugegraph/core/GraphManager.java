@@ -50,7 +50,9 @@ import com.baidu.hugegraph.metric.ServerReporter;
 import com.baidu.hugegraph.serializer.JsonSerializer;
 import com.baidu.hugegraph.serializer.Serializer;
 import com.baidu.hugegraph.server.RestServer;
+import com.baidu.hugegraph.task.ResourceClass;
 import com.baidu.hugegraph.task.TaskManager;
+import com.baidu.hugegraph.traversal.optimize.GremlinScriptCache;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
 
@@ -60,6 +62,7 @@ public final class GraphManager {
 
     private final Map<String, Graph> graphs;
     private final HugeAuthenticator authenticator;
+    private final GremlinEvaluator gremlinEvaluator;
 
     public GraphManager(HugeConfig conf) {
         this.graphs = new ConcurrentHashMap<>();
@@ -74,6 +77,7 @@ public final class GraphManager {
         this.checkBackendVersionOrExit();
         this.restoreUncompletedTasks();
         this.addMetrics(conf);
+        this.gremlinEvaluator = this.createGremlinEvaluator(conf);
     }
 
     public void loadGraphs(final Map<String, String> graphConfs) {
@@ -106,6 +110,21 @@ public final class GraphManager {
         throw new NotSupportException("graph instance of %s", graph.getClass());
     }
 
+    /**
+     * Get the evaluator of gremlin requests
+     * @return null if the gremlin requests are forwarded to gremlin server
+     */
+    public GremlinEvaluator gremlinEvaluator() {
+        return this.gremlinEvaluator;
+    }
+
+    public Serializer serializer() {
+        // The io registry is shared by all the graphs
+        E.checkState(!this.graphs.isEmpty(), "There is no graph loaded");
+        String name = this.graphs.keySet().iterator().next();
+        return this.serializer(this.graph(name));
+    }
+
     public Serializer serializer(Graph g) {
         // TODO: cache Serializer
         return new JsonSerializer(g.io(IoCore.graphson()).writer()
@@ -185,6 +204,20 @@ public final class GraphManager {
         }
     }
 
+    private GremlinEvaluator createGremlinEvaluator(HugeConfig conf) {
+        String mode = conf.get(ServerOptions.GREMLIN_EXECUTION_MODE);
+        if (!mode.equals("embedded")) {
+            return null;
+        }
+        // Admin context is needed to get the traversal source of auth graphs
+        HugeGraphAuthProxy.setContext(HugeGraphAuthProxy.Context.admin());
+        try {
+            return new GremlinEvaluator(conf, this, this.graphs);
+        } finally {
+            HugeGraphAuthProxy.resetContext();
+        }
+    }
+
     private void checkBackendVersionOrExit() {
         for (String graph : this.graphs()) {
             HugeGraph hugegraph = this.graph(graph);
@@ -240,6 +273,12 @@ public final class GraphManager {
             return count;
         });
 
+        // Add metrics for compiled gremlin scripts
+        MetricsUtil.registerGauge(GremlinScriptCache.class, "compiles",
+                                  () -> GremlinScriptCache.compiles());
+        MetricsUtil.registerGauge(GremlinScriptCache.class, "compile-time",
+                                  () -> GremlinScriptCache.compileTime());
+
         // Add metrics for task
         MetricsUtil.registerGauge(TaskManager.class, "workers", () -> {
             return TaskManager.instance().workerPoolSize();
@@ -247,6 +286,18 @@ public final class GraphManager {
         MetricsUtil.registerGauge(TaskManager.class, "pending-tasks", () -> {
             return TaskManager.instance().pendingTasks();
         });
+        TaskManager taskManager = TaskManager.instance();
+        for (ResourceClass clazz : ResourceClass.values()) {
+            String name = clazz.string();
+            MetricsUtil.registerGauge(TaskManager.class, name + "-workers",
+                                      () -> taskManager.workerPoolSize(clazz));
+            MetricsUtil.registerGauge(TaskManager.class, name + "-queued",
+                                      () -> taskManager.queuedTasks(clazz));
+            MetricsUtil.registerGauge(TaskManager.class, name + "-running",
+                                      () -> taskManager.runningTasks(clazz));
+            MetricsUtil.registerGauge(TaskManager.class, name + "-wait-time",
+                                      () -> taskManager.waitTime(clazz));
+        }
     }
 
     private static void registerCacheMetrics(Map<String, Cache> caches) {
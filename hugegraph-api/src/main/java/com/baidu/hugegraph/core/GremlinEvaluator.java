@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.core;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import javax.script.Bindings;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.apache.tinkerpop.gremlin.groovy.engine.GremlinExecutor;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.customizer.TimedInterruptCustomizerProvider;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.customizer.TimedInterruptTimeoutException;
+import org.apache.tinkerpop.gremlin.server.util.ThreadFactoryUtil;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.auth.HugeGraphAuthProxy.ContextThreadPoolExecutor;
+import com.baidu.hugegraph.backend.query.QueryBudget;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.ServerOptions;
+import com.baidu.hugegraph.metric.MetricsUtil;
+import com.baidu.hugegraph.server.RestServer;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.Log;
+import com.codahale.metrics.Meter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Evaluate gremlin scripts in the rest server with a shared GremlinExecutor,
+ * instead of forwarding them to the gremlin server. The graphs of
+ * GraphManager are bound with their names, and the traversal sources of them
+ * are bound with the names prefixed by "__g_" like the gremlin server does.
+ */
+public class GremlinEvaluator {
+
+    private static final Logger LOG = Log.logger(RestServer.class);
+
+    public static final String G_PREFIX = "__g_";
+    public static final String LANGUAGE = "gremlin-groovy";
+
+    private static final String PLUGIN = "com.baidu.hugegraph";
+    private static final String COMPILER_CUSTOMIZERS =
+                                "compilerCustomizerProviders";
+    private static final String TIMED_INTERRUPT =
+                                TimedInterruptCustomizerProvider.class
+                                                                .getName();
+
+    private static final Meter timeoutMeter =
+                         MetricsUtil.registerMeter(GremlinEvaluator.class,
+                                                   "gremlin-timeout");
+
+    private final GraphManager manager;
+    private final Bindings globals;
+    private final GremlinExecutor executor;
+
+    public GremlinEvaluator(HugeConfig conf, GraphManager manager,
+                            Map<String, Graph> graphs) {
+        this.manager = manager;
+        this.globals = new SimpleBindings();
+        for (Map.Entry<String, Graph> e : graphs.entrySet()) {
+            this.globals.put(e.getKey(), e.getValue());
+            this.globals.put(G_PREFIX + e.getKey(), e.getValue().traversal());
+        }
+
+        int threads = conf.get(ServerOptions.GREMLIN_WORKER_THREADS);
+        long timeout = conf.get(ServerOptions.GREMLIN_EVALUATION_TIMEOUT);
+        // Pass the auth context of the request thread to the eval threads
+        ExecutorService evalExecutor = new ContextThreadPoolExecutor(
+                threads, threads,
+                ThreadFactoryUtil.create("gremlin-eval-%d"));
+        ScheduledExecutorService timeouter =
+                Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryUtil.create("gremlin-timeout-%d"));
+
+        Map<String, Object> engineConfig = ImmutableMap.of();
+        if (timeout > 0L) {
+            /*
+             * Interrupting the eval thread can't stop the scripts which
+             * never check the interrupted state (like loops), so compile the
+             * scripts with timed interrupt like the gremlin server does
+             */
+            engineConfig = ImmutableMap.of(COMPILER_CUSTOMIZERS,
+                                           ImmutableMap.of(TIMED_INTERRUPT,
+                                           ImmutableList.of(timeout)));
+        }
+
+        this.executor = GremlinExecutor.build()
+                                       .addEngineSettings(LANGUAGE,
+                                                          ImmutableList.of(),
+                                                          ImmutableList.of(),
+                                                          ImmutableList.of(),
+                                                          engineConfig)
+                                       .enabledPlugins(ImmutableSet.of(PLUGIN))
+                                       .globalBindings(this.globals)
+                                       .scriptEvaluationTimeout(timeout)
+                                       .executorService(evalExecutor)
+                                       .scheduledExecutorService(timeouter)
+                                       .create();
+        LOG.info("Gremlin requests will be evaluated in embedded mode " +
+                 "with {} threads", threads);
+    }
+
+    /**
+     * Evaluate the script and transform the result in the eval thread,
+     * the transactions opened by the script are committed if succeeded and
+     * rolled back if failed.
+     */
+    public <R> R eval(String script, String language,
+                      Map<String, Object> bindings,
+                      Map<String, String> aliases,
+                      Function<Object, R> transformer) {
+        E.checkArgument(script != null && !script.isEmpty(),
+                        "The gremlin script can't be empty");
+        if (language == null) {
+            language = LANGUAGE;
+        }
+        Bindings params = new SimpleBindings();
+        if (bindings != null) {
+            params.putAll(bindings);
+        }
+        if (aliases != null) {
+            for (Map.Entry<String, String> e : aliases.entrySet()) {
+                Object value = this.globals.get(e.getValue());
+                E.checkArgument(value != null, "Invalid alias '%s':'%s'",
+                                e.getKey(), e.getValue());
+                params.put(e.getKey(), value);
+            }
+        }
+
+        // Pass the query budget of the request thread to the eval thread
+        QueryBudget budget = QueryBudget.current();
+        GremlinExecutor.LifeCycle lifeCycle;
+        lifeCycle = GremlinExecutor.LifeCycle.build()
+                                   .beforeEval(b -> {
+                                       QueryBudget.current(budget);
+                                   })
+                                   .transformResult(result -> {
+                                       Object r = transformer.apply(result);
+                                       this.manager.commitAll();
+                                       return r;
+                                   })
+                                   .afterSuccess(b -> {
+                                       QueryBudget.current(null);
+                                   })
+                                   .afterFailure((b, e) -> {
+                                       QueryBudget.current(null);
+                                       this.manager.rollbackAll();
+                                   })
+                                   .create();
+        try {
+            @SuppressWarnings("unchecked")
+            R result = (R) this.executor.eval(script, language,
+                                              params, lifeCycle).get();
+            return result;
+        } catch (ExecutionException e) {
+            throw this.translate(e.getCause());
+        } catch (InterruptedException e) {
+            throw new HugeException("Interrupted while evaluating gremlin",
+                                    e);
+        }
+    }
+
+    private RuntimeException translate(Throwable e) {
+        if (e instanceof ScriptException &&
+            e.getCause() instanceof TimedInterruptTimeoutException) {
+            e = e.getCause();
+        }
+        if (e instanceof TimeoutException ||
+            e instanceof TimedInterruptTimeoutException) {
+            timeoutMeter.mark();
+            return new HugeException("Timeout to evaluate gremlin: %s",
+                                     e.getMessage());
+        } else if (e instanceof ScriptException ||
+                   e instanceof CompilationFailedException) {
+            return new IllegalArgumentException(e.getMessage(), e);
+        } else if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return new HugeException("Failed to evaluate gremlin", e);
+    }
+}
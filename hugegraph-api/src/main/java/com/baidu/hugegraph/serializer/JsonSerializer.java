@@ -20,6 +20,7 @@
 package com.baidu.hugegraph.serializer;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -247,4 +248,41 @@ public class JsonSerializer implements Serializer {
     public String writeShards(List<Shard> shards) {
         return this.writeList("shards", shards);
     }
+
+    @Override
+    public void writeGremlinResult(String requestId, Iterator<?> results,
+                                   OutputStream out) {
+        // Keep the same format as the response of gremlin server
+        String head = String.format("{\"requestId\":\"%s\",\"status\":" +
+                                    "{\"message\":\"\",\"code\":200," +
+                                    "\"attributes\":{}},\"result\":" +
+                                    "{\"data\":[", requestId);
+        // Write each result once got, the writer closes the stream passed in
+        try (ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+                                            BUF_SIZE)) {
+            out.write(head.getBytes(API.CHARSET));
+            boolean first = true;
+            while (results.hasNext()) {
+                if (!first) {
+                    out.write(",".getBytes(API.CHARSET));
+                } else {
+                    first = false;
+                }
+                buffer.reset();
+                this.writer.writeObject(buffer, results.next());
+                buffer.writeTo(out);
+            }
+            out.write("],\"meta\":{}}}".getBytes(API.CHARSET));
+        } catch (HugeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HugeException("Failed to serialize gremlin results", e);
+        } finally {
+            try {
+                CloseableIterator.closeIterator(results);
+            } catch (Exception e) {
+                throw new HugeException("Failed to close gremlin results", e);
+            }
+        }
+    }
 }
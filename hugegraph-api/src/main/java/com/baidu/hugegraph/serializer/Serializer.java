@@ -19,6 +19,7 @@
 
 package com.baidu.hugegraph.serializer;
 
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -78,4 +79,7 @@ public interface Serializer {
                                    Iterator<Vertex> iterator, boolean withPath);
 
     public String writeShards(List<Shard> shards);
+
+    public void writeGremlinResult(String requestId, Iterator<?> results,
+                                   OutputStream out);
 }
@@ -54,12 +54,13 @@ public class RestServer {
         String url = this.conf.get(ServerOptions.REST_SERVER_URL);
         URI uri = UriBuilder.fromUri(url).build();
 
+        // The admission controller of application depends on it
+        this.calcMaxWriteThreads();
+
         ResourceConfig rc = new ApplicationConfig(this.conf);
 
         this.httpServer = this.configHttpServer(uri, rc);
         this.httpServer.start();
-
-        this.calcMaxWriteThreads();
     }
 
     private HttpServer configHttpServer(URI uri, ResourceConfig rc) {
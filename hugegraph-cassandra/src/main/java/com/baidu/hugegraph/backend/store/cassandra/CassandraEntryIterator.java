@@ -27,6 +27,7 @@ import com.baidu.hugegraph.backend.store.BackendEntry;
 import com.baidu.hugegraph.backend.store.BackendEntryIterator;
 import com.baidu.hugegraph.util.E;
 import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.QueryOptions;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 
@@ -36,6 +37,8 @@ public class CassandraEntryIterator extends BackendEntryIterator {
     private final Iterator<Row> rows;
     private final BiFunction<BackendEntry, Row, BackendEntry> merger;
 
+    private final int prefetchThreshold;
+
     private long remaining;
     private BackendEntry next;
 
@@ -47,6 +50,7 @@ public class CassandraEntryIterator extends BackendEntryIterator {
         this.remaining = results.getAvailableWithoutFetching();
         this.merger = merger;
         this.next = null;
+        this.prefetchThreshold = this.prefetchThreshold();
 
         this.skipOffset();
 
@@ -75,6 +79,7 @@ public class CassandraEntryIterator extends BackendEntryIterator {
                 this.remaining--;
             }
             Row row = this.rows.next();
+            this.prefetch();
             BackendEntry merged = this.merger.apply(this.current, row);
             if (this.current == null) {
                 // The first time to read
@@ -92,6 +97,35 @@ public class CassandraEntryIterator extends BackendEntryIterator {
         return this.current != null;
     }
 
+    /**
+     * Fetch the next page asynchronously when half of the current page has
+     * been read, to overlap the fetching with decoding the rest rows
+     */
+    private void prefetch() {
+        if (this.prefetchThreshold < 0 || this.results.isFullyFetched()) {
+            return;
+        }
+        if (this.results.getAvailableWithoutFetching() <=
+            this.prefetchThreshold) {
+            // Return the fetching future if it's fetching
+            this.results.fetchMoreResults();
+        }
+    }
+
+    private int prefetchThreshold() {
+        if (this.query.paging() || this.results.isFullyFetched()) {
+            // Read just one page if paging, -1 means never prefetch
+            return -1;
+        }
+        // All pages are fetched by the same statement, get its fetch size once
+        int fetchSize = this.results.getExecutionInfo().getStatement()
+                                    .getFetchSize();
+        if (fetchSize <= 0) {
+            fetchSize = QueryOptions.DEFAULT_FETCH_SIZE;
+        }
+        return fetchSize / 2;
+    }
+
     @Override
     protected final long sizeOf(BackendEntry entry) {
         CassandraBackendEntry e = (CassandraBackendEntry) entry;
@@ -75,6 +75,11 @@ public class CassandraFeatures implements BackendFeatures {
         return true;
     }
 
+    @Override
+    public boolean supportsQueryIndexByPage() {
+        return true;
+    }
+
     @Override
     public boolean supportsDeleteEdgeByLabel() {
         return true;
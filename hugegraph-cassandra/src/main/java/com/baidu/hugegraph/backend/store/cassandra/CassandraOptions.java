@@ -112,6 +112,82 @@ public class CassandraOptions extends OptionHolder {
                     "none"
             );
 
+    public static final ConfigOption<Integer> CASSANDRA_PREPARED_CACHE_SIZE =
+            new ConfigOption<>(
+                    "cassandra.prepared_statement_cache_size",
+                    "The max number of prepared statements cached for " +
+                    "queries, 0 means executing queries without preparing.",
+                    rangeInt(0, 100000),
+                    1000
+            );
+
+    public static final ConfigOption<Integer> CASSANDRA_MAX_INFLIGHT_QUERIES =
+            new ConfigOption<>(
+                    "cassandra.max_inflight_queries",
+                    "The max number of selects of a query executed " +
+                    "asynchronously at the same time, 1 means executing " +
+                    "them one by one.",
+                    rangeInt(1, 1024),
+                    32
+            );
+
+    public static final ConfigOption<Integer> CASSANDRA_FETCH_SIZE =
+            new ConfigOption<>(
+                    "cassandra.fetch_size",
+                    "The number of rows fetched per page when iterating " +
+                    "the results of a query.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    5000
+            );
+
+    public static final ConfigOption<Integer> CASSANDRA_EDGE_FETCH_SIZE =
+            new ConfigOption<>(
+                    "cassandra.edge_fetch_size",
+                    "The number of rows fetched per page when querying " +
+                    "edges, 0 means using cassandra.fetch_size.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    0
+            );
+
+    public static final ConfigOption<Integer> CASSANDRA_INDEX_FETCH_SIZE =
+            new ConfigOption<>(
+                    "cassandra.index_fetch_size",
+                    "The number of rows fetched per page when querying " +
+                    "indexes, 0 means using cassandra.fetch_size.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    0
+            );
+
+    public static final ConfigOption<String> CASSANDRA_COMMIT_STRATEGY =
+            new ConfigOption<>(
+                    "cassandra.commit_strategy",
+                    "The strategy to commit mutations: logged(one logged " +
+                    "batch of all statements) or partition(unlogged batches " +
+                    "grouped by partition key and executed concurrently, " +
+                    "the failed batches are committed again in a logged " +
+                    "batch, but the others may have been committed).",
+                    allowValues("logged", "partition"),
+                    "logged"
+            );
+
+    public static final ConfigOption<Integer> CASSANDRA_COMMIT_PARALLELISM =
+            new ConfigOption<>(
+                    "cassandra.commit_parallelism",
+                    "The max number of partition batches executed at the " +
+                    "same time when committing with partition strategy.",
+                    rangeInt(1, 1024),
+                    16
+            );
+
+    public static final ConfigOption<Integer> CASSANDRA_COMMIT_RETRIES =
+            new ConfigOption<>(
+                    "cassandra.commit_retries",
+                    "The max retry times of a failed partition batch when " +
+                    "committing with partition strategy.",
+                    rangeInt(0, 10),
+                    3
+            );
+
     public static final ConfigOption<Integer> CASSANDRA_JMX_PORT =
             new ConfigOption<>(
                     "cassandra.jmx_port",
@@ -19,37 +19,83 @@
 
 package com.baidu.hugegraph.backend.store.cassandra;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
 
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.store.BackendSession;
 import com.baidu.hugegraph.backend.store.BackendSessionPool;
 import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.Log;
 import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Cluster.Builder;
+import com.datastax.driver.core.CodecRegistry;
 import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ProtocolOptions.Compression;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.QueryOptions;
+import com.datastax.driver.core.RegularStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.SocketOptions;
 import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.DriverException;
 import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.datastax.driver.core.exceptions.QueryValidationException;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 public class CassandraSessionPool extends BackendSessionPool {
 
+    private static final Logger LOG = Log.logger(CassandraSessionPool.class);
+
     private static final int SECOND = 1000;
 
     private Cluster cluster;
     private String keyspace;
+    /*
+     * Prepared statements shared by all sessions, keyed by the query string
+     * with bind markers, so statements of the same shape are prepared once
+     */
+    private Cache<String, PreparedStatement> preparedStatements;
+    private int maxInflightQueries;
+    private int fetchSize;
+    private int edgeFetchSize;
+    private int indexFetchSize;
+    private boolean commitByPartition;
+    private int commitParallelism;
+    private int commitRetries;
 
     public CassandraSessionPool(String keyspace, String store) {
         super(keyspace + "/" + store);
         this.cluster = null;
         this.keyspace = keyspace;
+        this.preparedStatements = null;
+        this.maxInflightQueries = 1;
+        this.fetchSize = QueryOptions.DEFAULT_FETCH_SIZE;
+        this.edgeFetchSize = 0;
+        this.indexFetchSize = 0;
+        this.commitByPartition = false;
+        this.commitParallelism = 1;
+        this.commitRetries = 0;
     }
 
     @Override
@@ -78,6 +124,14 @@ public class CassandraSessionPool extends BackendSessionPool {
 
         builder.withSocketOptions(socketOptions);
 
+        /*
+         * Load balancing options: the bound statements carry the routing
+         * key of their partition, send them to a replica of the partition
+         */
+        builder.withLoadBalancingPolicy(new TokenAwarePolicy(
+                                        DCAwareRoundRobinPolicy.builder()
+                                                               .build()));
+
         // Credential options
         String username = config.get(CassandraOptions.CASSANDRA_USERNAME);
         String password = config.get(CassandraOptions.CASSANDRA_PASSWORD);
@@ -89,6 +143,37 @@ public class CassandraSessionPool extends BackendSessionPool {
         String compression = config.get(CassandraOptions.CASSANDRA_COMPRESSION);
         builder.withCompression(Compression.valueOf(compression.toUpperCase()));
 
+        // Fetch size options, 0 of edge/index means the default fetch size
+        this.fetchSize = config.get(CassandraOptions.CASSANDRA_FETCH_SIZE);
+        builder.withQueryOptions(new QueryOptions()
+                                 .setFetchSize(this.fetchSize));
+        this.edgeFetchSize = config.get(
+                             CassandraOptions.CASSANDRA_EDGE_FETCH_SIZE);
+        this.indexFetchSize = config.get(
+                              CassandraOptions.CASSANDRA_INDEX_FETCH_SIZE);
+
+        // Query execution options
+        int cacheSize = config.get(
+                        CassandraOptions.CASSANDRA_PREPARED_CACHE_SIZE);
+        if (cacheSize > 0) {
+            this.preparedStatements = CacheBuilder.newBuilder()
+                                                  .maximumSize(cacheSize)
+                                                  .build();
+        } else {
+            this.preparedStatements = null;
+        }
+        this.maxInflightQueries = config.get(
+                        CassandraOptions.CASSANDRA_MAX_INFLIGHT_QUERIES);
+
+        // Commit options
+        String strategy = config.get(
+                          CassandraOptions.CASSANDRA_COMMIT_STRATEGY);
+        this.commitByPartition = strategy.equals("partition");
+        this.commitParallelism = config.get(
+                        CassandraOptions.CASSANDRA_COMMIT_PARALLELISM);
+        this.commitRetries = config.get(
+                        CassandraOptions.CASSANDRA_COMMIT_RETRIES);
+
         this.cluster = builder.build();
     }
 
@@ -117,6 +202,9 @@ public class CassandraSessionPool extends BackendSessionPool {
 
     @Override
     protected synchronized void doClose() {
+        if (this.preparedStatements != null) {
+            this.preparedStatements.invalidateAll();
+        }
         if (this.cluster != null && !this.cluster.isClosed()) {
             this.cluster.close();
         }
@@ -146,29 +234,143 @@ public class CassandraSessionPool extends BackendSessionPool {
 
         private com.datastax.driver.core.Session session;
         private BatchStatement batch;
+        // The partition of each statement in batch, null if unknown
+        private List<Object> partitions;
 
         public Session() {
             this.session = null;
             this.batch = new BatchStatement(); // LOGGED
+            this.partitions = new ArrayList<>();
         }
 
         public BatchStatement add(Statement statement) {
+            return this.add(statement, null);
+        }
+
+        /**
+         * Add a statement with the partition it writes to, statements of
+         * the same partition may be committed in one unlogged batch
+         * @param statement the statement to add
+         * @param partition the partition key(with table), null if unknown
+         * @return the batch of this session
+         */
+        public BatchStatement add(Statement statement, Object partition) {
+            this.partitions.add(partition);
             return this.batch.add(statement);
         }
 
         @Override
         public void rollback() {
             this.batch.clear();
+            this.partitions.clear();
         }
 
+        /**
+         * Commit statements in one logged batch, or in unlogged batches
+         * grouped by partition if enabled and the partition of all
+         * statements are known (result set is null in this case)
+         */
         @Override
         public ResultSet commit() {
-            ResultSet rs = this.session.execute(this.batch);
+            ResultSet rs = null;
+            if (CassandraSessionPool.this.commitByPartition &&
+                !this.partitions.contains(null)) {
+                this.commitByPartition();
+            } else {
+                rs = this.session.execute(this.batch);
+            }
             // Clear batch if execute() successfully (retained if failed)
             this.batch.clear();
+            this.partitions.clear();
             return rs;
         }
 
+        private void commitByPartition() {
+            Map<Object, BatchStatement> groups = new LinkedHashMap<>();
+            int i = 0;
+            for (Statement statement : this.batch.getStatements()) {
+                Object partition = this.partitions.get(i++);
+                groups.computeIfAbsent(partition, k -> {
+                    return new BatchStatement(BatchStatement.Type.UNLOGGED);
+                }).add(statement);
+            }
+
+            List<Statement> batches = new ArrayList<>(groups.size());
+            for (BatchStatement group : groups.values()) {
+                if (group.size() == 1) {
+                    batches.add(group.getStatements().iterator().next());
+                } else {
+                    batches.add(group);
+                }
+            }
+
+            int parallelism = CassandraSessionPool.this.commitParallelism;
+            List<ResultSetFuture> futures = new ArrayList<>(batches.size());
+            List<Statement> unapplied = new ArrayList<>();
+            int sent = 0;
+            int waited = 0;
+            // Stop sending new batches once a batch failed
+            while (sent < batches.size() && unapplied.isEmpty()) {
+                if (sent - waited >= parallelism) {
+                    // Wait for the earliest batch before sending a new one
+                    this.waitFor(batches.get(waited), futures.get(waited),
+                                 unapplied);
+                    waited++;
+                    continue;
+                }
+                futures.add(this.session.executeAsync(batches.get(sent++)));
+            }
+            // Wait for the batches in flight
+            for (; waited < sent; waited++) {
+                this.waitFor(batches.get(waited), futures.get(waited),
+                             unapplied);
+            }
+            if (unapplied.isEmpty()) {
+                return;
+            }
+
+            /*
+             * Some partitions have been committed, commit the failed and
+             * not sent batches in one logged batch, so that they are applied
+             * all or nothing, the batch of the session is retained if failed
+             * and re-applying the committed ones is idempotent
+             */
+            unapplied.addAll(batches.subList(sent, batches.size()));
+            LOG.warn("Failed to commit {} of {} partition batches, " +
+                     "commit them in a logged batch", unapplied.size(),
+                     batches.size());
+            BatchStatement logged = new BatchStatement();
+            for (Statement statement : unapplied) {
+                // The statements of a batch statement are added one by one
+                logged.add(statement);
+            }
+            this.session.execute(logged);
+        }
+
+        private void waitFor(Statement statement, ResultSetFuture future,
+                             List<Statement> unapplied) {
+            int retries = CassandraSessionPool.this.commitRetries;
+            for (int retried = 0;; retried++) {
+                try {
+                    future.getUninterruptibly();
+                    return;
+                } catch (QueryValidationException e) {
+                    // Retry is meaningless for an invalid statement
+                    throw e;
+                } catch (DriverException e) {
+                    if (retried >= retries) {
+                        LOG.warn("Failed to commit partition batch " +
+                                 "due to: {}", e.getMessage());
+                        unapplied.add(statement);
+                        return;
+                    }
+                    LOG.warn("Retry({}) to commit partition batch " +
+                             "due to: {}", retried + 1, e.getMessage());
+                    future = this.session.executeAsync(statement);
+                }
+            }
+        }
+
         public void commitAsync() {
             Collection<Statement> statements = this.batch.getStatements();
 
@@ -191,6 +393,7 @@ public class CassandraSessionPool extends BackendSessionPool {
 
             // Clear batch if execute() successfully (retained if failed)
             this.batch.clear();
+            this.partitions.clear();
         }
 
         public ResultSet query(Statement statement) {
@@ -198,6 +401,119 @@ public class CassandraSessionPool extends BackendSessionPool {
             return this.execute(statement);
         }
 
+        /**
+         * Get the fetch size of a query for the specified type
+         */
+        public int fetchSize(HugeType type) {
+            CassandraSessionPool pool = CassandraSessionPool.this;
+            int fetchSize = 0;
+            if (type.isEdge()) {
+                fetchSize = pool.edgeFetchSize;
+            } else if (type.isIndex()) {
+                fetchSize = pool.indexFetchSize;
+            }
+            return fetchSize > 0 ? fetchSize : pool.fetchSize;
+        }
+
+        /**
+         * Execute the statements asynchronously, at most max-inflight-queries
+         * of them are sent at the same time, the results are returned in
+         * the order of the statements and fetched lazily by the iterator
+         */
+        public Iterator<ResultSet> query(List<? extends Statement> statements) {
+            assert !this.hasChanges();
+            int window = CassandraSessionPool.this.maxInflightQueries;
+            return new Iterator<ResultSet>() {
+
+                private final Iterator<? extends Statement> pending =
+                                                   statements.iterator();
+                private final LinkedList<ResultSetFuture> inflight =
+                                                   new LinkedList<>();
+
+                private void fill() {
+                    while (this.inflight.size() < window &&
+                           this.pending.hasNext()) {
+                        Statement statement = this.pending.next();
+                        this.inflight.add(session.executeAsync(statement));
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    this.fill();
+                    return !this.inflight.isEmpty();
+                }
+
+                @Override
+                public ResultSet next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    ResultSetFuture future = this.inflight.removeFirst();
+                    try {
+                        return future.getUninterruptibly();
+                    } catch (RuntimeException e) {
+                        this.inflight.forEach(f -> f.cancel(true));
+                        this.inflight.clear();
+                        if (e instanceof DriverException) {
+                            /*
+                             * The iterator is consumed out of the try-catch
+                             * of the query, so wrap the driver error here
+                             */
+                            throw new BackendException(
+                                      "Failed to execute async query", e);
+                        }
+                        throw e;
+                    }
+                }
+            };
+        }
+
+        /**
+         * Convert a regular statement to a bound statement of the prepared
+         * statement with the same query string, the statement is returned
+         * as it is if the prepared statement cache is disabled or it has no
+         * values to bind
+         */
+        public Statement prepare(RegularStatement statement) {
+            Cache<String, PreparedStatement> cache;
+            cache = CassandraSessionPool.this.preparedStatements;
+            if (cache == null) {
+                return statement;
+            }
+
+            Cluster cluster = cluster();
+            CodecRegistry codecs = cluster.getConfiguration()
+                                          .getCodecRegistry();
+            if (!statement.hasValues(codecs)) {
+                return statement;
+            }
+            ProtocolVersion version = cluster.getConfiguration()
+                                             .getProtocolOptions()
+                                             .getProtocolVersion();
+            String cql = statement.getQueryString(codecs);
+            ByteBuffer[] values = statement.getValues(version, codecs);
+
+            PreparedStatement prepared;
+            try {
+                prepared = cache.get(cql, () -> this.session.prepare(cql));
+            } catch (ExecutionException | UncheckedExecutionException e) {
+                // The driver exceptions are wrapped as unchecked by the cache
+                throw new BackendException("Failed to prepare statement '%s'",
+                                           e.getCause(), cql);
+            }
+
+            BoundStatement bound = prepared.bind();
+            for (int i = 0; i < values.length; i++) {
+                bound.setBytesUnsafe(i, values[i]);
+            }
+            bound.setFetchSize(statement.getFetchSize());
+            if (statement.getConsistencyLevel() != null) {
+                bound.setConsistencyLevel(statement.getConsistencyLevel());
+            }
+            return bound;
+        }
+
         public ResultSet execute(Statement statement) {
             return this.session.execute(statement);
         }
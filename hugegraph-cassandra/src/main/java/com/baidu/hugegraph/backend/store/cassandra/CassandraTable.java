@@ -21,6 +21,7 @@ package com.baidu.hugegraph.backend.store.cassandra;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -44,6 +45,7 @@ import com.baidu.hugegraph.backend.store.BackendTable;
 import com.baidu.hugegraph.backend.store.Shard;
 import com.baidu.hugegraph.exception.NotFoundException;
 import com.baidu.hugegraph.iterator.ExtendableIterator;
+import com.baidu.hugegraph.iterator.FlatMapperIterator;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.HugeKeys;
 import com.baidu.hugegraph.util.CopyUtil;
@@ -54,6 +56,7 @@ import com.datastax.driver.core.DataType;
 import com.datastax.driver.core.PagingState;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.exceptions.DriverException;
 import com.datastax.driver.core.exceptions.PagingStateException;
 import com.datastax.driver.core.querybuilder.Clause;
@@ -104,10 +107,33 @@ public abstract class CassandraTable
         }
 
         List<Select> selections = this.query2Select(this.table(), query);
-        try {
+        int fetchSize = session.fetchSize(query.resultType());
+        if (!query.paging()) {
             for (Select selection : selections) {
-                ResultSet results = session.query(selection);
+                selection.setFetchSize(fetchSize);
+            }
+        }
+        try {
+            if (query.paging()) {
+                // The paging state can't be copied to a bound statement
+                for (Select selection : selections) {
+                    ResultSet results = session.query(selection);
+                    rs.extend(this.results2Entries(query, results));
+                }
+            } else if (selections.size() == 1) {
+                Statement statement = session.prepare(selections.get(0));
+                ResultSet results = session.query(statement);
                 rs.extend(this.results2Entries(query, results));
+            } else {
+                // Execute multi selections asynchronously, like by multi ids
+                List<Statement> statements = new ArrayList<>(
+                                                 selections.size());
+                for (Select selection : selections) {
+                    statements.add(session.prepare(selection));
+                }
+                rs.extend(new FlatMapperIterator<>(
+                          session.query(statements),
+                          results -> this.results2Entries(query, results)));
             }
         } catch (DriverException e) {
             throw new BackendException("Failed to query [%s]", e, query);
@@ -364,6 +390,34 @@ public abstract class CassandraTable
         return ImmutableList.of(HugeKeys.ID);
     }
 
+    /**
+     * Get the partition of a row to be written, which is used to group
+     * statements of the same partition into one batch when committing
+     * @param columns the columns of the row
+     * @return the partition, null if any partition key column is unknown
+     */
+    protected Object partition(Map<HugeKeys, Object> columns) {
+        List<HugeKeys> pkNames = this.pkColumnName();
+        Object[] pkValues = new Object[pkNames.size()];
+        for (int i = 0; i < pkValues.length; i++) {
+            pkValues[i] = columns.get(pkNames.get(i));
+            if (pkValues[i] == null) {
+                return null;
+            }
+        }
+        return partition(this.table(), pkValues);
+    }
+
+    public static final Object partition(String table, Object... pkValues) {
+        List<Object> partition = new ArrayList<>(pkValues.length + 1);
+        partition.add(table);
+        for (Object value : pkValues) {
+            // Values of the same key may be in different types(like int/long)
+            partition.add(String.valueOf(value));
+        }
+        return partition;
+    }
+
     protected List<Object> idColumnValue(Id id) {
         return ImmutableList.of(id.asObject());
     }
@@ -406,7 +460,7 @@ public abstract class CassandraTable
             insert.value(formatKey(c.getKey()), c.getValue());
         }
 
-        session.add(insert);
+        session.add(insert, this.partition(entry.columns()));
     }
 
     /**
@@ -445,7 +499,7 @@ public abstract class CassandraTable
             update.where(formatEQ(idName, columns.get(idName)));
         }
 
-        session.add(update);
+        session.add(update, this.partition(columns));
     }
 
     /**
@@ -497,7 +551,7 @@ public abstract class CassandraTable
             update.where(formatEQ(idName, columns.get(idName)));
         }
 
-        session.add(update);
+        session.add(update, this.partition(columns));
     }
 
     /**
@@ -508,14 +562,17 @@ public abstract class CassandraTable
                        CassandraBackendEntry.Row entry) {
         List<HugeKeys> idNames = this.idColumnName();
         Delete delete = QueryBuilder.delete().from(this.table());
+        Map<HugeKeys, Object> columns = entry.columns();
 
-        if (entry.columns().isEmpty()) {
+        if (columns.isEmpty()) {
             // Delete just by id
             List<Long> idValues = this.idColumnValue(entry);
             assert idNames.size() == idValues.size();
 
+            columns = new HashMap<>();
             for (int i = 0, n = idNames.size(); i < n; i++) {
                 delete.where(formatEQ(idNames.get(i), idValues.get(i)));
+                columns.put(idNames.get(i), idValues.get(i));
             }
         } else {
             // Delete just by column keys(must be id columns)
@@ -529,7 +586,7 @@ public abstract class CassandraTable
              */
         }
 
-        session.add(delete);
+        session.add(delete, this.partition(columns));
     }
 
     protected void createTable(CassandraSessionPool.Session session,
@@ -272,7 +272,7 @@ public class CassandraTables {
                                             properties));
             update.where(formatEQ(HugeKeys.ID, id));
 
-            session.add(update);
+            session.add(update, this.partition(columns));
         }
     }
 
@@ -414,11 +414,15 @@ public class CassandraTables {
                 Row row = it.next();
                 // Delete OUT edges from edges_out table
                 String ownerVertex = row.get(OWNER_VERTEX, String.class);
-                session.add(buildDelete(label, ownerVertex, Directions.OUT));
+                session.add(buildDelete(label, ownerVertex, Directions.OUT),
+                            partition(edgesTable(Directions.OUT),
+                                      ownerVertex));
 
                 // Delete IN edges from edges_in table
                 String otherVertex = row.get(OTHER_VERTEX, String.class);
-                session.add(buildDelete(label, otherVertex, Directions.IN));
+                session.add(buildDelete(label, otherVertex, Directions.IN),
+                            partition(edgesTable(Directions.IN),
+                                      otherVertex));
 
                 count += 2;
                 if (count > COMMIT_DELETE_BATCH - 2) {
@@ -517,6 +521,11 @@ public class CassandraTables {
             this.createTable(session, pkeys, ckeys, columns);
         }
 
+        @Override
+        protected List<HugeKeys> pkColumnName() {
+            return ImmutableList.of(HugeKeys.FIELD_VALUES);
+        }
+
         @Override
         protected List<HugeKeys> idColumnName() {
             return ImmutableList.of(HugeKeys.FIELD_VALUES,
@@ -564,7 +573,7 @@ public class CassandraTables {
                 Delete delete = QueryBuilder.delete().from(this.table());
                 delete.where(formatEQ(HugeKeys.INDEX_LABEL_ID, indexLabel));
                 delete.where(formatEQ(HugeKeys.FIELD_VALUES, fieldValues));
-                session.add(delete);
+                session.add(delete, partition(this.table(), fieldValues));
 
                 if (++count >= COMMIT_DELETE_BATCH) {
                     session.commit();
@@ -626,6 +635,11 @@ public class CassandraTables {
             this.createTable(session, pkeys, ckeys, columns);
         }
 
+        @Override
+        protected List<HugeKeys> pkColumnName() {
+            return ImmutableList.of(HugeKeys.INDEX_LABEL_ID);
+        }
+
         @Override
         protected List<HugeKeys> idColumnName() {
             return ImmutableList.of(HugeKeys.INDEX_LABEL_ID,
@@ -655,7 +669,7 @@ public class CassandraTables {
 
             Delete delete = QueryBuilder.delete().from(this.table());
             delete.where(formatEQ(HugeKeys.INDEX_LABEL_ID, indexLabel));
-            session.add(delete);
+            session.add(delete, partition(this.table(), indexLabel));
         }
 
         @Override
@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -51,6 +53,7 @@ import com.baidu.hugegraph.backend.store.BackendStore;
 import com.baidu.hugegraph.backend.store.BackendStoreProvider;
 import com.baidu.hugegraph.backend.tx.GraphTransaction;
 import com.baidu.hugegraph.backend.tx.SchemaTransaction;
+import com.baidu.hugegraph.backend.tx.ShardScanner;
 import com.baidu.hugegraph.config.CoreOptions;
 import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.event.EventHub;
@@ -70,6 +73,7 @@ import com.baidu.hugegraph.type.define.GraphMode;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.LockUtil;
 import com.baidu.hugegraph.util.Log;
+import com.baidu.hugegraph.util.SchemaEpoch;
 import com.baidu.hugegraph.variables.HugeVariables;
 import com.google.common.util.concurrent.RateLimiter;
 
@@ -107,6 +111,8 @@ public class HugeGraph implements GremlinGraph {
     private final EventHub indexEventHub;
     private final RateLimiter rateLimiter;
     private final TaskManager taskManager;
+    private final SchemaEpoch schemaEpoch;
+    private final ThreadPoolExecutor scanExecutor;
 
     private final HugeFeatures features;
 
@@ -133,6 +139,10 @@ public class HugeGraph implements GremlinGraph {
         this.mode = GraphMode.NONE;
 
         LockUtil.init(this.name);
+        this.schemaEpoch = new SchemaEpoch(this.name);
+        this.scanExecutor = ShardScanner.newExecutor(
+                            this.name,
+                            configuration.get(CoreOptions.SCAN_WORKERS));
 
         try {
             this.storeProvider = this.loadStoreProvider();
@@ -193,6 +203,10 @@ public class HugeGraph implements GremlinGraph {
         return this.rateLimiter;
     }
 
+    public ExecutorService scanExecutor() {
+        return this.scanExecutor;
+    }
+
     @Override
     public void initBackend() {
         this.loadSchemaStore().open(this.configuration);
@@ -238,6 +252,20 @@ public class HugeGraph implements GremlinGraph {
         LOG.info("Graph '{}' has been truncated", this.name);
     }
 
+    public void createSnapshot(String snapshotName) {
+        this.storeProvider.createSnapshot(snapshotName);
+
+        LOG.info("Graph '{}' has created snapshot '{}'",
+                 this.name, snapshotName);
+    }
+
+    public void restoreSnapshot(String snapshotName) {
+        this.storeProvider.restoreSnapshot(snapshotName);
+
+        LOG.info("Graph '{}' has restored snapshot '{}'",
+                 this.name, snapshotName);
+    }
+
     private void waitUntilAllTasksCompleted() {
         long timeout = this.configuration.get(CoreOptions.TASK_WAIT_TIMEOUT);
         try {
@@ -342,6 +370,10 @@ public class HugeGraph implements GremlinGraph {
         return AnalyzerFactory.analyzer(name, mode);
     }
 
+    public SchemaEpoch schemaEpoch() {
+        return this.schemaEpoch;
+    }
+
     public TaskScheduler taskScheduler() {
         TaskScheduler scheduler = this.taskManager.getScheduler(this);
         E.checkState(scheduler != null,
@@ -465,6 +497,7 @@ public class HugeGraph implements GremlinGraph {
             this.closeTx();
         } finally {
             this.closed = true;
+            this.scanExecutor.shutdown();
             this.storeProvider.close();
             LockUtil.destroy(this.name);
         }
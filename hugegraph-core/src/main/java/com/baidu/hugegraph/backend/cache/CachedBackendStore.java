@@ -111,6 +111,16 @@ public class CachedBackendStore implements BackendStore {
         return this.store.features();
     }
 
+    @Override
+    public void createSnapshot(String snapshotName) {
+        this.store.createSnapshot(snapshotName);
+    }
+
+    @Override
+    public void restoreSnapshot(String snapshotName) {
+        this.store.restoreSnapshot(snapshotName);
+    }
+
     @Override
     public Id nextId(HugeType type) {
         return this.store.nextId(type);
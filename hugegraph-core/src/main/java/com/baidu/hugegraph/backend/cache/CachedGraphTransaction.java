@@ -34,10 +34,12 @@ import com.baidu.hugegraph.backend.store.BackendStore;
 import com.baidu.hugegraph.backend.tx.GraphTransaction;
 import com.baidu.hugegraph.config.CoreOptions;
 import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.event.EventListener;
 import com.baidu.hugegraph.schema.IndexLabel;
 import com.baidu.hugegraph.structure.HugeEdge;
 import com.baidu.hugegraph.structure.HugeVertex;
 import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.util.Events;
 import com.google.common.collect.ImmutableList;
 
 public final class CachedGraphTransaction extends GraphTransaction {
@@ -47,6 +49,8 @@ public final class CachedGraphTransaction extends GraphTransaction {
     private final Cache verticesCache;
     private final Cache edgesCache;
 
+    private EventListener storeEventListener;
+
     public CachedGraphTransaction(HugeGraph graph, BackendStore store) {
         super(graph, store);
 
@@ -59,6 +63,36 @@ public final class CachedGraphTransaction extends GraphTransaction {
         capacity = conf.get(CoreOptions.EDGE_CACHE_CAPACITY);
         expire = conf.get(CoreOptions.EDGE_CACHE_EXPIRE);
         this.edgesCache = this.cache("edge", capacity, expire);
+
+        this.listenChanges();
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            this.unlistenChanges();
+        }
+    }
+
+    private void listenChanges() {
+        // Listen store event: "store.restored"
+        this.storeEventListener = event -> {
+            if (event.name().equals(Events.STORE_RESTORED)) {
+                LOG.debug("Graph {} clear cache on event '{}'",
+                          this.graph(), event.name());
+                this.verticesCache.clear();
+                this.edgesCache.clear();
+                return true;
+            }
+            return false;
+        };
+        this.store().provider().listen(this.storeEventListener);
+    }
+
+    private void unlistenChanges() {
+        this.store().provider().unlisten(this.storeEventListener);
     }
 
     private Cache cache(String prefix, int capacity, long expire) {
@@ -82,7 +82,8 @@ public final class CachedSchemaTransaction extends SchemaTransaction {
         // Listen store event: "store.init", "store.clear", ...
         Set<String> storeEvents = ImmutableSet.of(Events.STORE_INIT,
                                                   Events.STORE_CLEAR,
-                                                  Events.STORE_TRUNCATE);
+                                                  Events.STORE_TRUNCATE,
+                                                  Events.STORE_RESTORED);
         this.storeEventListener = event -> {
             if (storeEvents.contains(event.name())) {
                 LOG.debug("Graph {} clear cache on event '{}'",
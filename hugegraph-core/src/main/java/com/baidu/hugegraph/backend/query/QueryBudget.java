@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.query;
+
+import com.baidu.hugegraph.exception.LimitExceedException;
+
+/**
+ * The deadline and the cost budgets of the queries executed by a request or
+ * a job, which is bound to the executing thread like the default capacity
+ * of Query. The backend iterators, index queries and traversers consume the
+ * budget and stop with LimitExceedException once the deadline is passed,
+ * any budget is exhausted, or the budget is cancelled.
+ */
+public final class QueryBudget {
+
+    public static final long NO_LIMIT = 0L;
+
+    // Check the deadline and the cancellation once every so many consumes
+    private static final int CHECK_INTERVAL = 64;
+
+    private static final ThreadLocal<QueryBudget> context =
+                                                  new ThreadLocal<>();
+
+    private final long start;
+    private final long deadline;
+    private final long maxRows;
+    private final long maxBytes;
+    private final long maxElements;
+
+    private volatile boolean cancelled;
+
+    // Only updated by the thread bound to
+    private long rows;
+    private long bytes;
+    private long elements;
+    private int consumes;
+
+    /**
+     * @param timeout     the timeout in milliseconds, 0 means no timeout
+     * @param maxRows     the max rows scanned from backend, 0 means no limit
+     * @param maxBytes    the max bytes read from backend, 0 means no limit
+     * @param maxElements the max vertices/edges visited, 0 means no limit
+     */
+    public QueryBudget(long timeout, long maxRows,
+                       long maxBytes, long maxElements) {
+        this.start = System.currentTimeMillis();
+        this.deadline = timeout > 0L ? this.start + timeout : NO_LIMIT;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.maxElements = maxElements;
+        this.cancelled = false;
+        this.rows = 0L;
+        this.bytes = 0L;
+        this.elements = 0L;
+        this.consumes = 0;
+    }
+
+    public static QueryBudget unlimited() {
+        return new QueryBudget(NO_LIMIT, NO_LIMIT, NO_LIMIT, NO_LIMIT);
+    }
+
+    /**
+     * Bind the budget to current thread, return the previous one
+     */
+    public static QueryBudget current(QueryBudget budget) {
+        QueryBudget old = context.get();
+        if (budget == null) {
+            context.remove();
+        } else {
+            context.set(budget);
+        }
+        return old;
+    }
+
+    public static QueryBudget current() {
+        return context.get();
+    }
+
+    public long rows() {
+        return this.rows;
+    }
+
+    public long bytes() {
+        return this.bytes;
+    }
+
+    public long elements() {
+        return this.elements;
+    }
+
+    public long elapsed() {
+        return System.currentTimeMillis() - this.start;
+    }
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public void consumeRows(long rows, long bytes) {
+        this.rows += rows;
+        this.bytes += bytes;
+        this.checkConsumed();
+    }
+
+    public void consumeElements(long elements) {
+        this.elements += elements;
+        this.checkConsumed();
+    }
+
+    public void check() throws LimitExceedException {
+        this.checkAlive();
+        this.checkCosts();
+    }
+
+    private void checkConsumed() {
+        if (++this.consumes % CHECK_INTERVAL == 0) {
+            this.checkAlive();
+        }
+        this.checkCosts();
+    }
+
+    private void checkAlive() {
+        if (this.cancelled || Thread.currentThread().isInterrupted()) {
+            throw new LimitExceedException("The query has been cancelled");
+        }
+        if (this.deadline != NO_LIMIT &&
+            System.currentTimeMillis() > this.deadline) {
+            throw new LimitExceedException(
+                      "The query has timed out after %sms", this.elapsed());
+        }
+    }
+
+    private void checkCosts() {
+        checkBudget("rows scanned", this.rows, this.maxRows);
+        checkBudget("bytes read", this.bytes, this.maxBytes);
+        checkBudget("elements visited", this.elements, this.maxElements);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QueryBudget{rows=%s, bytes=%s, elements=%s, " +
+                             "elapsed=%sms}", this.rows, this.bytes,
+                             this.elements, this.elapsed());
+    }
+
+    private static void checkBudget(String name, long cost, long budget) {
+        if (budget != NO_LIMIT && cost > budget) {
+            throw new LimitExceedException(
+                      "The %s(%s) of the query has exceeded the budget %s",
+                      name, cost, budget);
+        }
+    }
+}
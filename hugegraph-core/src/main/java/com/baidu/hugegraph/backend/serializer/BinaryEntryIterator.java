@@ -25,6 +25,7 @@ import java.util.function.BiFunction;
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.store.BackendEntry;
+import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumn;
 import com.baidu.hugegraph.backend.store.BackendEntry.BackendIterator;
 import com.baidu.hugegraph.backend.store.BackendEntryIterator;
 import com.baidu.hugegraph.util.Bytes;
@@ -109,6 +110,15 @@ public class BinaryEntryIterator<Elem> extends BackendEntryIterator {
         return 1L;
     }
 
+    @Override
+    protected final long sizeInBytes(BackendEntry entry) {
+        long size = 0L;
+        for (BackendColumn column : ((BinaryBackendEntry) entry).columns()) {
+            size += column.name.length + column.value.length;
+        }
+        return size;
+    }
+
     @Override
     protected final long skip(BackendEntry entry, long skip) {
         BinaryBackendEntry e = (BinaryBackendEntry) entry;
@@ -645,7 +645,11 @@ public class BinarySerializer extends AbstractSerializer {
         Id id = formatIndexId(query.resultType(), index, key);
         IdQuery idQuery = new IdQuery(query, id);
         idQuery.limit(query.limit());
-        idQuery.offset(query.offset());
+        if (query.paging()) {
+            idQuery.page(query.page());
+        } else {
+            idQuery.offset(query.offset());
+        }
         return idQuery;
     }
 
@@ -44,6 +44,8 @@ public abstract class AbstractBackendStoreProvider
 
     protected Map<String, BackendStore> stores = null;
 
+    private volatile String systemStore = null;
+
     protected final void notifyAndWaitEvent(String event) {
         Future<?> future = this.storeEventHub.notify(event, this);
         try {
@@ -140,6 +142,36 @@ public abstract class AbstractBackendStoreProvider
         LOG.debug("Graph '{}' system info has been initialized", this.graph);
     }
 
+    @Override
+    public void createSnapshot(String snapshotName) {
+        this.checkOpened();
+        for (BackendStore store : this.stores.values()) {
+            store.createSnapshot(snapshotName);
+        }
+
+        LOG.debug("Graph '{}' has created snapshot '{}'",
+                  this.graph, snapshotName);
+    }
+
+    @Override
+    public void restoreSnapshot(String snapshotName) {
+        this.checkOpened();
+        for (Map.Entry<String, BackendStore> e : this.stores.entrySet()) {
+            /*
+             * The system store keeps the tasks including the running restore
+             * task itself, which are not part of the graph data to restore
+             */
+            if (e.getKey().equals(this.systemStore)) {
+                continue;
+            }
+            e.getValue().restoreSnapshot(snapshotName);
+        }
+        this.notifyAndWaitEvent(Events.STORE_RESTORED);
+
+        LOG.debug("Graph '{}' has restored snapshot '{}'",
+                  this.graph, snapshotName);
+    }
+
     @Override
     public BackendStore loadSchemaStore(final String name) {
         LOG.debug("The '{}' StoreProvider load SchemaStore '{}'",
@@ -174,6 +206,7 @@ public abstract class AbstractBackendStoreProvider
 
     @Override
     public BackendStore loadSystemStore(String name) {
+        this.systemStore = name;
         return this.loadGraphStore(name);
     }
 }
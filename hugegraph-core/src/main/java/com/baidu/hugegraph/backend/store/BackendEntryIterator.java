@@ -23,6 +23,7 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.query.QueryBudget;
 import com.baidu.hugegraph.exception.LimitExceedException;
 import com.baidu.hugegraph.exception.NotSupportException;
 import com.baidu.hugegraph.iterator.Metadatable;
@@ -30,16 +31,25 @@ import com.baidu.hugegraph.iterator.Metadatable;
 public abstract class BackendEntryIterator
                 implements Iterator<BackendEntry>, AutoCloseable, Metadatable {
 
+    // Check the budget before fetching once every so many fetches
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+
     protected final Query query;
 
     protected BackendEntry current;
 
     private long count;
 
+    // The budget of the request or job which creates this iterator
+    private final QueryBudget budget;
+    private int fetches;
+
     public BackendEntryIterator(Query query) {
         this.query = query;
         this.count = 0L;
         this.current = null;
+        this.budget = QueryBudget.current();
+        this.fetches = 0;
     }
 
     @Override
@@ -52,6 +62,10 @@ public abstract class BackendEntryIterator
             return true;
         }
 
+        // The budget is also consumed and checked by next() for each entry
+        if (this.fetches++ % BUDGET_CHECK_INTERVAL == 0) {
+            this.checkBudget(0L, 0L);
+        }
         return this.fetch();
     }
 
@@ -75,7 +89,9 @@ public abstract class BackendEntryIterator
         }
 
         this.current = null;
-        this.count += this.sizeOf(current);
+        long size = this.sizeOf(current);
+        this.count += size;
+        this.checkBudget(size, this.sizeInBytes(current));
         return current;
     }
 
@@ -101,6 +117,23 @@ public abstract class BackendEntryIterator
         this.query.checkCapacity(this.count);
     }
 
+    protected final void checkBudget(long rows, long bytes) {
+        if (this.budget == null) {
+            return;
+        }
+        try {
+            this.budget.consumeRows(rows, bytes);
+        } catch (LimitExceedException e) {
+            // Release the backend iterator as early as possible
+            try {
+                this.close();
+            } catch (Exception closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
     protected final boolean exceedLimit() {
         /*
          * TODO: if the query is separated with multi sub-queries(like query
@@ -140,6 +173,11 @@ public abstract class BackendEntryIterator
         return 1;
     }
 
+    protected long sizeInBytes(BackendEntry entry) {
+        // Unknown by default
+        return 0L;
+    }
+
     protected long skip(BackendEntry entry, long skip) {
         assert this.sizeOf(entry) == 1;
         // Return the remained sub-items(items)
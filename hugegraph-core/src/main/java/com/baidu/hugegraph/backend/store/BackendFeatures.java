@@ -45,6 +45,8 @@ public interface BackendFeatures {
 
     public boolean supportsQueryByPage();
 
+    public boolean supportsQueryIndexByPage();
+
     public boolean supportsDeleteEdgeByLabel();
 
     public boolean supportsUpdateVertexProperty();
@@ -25,6 +25,7 @@ import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.id.IdGenerator;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.exception.NotSupportException;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.E;
 
@@ -67,6 +68,18 @@ public interface BackendStore {
     // Backend features
     public BackendFeatures features();
 
+    // Create a snapshot(backup) of the store with the specified name
+    public default void createSnapshot(String snapshotName) {
+        throw new NotSupportException("create snapshot on %s backend",
+                                      this.provider().type());
+    }
+
+    // Replace the data of the store with the specified snapshot
+    public default void restoreSnapshot(String snapshotName) {
+        throw new NotSupportException("restore snapshot on %s backend",
+                                      this.provider().type());
+    }
+
     // Generate an id for a specific type
     public default Id nextId(HugeType type) {
         final int MAX_TIMES = 1000;
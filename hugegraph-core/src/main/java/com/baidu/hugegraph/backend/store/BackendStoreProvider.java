@@ -51,6 +51,10 @@ public interface BackendStoreProvider {
 
     public void initSystemInfo(HugeGraph graph);
 
+    public void createSnapshot(String snapshotName);
+
+    public void restoreSnapshot(String snapshotName);
+
     public void listen(EventListener listener);
 
     public void unlisten(EventListener listener);
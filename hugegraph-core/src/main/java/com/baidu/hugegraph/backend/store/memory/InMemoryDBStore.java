@@ -371,6 +371,11 @@ public abstract class InMemoryDBStore
             return false;
         }
 
+        @Override
+        public boolean supportsQueryIndexByPage() {
+            return false;
+        }
+
         @Override
         public boolean supportsDeleteEdgeByLabel() {
             return false;
@@ -45,11 +45,14 @@ import com.baidu.hugegraph.backend.query.Condition.Relation;
 import com.baidu.hugegraph.backend.query.ConditionQuery;
 import com.baidu.hugegraph.backend.query.ConditionQueryFlatten;
 import com.baidu.hugegraph.backend.query.IdQuery;
+import com.baidu.hugegraph.backend.query.PageIds;
 import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.query.QueryBudget;
 import com.baidu.hugegraph.backend.serializer.AbstractSerializer;
 import com.baidu.hugegraph.backend.store.BackendEntry;
 import com.baidu.hugegraph.backend.store.BackendStore;
 import com.baidu.hugegraph.exception.NoIndexException;
+import com.baidu.hugegraph.iterator.Metadatable;
 import com.baidu.hugegraph.job.EphemeralJob;
 import com.baidu.hugegraph.job.EphemeralJobBuilder;
 import com.baidu.hugegraph.perf.PerfUtil.Watched;
@@ -69,6 +72,7 @@ import com.baidu.hugegraph.util.CollectionUtil;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.InsertionOrderUtil;
 import com.baidu.hugegraph.util.LockUtil;
+import com.baidu.hugegraph.util.SchemaEpoch;
 import com.baidu.hugegraph.util.NumericUtil;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -79,12 +83,14 @@ public class GraphIndexTransaction extends AbstractTransaction {
     private static final Query EMPTY_QUERY = new ConditionQuery(null);
 
     private final Analyzer textAnalyzer;
+    private final SchemaEpoch.Reader schemaReader;
 
     public GraphIndexTransaction(HugeGraph graph, BackendStore store) {
         super(graph, store);
 
         this.textAnalyzer = graph.analyzer();
         assert this.textAnalyzer != null;
+        this.schemaReader = graph.schemaEpoch().reader();
     }
 
     protected Id asyncRemoveIndexLeft(ConditionQuery query,
@@ -249,7 +255,7 @@ public class GraphIndexTransaction extends AbstractTransaction {
         if (query.allSysprop() && conds.size() == 1 &&
             query.containsCondition(HugeKeys.LABEL)) {
             // Query only by label
-            ids = this.queryByLabel(query);
+            ids = this.queryByLabel(query, false).ids();
         } else {
             // Query by userprops (or userprops + label)
             ids = this.queryByUserprop(query);
@@ -263,8 +269,36 @@ public class GraphIndexTransaction extends AbstractTransaction {
         return new IdQuery(query, ids);
     }
 
+    /**
+     * Query element ids of a label page by page, the page of the query is
+     * the position to continue from, and the page of the returned ids is
+     * the position of the next page.
+     * @param query condition query with only label condition and page
+     * @return      ids in the page with the next page
+     */
+    @Watched(prefix = "index")
+    public PageIds indexQueryByPage(ConditionQuery query) {
+        E.checkArgument(query.paging(), "Expect a paging query: %s", query);
+        E.checkArgument(query.allSysprop() &&
+                        query.conditions().size() == 1 &&
+                        query.containsCondition(HugeKeys.LABEL),
+                        "Only support paging index query by label, " +
+                        "but got: %s", query);
+        E.checkState(this.store().features().supportsQueryIndexByPage(),
+                     "Not support paging index query by backend %s",
+                     this.store().provider().type());
+
+        /*
+         * The label index is only updated when committing the graph tx, so
+         * the changes in this tx never touch it, like the index entries
+         * appended by rebuilding index, no need to reject them
+         */
+        query.optimized(OptimizedType.INDEX.ordinal());
+        return this.queryByLabel(query, true);
+    }
+
     @Watched(prefix = "index")
-    private Set<Id> queryByLabel(ConditionQuery query) {
+    private PageIds queryByLabel(ConditionQuery query, boolean paging) {
         HugeType queryType = query.resultType();
         IndexLabel il = IndexLabel.label(queryType);
         Id label = (Id) query.condition(HugeKeys.LABEL);
@@ -289,9 +323,13 @@ public class GraphIndexTransaction extends AbstractTransaction {
         indexQuery = new ConditionQuery(HugeType.SECONDARY_INDEX, query);
         indexQuery.eq(HugeKeys.INDEX_LABEL_ID, il.id());
         indexQuery.eq(HugeKeys.FIELD_VALUES, label);
-        // Set offset and limit to avoid redundant element ids
+        // Set offset(or page) and limit to avoid redundant element ids
         indexQuery.limit(query.limit());
-        indexQuery.offset(query.offset());
+        if (paging) {
+            indexQuery.page(query.page());
+        } else {
+            indexQuery.offset(query.offset());
+        }
         indexQuery.capacity(query.capacity());
 
         return this.doIndexQuery(il, indexQuery);
@@ -400,7 +438,8 @@ public class GraphIndexTransaction extends AbstractTransaction {
         Collection<Id> intersectIds = null;
 
         for (Map.Entry<IndexLabel, ConditionQuery> entry : queries.entrySet()) {
-            Set<Id> ids = this.doIndexQuery(entry.getKey(), entry.getValue());
+            Set<Id> ids = this.doIndexQuery(entry.getKey(),
+                                            entry.getValue()).ids();
             if (intersectIds == null) {
                 intersectIds = ids;
             } else {
@@ -414,15 +453,22 @@ public class GraphIndexTransaction extends AbstractTransaction {
     }
 
     @Watched(prefix = "index")
-    private Set<Id> doIndexQuery(IndexLabel indexLabel, ConditionQuery query) {
+    private PageIds doIndexQuery(IndexLabel indexLabel, ConditionQuery query) {
         Set<Id> ids = InsertionOrderUtil.newSet();
-        LockUtil.Locks locks = new LockUtil.Locks(this.graph().name());
+        String page = null;
         try {
-            locks.lockReads(LockUtil.INDEX_LABEL_DELETE, indexLabel.id());
-            locks.lockReads(LockUtil.INDEX_LABEL_REBUILD, indexLabel.id());
+            this.schemaReader.check(LockUtil.INDEX_LABEL_DELETE,
+                                    indexLabel.id());
+            this.schemaReader.check(LockUtil.INDEX_LABEL_REBUILD,
+                                    indexLabel.id());
 
+            QueryBudget budget = QueryBudget.current();
             Iterator<BackendEntry> entries = super.query(query);
             while(entries.hasNext()) {
+                if (budget != null) {
+                    // Stop scanning the index once the budget exhausted
+                    budget.check();
+                }
                 HugeIndex index = this.serializer.readIndex(graph(), query,
                                                             entries.next());
                 ids.addAll(index.elementIds());
@@ -430,10 +476,14 @@ public class GraphIndexTransaction extends AbstractTransaction {
                     break;
                 }
             }
+            if (query.paging()) {
+                // The position where the next page continue from
+                page = (String) ((Metadatable) entries).metadata("page");
+            }
         } finally {
-            locks.unlock();
+            this.schemaReader.release();
         }
-        return ids;
+        return new PageIds(ids, page);
     }
 
     @Watched(prefix = "index")
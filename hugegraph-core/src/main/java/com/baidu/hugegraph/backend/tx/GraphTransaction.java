@@ -23,14 +23,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.tinkerpop.gremlin.structure.Edge;
@@ -44,13 +48,16 @@ import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.id.EdgeId;
 import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.id.IdGenerator;
 import com.baidu.hugegraph.backend.id.SplicingIdGenerator;
 import com.baidu.hugegraph.backend.query.Condition;
 import com.baidu.hugegraph.backend.query.ConditionQuery;
 import com.baidu.hugegraph.backend.query.ConditionQueryFlatten;
 import com.baidu.hugegraph.backend.query.IdQuery;
+import com.baidu.hugegraph.backend.query.PageIds;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.store.BackendEntry;
+import com.baidu.hugegraph.backend.store.BackendFeatures;
 import com.baidu.hugegraph.backend.store.BackendMutation;
 import com.baidu.hugegraph.backend.store.BackendStore;
 import com.baidu.hugegraph.backend.tx.GraphIndexTransaction.OptimizedType;
@@ -61,6 +68,7 @@ import com.baidu.hugegraph.iterator.ExtendableIterator;
 import com.baidu.hugegraph.iterator.FilterIterator;
 import com.baidu.hugegraph.iterator.FlatMapperIterator;
 import com.baidu.hugegraph.iterator.MapperIterator;
+import com.baidu.hugegraph.iterator.Metadatable;
 import com.baidu.hugegraph.perf.PerfUtil.Watched;
 import com.baidu.hugegraph.schema.EdgeLabel;
 import com.baidu.hugegraph.schema.IndexLabel;
@@ -78,15 +86,19 @@ import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.type.define.HugeKeys;
 import com.baidu.hugegraph.type.define.IdStrategy;
+import com.baidu.hugegraph.type.define.UpdateStrategy;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.InsertionOrderUtil;
 import com.baidu.hugegraph.util.LockUtil;
+import com.baidu.hugegraph.util.SchemaEpoch;
 import com.google.common.collect.ImmutableList;
 
 public class GraphTransaction extends IndexableTransaction {
 
     public static final int COMMIT_BATCH = 500;
 
+    private static final int UPSERT_LOCK_STRIPES = 1024;
+
     private final GraphIndexTransaction indexTx;
 
     private Map<Id, HugeVertex> addedVertexes;
@@ -103,7 +115,11 @@ public class GraphTransaction extends IndexableTransaction {
     private Map<Id, HugeEdge> updatedEdges;
     private Set<HugeProperty<?>> updatedProps; // Oldest props
 
-    private LockUtil.LocksTable locksTable;
+    private final SchemaEpoch.Reader schemaReader;
+    // The locks of upserted elements, held until commit or rollback
+    private final LockUtil.Locks upsertLocks;
+    // The ordinals of the stripes locked by upsertLocks
+    private final TreeSet<Long> upsertStripes;
 
     private final boolean checkVertexExist;
 
@@ -121,7 +137,9 @@ public class GraphTransaction extends IndexableTransaction {
                                 CoreOptions.VERTEX_CHECK_CUSTOMIZED_ID_EXIST);
         this.vertexesCapacity = conf.get(CoreOptions.VERTEX_TX_CAPACITY);
         this.edgesCapacity = conf.get(CoreOptions.EDGE_TX_CAPACITY);
-        this.locksTable = new LockUtil.LocksTable(graph.name());
+        this.schemaReader = graph.schemaEpoch().reader();
+        this.upsertLocks = new LockUtil.Locks(graph.name());
+        this.upsertStripes = new TreeSet<>();
     }
 
     @Override
@@ -288,7 +306,8 @@ public class GraphTransaction extends IndexableTransaction {
         try {
             super.commit();
         } finally {
-            this.locksTable.unlock();
+            this.unlockUpserts();
+            this.schemaReader.release();
         }
     }
 
@@ -301,7 +320,8 @@ public class GraphTransaction extends IndexableTransaction {
         try {
             super.rollback();
         } finally {
-            this.locksTable.unlock();
+            this.unlockUpserts();
+            this.schemaReader.release();
         }
     }
 
@@ -359,10 +379,10 @@ public class GraphTransaction extends IndexableTransaction {
         // Override vertexes in local `removedVertexes`
         this.removedVertexes.remove(vertex.id());
         try {
-            this.locksTable.lockReads(LockUtil.VERTEX_LABEL_DELETE,
-                                      vertex.schemaLabel().id());
-            this.locksTable.lockReads(LockUtil.INDEX_LABEL_DELETE,
-                                      vertex.schemaLabel().indexLabels());
+            this.schemaReader.check(LockUtil.VERTEX_LABEL_DELETE,
+                                    vertex.schemaLabel().id());
+            this.schemaReader.check(LockUtil.INDEX_LABEL_DELETE,
+                                    vertex.schemaLabel().indexLabels());
             // Ensure vertex label still exists from vertex-construct to lock
             this.graph().vertexLabel(vertex.schemaLabel().id());
             /*
@@ -374,7 +394,7 @@ public class GraphTransaction extends IndexableTransaction {
             this.addedVertexes.put(vertex.id(), vertex);
             this.afterWrite();
         } catch (Throwable e){
-            this.locksTable.unlock();
+            this.schemaReader.release();
             throw e;
         }
         return vertex;
@@ -527,10 +547,10 @@ public class GraphTransaction extends IndexableTransaction {
         // Override edges in local `removedEdges`
         this.removedEdges.remove(edge.id());
         try {
-            this.locksTable.lockReads(LockUtil.EDGE_LABEL_DELETE,
-                                      edge.schemaLabel().id());
-            this.locksTable.lockReads(LockUtil.INDEX_LABEL_DELETE,
-                                      edge.schemaLabel().indexLabels());
+            this.schemaReader.check(LockUtil.EDGE_LABEL_DELETE,
+                                    edge.schemaLabel().id());
+            this.schemaReader.check(LockUtil.INDEX_LABEL_DELETE,
+                                    edge.schemaLabel().indexLabels());
             // Ensure edge label still exists from edge-construct to lock
             this.graph().edgeLabel(edge.schemaLabel().id());
             /*
@@ -542,7 +562,7 @@ public class GraphTransaction extends IndexableTransaction {
             this.addedEdges.put(edge.id(), edge);
             this.afterWrite();
         } catch (Throwable e) {
-            this.locksTable.unlock();
+            this.schemaReader.release();
             throw e;
         }
         return edge;
@@ -563,6 +583,197 @@ public class GraphTransaction extends IndexableTransaction {
         this.afterWrite();
     }
 
+    /**
+     * Add vertices or update the existing ones: the existing vertices are
+     * queried by one multi-get, the properties of each existing vertex are
+     * merged into the new vertex with the strategy of each property key
+     * (override if no strategy specified), and the properties not passed in
+     * are kept. The vertices with the same id in a batch are merged first.
+     * The vertices are locked until commit or rollback, so that concurrent
+     * upserts of a vertex don't lose the update of each other, but it's not
+     * guarded against the vertex written by addVertex() meanwhile. An upsert
+     * fails instead of waiting if it would lock out of the order of the
+     * locks held by the tx, see lockUpserts().
+     * @param vertices the constructed vertices, not added into tx yet
+     * @param strategies the update strategy of each property key
+     */
+    @Watched(prefix = "graph")
+    public void upsertVertices(List<HugeVertex> vertices,
+                               Map<Id, UpdateStrategy> strategies) {
+        Collection<HugeVertex> merged = mergeDuplicates(vertices, (old, v) -> {
+            this.mergeVertex(old, v, strategies);
+        });
+
+        Map<Id, HugeVertex> olds = new HashMap<>();
+        List<Id> ids = merged.stream().map(HugeVertex::id)
+                             .filter(id -> id != null)
+                             .collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            this.lockUpserts(LockUtil.VERTEX_UPSERT, ids);
+            Iterator<Vertex> iter = this.queryVertices(ids.toArray());
+            while (iter.hasNext()) {
+                HugeVertex vertex = (HugeVertex) iter.next();
+                if (vertex != null) {
+                    olds.put(vertex.id(), vertex);
+                }
+            }
+        }
+
+        for (HugeVertex vertex : merged) {
+            HugeVertex old = olds.get(vertex.id());
+            if (old != null) {
+                this.mergeVertex(old, vertex, strategies);
+                // Remove the index of the old vertex
+                this.indexTx.updateVertexIndex(old, true);
+            }
+            this.addVertex(vertex);
+        }
+    }
+
+    /**
+     * Add edges or update the existing ones, like upsertVertices()
+     * @param edges the constructed edges, not added into tx yet
+     * @param strategies the update strategy of each property key
+     */
+    @Watched(prefix = "graph")
+    public void upsertEdges(List<HugeEdge> edges,
+                            Map<Id, UpdateStrategy> strategies) {
+        Collection<HugeEdge> merged = mergeDuplicates(edges, (old, e) -> {
+            this.mergeEdge(old, e, strategies);
+        });
+
+        Map<Id, HugeEdge> olds = new HashMap<>();
+        List<Id> ids = merged.stream().map(HugeEdge::id)
+                             .collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            this.lockUpserts(LockUtil.EDGE_UPSERT, ids);
+            Iterator<Edge> iter = this.queryEdges(ids.toArray());
+            while (iter.hasNext()) {
+                HugeEdge edge = (HugeEdge) iter.next();
+                if (edge != null) {
+                    olds.put(edge.id(), edge);
+                }
+            }
+        }
+
+        for (HugeEdge edge : merged) {
+            HugeEdge old = olds.get(edge.id());
+            if (old != null) {
+                this.mergeEdge(old, edge, strategies);
+                // Remove the index of the old edge
+                this.indexTx.updateEdgeIndex(old, true);
+            }
+            this.addEdge(edge);
+        }
+    }
+
+    private void lockUpserts(String group, Collection<Id> ids) {
+        /*
+         * Lock a bounded number of stripes instead of each id, since the
+         * locks of a lock group are never removed. The stripes are held
+         * until commit or rollback, and ordered by (group, stripe) across
+         * all the upserts of the tx: a stripe after the held ones is waited
+         * for, but a stripe before any held one is only tried without
+         * waiting, so that no two txs wait for each other, the upsert
+         * fails if such a stripe is locked by another tx.
+         */
+        long base = group.equals(LockUtil.VERTEX_UPSERT) ?
+                    0L : UPSERT_LOCK_STRIPES;
+        Set<Long> stripes = new TreeSet<>();
+        for (Id id : ids) {
+            stripes.add(base + Math.floorMod(id.hashCode(),
+                                             UPSERT_LOCK_STRIPES));
+        }
+        for (Long stripe : stripes) {
+            if (this.upsertStripes.contains(stripe)) {
+                continue;
+            }
+            Id lock = IdGenerator.of(stripe - base);
+            if (!this.upsertStripes.isEmpty() &&
+                stripe < this.upsertStripes.last()) {
+                this.upsertLocks.tryLockWrites(group, lock);
+            } else {
+                this.upsertLocks.lockWrites(group, lock);
+            }
+            this.upsertStripes.add(stripe);
+        }
+    }
+
+    private void unlockUpserts() {
+        this.upsertStripes.clear();
+        this.upsertLocks.unlock();
+    }
+
+    /**
+     * Merge the elements with the same id into the last one of them
+     */
+    private static <T extends HugeElement> Collection<T> mergeDuplicates(
+                                           List<T> elements,
+                                           BiConsumer<T, T> merger) {
+        List<T> results = new ArrayList<>();
+        Map<Id, T> merged = InsertionOrderUtil.newMap();
+        for (T element : elements) {
+            Id id = element.id();
+            if (id == null) {
+                results.add(element);
+                continue;
+            }
+            T previous = merged.get(id);
+            if (previous != null) {
+                merger.accept(previous, element);
+            }
+            merged.put(id, element);
+        }
+        results.addAll(merged.values());
+        return results;
+    }
+
+    private void mergeVertex(HugeVertex old, HugeVertex vertex,
+                             Map<Id, UpdateStrategy> strategies) {
+        E.checkArgument(old.schemaLabel() == vertex.schemaLabel(),
+                        "Can't update vertex '%s' with label '%s' " +
+                        "to label '%s'", vertex.id(), old.label(),
+                        vertex.label());
+        List<Id> primaryKeys = vertex.schemaLabel().primaryKeys();
+        this.mergeProperties(old, vertex, strategies, primaryKeys);
+    }
+
+    private void mergeEdge(HugeEdge old, HugeEdge edge,
+                           Map<Id, UpdateStrategy> strategies) {
+        List<Id> sortKeys = edge.schemaLabel().sortKeys();
+        this.mergeProperties(old, edge, strategies, sortKeys);
+    }
+
+    private void mergeProperties(HugeElement old, HugeElement element,
+                                 Map<Id, UpdateStrategy> strategies,
+                                 List<Id> keys) {
+        for (HugeProperty<?> prop : old.getProperties().values()) {
+            PropertyKey pkey = prop.propertyKey();
+            if (!element.hasProperty(pkey.id())) {
+                // Keep the property not passed in
+                element.addProperty(pkey, prop.value());
+                continue;
+            }
+            UpdateStrategy strategy = strategies.get(pkey.id());
+            if (strategy == null || strategy == UpdateStrategy.OVERRIDE) {
+                continue;
+            }
+            E.checkArgument(!keys.contains(pkey.id()),
+                            "Can't update the value of key property '%s' " +
+                            "with strategy '%s'", pkey.name(),
+                            strategy.string());
+            Object value = strategy.merge(prop.value(),
+                                          element.getPropertyValue(pkey.id()));
+            Object validValue = pkey.validValue(value);
+            E.checkArgument(validValue != null,
+                            "Invalid value '%s' of property '%s' merged " +
+                            "with strategy '%s'", value, pkey.name(),
+                            strategy.string());
+            element.removeProperty(pkey.id());
+            element.addProperty(pkey, validValue);
+        }
+    }
+
     public Iterator<Edge> queryEdgesByVertex(Id id) {
         return queryEdges(constructEdgesQuery(id, Directions.BOTH));
     }
@@ -1148,11 +1359,16 @@ public class GraphTransaction extends IndexableTransaction {
         if (ids.isEmpty()) {
             return;
         }
+        // Verify all the ids by one multi-get instead of a query per id
         IdQuery idQuery = new IdQuery(HugeType.VERTEX, ids);
         Iterator<HugeVertex> results = this.queryVerticesFromBackend(idQuery);
-        if (results.hasNext()) {
+        while (results.hasNext()) {
             HugeVertex existedVertex = results.next();
             HugeVertex newVertex = vertices.get(existedVertex.id());
+            if (newVertex == null) {
+                // Skip the vertices which are not to be verified
+                continue;
+            }
             if (!existedVertex.label().equals(newVertex.label())) {
                 throw new HugeException(
                           "The newly added vertex with id:'%s' label:'%s' " +
@@ -1180,8 +1396,8 @@ public class GraphTransaction extends IndexableTransaction {
                        LockUtil.VERTEX_LABEL_DELETE :
                        LockUtil.EDGE_LABEL_DELETE;
         try {
-            this.locksTable.lockReads(group, schemaLabel.id());
-            this.locksTable.lockReads(LockUtil.INDEX_LABEL_DELETE, indexIds);
+            this.schemaReader.check(group, schemaLabel.id());
+            this.schemaReader.check(LockUtil.INDEX_LABEL_DELETE, indexIds);
             // Ensure schema label still exists
             if (schemaLabel.type() == HugeType.VERTEX_LABEL) {
                 this.graph().vertexLabel(schemaLabel.id());
@@ -1198,7 +1414,7 @@ public class GraphTransaction extends IndexableTransaction {
             callback.run();
             this.afterWrite();
         } catch (Throwable e) {
-            this.locksTable.unlock();
+            this.schemaReader.release();
             throw e;
         }
     }
@@ -1362,10 +1578,19 @@ public class GraphTransaction extends IndexableTransaction {
         // Commit data already in tx firstly
         this.commit();
         try {
-            this.traverseVerticesByLabel(vertexLabel, vertex -> {
-                this.removeVertex((HugeVertex) vertex);
-                this.commitIfGtSize(COMMIT_BATCH);
-            }, true);
+            ShardScanner scanner = new ShardScanner(this.graph());
+            if (scanner.supported(vertexLabel)) {
+                // Remove the vertices of each shard in parallel
+                scanner.scanVertices(vertexLabel, (tx, vertex) -> {
+                    tx.removeVertex((HugeVertex) vertex);
+                    tx.commitIfGtSize(COMMIT_BATCH);
+                });
+            } else {
+                this.traverseVerticesByLabel(vertexLabel, vertex -> {
+                    this.removeVertex((HugeVertex) vertex);
+                    this.commitIfGtSize(COMMIT_BATCH);
+                }, true);
+            }
             this.commit();
         } catch (Exception e) {
             LOG.error("Failed to remove vertices", e);
@@ -1392,10 +1617,19 @@ public class GraphTransaction extends IndexableTransaction {
                 this.doRemove(this.serializer.writeId(HugeType.EDGE_IN,
                                                       edgeLabel.id()));
             } else {
-                this.traverseEdgesByLabel(edgeLabel, edge -> {
-                    this.removeEdge((HugeEdge) edge);
-                    this.commitIfGtSize(COMMIT_BATCH);
-                }, true);
+                ShardScanner scanner = new ShardScanner(this.graph());
+                if (scanner.supported(edgeLabel)) {
+                    // Remove the edges of each shard in parallel
+                    scanner.scanEdges(edgeLabel, (tx, edge) -> {
+                        tx.removeEdge((HugeEdge) edge);
+                        tx.commitIfGtSize(COMMIT_BATCH);
+                    });
+                } else {
+                    this.traverseEdgesByLabel(edgeLabel, edge -> {
+                        this.removeEdge((HugeEdge) edge);
+                        this.commitIfGtSize(COMMIT_BATCH);
+                    }, true);
+                }
             }
             this.commit();
         } catch (Exception e) {
@@ -1409,16 +1643,20 @@ public class GraphTransaction extends IndexableTransaction {
     public void traverseVerticesByLabel(VertexLabel label,
                                         Consumer<Vertex> consumer,
                                         boolean remove) {
-        this.traverseByLabel(label, this::queryVertices, consumer, remove);
+        this.traverseByLabel(label, this::queryVertices,
+                             this::queryVerticesFromBackend, consumer, remove);
     }
 
     public void traverseEdgesByLabel(EdgeLabel label, Consumer<Edge> consumer,
                                      boolean remove) {
-        this.traverseByLabel(label, this::queryEdges, consumer, remove);
+        this.traverseByLabel(label, this::queryEdges,
+                             this::queryEdgesFromBackend, consumer, remove);
     }
 
     private <T> void traverseByLabel(SchemaLabel label,
                                      Function<Query, Iterator<T>> fetcher,
+                                     Function<Query, Iterator<? extends T>>
+                                     backendFetcher,
                                      Consumer<T> consumer, boolean remove) {
         HugeType type = label.type() == HugeType.VERTEX_LABEL ?
                         HugeType.VERTEX : HugeType.EDGE;
@@ -1449,6 +1687,16 @@ public class GraphTransaction extends IndexableTransaction {
         query.limit(Query.DEFAULT_CAPACITY);
         query.capacity(Query.NO_CAPACITY);
         query.eq(HugeKeys.LABEL, label.id());
+
+        BackendFeatures features = this.store().features();
+        if (features.supportsQueryByLabel() ?
+            features.supportsQueryByPage() :
+            features.supportsQueryIndexByPage()) {
+            this.traverseByPage(label, query, backendFetcher, consumer,
+                                remove);
+            return;
+        }
+
         int pass = 0;
         int counter;
         do {
@@ -1463,4 +1711,102 @@ public class GraphTransaction extends IndexableTransaction {
             assert counter <= Query.DEFAULT_CAPACITY;
         } while (counter == Query.DEFAULT_CAPACITY); // If not, means finish
     }
+
+    /**
+     * Traverse elements of a label page by page, every page continues from
+     * the position where the last page stopped, instead of skipping the
+     * elements of all the previous pages by offset.
+     * The elements added or updated in tx are traversed firstly, and the
+     * ones removed in tx are skipped, like the results of queryVertices().
+     * If `remove`, the removals of each page are committed before reading
+     * the next page, which can continue from the position since it's not
+     * moved by the removed elements.
+     */
+    private <T> void traverseByPage(SchemaLabel label, ConditionQuery query,
+                                    Function<Query, Iterator<? extends T>>
+                                    fetcher,
+                                    Consumer<T> consumer, boolean remove) {
+        Set<Id> txIds = new HashSet<>();
+        for (HugeElement e : this.txElements(label)) {
+            txIds.add(e.id());
+            @SuppressWarnings("unchecked")
+            T elem = (T) e;
+            consumer.accept(elem);
+        }
+
+        boolean byIndex = !this.store().features().supportsQueryByLabel();
+        // Empty page means the first page
+        String page = "";
+        do {
+            if (remove) {
+                this.commit();
+            }
+            query.page(page);
+            Iterator<? extends T> itor;
+            if (byIndex) {
+                // Query element ids of current page from label index
+                PageIds ids = this.indexTx.indexQueryByPage(query);
+                page = ids.page();
+                if (ids.empty()) {
+                    continue;
+                }
+                IdQuery idQuery = new IdQuery(query.resultType(), ids.ids());
+                idQuery.showHidden(query.showHidden());
+                itor = fetcher.apply(idQuery);
+            } else {
+                itor = fetcher.apply(query);
+            }
+            // Process every element in current page
+            while (itor.hasNext()) {
+                T e = itor.next();
+                HugeElement elem = (HugeElement) e;
+                // Skip the element left by index, like deleted ones
+                if (!label.equals(elem.schemaLabel())) {
+                    continue;
+                }
+                // Skip the element traversed from tx or removed in tx
+                if (txIds.contains(elem.id()) || this.removedInTx(elem)) {
+                    continue;
+                }
+                consumer.accept(e);
+            }
+            if (!byIndex) {
+                page = (String) ((Metadatable) itor).metadata("page");
+            }
+        } while (page != null);
+    }
+
+    /**
+     * The elements of a label added or updated in tx but not committed
+     */
+    private List<HugeElement> txElements(SchemaLabel label) {
+        List<HugeElement> elems = new ArrayList<>();
+        if (label.type() == HugeType.VERTEX_LABEL) {
+            elems.addAll(this.addedVertexes.values());
+            elems.addAll(this.updatedVertexes.values());
+        } else {
+            elems.addAll(this.addedEdges.values());
+            elems.addAll(this.updatedEdges.values());
+        }
+        elems.removeIf(e -> !label.equals(e.schemaLabel()) ||
+                            this.removedInTx(e));
+        return elems;
+    }
+
+    private boolean removedInTx(HugeElement elem) {
+        if (elem instanceof HugeVertex) {
+            return this.removedVertexes.containsKey(elem.id());
+        }
+        HugeEdge edge = (HugeEdge) elem;
+        if (this.removedEdges.containsKey(edge.id())) {
+            return true;
+        }
+        // The edges of removed vertices are removed too
+        for (HugeVertex vertex : this.removedVertexes.values()) {
+            if (edge.belongToVertex(vertex)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.tx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.query.ConditionQuery;
+import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.store.BackendFeatures;
+import com.baidu.hugegraph.backend.store.Shard;
+import com.baidu.hugegraph.config.CoreOptions;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.schema.SchemaLabel;
+import com.baidu.hugegraph.structure.HugeElement;
+import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.Log;
+
+/**
+ * Split a table into shards and scan the shards in parallel, each shard is
+ * scanned by a worker thread with its own graph transaction, which will be
+ * committed after the shard is finished. The worker threads are owned by
+ * the graph and shared by its scans, there are at most `scan.workers` of
+ * them, which are released after idle for a while or the graph closed.
+ */
+public class ShardScanner {
+
+    private static final Logger LOG = Log.logger(ShardScanner.class);
+
+    public static final String SCAN_WORKER = "shard-scan-worker-%d";
+
+    private final HugeGraph graph;
+    private final int workers;
+    private final long splitSize;
+    private final long labelIndexThreshold;
+
+    public ShardScanner(HugeGraph graph) {
+        this(graph, graph.configuration());
+    }
+
+    private ShardScanner(HugeGraph graph, HugeConfig config) {
+        this(graph, config.get(CoreOptions.SCAN_WORKERS),
+             config.get(CoreOptions.SCAN_SPLIT_SIZE));
+    }
+
+    public ShardScanner(HugeGraph graph, int workers, long splitSize) {
+        E.checkArgument(workers > 0,
+                        "The scan workers must be > 0, but got %s", workers);
+        this.graph = graph;
+        this.workers = workers;
+        this.splitSize = splitSize;
+        this.labelIndexThreshold = graph.configuration().get(
+                                   CoreOptions.SCAN_LABEL_INDEX_THRESHOLD);
+    }
+
+    /**
+     * Whether the backend store supports splitting a table into shards
+     */
+    public boolean supported() {
+        BackendFeatures features = this.graph.graphTransaction().store()
+                                             .features();
+        return features.supportsScanToken() ||
+               features.supportsScanKeyRange();
+    }
+
+    /**
+     * Whether to scan the shards of the whole table for the elements of a
+     * label, it's false if the label is selective enough to be traversed
+     * by the label index
+     */
+    public boolean supported(SchemaLabel label) {
+        return this.supported() && !this.selective(label);
+    }
+
+    /**
+     * Whether the elements of a label can be queried by the label index and
+     * their number is not more than `scan.label_index_threshold`, at most
+     * threshold + 1 elements are read by the label index to know it
+     */
+    public boolean selective(SchemaLabel label) {
+        if (!label.enableLabelIndex() || this.labelIndexThreshold <= 0L) {
+            return false;
+        }
+        boolean vertex = label.type() == HugeType.VERTEX_LABEL;
+        ConditionQuery query = new ConditionQuery(vertex ?
+                                                  HugeType.VERTEX :
+                                                  HugeType.EDGE);
+        query.eq(HugeKeys.LABEL, label.id());
+        query.limit(this.labelIndexThreshold + 1L);
+        query.capacity(Query.NO_CAPACITY);
+        // Whether query system vertices
+        if (label.hidden()) {
+            query.showHidden(true);
+        }
+
+        GraphTransaction tx = this.graph.graphTransaction();
+        Iterator<?> elems = vertex ? tx.queryVertices(query) :
+                                     tx.queryEdges(query);
+        long count = 0L;
+        try {
+            while (count <= this.labelIndexThreshold && elems.hasNext()) {
+                elems.next();
+                count++;
+            }
+        } finally {
+            CloseableIterator.closeIterator(elems);
+        }
+        return count <= this.labelIndexThreshold;
+    }
+
+    public List<Shard> shards(HugeType type) {
+        return this.graph.graphTransaction().metadata(type, "splits",
+                                                      this.splitSize);
+    }
+
+    public void scanVertices(SchemaLabel label,
+                             BiConsumer<GraphTransaction, Vertex> consumer) {
+        E.checkArgument(label.type() == HugeType.VERTEX_LABEL,
+                        "Expect vertex label, but got %s", label.type());
+        this.scan(HugeType.VERTEX, (tx, shard) -> {
+            return scanVertices(tx, shard, label, consumer);
+        });
+    }
+
+    public void scanEdges(SchemaLabel label,
+                          BiConsumer<GraphTransaction, Edge> consumer) {
+        E.checkArgument(label.type() == HugeType.EDGE_LABEL,
+                        "Expect edge label, but got %s", label.type());
+        // Each edge is stored in both OUT and IN direction, just scan OUT
+        this.scan(HugeType.EDGE_OUT, (tx, shard) -> {
+            return scanEdges(tx, shard, label, consumer);
+        });
+    }
+
+    /**
+     * Scan all shards of the table with `task` on the worker pool
+     * @return the results of the shards, in the order of the shards
+     */
+    public <R> List<R> scan(HugeType type, ShardTask<R> task) {
+        return this.scan(type, this.shards(type), task);
+    }
+
+    /**
+     * Scan the specified shards of the table with `task` on the worker pool
+     * @return the results of the shards, in the order of the shards
+     */
+    public <R> List<R> scan(HugeType type, List<Shard> shards,
+                            ShardTask<R> task) {
+        if (shards.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int threads = Math.min(this.workers, shards.size());
+        LOG.debug("Scan {} shards of {} with {} workers",
+                  shards.size(), type, threads);
+        ExecutorService executor = this.graph.scanExecutor();
+
+        /*
+         * Each worker takes the next shard not started until all shards are
+         * finished, or one of them failed, then the others are skipped
+         */
+        AtomicInteger next = new AtomicInteger(0);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Object[] results = new Object[shards.size()];
+        List<Future<?>> futures = new ArrayList<>(threads);
+        Runnable worker = () -> {
+            int index;
+            while (error.get() == null &&
+                   (index = next.getAndIncrement()) < shards.size()) {
+                results[index] = this.scanShard(shards.get(index),
+                                                task, error);
+            }
+        };
+        for (int i = 0; i < threads; i++) {
+            try {
+                futures.add(executor.submit(worker));
+            } catch (RejectedExecutionException e) {
+                // The graph is closed, stop the workers submitted
+                error.compareAndSet(null, e);
+                break;
+            }
+        }
+
+        /*
+         * Wait for all the workers even if one failed, so that no
+         * transaction is still writing after this method returned
+         */
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                error.compareAndSet(null, e.getCause());
+            } catch (InterruptedException e) {
+                // Let the workers stop after their current shards
+                error.compareAndSet(null, e);
+                throw new HugeException("Interrupted while scanning " +
+                                        "shards of %s", e, type);
+            }
+        }
+        if (error.get() != null) {
+            throw new HugeException("Failed to scan shards of %s",
+                                    error.get(), type);
+        }
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Arrays.asList(results);
+        return list;
+    }
+
+    private <R> R scanShard(Shard shard, ShardTask<R> task,
+                            AtomicReference<Throwable> error) {
+        GraphTransaction tx = this.graph.openTransaction();
+        try {
+            R result = task.scan(tx, shard);
+            tx.commit();
+            return result;
+        } catch (Throwable e) {
+            error.compareAndSet(null, e);
+            LOG.warn("Failed to scan shard {}", shard, e);
+            return null;
+        } finally {
+            try {
+                if (tx.hasUpdates()) {
+                    tx.rollback();
+                }
+                tx.close();
+            } finally {
+                // Close the transactions opened implicitly by this thread
+                this.graph.closeTx();
+            }
+        }
+    }
+
+    /**
+     * Create the worker pool of a graph with at most `workers` threads, the
+     * scans of the graph are queued if all the threads are busy
+     */
+    public static ThreadPoolExecutor newExecutor(String graph, int workers) {
+        E.checkArgument(workers > 0,
+                        "The scan workers must be > 0, but got %s", workers);
+        BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                                                           .namingPattern(
+                                                            graph + "-" +
+                                                            SCAN_WORKER)
+                                                           .daemon(true)
+                                                           .build();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                                      workers, workers, 60L, TimeUnit.SECONDS,
+                                      new LinkedBlockingQueue<>(), factory);
+        // Don't keep the threads after scanning
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Scan the vertices of a label in a shard
+     * @return the number of vertices consumed
+     */
+    public static long scanVertices(GraphTransaction tx, Shard shard,
+                                    SchemaLabel label,
+                                    BiConsumer<GraphTransaction, Vertex>
+                                    consumer) {
+        ConditionQuery query = scanQuery(HugeType.VERTEX, label, shard);
+        return consumeByLabel(tx, tx.queryVertices(query), label, consumer);
+    }
+
+    /**
+     * Scan the edges(OUT direction) of a label in a shard
+     * @return the number of edges consumed
+     */
+    public static long scanEdges(GraphTransaction tx, Shard shard,
+                                 SchemaLabel label,
+                                 BiConsumer<GraphTransaction, Edge> consumer) {
+        ConditionQuery query = scanQuery(HugeType.EDGE_OUT, label, shard);
+        return consumeByLabel(tx, tx.queryEdges(query), label, consumer);
+    }
+
+    private static ConditionQuery scanQuery(HugeType type, SchemaLabel label,
+                                            Shard shard) {
+        ConditionQuery query = new ConditionQuery(type);
+        query.scan(shard.start(), shard.end());
+        query.capacity(Query.NO_CAPACITY);
+        // Whether query system vertices
+        if (label.hidden()) {
+            query.showHidden(true);
+        }
+        return query;
+    }
+
+    private static <T> long consumeByLabel(GraphTransaction tx,
+                                           Iterator<T> elems,
+                                           SchemaLabel label,
+                                           BiConsumer<GraphTransaction, T>
+                                           consumer) {
+        long count = 0L;
+        // Scan the whole shard and filter by label
+        while (elems.hasNext()) {
+            T elem = elems.next();
+            if (label.equals(((HugeElement) elem).schemaLabel())) {
+                consumer.accept(tx, elem);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    public interface ShardTask<R> {
+
+        /**
+         * Scan a shard with the transaction of current worker thread
+         */
+        public R scan(GraphTransaction tx, Shard shard);
+    }
+}
@@ -23,6 +23,8 @@ import static com.baidu.hugegraph.backend.tx.GraphTransaction.COMMIT_BATCH;
 import static com.baidu.hugegraph.config.OptionChecker.disallowEmpty;
 import static com.baidu.hugegraph.config.OptionChecker.rangeInt;
 
+import com.baidu.hugegraph.util.Bytes;
+
 public class CoreOptions extends OptionHolder {
 
     private CoreOptions() {
@@ -113,6 +115,105 @@ public class CoreOptions extends OptionHolder {
                     10L
             );
 
+    public static final ConfigOption<Integer> TASK_DB_WORKERS =
+            new ConfigOption<>(
+                    "task.db_workers",
+                    "The number of threads to save/query the tasks of a " +
+                    "graph, the tasks are partitioned to the threads by id.",
+                    rangeInt(1, 64),
+                    1
+            );
+
+    public static final ConfigOption<Integer> TASK_CLASS_QUOTA =
+            new ConfigOption<>(
+                    "task.class_quota",
+                    "The max number of tasks of each resource class " +
+                    "(cpu-heavy, io-heavy, rebuild-index, short) of a graph " +
+                    "running at the same time, the pools of the classes are " +
+                    "shared by the graphs, 0 means no limit.",
+                    rangeInt(0, 1000),
+                    0
+            );
+
+    public static final ConfigOption<Integer> TASK_CPU_HEAVY_WORKERS =
+            new ConfigOption<>(
+                    "task.cpu_heavy_workers",
+                    "The number of threads to execute the cpu-heavy tasks " +
+                    "like gremlin jobs, the pool is shared by the graphs " +
+                    "and sized by the max of the graphs.",
+                    rangeInt(1, 256),
+                    4
+            );
+
+    public static final ConfigOption<Integer> TASK_IO_HEAVY_WORKERS =
+            new ConfigOption<>(
+                    "task.io_heavy_workers",
+                    "The number of threads to execute the io-heavy tasks " +
+                    "like removing schema and snapshot, the pool is shared " +
+                    "by the graphs and sized by the max of the graphs.",
+                    rangeInt(1, 256),
+                    2
+            );
+
+    public static final ConfigOption<Integer> TASK_REBUILD_INDEX_WORKERS =
+            new ConfigOption<>(
+                    "task.rebuild_index_workers",
+                    "The number of threads to create or rebuild index, the " +
+                    "pool is shared by the graphs and sized by the max of " +
+                    "the graphs.",
+                    rangeInt(1, 256),
+                    2
+            );
+
+    public static final ConfigOption<Integer> TASK_SHORT_WORKERS =
+            new ConfigOption<>(
+                    "task.short_workers",
+                    "The number of threads to execute the short tasks, the " +
+                    "pool is shared by the graphs and sized by the max of " +
+                    "the graphs.",
+                    rangeInt(1, 256),
+                    4
+            );
+
+    public static final ConfigOption<Integer> SCAN_WORKERS =
+            new ConfigOption<>(
+                    "scan.workers",
+                    "The number of threads to scan the shards of a table " +
+                    "in parallel, used by jobs like rebuilding index.",
+                    rangeInt(1, 256),
+                    4
+            );
+
+    public static final ConfigOption<Long> SCAN_SPLIT_SIZE =
+            new ConfigOption<>(
+                    "scan.split_size",
+                    "The size in bytes of each shard when splitting a table " +
+                    "to scan in parallel.",
+                    rangeInt(1L * Bytes.MB, Long.MAX_VALUE),
+                    64L * Bytes.MB
+            );
+
+    public static final ConfigOption<Long> SCAN_LABEL_INDEX_THRESHOLD =
+            new ConfigOption<>(
+                    "scan.label_index_threshold",
+                    "The max number of elements of a label to traverse " +
+                    "them by the label index instead of scanning the shards " +
+                    "of the whole table, like removing a label, " +
+                    "0 means always scan the shards.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    10000L
+            );
+
+    public static final ConfigOption<Integer> SCAN_COMMIT_BATCH =
+            new ConfigOption<>(
+                    "scan.commit_batch",
+                    "The max size(items) of mutations to commit in a batch " +
+                    "by each scan worker, like index entries when " +
+                    "rebuilding index.",
+                    rangeInt(1, 1000000),
+                    COMMIT_BATCH
+            );
+
     public static final ConfigOption<String> VERTEX_DEFAULT_LABEL =
             new ConfigOption<>(
                     "vertex.default_label",
@@ -207,6 +308,36 @@ public class CoreOptions extends OptionHolder {
                     (60 * 10)
             );
 
+    public static final ConfigOption<Integer> SCRIPT_CACHE_CAPACITY =
+            new ConfigOption<>(
+                    "gremlin.script_cache_capacity",
+                    "The max cache size(items) of compiled gremlin scripts " +
+                    "used by gremlin jobs, 0 means disable the cache.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    1000
+            );
+
+    public static final ConfigOption<Integer> SCRIPT_MAX_VARIANTS =
+            new ConfigOption<>(
+                    "gremlin.script_max_variants",
+                    "The max number of distinct gremlin scripts which only " +
+                    "differ in literal values compiled in a window of " +
+                    "gremlin.script_variants_window, more ones are rejected " +
+                    "and the values should be passed by bindings instead, " +
+                    "0 means no limit.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    0
+            );
+
+    public static final ConfigOption<Integer> SCRIPT_VARIANTS_WINDOW =
+            new ConfigOption<>(
+                    "gremlin.script_variants_window",
+                    "The window in seconds to count the variants of gremlin " +
+                    "scripts, the counts are reset in each window.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    60
+            );
+
     public static final ConfigOption<Long> SNOWFLAKE_WORKER_ID =
             new ConfigOption<>(
                     "snowflake.worker_id",
@@ -21,6 +21,7 @@ package com.baidu.hugegraph.job;
 
 import java.util.Date;
 
+import com.baidu.hugegraph.backend.query.QueryBudget;
 import com.baidu.hugegraph.task.HugeTask;
 import com.baidu.hugegraph.task.TaskCallable;
 import com.baidu.hugegraph.util.E;
@@ -37,7 +38,16 @@ public abstract class Job<T> extends TaskCallable<T> {
     @Override
     public T call() throws Exception {
         this.save();
-        return this.execute();
+        /*
+         * Bind an unlimited budget to stop the backend iterators of the job
+         * once the job is cancelled(interrupted)
+         */
+        QueryBudget oldBudget = QueryBudget.current(QueryBudget.unlimited());
+        try {
+            return this.execute();
+        } finally {
+            QueryBudget.current(oldBudget);
+        }
     }
 
     @Override
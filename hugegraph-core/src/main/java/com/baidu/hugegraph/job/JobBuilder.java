@@ -24,6 +24,7 @@ import java.util.Set;
 import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.task.HugeTask;
+import com.baidu.hugegraph.task.TaskPriority;
 import com.baidu.hugegraph.task.TaskScheduler;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.E;
@@ -36,6 +37,7 @@ public class JobBuilder<T> {
     private String input;
     private Job<T> job;
     private Set<Id> dependencies;
+    private TaskPriority priority;
 
     public static <T> JobBuilder<T> of(final HugeGraph graph) {
         return new JobBuilder<>(graph);
@@ -65,6 +67,11 @@ public class JobBuilder<T> {
         return this;
     }
 
+    public JobBuilder<T> priority(TaskPriority priority) {
+        this.priority = priority;
+        return this;
+    }
+
     public HugeTask<T> schedule() {
         E.checkArgumentNotNull(this.name, "Job name can't be null");
         E.checkArgumentNotNull(this.job, "Job can't be null");
@@ -75,6 +82,9 @@ public class JobBuilder<T> {
         if (this.input != null) {
             task.input(this.input);
         }
+        if (this.priority != null) {
+            task.priority(this.priority);
+        }
         if (this.dependencies != null && !this.dependencies.isEmpty()) {
             for (Id depend : this.dependencies) {
                 task.depends(depend);
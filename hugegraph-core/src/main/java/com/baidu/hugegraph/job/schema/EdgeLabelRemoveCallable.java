@@ -28,6 +28,7 @@ import com.baidu.hugegraph.backend.tx.SchemaTransaction;
 import com.baidu.hugegraph.schema.EdgeLabel;
 import com.baidu.hugegraph.type.define.SchemaStatus;
 import com.baidu.hugegraph.util.LockUtil;
+import com.baidu.hugegraph.util.SchemaEpoch;
 import com.google.common.collect.ImmutableSet;
 
 public class EdgeLabelRemoveCallable extends SchemaCallable {
@@ -54,9 +55,9 @@ public class EdgeLabelRemoveCallable extends SchemaCallable {
         // TODO: use event to replace direct call
         // Remove index related data(include schema) of this edge label
         Set<Id> indexIds = ImmutableSet.copyOf(edgeLabel.indexLabels());
-        LockUtil.Locks locks = new LockUtil.Locks(graph.name());
+        SchemaEpoch.Mutation mutation = graph.schemaEpoch().mutate(
+                                        LockUtil.EDGE_LABEL_DELETE, id);
         try {
-            locks.lockWrites(LockUtil.EDGE_LABEL_DELETE, id);
             schemaTx.updateSchemaStatus(edgeLabel, SchemaStatus.DELETING);
             for (Id indexId : indexIds) {
                 IndexLabelRemoveCallable.removeIndexLabel(graph, indexId);
@@ -67,7 +68,7 @@ public class EdgeLabelRemoveCallable extends SchemaCallable {
             // Should commit changes to backend store before release delete lock
             graph.tx().commit();
         } finally {
-            locks.unlock();
+            mutation.finish();
         }
     }
 }
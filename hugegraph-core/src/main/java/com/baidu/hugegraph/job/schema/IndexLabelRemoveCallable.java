@@ -26,6 +26,7 @@ import com.baidu.hugegraph.backend.tx.SchemaTransaction;
 import com.baidu.hugegraph.schema.IndexLabel;
 import com.baidu.hugegraph.type.define.SchemaStatus;
 import com.baidu.hugegraph.util.LockUtil;
+import com.baidu.hugegraph.util.SchemaEpoch;
 
 public class IndexLabelRemoveCallable extends SchemaCallable {
 
@@ -48,9 +49,9 @@ public class IndexLabelRemoveCallable extends SchemaCallable {
         if (indexLabel == null) {
             return;
         }
-        LockUtil.Locks locks = new LockUtil.Locks(graph.name());
+        SchemaEpoch.Mutation mutation = graph.schemaEpoch().mutate(
+                                        LockUtil.INDEX_LABEL_DELETE, id);
         try {
-            locks.lockWrites(LockUtil.INDEX_LABEL_DELETE, id);
             // TODO add update lock
             // Set index label to "deleting" status
             schemaTx.updateSchemaStatus(indexLabel, SchemaStatus.DELETING);
@@ -63,7 +64,7 @@ public class IndexLabelRemoveCallable extends SchemaCallable {
             // Should commit changes to backend store before release delete lock
             graph.tx().commit();
         } finally {
-            locks.unlock();
+            mutation.finish();
         }
     }
 }
@@ -19,35 +19,62 @@
 
 package com.baidu.hugegraph.job.schema;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
 
 import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.store.Shard;
 import com.baidu.hugegraph.backend.tx.GraphTransaction;
 import com.baidu.hugegraph.backend.tx.SchemaTransaction;
+import com.baidu.hugegraph.backend.tx.ShardScanner;
+import com.baidu.hugegraph.config.CoreOptions;
 import com.baidu.hugegraph.schema.EdgeLabel;
 import com.baidu.hugegraph.schema.IndexLabel;
 import com.baidu.hugegraph.schema.SchemaElement;
 import com.baidu.hugegraph.schema.SchemaLabel;
 import com.baidu.hugegraph.schema.VertexLabel;
 import com.baidu.hugegraph.structure.HugeElement;
+import com.baidu.hugegraph.task.HugeTask;
+import com.baidu.hugegraph.task.ResourceClass;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.SchemaStatus;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.JsonUtil;
 import com.baidu.hugegraph.util.LockUtil;
+import com.baidu.hugegraph.util.Log;
+import com.baidu.hugegraph.util.SchemaEpoch;
 import com.google.common.collect.ImmutableSet;
 
 public class RebuildIndexCallable extends SchemaCallable {
 
+    private static final Logger LOG = Log.logger(RebuildIndexCallable.class);
+
     @Override
     public String type() {
         return SchemaCallable.REBUILD_INDEX;
     }
 
+    @Override
+    public ResourceClass resourceClass() {
+        // Not to block the other schema tasks since it may take hours
+        return ResourceClass.REBUILD_INDEX;
+    }
+
     @Override
     public Object execute() {
         this.rebuildIndex(this.schemaElement());
@@ -84,6 +111,7 @@ public class RebuildIndexCallable extends SchemaCallable {
         GraphTransaction graphTx = this.graph().graphTransaction();
 
         Consumer<?> indexUpdater = (elem) -> {
+            this.checkCancelled();
             for (Id id : indexLabelIds) {
                 graphTx.updateIndex(id, (HugeElement) elem);
                 /*
@@ -94,33 +122,57 @@ public class RebuildIndexCallable extends SchemaCallable {
             }
         };
 
-        LockUtil.Locks locks = new LockUtil.Locks(this.graph().name());
+        SchemaEpoch epoch = this.graph().schemaEpoch();
+        SchemaEpoch.Mutation rebuilding = epoch.mutate(
+                                          LockUtil.INDEX_LABEL_REBUILD,
+                                          indexLabelIds);
+        SchemaEpoch.Mutation deleting = null;
         try {
-            locks.lockWrites(LockUtil.INDEX_LABEL_REBUILD, indexLabelIds);
-            locks.lockWrites(LockUtil.INDEX_LABEL_DELETE, indexLabelIds);
+            deleting = epoch.mutate(LockUtil.INDEX_LABEL_DELETE,
+                                    indexLabelIds);
 
             Set<IndexLabel> ils = indexLabelIds.stream()
                                                .map(schemaTx::getIndexLabel)
                                                .collect(Collectors.toSet());
-            for (IndexLabel il : ils) {
-                if (il.status() == SchemaStatus.CREATING) {
-                    continue;
+
+            ShardScanner scanner = new ShardScanner(this.graph());
+            Checkpoint checkpoint = null;
+            boolean byShards = false;
+            if (scanner.supported()) {
+                // The task is restored if it has been interrupted
+                checkpoint = Checkpoint.fromJson(this.task().input());
+                // Traverse by the label index if the label is selective
+                byShards = checkpoint != null || scanner.supported(label);
+            }
+            if (checkpoint == null) {
+                for (IndexLabel il : ils) {
+                    if (il.status() == SchemaStatus.CREATING) {
+                        continue;
+                    }
+                    schemaTx.updateSchemaStatus(il, SchemaStatus.REBUILDING);
                 }
-                schemaTx.updateSchemaStatus(il, SchemaStatus.REBUILDING);
-            }
-
-            this.removeIndex(indexLabelIds);
-            /*
-             * Note: Here must commit index transaction firstly.
-             * Because remove index convert to (id like <?>:personByCity):
-             * `delete from index table where label = ?`,
-             * But append index will convert to (id like Beijing:personByCity):
-             * `update index element_ids += xxx where field_value = ?
-             * and index_label_name = ?`,
-             * They have different id lead to it can't compare and optimize
-             */
-            graphTx.commit();
-            if (label.type() == HugeType.VERTEX_LABEL) {
+
+                this.removeIndex(indexLabelIds);
+                /*
+                 * Note: Here must commit index transaction firstly.
+                 * Because remove index convert to (id like <?>:personByCity):
+                 * `delete from index table where label = ?`,
+                 * But append index will convert to (id like
+                 * Beijing:personByCity): `update index element_ids += xxx
+                 * where field_value = ? and index_label_name = ?`,
+                 * They have different id lead to it can't compare and
+                 * optimize
+                 */
+                graphTx.commit();
+            } else {
+                LOG.info("Resume rebuilding index of {} from {}/{} shards",
+                         label, checkpoint.finishedShards(),
+                         checkpoint.shards().size());
+            }
+
+            if (byShards) {
+                this.rebuildIndex(scanner, checkpoint, label, indexLabelIds);
+            } else if (label.type() == HugeType.VERTEX_LABEL) {
                 @SuppressWarnings("unchecked")
                 Consumer<Vertex> consumer = (Consumer<Vertex>) indexUpdater;
                 graphTx.traverseVerticesByLabel((VertexLabel) label,
@@ -138,10 +190,66 @@ public class RebuildIndexCallable extends SchemaCallable {
                 schemaTx.updateSchemaStatus(il, SchemaStatus.CREATED);
             }
         } finally {
-            locks.unlock();
+            if (deleting != null) {
+                deleting.finish();
+            }
+            rebuilding.finish();
         }
     }
 
+    private void rebuildIndex(ShardScanner scanner, Checkpoint checkpoint,
+                              SchemaLabel label,
+                              Collection<Id> indexLabelIds) {
+        HugeType type = label.type() == HugeType.VERTEX_LABEL ?
+                        HugeType.VERTEX : HugeType.EDGE_OUT;
+        if (checkpoint == null) {
+            checkpoint = new Checkpoint(scanner.shards(type));
+        }
+        // Save the shards before rebuilding to resume from them
+        this.saveCheckpoint(checkpoint);
+
+        int batch = this.graph().configuration()
+                        .get(CoreOptions.SCAN_COMMIT_BATCH);
+        BiConsumer<GraphTransaction, HugeElement> indexUpdater = (tx, e) -> {
+            // Called by the scan workers, which can't be interrupted
+            this.checkCancelled();
+            for (Id id : indexLabelIds) {
+                tx.updateIndex(id, e);
+                tx.commitIfGtSize(batch);
+            }
+        };
+
+        // Rebuild index of each unfinished shard in parallel
+        Checkpoint cp = checkpoint;
+        scanner.scan(type, checkpoint.unfinishedShards(), (tx, shard) -> {
+            long count;
+            if (type == HugeType.VERTEX) {
+                count = ShardScanner.scanVertices(tx, shard, label, (t, v) -> {
+                    indexUpdater.accept(t, (HugeElement) v);
+                });
+            } else {
+                count = ShardScanner.scanEdges(tx, shard, label, (t, e) -> {
+                    indexUpdater.accept(t, (HugeElement) e);
+                });
+            }
+            // Commit the index of the shard before marking it finished
+            tx.commit();
+            synchronized (cp) {
+                cp.finish(shard, count);
+                this.saveCheckpoint(cp);
+            }
+            return count;
+        });
+    }
+
+    private void saveCheckpoint(Checkpoint checkpoint) {
+        HugeTask<Object> task = this.task();
+        task.progress(checkpoint.progress());
+        task.input(checkpoint.toJson());
+        task.updateTime(new Date());
+        this.scheduler().save(task);
+    }
+
     private void removeIndex(Collection<Id> indexLabelIds) {
         SchemaTransaction schemaTx = this.graph().schemaTransaction();
         GraphTransaction graphTx = this.graph().graphTransaction();
@@ -175,4 +283,125 @@ public class RebuildIndexCallable extends SchemaCallable {
                           "Invalid HugeType '%s' for rebuild", type));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The shards to rebuild index and the finished ones, which is saved as
+     * the input of the task, also with the number of rebuilt elements and
+     * the rebuilding rate(elements/s).
+     */
+    private static final class Checkpoint {
+
+        private static final String SHARDS = "shards";
+        private static final String FINISHED = "finished";
+        private static final String ELEMENTS = "elements";
+        private static final String ELAPSED = "elapsed";
+        private static final String RATE = "rate";
+
+        private final List<Shard> shards;
+        // The shards finished before resuming, counted in `elements`
+        private final Set<Integer> resumed;
+        private final Set<Integer> finished;
+        private final long elements;
+        // The elements of each shard finished after resuming
+        private final Map<Integer, Long> shardElements;
+        private final long elapsed;
+        private final long startTime;
+
+        public Checkpoint(List<Shard> shards) {
+            this(shards, new HashSet<>(), 0L, 0L);
+        }
+
+        private Checkpoint(List<Shard> shards, Set<Integer> finished,
+                           long elements, long elapsed) {
+            this.shards = shards;
+            this.resumed = new HashSet<>(finished);
+            this.finished = finished;
+            this.elements = elements;
+            this.shardElements = new HashMap<>();
+            this.elapsed = elapsed;
+            this.startTime = System.currentTimeMillis();
+        }
+
+        public List<Shard> shards() {
+            return this.shards;
+        }
+
+        public int finishedShards() {
+            return this.finished.size();
+        }
+
+        public List<Shard> unfinishedShards() {
+            List<Shard> shards = new ArrayList<>();
+            for (int i = 0; i < this.shards.size(); i++) {
+                if (!this.finished.contains(i)) {
+                    shards.add(this.shards.get(i));
+                }
+            }
+            return shards;
+        }
+
+        public void finish(Shard shard, long elements) {
+            int index = this.shards.indexOf(shard);
+            E.checkArgument(index >= 0, "Unknown shard %s", shard);
+            if (this.resumed.contains(index)) {
+                // It has been counted before resuming
+                return;
+            }
+            this.finished.add(index);
+            // A retried shard replaces its elements instead of adding again
+            this.shardElements.put(index, elements);
+        }
+
+        public long elements() {
+            long elements = this.elements;
+            for (long shardElements : this.shardElements.values()) {
+                elements += shardElements;
+            }
+            return elements;
+        }
+
+        public int progress() {
+            if (this.shards.isEmpty()) {
+                return 100;
+            }
+            return (int) (this.finished.size() * 100L / this.shards.size());
+        }
+
+        public String toJson() {
+            long elapsed = this.elapsed +
+                           System.currentTimeMillis() - this.startTime;
+            long elements = this.elements();
+            Map<String, Object> checkpoint = new LinkedHashMap<>();
+            checkpoint.put(ELEMENTS, elements);
+            checkpoint.put(ELAPSED, elapsed);
+            checkpoint.put(RATE, elements * 1000L / Math.max(elapsed, 1L));
+            checkpoint.put(FINISHED, new TreeSet<>(this.finished));
+            checkpoint.put(SHARDS, this.shards);
+            return JsonUtil.toJson(checkpoint);
+        }
+
+        @SuppressWarnings("unchecked")
+        public static Checkpoint fromJson(String json) {
+            if (json == null) {
+                return null;
+            }
+            Map<String, Object> checkpoint = JsonUtil.fromJson(json,
+                                                               Map.class);
+            List<Shard> shards = new ArrayList<>();
+            for (Object s : (List<Object>) checkpoint.get(SHARDS)) {
+                Map<String, Object> shard = (Map<String, Object>) s;
+                shards.add(new Shard((String) shard.get("start"),
+                                     (String) shard.get("end"),
+                                     ((Number) shard.get("length"))
+                                     .longValue()));
+            }
+            Set<Integer> finished = new HashSet<>();
+            for (Object i : (List<Object>) checkpoint.get(FINISHED)) {
+                finished.add(((Number) i).intValue());
+            }
+            long elements = ((Number) checkpoint.get(ELEMENTS)).longValue();
+            long elapsed = ((Number) checkpoint.get(ELAPSED)).longValue();
+            return new Checkpoint(shards, finished, elements, elapsed);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.baidu.hugegraph.job.Job;
 import com.baidu.hugegraph.schema.IndexLabel;
 import com.baidu.hugegraph.schema.SchemaElement;
 import com.baidu.hugegraph.schema.SchemaLabel;
+import com.baidu.hugegraph.task.ResourceClass;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.E;
 
@@ -21,6 +22,12 @@ public abstract class SchemaCallable extends Job<Object> {
 
     private static final String SPLITOR = ":";
 
+    @Override
+    public ResourceClass resourceClass() {
+        // Scan or remove all the elements of a label
+        return ResourceClass.IO_HEAVY;
+    }
+
     protected HugeType schemaType() {
         String name = this.task().name();
         String[] parts = name.split(SPLITOR, 3);
@@ -31,6 +31,7 @@ import com.baidu.hugegraph.schema.EdgeLabel;
 import com.baidu.hugegraph.schema.VertexLabel;
 import com.baidu.hugegraph.type.define.SchemaStatus;
 import com.baidu.hugegraph.util.LockUtil;
+import com.baidu.hugegraph.util.SchemaEpoch;
 import com.google.common.collect.ImmutableSet;
 
 public class VertexLabelRemoveCallable extends SchemaCallable {
@@ -70,9 +71,9 @@ public class VertexLabelRemoveCallable extends SchemaCallable {
          * vertexLabel.indexLabels()
          */
         Set<Id> indexLabelIds = ImmutableSet.copyOf(vertexLabel.indexLabels());
-        LockUtil.Locks locks = new LockUtil.Locks(graph.name());
+        SchemaEpoch.Mutation mutation = graph.schemaEpoch().mutate(
+                                        LockUtil.VERTEX_LABEL_DELETE, id);
         try {
-            locks.lockWrites(LockUtil.VERTEX_LABEL_DELETE, id);
             schemaTx.updateSchemaStatus(vertexLabel, SchemaStatus.DELETING);
             for (Id indexLabelId : indexLabelIds) {
                 IndexLabelRemoveCallable.removeIndexLabel(graph, indexLabelId);
@@ -85,7 +86,7 @@ public class VertexLabelRemoveCallable extends SchemaCallable {
             // Should commit changes to backend store before release delete lock
             graph.tx().commit();
         } finally {
-            locks.unlock();
+            mutation.finish();
         }
     }
 }
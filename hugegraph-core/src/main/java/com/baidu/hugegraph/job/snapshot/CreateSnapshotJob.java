@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.job.snapshot;
+
+import com.baidu.hugegraph.job.Job;
+import com.baidu.hugegraph.task.ResourceClass;
+
+public class CreateSnapshotJob extends Job<Object> {
+
+    public static final String TASK_TYPE = "create_snapshot";
+
+    @Override
+    public String type() {
+        return TASK_TYPE;
+    }
+
+    @Override
+    public ResourceClass resourceClass() {
+        return ResourceClass.IO_HEAVY;
+    }
+
+    @Override
+    public Object execute() {
+        // The task name is the snapshot name
+        this.graph().createSnapshot(this.task().name());
+        return null;
+    }
+}
@@ -235,6 +235,20 @@ public class HugeVertex extends HugeElement implements Vertex, Cloneable {
     @Watched(prefix = "vertex")
     @Override
     public HugeEdge addEdge(String label, Vertex vertex, Object... keyValues) {
+        HugeEdge edge = this.constructEdge(label, vertex, keyValues);
+        return this.tx().addEdge(edge);
+    }
+
+    /**
+     * Construct an edge from this vertex to the target vertex and attach it
+     * to the both vertices, but don't add it into the transaction
+     * @param label the edge label name
+     * @param vertex the target vertex
+     * @param keyValues the properties of the edge
+     * @return the constructed edge
+     */
+    public HugeEdge constructEdge(String label, Vertex vertex,
+                                  Object... keyValues) {
         ElementKeys elemKeys = HugeElement.classifyKeys(keyValues);
         // Check id (must be null)
         if (elemKeys.id() != null) {
@@ -295,7 +309,7 @@ public class HugeVertex extends HugeElement implements Vertex, Cloneable {
         this.addOutEdge(edge);
         targetVertex.addInEdge(edge.switchOwner());
 
-        return this.tx().addEdge(edge);
+        return edge;
     }
 
     /**
@@ -27,7 +27,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -48,7 +51,11 @@ public class HugeTask<V> extends FutureTask<V> {
 
     private static final Logger LOG = Log.logger(HugeTask.class);
 
+    // The order of the tasks queued with the same priority
+    private static final AtomicLong QUEUED_SEQUENCE = new AtomicLong();
+
     private final TaskCallable<V> callable;
+    private final CompletableFuture<HugeTask<V>> completion;
 
     private String type;
     private String name;
@@ -64,6 +71,10 @@ public class HugeTask<V> extends FutureTask<V> {
     private volatile String input;
     private volatile String result;
 
+    private TaskPriority priority;
+    private volatile long queuedSequence;
+    private volatile long queuedTime;
+
     public HugeTask(Id id, Id parent, String callable, String input) {
         this(id, parent, TaskCallable.fromClass(callable));
         this.input = input;
@@ -77,6 +88,7 @@ public class HugeTask<V> extends FutureTask<V> {
 
         assert callable != null;
         this.callable = callable;
+        this.completion = new CompletableFuture<>();
         this.type = null;
         this.name = null;
         this.id = id;
@@ -90,6 +102,9 @@ public class HugeTask<V> extends FutureTask<V> {
         this.retries = 0;
         this.input = null;
         this.result = null;
+        this.priority = null;
+        this.queuedSequence = 0L;
+        this.queuedTime = 0L;
     }
 
     public Id id() {
@@ -185,10 +200,40 @@ public class HugeTask<V> extends FutureTask<V> {
         return this.result;
     }
 
+    /**
+     * Set the priority of the task before scheduling, which is not saved,
+     * a restored task has the default priority of the callable
+     */
+    public void priority(TaskPriority priority) {
+        E.checkState(this.status == TaskStatus.NEW,
+                     "Can't set priority in status '%s'", this.status);
+        this.priority = priority;
+    }
+
+    public TaskPriority priority() {
+        if (this.priority != null) {
+            return this.priority;
+        }
+        return this.callable.priority();
+    }
+
+    public ResourceClass resourceClass() {
+        return this.callable.resourceClass();
+    }
+
     public boolean completed() {
         return TaskStatus.COMPLETED_STATUSES.contains(this.status);
     }
 
+    /**
+     * The future which is completed with the task itself once the task
+     * reaches a completed status, listeners can be added on it instead of
+     * polling the status
+     */
+    public CompletableFuture<HugeTask<V>> completion() {
+        return this.completion;
+    }
+
     @Override
     public String toString() {
         return String.format("HugeTask(%s)%s", this.id, this.asMap());
@@ -196,7 +241,13 @@ public class HugeTask<V> extends FutureTask<V> {
 
     @Override
     public void run() {
+        TaskScheduler scheduler = this.callable.scheduler();
+        scheduler.started(this);
         try {
+            if (this.isCancelled()) {
+                // Cancelled while queued
+                return;
+            }
             assert this.status.code() < TaskStatus.RUNNING.code();
             if (this.checkDependenciesSuccess()) {
                 this.status(TaskStatus.RUNNING);
@@ -204,6 +255,8 @@ public class HugeTask<V> extends FutureTask<V> {
             }
         } catch (Throwable e) {
             this.setException(e);
+        } finally {
+            scheduler.finished(this);
         }
     }
 
@@ -218,6 +271,7 @@ public class HugeTask<V> extends FutureTask<V> {
             } catch (Throwable e) {
                 LOG.error("An exception occurred when calling cancelled()", e);
             }
+            this.completion.complete(this);
         }
     }
 
@@ -229,6 +283,10 @@ public class HugeTask<V> extends FutureTask<V> {
             LOG.error("An exception occurred when calling done()", e);
         } finally {
             this.callable.scheduler().remove(this.id);
+            // The status is set after done() if cancelled, see cancel()
+            if (this.completed()) {
+                this.completion.complete(this);
+            }
         }
     }
 
@@ -243,8 +301,12 @@ public class HugeTask<V> extends FutureTask<V> {
 
     @Override
     protected void setException(Throwable e) {
-        if (!(this.status == TaskStatus.CANCELLED &&
-              e instanceof InterruptedException)) {
+        /*
+         * The task may fail with any exception caused by the interruption
+         * once cancelled, like the wrapped InterruptedException of saving,
+         * and the status is set to CANCELLED by cancel() after interrupted
+         */
+        if (!this.isCancelled()) {
             LOG.warn("An exception occurred when running task: {}",
                      this.id(), e);
             // Update status to FAILED if exception occurred(not interrupted)
@@ -283,6 +345,34 @@ public class HugeTask<V> extends FutureTask<V> {
         return true;
     }
 
+    /**
+     * Mark the task queued to be executed
+     */
+    protected void queued() {
+        this.queuedSequence = QUEUED_SEQUENCE.incrementAndGet();
+        this.queuedTime = System.nanoTime();
+    }
+
+    /**
+     * The time in milliseconds the task has been queued
+     */
+    protected long queuedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() -
+                                             this.queuedTime);
+    }
+
+    /**
+     * Compare the tasks by priority in descending order, then by the order
+     * of queued
+     */
+    protected static int compare(HugeTask<?> task1, HugeTask<?> task2) {
+        int result = task2.priority().compareTo(task1.priority());
+        if (result != 0) {
+            return result;
+        }
+        return Long.compare(task1.queuedSequence, task2.queuedSequence);
+    }
+
     protected TaskCallable<V> callable() {
         return this.callable;
     }
@@ -418,6 +508,9 @@ public class HugeTask<V> extends FutureTask<V> {
         map.put(Hidden.unHide(P.PROGRESS), this.progress);
         map.put(Hidden.unHide(P.CREATE), this.create);
         map.put(Hidden.unHide(P.RETRIES), this.retries);
+        map.put(Hidden.unHide(P.PRIORITY), this.priority().string());
+        map.put(Hidden.unHide(P.RESOURCE_CLASS),
+                this.resourceClass().string());
 
         if (this.description != null) {
             map.put(Hidden.unHide(P.DESCRIPTION), this.description);
@@ -486,6 +579,9 @@ public class HugeTask<V> extends FutureTask<V> {
         public static final String INPUT = "~task_input";
         public static final String RESULT = "~task_result";
         public static final String DEPENDENCIES = "~task_dependencies";
+        // Not saved, only used to show the task
+        public static final String PRIORITY = "~task_priority";
+        public static final String RESOURCE_CLASS = "~task_class";
 
         //public static final String PARENT = hide("parent");
         //public static final String CHILDREN = hide("children");
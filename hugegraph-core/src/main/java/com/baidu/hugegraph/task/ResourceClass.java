@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.task;
+
+/**
+ * The resource class of a task, the tasks of each class are executed by a
+ * separate bounded pool, so that the long running tasks of a class can't
+ * starve the tasks of other classes
+ */
+public enum ResourceClass {
+
+    CPU_HEAVY("cpu-heavy"),
+
+    IO_HEAVY("io-heavy"),
+
+    REBUILD_INDEX("rebuild-index"),
+
+    SHORT("short");
+
+    private final String name;
+
+    private ResourceClass(String name) {
+        this.name = name;
+    }
+
+    public String string() {
+        return this.name;
+    }
+}
@@ -20,6 +20,7 @@
 package com.baidu.hugegraph.task;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 
 import com.baidu.hugegraph.HugeException;
 import com.baidu.hugegraph.HugeGraph;
@@ -42,6 +43,36 @@ public abstract class TaskCallable<V> implements Callable<V> {
         // Do nothing, subclasses may override this method
     }
 
+    /**
+     * The resource class the task is executed by, subclasses should
+     * override it if the task is long running
+     */
+    public ResourceClass resourceClass() {
+        return ResourceClass.SHORT;
+    }
+
+    /**
+     * The default priority of the task, which is used if the priority is
+     * not specified when scheduling or the task is restored
+     */
+    public TaskPriority priority() {
+        return TaskPriority.NORMAL;
+    }
+
+    /**
+     * Check whether the task has been cancelled, the long running tasks
+     * should call it periodically to give up the worker as soon as possible.
+     * It can also be called by the threads helping to execute the task.
+     * @throws CancellationException if the task has been cancelled
+     */
+    protected void checkCancelled() {
+        HugeTask<V> task = this.task;
+        if (task != null && task.isCancelled()) {
+            throw new CancellationException(String.format(
+                      "Task '%s' has been cancelled", task.id()));
+        }
+    }
+
     public HugeGraph graph() {
         return this.scheduler().graph();
     }
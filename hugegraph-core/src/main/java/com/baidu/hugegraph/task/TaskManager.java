@@ -20,63 +20,99 @@
 package com.baidu.hugegraph.task;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
 import com.baidu.hugegraph.HugeException;
 import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.config.ConfigOption;
+import com.baidu.hugegraph.config.CoreOptions;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.ExecutorUtil;
 
 public class TaskManager {
 
-    public static final String TASK_WORKER = "task-worker-%d";
-    public static final String TASK_DB_WORKER = "task-db-worker-%d";
+    public static final String TASK_WORKER = "task-worker-%s-%%d";
+    public static final String TASK_DB_WORKER = "task-db-worker-%s-%s-%%d";
+
+    private static final int INITIAL_QUEUE_SIZE = 16;
 
-    private static final int THREADS = 4;
-    private static final TaskManager MANAGER = new TaskManager(THREADS);
+    private static final TaskManager MANAGER = new TaskManager();
 
     private final Map<HugeGraph, TaskScheduler> schedulers;
 
-    private final ExecutorService taskExecutor;
-    private final ExecutorService dbExecutor;
+    // For execute tasks, a bounded pool for each resource class
+    private final Map<ResourceClass, ThreadPoolExecutor> taskExecutors;
 
     public static TaskManager instance() {
         return MANAGER;
     }
 
-    private TaskManager(int pool) {
-        this.schedulers = new HashMap<>();
+    private TaskManager() {
+        // Closed by the graphs and shutdown() which may run concurrently
+        this.schedulers = new ConcurrentHashMap<>();
 
-        // For execute tasks
-        this.taskExecutor = ExecutorUtil.newFixedThreadPool(pool, TASK_WORKER);
-        // For save/query task state, just one thread is ok
-        this.dbExecutor = ExecutorUtil.newFixedThreadPool(1, TASK_DB_WORKER);
+        this.taskExecutors = new EnumMap<>(ResourceClass.class);
+        for (ResourceClass clazz : ResourceClass.values()) {
+            int threads = workersOption(clazz).defaultValue();
+            this.taskExecutors.put(clazz, newTaskExecutor(clazz, threads));
+        }
     }
 
     public void addScheduler(HugeGraph graph) {
         E.checkArgumentNotNull(graph, "The graph can't be null");
-        ExecutorService task = this.taskExecutor;
-        ExecutorService db = this.dbExecutor;
-        this.schedulers.put(graph, new TaskScheduler(graph, task, db));
+        int quota = graph.configuration().get(CoreOptions.TASK_CLASS_QUOTA);
+        for (ResourceClass clazz : ResourceClass.values()) {
+            int threads = graph.configuration().get(workersOption(clazz));
+            this.ensureWorkers(clazz, threads);
+        }
+        /*
+         * For save/query task state of the graph, each thread owns a
+         * partition of the tasks, so it's single thread per partition
+         */
+        int workers = graph.configuration().get(CoreOptions.TASK_DB_WORKERS);
+        List<ExecutorService> db = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            String name = String.format(TASK_DB_WORKER, graph.name(), i);
+            db.add(ExecutorUtil.newFixedThreadPool(1, name));
+        }
+        this.schedulers.put(graph, new TaskScheduler(graph,
+                                                     this.taskExecutors,
+                                                     db, quota));
     }
 
     public void closeScheduler(HugeGraph graph) {
+        /*
+         * Close the txs of the task threads before shutting down the db
+         * executors of the scheduler, the tasks executed before closing
+         * the txs may still save their status by the db executors
+         */
+        for (ThreadPoolExecutor executor : this.taskExecutors.values()) {
+            this.closeTaskTx(graph, executor);
+        }
         TaskScheduler scheduler = this.schedulers.get(graph);
         if (scheduler != null && scheduler.close()) {
             this.schedulers.remove(graph);
         }
-        this.closeTaskTx(graph);
     }
 
-    private void closeTaskTx(HugeGraph graph) {
+    private void closeTaskTx(HugeGraph graph, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            // The task threads are exiting by shutdown()
+            return;
+        }
+        final int threads = executor.getCorePoolSize();
         final Map<Thread, Integer> threadsTimes = new ConcurrentHashMap<>();
         final List<Callable<Void>> tasks = new ArrayList<>();
 
@@ -90,23 +126,23 @@ public class TaskManager {
                 // Let other threads run
                 Thread.yield();
             } else {
-                assert times < THREADS;
-                assert threadsTimes.size() < THREADS;
-                E.checkState(tasks.size() == THREADS,
+                assert times < threads;
+                assert threadsTimes.size() < threads;
+                E.checkState(tasks.size() == threads,
                              "Bad tasks size: %s", tasks.size());
                 // Let another thread run and wait for it
-                this.taskExecutor.invokeAny(tasks.subList(0, 1));
+                executor.invokeAny(tasks.subList(0, 1));
             }
             threadsTimes.put(current, ++times);
             return null;
         };
 
         // NOTE: expect each thread to perform a close operation
-        for (int i = 0; i < THREADS; i++) {
+        for (int i = 0; i < threads; i++) {
             tasks.add(closeTx);
         }
         try {
-            this.taskExecutor.invokeAll(tasks);
+            executor.invokeAll(tasks);
         } catch (Exception e) {
             throw new HugeException("Exception when closing task tx", e);
         }
@@ -117,31 +153,30 @@ public class TaskManager {
     }
 
     public void shutdown(long timeout) {
-        assert this.schedulers.isEmpty() : this.schedulers.size();
-
         Throwable ex = null;
-        boolean terminated = this.taskExecutor.isTerminated();
+        boolean terminated = true;
         final TimeUnit unit = TimeUnit.SECONDS;
 
-        if (!this.taskExecutor.isShutdown()) {
-            this.taskExecutor.shutdown();
+        for (ThreadPoolExecutor executor : this.taskExecutors.values()) {
+            executor.shutdown();
+        }
+        for (ThreadPoolExecutor executor : this.taskExecutors.values()) {
             try {
-                terminated = this.taskExecutor.awaitTermination(timeout, unit);
+                terminated &= executor.awaitTermination(timeout, unit);
             } catch (Throwable e) {
                 ex = e;
             }
         }
-
-        if (terminated && !this.dbExecutor.isShutdown()) {
-            this.dbExecutor.shutdown();
+        // The db executors of the graphs not closed or not terminated
+        for (TaskScheduler scheduler : this.schedulers.values()) {
             try {
-                terminated = this.dbExecutor.awaitTermination(timeout, unit);
+                terminated &= scheduler.close(timeout);
             } catch (Throwable e) {
                 ex = e;
             }
         }
 
-        if (!terminated) {
+        if (!terminated && ex == null) {
             ex = new TimeoutException(timeout + "s");
         }
         if (ex != null) {
@@ -150,7 +185,15 @@ public class TaskManager {
     }
 
     public int workerPoolSize() {
-        return ((ThreadPoolExecutor) this.taskExecutor).getCorePoolSize();
+        int size = 0;
+        for (ResourceClass clazz : ResourceClass.values()) {
+            size += this.workerPoolSize(clazz);
+        }
+        return size;
+    }
+
+    public int workerPoolSize(ResourceClass clazz) {
+        return this.taskExecutors.get(clazz).getCorePoolSize();
     }
 
     public int pendingTasks() {
@@ -160,4 +203,86 @@ public class TaskManager {
         }
         return size;
     }
+
+    public int queuedTasks(ResourceClass clazz) {
+        int size = 0;
+        for (TaskScheduler scheduler : this.schedulers.values()) {
+            size += scheduler.queuedTasks(clazz);
+        }
+        return size;
+    }
+
+    public int runningTasks(ResourceClass clazz) {
+        int size = 0;
+        for (TaskScheduler scheduler : this.schedulers.values()) {
+            size += scheduler.runningTasks(clazz);
+        }
+        return size;
+    }
+
+    /**
+     * The max of the recent wait time in milliseconds of the graphs
+     */
+    public long waitTime(ResourceClass clazz) {
+        long time = 0L;
+        for (TaskScheduler scheduler : this.schedulers.values()) {
+            time = Math.max(time, scheduler.waitTime(clazz));
+        }
+        return time;
+    }
+
+    /**
+     * Grow the pool of the resource class to the number of threads, the
+     * pools are shared by the graphs so they are never shrunk
+     */
+    private synchronized void ensureWorkers(ResourceClass clazz,
+                                            int threads) {
+        ThreadPoolExecutor executor = this.taskExecutors.get(clazz);
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        }
+    }
+
+    private static ConfigOption<Integer> workersOption(ResourceClass clazz) {
+        switch (clazz) {
+            case CPU_HEAVY:
+                return CoreOptions.TASK_CPU_HEAVY_WORKERS;
+            case IO_HEAVY:
+                return CoreOptions.TASK_IO_HEAVY_WORKERS;
+            case REBUILD_INDEX:
+                return CoreOptions.TASK_REBUILD_INDEX_WORKERS;
+            case SHORT:
+                return CoreOptions.TASK_SHORT_WORKERS;
+            default:
+                throw new AssertionError(String.format(
+                          "Invalid resource class '%s'", clazz));
+        }
+    }
+
+    private static ThreadPoolExecutor newTaskExecutor(ResourceClass clazz,
+                                                      int threads) {
+        String name = String.format(TASK_WORKER, clazz.string());
+        PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>(
+                                                INITIAL_QUEUE_SIZE,
+                                                TaskManager::compare);
+        ThreadFactory factory = new BasicThreadFactory.Builder()
+                                                      .namingPattern(name)
+                                                      .build();
+        return new ThreadPoolExecutor(threads, threads, 0L,
+                                      TimeUnit.MILLISECONDS, queue, factory);
+    }
+
+    /**
+     * The queued tasks are executed in the order of priority, and the
+     * runnables other than tasks like closing tx are executed firstly
+     */
+    private static int compare(Runnable r1, Runnable r2) {
+        boolean task1 = r1 instanceof HugeTask;
+        boolean task2 = r2 instanceof HugeTask;
+        if (task1 && task2) {
+            return HugeTask.compare((HugeTask<?>) r1, (HugeTask<?>) r2);
+        }
+        return Boolean.compare(task1, task2);
+    }
 }
@@ -20,20 +20,35 @@
 package com.baidu.hugegraph.task;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.tuple.Pair;
 
 import org.apache.tinkerpop.gremlin.structure.Graph.Hidden;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.slf4j.Logger;
 
 import com.baidu.hugegraph.HugeException;
 import com.baidu.hugegraph.HugeGraph;
@@ -58,38 +73,67 @@ import com.baidu.hugegraph.type.define.DataType;
 import com.baidu.hugegraph.type.define.HugeKeys;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Events;
+import com.baidu.hugegraph.util.Log;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 public class TaskScheduler {
 
+    private static final Logger LOG = Log.logger(TaskScheduler.class);
+
     private final HugeGraph graph;
-    private final ExecutorService taskExecutor;
-    private final ExecutorService dbExecutor;
+    private final Map<ResourceClass, TaskQueue> taskQueues;
+    private final List<ExecutorService> dbExecutors;
+    private final List<TaskSaver> savers;
 
     private final EventListener eventListener;
     private final Map<Id, HugeTask<?>> tasks;
 
-    private volatile TaskTransaction taskTx;
+    // The task tx of each db executor thread
+    private final Map<Thread, TaskTransaction> taskTxs;
 
     private static final long NO_LIMIT = -1L;
     private static final long QUERY_INTERVAL = 100L;
     private static final int MAX_PENDING_TASKS = 10000;
-
+    private static final int SAVE_BATCH_SIZE = 500;
+    private static final int WAIT_TIME_SMOOTHING = 8;
+    private static final long CLOSE_TIMEOUT = 30L; // seconds
+
+    /**
+     * @param taskExecutors the executor of each resource class to execute
+     *                      the tasks, which are shared by the graphs
+     * @param dbExecutors   the executors to save/query the tasks
+     * @param quota         the max number of running tasks of each resource
+     *                      class of the graph, 0 means no limit
+     */
     public TaskScheduler(HugeGraph graph,
-                         ExecutorService taskExecutor,
-                         ExecutorService dbExecutor) {
+                         Map<ResourceClass, ThreadPoolExecutor> taskExecutors,
+                         List<ExecutorService> dbExecutors, int quota) {
         E.checkNotNull(graph, "graph");
-        E.checkNotNull(taskExecutor, "taskExecutor");
-        E.checkNotNull(dbExecutor, "dbExecutor");
+        E.checkArgument(taskExecutors != null &&
+                        taskExecutors.size() == ResourceClass.values().length,
+                        "The task executors must be set for each class");
+        E.checkArgument(dbExecutors != null && !dbExecutors.isEmpty(),
+                        "The db executors can't be null or empty");
+        E.checkArgument(quota >= 0, "The quota must be >= 0, but got %s",
+                        quota);
 
         this.graph = graph;
-        this.taskExecutor = taskExecutor;
-        this.dbExecutor = dbExecutor;
+        this.taskQueues = new EnumMap<>(ResourceClass.class);
+        for (ResourceClass clazz : ResourceClass.values()) {
+            this.taskQueues.put(clazz, new TaskQueue(
+                                       taskExecutors.get(clazz), quota));
+        }
+        this.dbExecutors = ImmutableList.copyOf(dbExecutors);
+        this.savers = new ArrayList<>(dbExecutors.size());
+        for (ExecutorService executor : this.dbExecutors) {
+            this.savers.add(new TaskSaver(executor));
+        }
 
         this.tasks = new ConcurrentHashMap<>();
 
-        this.taskTx = null;
+        this.taskTxs = new ConcurrentHashMap<>();
 
         this.eventListener = this.listenChanges();
     }
@@ -102,20 +146,44 @@ public class TaskScheduler {
         return this.tasks.size();
     }
 
+    /**
+     * The number of tasks of the resource class waiting to be executed
+     */
+    public int queuedTasks(ResourceClass clazz) {
+        return this.taskQueues.get(clazz).queued();
+    }
+
+    public int runningTasks(ResourceClass clazz) {
+        return this.taskQueues.get(clazz).running();
+    }
+
+    /**
+     * The recent time in milliseconds the tasks of the resource class
+     * waited before being executed, which is smoothed over the tasks
+     */
+    public long waitTime(ResourceClass clazz) {
+        return this.taskQueues.get(clazz).waitTime();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<ResourceClass, TaskQueue> e :
+             this.taskQueues.entrySet()) {
+            stats.put(e.getKey().string(), e.getValue().stats());
+        }
+        return stats;
+    }
+
     private TaskTransaction tx() {
         // NOTE: only the owner thread can access task tx
-        if (this.taskTx == null) {
-            synchronized (this) {
-                if (this.taskTx == null) {
-                    BackendStore store = this.graph.loadSystemStore();
-                    TaskTransaction tx = new TaskTransaction(this.graph, store);
-                    assert this.taskTx == null; // may be reentrant?
-                    this.taskTx = tx;
-                }
-            }
+        Thread current = Thread.currentThread();
+        TaskTransaction tx = this.taskTxs.get(current);
+        if (tx == null) {
+            BackendStore store = this.graph.loadSystemStore();
+            tx = new TaskTransaction(this.graph, store);
+            this.taskTxs.put(current, tx);
         }
-        assert this.taskTx != null;
-        return this.taskTx;
+        return tx;
     }
 
     private EventListener listenChanges() {
@@ -171,41 +239,93 @@ public class TaskScheduler {
         this.tasks.put(task.id(), task);
         task.callable().scheduler(this);
         task.callable().task(task);
-        return this.taskExecutor.submit(task);
+        this.taskQueues.get(task.resourceClass()).offer(task);
+        return task;
     }
 
     public <V> void cancel(HugeTask<V> task) {
         E.checkArgumentNotNull(task, "Task can't be null");
         if (!task.completed()) {
             task.cancel(true);
+            // Free the queued task instead of waiting for it to be polled
+            this.taskQueues.get(task.resourceClass()).remove(task);
             this.remove(task.id());
         }
     }
 
+    protected void started(HugeTask<?> task) {
+        this.taskQueues.get(task.resourceClass()).started(task);
+    }
+
+    protected void finished(HugeTask<?> task) {
+        this.taskQueues.get(task.resourceClass()).finished(task);
+    }
+
     protected void remove(Id id) {
         HugeTask<?> task = this.tasks.remove(id);
-        assert task == null || task.completed();
+        // The status is set after removed if cancelled, see HugeTask.cancel()
+        assert task == null || task.completed() || task.isCancelled();
+        if (this.tasks.isEmpty()) {
+            synchronized (this.tasks) {
+                this.tasks.notifyAll();
+            }
+        }
     }
 
+    /**
+     * Save the task and wait for it to be committed, the tasks saved by
+     * multiple threads at the same time are committed in a batch by the
+     * db executor of the partition
+     */
     public <V> void save(HugeTask<V> task) {
         E.checkArgumentNotNull(task, "Task can't be null");
-        this.call(() -> {
-            // Construct vertex from task
-            HugeVertex vertex = this.tx().constructVertex(task);
-            // TODO: delete index of old vertex
-            // this.tx().deleteIndex(vertex);
-            // Add or update task info in backend store, stale index might exist
-            return this.tx().addVertex(vertex);
-        });
+        TaskSaver saver = this.savers.get(this.partition(task.id()));
+        try {
+            saver.save(task).get();
+        } catch (Exception e) {
+            throw new HugeException("Failed to update/query TaskStore", e);
+        }
     }
 
     public boolean close() {
+        return this.close(CLOSE_TIMEOUT);
+    }
+
+    /**
+     * Close the task tx of each db executor and shut down the executors
+     * @param timeout seconds to wait for the executors to be terminated
+     * @return true if all the db executors are terminated
+     */
+    public boolean close(long timeout) {
         this.unlistenChanges();
-        if (!this.dbExecutor.isShutdown()) {
-            this.call(() -> {
-                this.tx().close();
+        for (ExecutorService executor : this.dbExecutors) {
+            if (executor.isShutdown()) {
+                continue;
+            }
+            this.call(executor, Executors.callable(() -> {
+                TaskTransaction tx = this.taskTxs.remove(
+                                     Thread.currentThread());
+                if (tx != null) {
+                    tx.close();
+                }
                 this.graph.closeTx();
-            });
+            }));
+            executor.shutdown();
+        }
+        long deadline = System.currentTimeMillis() +
+                        TimeUnit.SECONDS.toMillis(timeout);
+        try {
+            for (ExecutorService executor : this.dbExecutors) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (!executor.awaitTermination(remaining,
+                                               TimeUnit.MILLISECONDS)) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Interrupted while waiting for the db executors of " +
+                     "graph '{}' to be terminated", this.graph.name());
+            return false;
         }
         return true;
     }
@@ -243,7 +363,7 @@ public class TaskScheduler {
     }
 
     public <V> HugeTask<V> findTask(Id id) {
-        HugeTask<V> result =  this.call(() -> {
+        HugeTask<V> result =  this.call(id, () -> {
             HugeTask<V> task = null;
             Iterator<Vertex> vertices = this.tx().queryVertices(id);
             if (vertices.hasNext()) {
@@ -287,7 +407,7 @@ public class TaskScheduler {
                             id, task.status());
             this.remove(id);
         }
-        return this.call(() -> {
+        return this.call(id, () -> {
             HugeTask<V> result = null;
             Iterator<Vertex> vertices = this.tx().queryVertices(id);
             if (vertices.hasNext()) {
@@ -305,46 +425,54 @@ public class TaskScheduler {
 
     public <V> HugeTask<V> waitUntilTaskCompleted(Id id, long seconds)
                                                   throws TimeoutException {
-        long passes = seconds * 1000 / QUERY_INTERVAL;
-        for (long pass = 0;; pass++) {
-            HugeTask<V> task = this.task(id);
-            if (task.completed()) {
-                return task;
-            }
-            if (pass >= passes) {
-                break;
+        long deadline = System.currentTimeMillis() +
+                        TimeUnit.SECONDS.toMillis(seconds);
+        HugeTask<V> task = this.task(id);
+        while (!task.completed()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0L) {
+                throw new TimeoutException(String.format(
+                          "Task '%s' was not completed in %s seconds",
+                          id, seconds));
             }
             try {
-                Thread.sleep(QUERY_INTERVAL);
-            } catch (InterruptedException ignored) {
+                if (this.tasks.get(id) == task) {
+                    // Wake up once the task executed by self completed
+                    task.completion().get(remaining, TimeUnit.MILLISECONDS);
+                } else {
+                    // Executed by others or completing, query the store
+                    Thread.sleep(Math.min(QUERY_INTERVAL, remaining));
+                    task = this.task(id);
+                }
+            } catch (InterruptedException | ExecutionException ignored) {
                 // Ignore InterruptedException
+            } catch (TimeoutException ignored) {
+                // Check the status again and throw if not completed
             }
         }
-        throw new TimeoutException(String.format(
-                  "Task '%s' was not completed in %s seconds", id, seconds));
+        return task;
     }
 
     public void waitUntilAllTasksCompleted(long seconds)
                                            throws TimeoutException {
-        long passes = seconds * 1000 / QUERY_INTERVAL;
-        int taskSize = 0;
-        for (long pass = 0;; pass++) {
-            taskSize = this.pendingTasks();
-            if (taskSize == 0) {
-                return;
-            }
-            if (pass >= passes) {
-                break;
-            }
-            try {
-                Thread.sleep(QUERY_INTERVAL);
-            } catch (InterruptedException ignored) {
-                // Ignore InterruptedException
+        long deadline = System.currentTimeMillis() +
+                        TimeUnit.SECONDS.toMillis(seconds);
+        synchronized (this.tasks) {
+            // Notified by remove() once all the tasks are removed
+            while (!this.tasks.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0L) {
+                    throw new TimeoutException(String.format(
+                              "There are still %s incomplete tasks after " +
+                              "%s seconds", this.tasks.size(), seconds));
+                }
+                try {
+                    this.tasks.wait(remaining);
+                } catch (InterruptedException ignored) {
+                    // Ignore InterruptedException
+                }
             }
         }
-        throw new TimeoutException(String.format(
-                  "There are still %s incomplete tasks after %s seconds",
-                  taskSize, seconds));
     }
 
     private <V> Iterator<HugeTask<V>> queryTask(String key, Object value,
@@ -385,19 +513,219 @@ public class TaskScheduler {
         }).iterator();
     }
 
+    private int partition(Id id) {
+        return (int) Math.floorMod(id.asLong(), (long) this.savers.size());
+    }
+
     private <V> V call(Runnable runnable) {
         return this.call(Executors.callable(runnable, null));
     }
 
     private <V> V call(Callable<V> callable) {
+        // Spread the queries not related to a task over the partitions
+        long thread = Thread.currentThread().getId();
+        int partition = (int) (thread % this.dbExecutors.size());
+        return this.call(this.dbExecutors.get(partition), callable);
+    }
+
+    private <V> V call(Id id, Callable<V> callable) {
+        return this.call(this.dbExecutors.get(this.partition(id)), callable);
+    }
+
+    private <V> V call(ExecutorService executor, Callable<V> callable) {
         // Ensure all db operations are executed in dbExecutor thread(s)
         try {
-            return this.dbExecutor.submit(callable).get();
+            return executor.submit(callable).get();
         } catch (Exception e) {
             throw new HugeException("Failed to update/query TaskStore", e);
         }
     }
 
+    /**
+     * The tasks of a resource class of the graph, which are dispatched to
+     * the executor of the class in the order of priority, and no more than
+     * the quota of tasks are dispatched at the same time
+     */
+    private static class TaskQueue {
+
+        private final ThreadPoolExecutor executor;
+        private final int quota;
+        private final PriorityQueue<HugeTask<?>> waiting;
+
+        // The tasks dispatched to the executor and not finished
+        private int dispatched;
+        private int running;
+        private double waitTime;
+
+        public TaskQueue(ThreadPoolExecutor executor, int quota) {
+            E.checkNotNull(executor, "executor");
+            this.executor = executor;
+            this.quota = quota;
+            this.waiting = new PriorityQueue<>(HugeTask::compare);
+            this.dispatched = 0;
+            this.running = 0;
+            this.waitTime = 0.0;
+        }
+
+        public synchronized int queued() {
+            // Including the dispatched tasks waiting for the workers
+            return this.waiting.size() + this.dispatched - this.running;
+        }
+
+        public synchronized int running() {
+            return this.running;
+        }
+
+        public synchronized long waitTime() {
+            return (long) this.waitTime;
+        }
+
+        public synchronized Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("workers", this.executor.getCorePoolSize());
+            stats.put("quota", this.quota);
+            stats.put("queued", this.queued());
+            stats.put("running", this.running);
+            stats.put("wait_time", this.waitTime());
+            return stats;
+        }
+
+        public synchronized void offer(HugeTask<?> task) {
+            task.queued();
+            this.waiting.add(task);
+            this.dispatch();
+        }
+
+        public synchronized void remove(HugeTask<?> task) {
+            if (this.waiting.remove(task)) {
+                return;
+            }
+            // The task will never run if removed from the executor
+            if (this.executor.remove(task)) {
+                this.dispatched--;
+                this.dispatch();
+            }
+        }
+
+        public synchronized void started(HugeTask<?> task) {
+            this.running++;
+            this.waitTime += (task.queuedMillis() - this.waitTime) /
+                             WAIT_TIME_SMOOTHING;
+        }
+
+        public synchronized void finished(HugeTask<?> task) {
+            assert this.running > 0 && this.dispatched > 0;
+            this.running--;
+            this.dispatched--;
+            try {
+                this.dispatch();
+            } catch (Throwable e) {
+                LOG.warn("Failed to dispatch the queued tasks", e);
+            }
+        }
+
+        private void dispatch() {
+            assert Thread.holdsLock(this);
+            while (!this.waiting.isEmpty() &&
+                   (this.quota == 0 || this.dispatched < this.quota)) {
+                HugeTask<?> task = this.waiting.poll();
+                try {
+                    this.executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    this.waiting.add(task);
+                    throw new HugeException("Failed to execute task '%s'",
+                                            e, task.id());
+                }
+                this.dispatched++;
+            }
+        }
+    }
+
+    /**
+     * Save the tasks of a partition in the db executor of the partition,
+     * the tasks queued while committing are committed in the next batch
+     */
+    private class TaskSaver implements Runnable {
+
+        private final ExecutorService executor;
+        private final Queue<Pair<HugeTask<?>, CompletableFuture<Void>>> queue;
+        private final AtomicBoolean scheduled;
+
+        public TaskSaver(ExecutorService executor) {
+            this.executor = executor;
+            this.queue = new ConcurrentLinkedQueue<>();
+            this.scheduled = new AtomicBoolean(false);
+        }
+
+        public Future<Void> save(HugeTask<?> task) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            this.queue.add(Pair.of(task, future));
+            if (this.scheduled.compareAndSet(false, true)) {
+                try {
+                    this.executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    this.scheduled.set(false);
+                    this.failAll(e);
+                }
+            }
+            return future;
+        }
+
+        @Override
+        public void run() {
+            // Let the later tasks schedule another batch
+            this.scheduled.set(false);
+            List<Pair<HugeTask<?>, CompletableFuture<Void>>> batch;
+            batch = new ArrayList<>();
+            Pair<HugeTask<?>, CompletableFuture<Void>> pair;
+            while ((pair = this.queue.poll()) != null) {
+                batch.add(pair);
+                if (batch.size() >= SAVE_BATCH_SIZE) {
+                    this.commit(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                this.commit(batch);
+            }
+        }
+
+        private void commit(
+                     List<Pair<HugeTask<?>, CompletableFuture<Void>>> batch) {
+            // Save a task once if it's saved multiple times by the batch
+            Map<Id, HugeTask<?>> tasks = new LinkedHashMap<>();
+            for (Pair<HugeTask<?>, CompletableFuture<Void>> pair : batch) {
+                tasks.put(pair.getKey().id(), pair.getKey());
+            }
+            try {
+                tx().saveTasks(tasks.values());
+                for (Pair<HugeTask<?>, CompletableFuture<Void>> pair : batch) {
+                    pair.getValue().complete(null);
+                }
+                return;
+            } catch (Throwable e) {
+                LOG.debug("Failed to save {} tasks in batch, save them " +
+                          "one by one", tasks.size(), e);
+            }
+            // Save one by one to find out the failed tasks
+            for (Pair<HugeTask<?>, CompletableFuture<Void>> pair : batch) {
+                try {
+                    tx().saveTasks(ImmutableList.of(pair.getKey()));
+                    pair.getValue().complete(null);
+                } catch (Throwable e) {
+                    pair.getValue().completeExceptionally(e);
+                }
+            }
+        }
+
+        private void failAll(Throwable e) {
+            Pair<HugeTask<?>, CompletableFuture<Void>> pair;
+            while ((pair = this.queue.poll()) != null) {
+                pair.getValue().completeExceptionally(e);
+            }
+        }
+    }
+
     private static class TaskTransaction extends GraphTransaction {
 
         public static final String TASK = P.TASK;
@@ -415,6 +743,29 @@ public class TaskScheduler {
             return this.constructVertex(false, task.asArray());
         }
 
+        public void saveTasks(Collection<HugeTask<?>> tasks) {
+            this.autoCommit(false);
+            try {
+                for (HugeTask<?> task : tasks) {
+                    // Construct vertex from task
+                    HugeVertex vertex = this.constructVertex(task);
+                    // TODO: delete index of old vertex
+                    // this.deleteIndex(vertex);
+                    /*
+                     * Add or update task info in backend store,
+                     * stale index might exist
+                     */
+                    this.addVertex(vertex);
+                }
+            } catch (Throwable e) {
+                this.rollback();
+                throw e;
+            } finally {
+                this.autoCommit(true);
+            }
+            this.commitOrRollback();
+        }
+
         public boolean indexValueChanged(Vertex oldV, HugeVertex newV) {
             if (!oldV.value(P.STATUS).equals(newV.value(P.STATUS))) {
                 return true;
@@ -42,8 +42,10 @@ import com.baidu.hugegraph.HugeException;
 import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.query.QueryBudget;
 import com.baidu.hugegraph.backend.tx.GraphTransaction;
 import com.baidu.hugegraph.iterator.ExtendableIterator;
+import com.baidu.hugegraph.iterator.MapperIterator;
 import com.baidu.hugegraph.schema.SchemaLabel;
 import com.baidu.hugegraph.structure.HugeEdge;
 import com.baidu.hugegraph.type.HugeType;
@@ -199,7 +201,18 @@ public class HugeTraverser {
         if (limit != NO_LIMIT) {
             query.limit(limit);
         }
-        return this.graph.edges(query);
+        Iterator<Edge> edges = this.graph.edges(query);
+
+        QueryBudget budget = QueryBudget.current();
+        if (budget == null) {
+            return edges;
+        }
+        // Stop traversing once the budget of the request exhausted
+        budget.check();
+        return new MapperIterator<>(edges, edge -> {
+            budget.consumeElements(1L);
+            return edge;
+        });
     }
 
     protected Iterator<Edge> edgesOfVertex(Id source, Directions dir,
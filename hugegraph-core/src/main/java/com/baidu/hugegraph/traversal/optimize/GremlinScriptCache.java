@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.traversal.optimize;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.cache.Cache;
+import com.baidu.hugegraph.backend.cache.CacheManager;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.config.CoreOptions;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.util.E;
+
+/**
+ * Cache the compiled gremlin scripts of a graph by the normalized script
+ * text, so the scripts submitted repeatedly with different bindings are
+ * compiled only once. The distinct scripts which only differ in literal
+ * values are counted as variants of a shape in a time window, and are
+ * rejected if a shape has too many variants in the window since the values
+ * should be passed by bindings. The variants are not limited by default.
+ */
+public final class GremlinScriptCache {
+
+    private static final String SCRIPT_CACHE = "gremlin-script";
+    private static final String SHAPE_CACHE = "gremlin-script-shape";
+
+    private static final Pattern LINE_END =
+                         Pattern.compile("[ \\t]*(\r\n|\r|\n)");
+    private static final Pattern LITERAL = Pattern.compile(
+            "'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\"|" +
+            "\\b\\d+(?:\\.\\d+)?[lLdDfF]?\\b");
+
+    private static final AtomicLong compiles = new AtomicLong(0L);
+    private static final AtomicLong compileTime = new AtomicLong(0L);
+
+    private final Cache scripts;
+    private final Cache shapes;
+    private final int maxVariants;
+    private final long variantsWindow;
+
+    private GremlinScriptCache(HugeGraph graph) {
+        HugeConfig conf = graph.configuration();
+        int capacity = conf.get(CoreOptions.SCRIPT_CACHE_CAPACITY);
+        String suffix = "-" + graph.name();
+        CacheManager manager = CacheManager.instance();
+        this.scripts = manager.cache(SCRIPT_CACHE + suffix, capacity);
+        this.shapes = manager.cache(SHAPE_CACHE + suffix, capacity);
+        this.maxVariants = conf.get(CoreOptions.SCRIPT_MAX_VARIANTS);
+        this.variantsWindow = conf.get(CoreOptions.SCRIPT_VARIANTS_WINDOW) *
+                              1000L;
+    }
+
+    public static GremlinScriptCache of(HugeGraph graph) {
+        return new GremlinScriptCache(graph);
+    }
+
+    /**
+     * The total number of compiled scripts
+     */
+    public static long compiles() {
+        return compiles.get();
+    }
+
+    /**
+     * The total time in milliseconds of compiling scripts
+     */
+    public static long compileTime() {
+        return compileTime.get();
+    }
+
+    public CompiledScript compile(ScriptEngine engine, String language,
+                                  String script) throws ScriptException {
+        E.checkArgument(engine instanceof Compilable,
+                        "The script engine of '%s' can't compile script",
+                        language);
+        String normalized = normalize(script);
+        Id key = IdGenerator.of(language + ":" + normalized);
+        CompiledScript compiled = (CompiledScript) this.scripts.get(key);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        this.checkVariants(language, normalized);
+        long start = System.currentTimeMillis();
+        compiled = ((Compilable) engine).compile(normalized);
+        compileTime.addAndGet(System.currentTimeMillis() - start);
+        compiles.incrementAndGet();
+
+        this.scripts.update(key, compiled);
+        return compiled;
+    }
+
+    private void checkVariants(String language, String script) {
+        if (this.maxVariants <= 0) {
+            return;
+        }
+        String shape = LITERAL.matcher(script).replaceAll("?");
+        Id key = IdGenerator.of(language + ":" + shape);
+        Variants variants = (Variants) this.shapes.getOrFetch(
+                            key, k -> new Variants());
+        long now = System.currentTimeMillis();
+        if (!variants.add(script, now, this.variantsWindow,
+                          this.maxVariants)) {
+            throw new HugeException(
+                      "Too many variants(>%s) of the gremlin script which " +
+                      "only differ in literal values, please pass the " +
+                      "values by bindings: %s", this.maxVariants, script);
+        }
+    }
+
+    /**
+     * The distinct variants of a shape compiled in the current window, a
+     * script compiled again after evicted from the cache is not counted twice
+     */
+    private static class Variants {
+
+        private final Set<String> scripts;
+        private long windowStart;
+
+        public Variants() {
+            this.scripts = new HashSet<>();
+            this.windowStart = 0L;
+        }
+
+        public synchronized boolean add(String script, long now, long window,
+                                        int max) {
+            if (now - this.windowStart >= window) {
+                // Reset the counts of previous window
+                this.scripts.clear();
+                this.windowStart = now;
+            }
+            if (this.scripts.contains(script)) {
+                return true;
+            }
+            if (this.scripts.size() >= max) {
+                return false;
+            }
+            this.scripts.add(script);
+            return true;
+        }
+    }
+
+    /**
+     * Strip the trailing blanks of lines and unify the line separators,
+     * the literals are kept since they are part of the script semantics
+     */
+    public static String normalize(String script) {
+        return LINE_END.matcher(script.trim()).replaceAll("\n");
+    }
+}
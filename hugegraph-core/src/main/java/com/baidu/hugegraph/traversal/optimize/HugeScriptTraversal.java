@@ -32,6 +32,8 @@ import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalSourceFactory;
 
+import com.baidu.hugegraph.HugeGraph;
+
 /**
  * ScriptTraversal encapsulates a {@link ScriptEngine} and a script which is compiled into a {@link Traversal} at {@link Admin#applyStrategies()}.
  * This is useful for serializing traversals as the compilation can happen on the remote end where the traversal will ultimately be processed.
@@ -94,7 +96,16 @@ public final class HugeScriptTraversal<S, E> extends DefaultTraversal<S, E> {
         }
 
         try {
-            Object result = engine.eval(this.script, bindings);
+            Object result;
+            if (this.graph instanceof HugeGraph) {
+                // Reuse the compiled script if submitted before
+                GremlinScriptCache cache;
+                cache = GremlinScriptCache.of((HugeGraph) this.graph);
+                result = cache.compile(engine, this.language, this.script)
+                              .eval(bindings);
+            } else {
+                result = engine.eval(this.script, bindings);
+            }
 
             if (result instanceof Admin) {
                 @SuppressWarnings({ "unchecked", "resource" })
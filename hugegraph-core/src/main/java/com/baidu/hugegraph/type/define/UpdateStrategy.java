@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.type.define;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.baidu.hugegraph.util.E;
+
+/**
+ * The strategy to merge the value of a property of an existing element with
+ * the value of the same property when the element is upserted
+ */
+public enum UpdateStrategy implements SerialEnum {
+
+    // The new value replaces the old one
+    OVERRIDE(1, "override"),
+
+    // The new values are appended to the old ones of a set or list
+    APPEND(2, "append"),
+
+    // The new number is added to the old one
+    SUM(3, "sum"),
+
+    // The bigger one of the old and new number or date is kept
+    BIGGER(4, "bigger");
+
+    private byte code = 0;
+    private String name = null;
+
+    static {
+        SerialEnum.register(UpdateStrategy.class);
+    }
+
+    UpdateStrategy(int code, String name) {
+        assert code < 256;
+        this.code = (byte) code;
+        this.name = name;
+    }
+
+    @Override
+    public byte code() {
+        return this.code;
+    }
+
+    public String string() {
+        return this.name;
+    }
+
+    public Object merge(Object oldValue, Object newValue) {
+        E.checkArgumentNotNull(newValue, "The value merged by strategy '%s' " +
+                               "can't be null", this.name);
+        if (oldValue == null) {
+            return newValue;
+        }
+        switch (this) {
+            case OVERRIDE:
+                return newValue;
+            case APPEND:
+                return append(oldValue, newValue);
+            case SUM:
+                return sum(oldValue, newValue);
+            case BIGGER:
+                return compare(oldValue, newValue) >= 0 ? oldValue : newValue;
+            default:
+                throw new AssertionError(String.format(
+                          "Unsupported update strategy: '%s'", this));
+        }
+    }
+
+    private static Object append(Object oldValue, Object newValue) {
+        E.checkArgument(oldValue instanceof Collection &&
+                        newValue instanceof Collection,
+                        "Can only append values of set or list, " +
+                        "but got '%s' and '%s'", oldValue, newValue);
+        Collection<?> olds = (Collection<?>) oldValue;
+        Collection<?> news = (Collection<?>) newValue;
+        if (oldValue instanceof Set) {
+            Set<Object> values = new HashSet<>(olds);
+            values.addAll(news);
+            return values;
+        } else {
+            List<Object> values = new ArrayList<>(olds);
+            values.addAll(news);
+            return values;
+        }
+    }
+
+    private static Object sum(Object oldValue, Object newValue) {
+        E.checkArgument(oldValue instanceof Number &&
+                        newValue instanceof Number,
+                        "Can only sum numbers, but got '%s' and '%s'",
+                        oldValue, newValue);
+        Number oldNumber = (Number) oldValue;
+        Number newNumber = (Number) newValue;
+        if (isIntegral(oldNumber) && isIntegral(newNumber)) {
+            return oldNumber.longValue() + newNumber.longValue();
+        }
+        return oldNumber.doubleValue() + newNumber.doubleValue();
+    }
+
+    private static int compare(Object oldValue, Object newValue) {
+        if (oldValue instanceof Number && newValue instanceof Number) {
+            Number oldNumber = (Number) oldValue;
+            Number newNumber = (Number) newValue;
+            if (isIntegral(oldNumber) && isIntegral(newNumber)) {
+                return Long.compare(oldNumber.longValue(),
+                                    newNumber.longValue());
+            }
+            return Double.compare(oldNumber.doubleValue(),
+                                  newNumber.doubleValue());
+        } else if (oldValue instanceof Date && newValue instanceof Date) {
+            return ((Date) oldValue).compareTo((Date) newValue);
+        }
+        throw new IllegalArgumentException(String.format(
+                  "Can only compare numbers or dates, but got '%s' and '%s'",
+                  oldValue, newValue));
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Byte || number instanceof Short ||
+               number instanceof Integer || number instanceof Long;
+    }
+}
@@ -29,4 +29,5 @@ public final class Events {
     public static final String STORE_CLEAR = "store.clear";
     public static final String STORE_TRUNCATE = "store.truncate";
     public static final String STORE_INITED = "store.inited";
+    public static final String STORE_RESTORED = "store.restored";
 }
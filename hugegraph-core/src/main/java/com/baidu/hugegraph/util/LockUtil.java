@@ -20,14 +20,9 @@
 package com.baidu.hugegraph.util;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
@@ -45,6 +40,7 @@ public final class LockUtil {
     public static final String WRITE = "write";
     public static final String READ = "read";
 
+    // The groups of schema epoch instead of locks, see SchemaEpoch
     public static final String INDEX_LABEL_DELETE = "il_delete";
     public static final String EDGE_LABEL_DELETE = "el_delete";
     public static final String VERTEX_LABEL_DELETE = "vl_delete";
@@ -53,29 +49,27 @@ public final class LockUtil {
     public static final String EDGE_LABEL_ADD_UPDATE = "el_add_update";
     public static final String VERTEX_LABEL_ADD_UPDATE = "vl_add_update";
     public static final String PROPERTY_KEY_ADD_UPDATE = "pk_add_update";
+    public static final String VERTEX_UPSERT = "v_upsert";
+    public static final String EDGE_UPSERT = "e_upsert";
 
     public static final long WRITE_WAIT_TIMEOUT = 30L;
 
     public static void init(String graph) {
-        LockManager.instance().create(join(graph, INDEX_LABEL_DELETE));
-        LockManager.instance().create(join(graph, EDGE_LABEL_DELETE));
-        LockManager.instance().create(join(graph, VERTEX_LABEL_DELETE));
-        LockManager.instance().create(join(graph, INDEX_LABEL_REBUILD));
         LockManager.instance().create(join(graph, INDEX_LABEL_ADD_UPDATE));
         LockManager.instance().create(join(graph, EDGE_LABEL_ADD_UPDATE));
         LockManager.instance().create(join(graph, VERTEX_LABEL_ADD_UPDATE));
         LockManager.instance().create(join(graph, PROPERTY_KEY_ADD_UPDATE));
+        LockManager.instance().create(join(graph, VERTEX_UPSERT));
+        LockManager.instance().create(join(graph, EDGE_UPSERT));
     }
 
     public static void destroy(String graph) {
-        LockManager.instance().destroy(join(graph, INDEX_LABEL_DELETE));
-        LockManager.instance().destroy(join(graph, EDGE_LABEL_DELETE));
-        LockManager.instance().destroy(join(graph, VERTEX_LABEL_DELETE));
-        LockManager.instance().destroy(join(graph, INDEX_LABEL_REBUILD));
         LockManager.instance().destroy(join(graph, INDEX_LABEL_ADD_UPDATE));
         LockManager.instance().destroy(join(graph, EDGE_LABEL_ADD_UPDATE));
         LockManager.instance().destroy(join(graph, VERTEX_LABEL_ADD_UPDATE));
         LockManager.instance().destroy(join(graph, PROPERTY_KEY_ADD_UPDATE));
+        LockManager.instance().destroy(join(graph, VERTEX_UPSERT));
+        LockManager.instance().destroy(join(graph, EDGE_UPSERT));
     }
 
     private static String join(String graph, String group) {
@@ -117,6 +111,20 @@ public final class LockUtil {
         return writeLock;
     }
 
+    private static Lock tryLockWrite(String group, String lock) {
+        Lock writeLock = LockManager.instance().get(group)
+                                    .readWriteLock(lock).writeLock();
+        LOG.debug("Trying to get the write lock '{}' of LockGroup '{}'",
+                  lock, group);
+        if (!writeLock.tryLock()) {
+            throw new HugeException(
+                      "Lock [%s:%s] is locked by other operation",
+                      group, lock);
+        }
+        LOG.debug("Got the write lock '{}' of LockGroup '{}'", lock, group);
+        return writeLock;
+    }
+
     public static List<Lock> lock(String... locks) {
         List<Lock> lockList = new ArrayList<>();
         E.checkArgument(locks.length % 3 == 0,
@@ -171,34 +179,24 @@ public final class LockUtil {
         }
 
         // NOTE: when used in multi-threads, should add `synchronized`
-        public void lockReads(String group, Id... locks) {
-            for (Id lock : locks) {
-                this.lockList.add(this.lockRead(group, lock));
-            }
-        }
-
-        // NOTE: when used in multi-threads, should add `synchronized`
-        public void lockReads(String group, Collection<Id> locks) {
+        public void lockWrites(String group, Id... locks) {
             for (Id lock : locks) {
-                this.lockList.add(this.lockRead(group, lock));
+                this.lockList.add(this.lockWrite(group, lock));
             }
         }
 
-        private Lock lockRead(String group, Id lock) {
-            return LockUtil.lockRead(join(this.graph, group), lock.asString());
-        }
-
         // NOTE: when used in multi-threads, should add `synchronized`
-        public void lockWrites(String group, Id... locks) {
+        public void lockWrites(String group, Collection<Id> locks) {
             for (Id lock : locks) {
                 this.lockList.add(this.lockWrite(group, lock));
             }
         }
 
         // NOTE: when used in multi-threads, should add `synchronized`
-        public void lockWrites(String group, Collection<Id> locks) {
+        public void tryLockWrites(String group, Id... locks) {
             for (Id lock : locks) {
-                this.lockList.add(this.lockWrite(group, lock));
+                this.lockList.add(LockUtil.tryLockWrite(
+                                  join(this.graph, group), lock.asString()));
             }
         }
 
@@ -217,48 +215,4 @@ public final class LockUtil {
             this.lockList.clear();
         }
     }
-
-    /**
-     * LocksTable aggregate some locks that will be locked or unlocked together,
-     * which means LocksTable can only be used in scenario where
-     * one LocksTable object won't be accessed in different multiple threads.
-     */
-    public static class LocksTable {
-
-        private Map<String, Set<Id>> table;
-        private Locks locks;
-
-        public LocksTable(String graph) {
-            this.table = new HashMap<>();
-            this.locks = new LockUtil.Locks(graph);
-        }
-
-        public void lockReads(String group, Id... locks) {
-            this.lockReads(group, Arrays.asList(locks));
-        }
-
-        // NOTE: when used in multi-threads, should add `synchronized`
-        public void lockReads(String group, Collection<Id> locks) {
-            List<Id> newLocks = new ArrayList<>(locks.size());
-            Set<Id> locked = locksOfGroup(group);
-            for (Id lock : locks) {
-                if (!locked.contains(lock)) {
-                    newLocks.add(lock);
-                }
-            }
-            this.locks.lockReads(group, newLocks);
-        }
-
-        // NOTE: when used in multi-threads, should add `synchronized`
-        public void unlock() {
-            this.locks.unlock();
-        }
-
-        private Set<Id> locksOfGroup(String group) {
-            if (!this.table.containsKey(group)) {
-                this.table.putIfAbsent(group, new HashSet<>());
-            }
-            return this.table.get(group);
-        }
-    }
 }
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.backend.id.Id;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * SchemaEpoch protects the graph operations from the concurrent schema
+ * deletion or index rebuilding without per-operation named locks.
+ *
+ * The in-progress schema mutations are published as an immutable snapshot
+ * with an epoch, which is bumped once the snapshot changed. An operation
+ * records the schema ids it depends on, and validates them only if the
+ * epoch has changed since the last validation, which is just a volatile
+ * read in most cases. A schema mutation publishes its ids, bumps the epoch
+ * and drains the in-flight operations depending on the ids, the later
+ * operations will see the published ids and fail.
+ */
+public final class SchemaEpoch {
+
+    private static final Logger LOG = Log.logger(SchemaEpoch.class);
+
+    private static final List<String> GROUPS = ImmutableList.of(
+            LockUtil.VERTEX_LABEL_DELETE,
+            LockUtil.EDGE_LABEL_DELETE,
+            LockUtil.INDEX_LABEL_DELETE,
+            LockUtil.INDEX_LABEL_REBUILD
+    );
+
+    private final String graph;
+    private final Set<Reader> readers;
+    // Copy on write, most of time it's empty
+    private volatile List<Mutation> mutations;
+    private volatile long epoch;
+
+    public SchemaEpoch(String graph) {
+        this.graph = graph;
+        this.readers = ConcurrentHashMap.newKeySet();
+        this.mutations = ImmutableList.of();
+        this.epoch = 0L;
+    }
+
+    public long epoch() {
+        return this.epoch;
+    }
+
+    /**
+     * Create a reader for the operations of a transaction, which can only
+     * be used by one thread
+     */
+    public Reader reader() {
+        return new Reader();
+    }
+
+    public Mutation mutate(String group, Id... ids) {
+        return this.mutate(group, Arrays.asList(ids));
+    }
+
+    /**
+     * Publish the ids as mutating and wait for the in-flight operations
+     * depending on the ids to be finished, the mutation must be finished
+     * after the schema changes committed.
+     */
+    public Mutation mutate(String group, Collection<Id> ids) {
+        Mutation mutation = new Mutation(indexOf(group), ids);
+        long deadline = System.currentTimeMillis() +
+                        TimeUnit.SECONDS.toMillis(LockUtil.WRITE_WAIT_TIMEOUT);
+        try {
+            synchronized (this) {
+                // Wait for the mutations of the same ids by other threads
+                while (this.conflicted(mutation)) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0L) {
+                        throw mutation.lockedException();
+                    }
+                    this.wait(remaining);
+                }
+                List<Mutation> mutations = new ArrayList<>(this.mutations);
+                mutations.add(mutation);
+                this.publish(mutations);
+            }
+            LOG.debug("Bumped schema epoch of graph '{}' to {} for '{}'",
+                      this.graph, this.epoch, group);
+
+            // Drain the operations which may not see the mutation
+            synchronized (this) {
+                while (this.inflight(mutation)) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0L) {
+                        throw mutation.lockedException();
+                    }
+                    // Notified by Reader.release()
+                    this.wait(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            mutation.finish();
+            throw new HugeException("Interrupted while waiting for '%s'",
+                                    e, group);
+        } catch (Throwable e) {
+            mutation.finish();
+            throw e;
+        }
+        return mutation;
+    }
+
+    private void publish(List<Mutation> mutations) {
+        assert Thread.holdsLock(this);
+        this.mutations = ImmutableList.copyOf(mutations);
+        this.epoch++;
+    }
+
+    private boolean conflicted(Mutation mutation) {
+        for (Mutation m : this.mutations) {
+            if (m.group == mutation.group && m.owner != mutation.owner &&
+                !Collections.disjoint(m.ids, mutation.ids)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean inflight(Mutation mutation) {
+        for (Reader reader : this.readers) {
+            if (reader.owner != mutation.owner &&
+                reader.depends(mutation.group, mutation.ids)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(String group) {
+        int index = GROUPS.indexOf(group);
+        E.checkArgument(index >= 0, "Invalid schema epoch group '%s'",
+                        group);
+        return index;
+    }
+
+    public final class Reader {
+
+        // The schema ids depended on, which are read by mutations
+        private final Set<Id>[] depends;
+        private Thread owner;
+        private long epoch;
+
+        @SuppressWarnings("unchecked")
+        private Reader() {
+            this.depends = new Set[GROUPS.size()];
+            for (int i = 0; i < this.depends.length; i++) {
+                this.depends[i] = ConcurrentHashMap.newKeySet();
+            }
+            this.owner = null;
+            this.epoch = -1L;
+        }
+
+        public void check(String group, Id id) {
+            this.check(group, ImmutableList.of(id));
+        }
+
+        /**
+         * Record the ids as depended on by the current operations, and
+         * check they are not being mutated by other threads
+         * @throws HugeException if any id is being mutated
+         */
+        public void check(String group, Collection<Id> ids) {
+            int index = indexOf(group);
+            Set<Id> depends = this.depends[index];
+            if (depends.containsAll(ids) && this.epoch == epoch()) {
+                // Validated against the same mutations snapshot
+                return;
+            }
+            if (this.owner == null) {
+                this.owner = Thread.currentThread();
+                readers.add(this);
+            }
+            // Must record the ids before reading the mutations
+            depends.addAll(ids);
+            // Validate again next time if any id is being mutated
+            this.epoch = -1L;
+
+            long epoch = epoch();
+            for (Mutation m : mutations) {
+                if (m.group == index && m.owner != this.owner &&
+                    !Collections.disjoint(m.ids, ids)) {
+                    throw m.lockedException();
+                }
+            }
+            this.epoch = epoch;
+        }
+
+        private boolean depends(int group, Set<Id> ids) {
+            return !Collections.disjoint(this.depends[group], ids);
+        }
+
+        /**
+         * Clear the depended schema ids, it's called when the operations
+         * are committed or rolled back
+         */
+        public void release() {
+            if (this.owner == null) {
+                return;
+            }
+            readers.remove(this);
+            for (Set<Id> depends : this.depends) {
+                depends.clear();
+            }
+            this.owner = null;
+            this.epoch = -1L;
+            /*
+             * Wake up the mutations draining the in-flight operations, the
+             * mutations are published before checking the readers, so they
+             * can't miss the notification if seeing this reader
+             */
+            if (!mutations.isEmpty()) {
+                synchronized (SchemaEpoch.this) {
+                    SchemaEpoch.this.notifyAll();
+                }
+            }
+        }
+    }
+
+    public final class Mutation {
+
+        private final int group;
+        private final Set<Id> ids;
+        private final Thread owner;
+
+        private Mutation(int group, Collection<Id> ids) {
+            this.group = group;
+            this.ids = ImmutableSet.copyOf(ids);
+            this.owner = Thread.currentThread();
+        }
+
+        private HugeException lockedException() {
+            return new HugeException("Lock [%s_%s:%s] is locked by other " +
+                                     "operation", graph, GROUPS.get(this.group),
+                                     this.ids);
+        }
+
+        public void finish() {
+            synchronized (SchemaEpoch.this) {
+                List<Mutation> mutations = new ArrayList<>(
+                                           SchemaEpoch.this.mutations);
+                if (mutations.remove(this)) {
+                    publish(mutations);
+                }
+                SchemaEpoch.this.notifyAll();
+            }
+        }
+    }
+}
@@ -19,16 +19,20 @@
 
 package com.baidu.hugegraph.cmd;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 
 import com.baidu.hugegraph.HugeFactory;
 import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.query.ConditionQuery;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.store.BackendEntry;
 import com.baidu.hugegraph.backend.store.BackendStore;
+import com.baidu.hugegraph.backend.tx.ShardScanner;
 import com.baidu.hugegraph.dist.RegisterUtil;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.E;
@@ -46,14 +50,21 @@ public class StoreDumper {
                              this.graph.schemaTransaction().store() :
                              this.graph.graphTransaction().store();
 
+        String title = String.format("Dump table %s (offset %d limit %d):",
+                                     table, offset, limit);
+        System.out.println(title);
+
+        ShardScanner scanner = new ShardScanner(this.graph);
+        if (!table.isSchema() && scanner.supported()) {
+            this.dumpByShards(scanner, table, offset, limit);
+            return;
+        }
+
         Query query = new Query(table);
         Iterator<BackendEntry> rs = store.query(query);
         for (long i = 0; i < offset && rs.hasNext(); i++) {
             rs.next();
         }
-        String title = String.format("Dump table %s (offset %d limit %d):",
-                                     table, offset, limit);
-        System.out.println(title);
         for (long i = 0; i < limit && rs.hasNext(); i++) {
             BackendEntry entry = rs.next();
             System.out.println(entry);
@@ -62,6 +73,36 @@ public class StoreDumper {
         CloseableIterator.closeIterator(rs);
     }
 
+    private void dumpByShards(ShardScanner scanner, HugeType table,
+                              long offset, long limit) {
+        // Each shard fetches at most `offset + limit` entries in parallel
+        long max = offset + limit < 0L ? Long.MAX_VALUE : offset + limit;
+        List<List<BackendEntry>> shards = scanner.scan(table, (tx, shard) -> {
+            ConditionQuery query = new ConditionQuery(table);
+            query.scan(shard.start(), shard.end());
+            List<BackendEntry> entries = new ArrayList<>();
+            Iterator<BackendEntry> rs = tx.store().query(query);
+            while (entries.size() < max && rs.hasNext()) {
+                entries.add(rs.next());
+            }
+            CloseableIterator.closeIterator(rs);
+            return entries;
+        });
+
+        // The shards are ordered, so print the entries like a serial scan
+        long i = 0L;
+        for (List<BackendEntry> entries : shards) {
+            for (BackendEntry entry : entries) {
+                if (i >= max) {
+                    return;
+                }
+                if (i++ >= offset) {
+                    System.out.println(entry);
+                }
+            }
+        }
+    }
+
     public void close() {
         this.graph.close();
     }
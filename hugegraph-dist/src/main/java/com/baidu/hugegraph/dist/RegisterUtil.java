@@ -110,6 +110,8 @@ public class RegisterUtil {
         // Register config
         OptionSpace.register("scylladb",
                 "com.baidu.hugegraph.backend.store.cassandra.CassandraOptions");
+        OptionSpace.register("scylladb",
+                "com.baidu.hugegraph.backend.store.scylladb.ScyllaDBOptions");
         // Register serializer
         SerializerFactory.register("scylladb",
                 "com.baidu.hugegraph.backend.store.cassandra.CassandraSerializer");
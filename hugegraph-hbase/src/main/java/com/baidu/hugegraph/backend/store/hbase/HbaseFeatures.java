@@ -77,6 +77,12 @@ public class HbaseFeatures implements BackendFeatures {
         return true;
     }
 
+    @Override
+    public boolean supportsQueryIndexByPage() {
+        // The ids of an index key are stored in one row, can't be paged
+        return false;
+    }
+
     @Override
     public boolean supportsDeleteEdgeByLabel() {
         // TODO: Supports this feature through HBase secondary index
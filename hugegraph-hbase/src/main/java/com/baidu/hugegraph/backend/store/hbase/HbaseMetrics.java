@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.store.hbase;
+
+import java.util.Map;
+
+import com.baidu.hugegraph.backend.store.BackendMetrics;
+import com.baidu.hugegraph.util.InsertionOrderUtil;
+
+public class HbaseMetrics implements BackendMetrics {
+
+    public static final String WRITE_COUNT = "write_count";
+    public static final String WRITE_AVG_LATENCY = "write_avg_latency_ms";
+    public static final String WRITE_MAX_LATENCY = "write_max_latency_ms";
+
+    private static final double NANOS_PER_MS = 1000000.0;
+
+    private final HbaseSessions sessions;
+
+    public HbaseMetrics(HbaseSessions sessions) {
+        this.sessions = sessions;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = InsertionOrderUtil.newMap();
+        long writes = this.sessions.writeCount();
+        long nanos = this.sessions.writeNanos();
+        metrics.put(WRITE_COUNT, writes);
+        metrics.put(WRITE_AVG_LATENCY,
+                    writes == 0L ? 0.0 : nanos / writes / NANOS_PER_MS);
+        metrics.put(WRITE_MAX_LATENCY,
+                    this.sessions.maxWriteNanos() / NANOS_PER_MS);
+        return metrics;
+    }
+}
@@ -72,4 +72,67 @@ public class HbaseOptions extends OptionHolder {
                     rangeInt(1, 1000),
                     64
             );
+
+    public static final ConfigOption<Integer> HBASE_SCAN_CACHING =
+            new ConfigOption<>(
+                    "hbase.scan_caching",
+                    "The number of rows fetched by each rpc of a scanner.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    1000
+            );
+
+    public static final ConfigOption<Integer> HBASE_EDGE_SCAN_CACHING =
+            new ConfigOption<>(
+                    "hbase.edge_scan_caching",
+                    "The number of rows fetched by each rpc of an edge " +
+                    "scanner, 0 means using hbase.scan_caching.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    0
+            );
+
+    public static final ConfigOption<Integer> HBASE_INDEX_SCAN_CACHING =
+            new ConfigOption<>(
+                    "hbase.index_scan_caching",
+                    "The number of rows fetched by each rpc of an index " +
+                    "scanner, 0 means using hbase.scan_caching.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    0
+            );
+
+    public static final ConfigOption<Integer> HBASE_SCAN_BATCH =
+            new ConfigOption<>(
+                    "hbase.scan_batch",
+                    "The max number of columns returned in each result of " +
+                    "a scanner, a wide row will be split into multiple " +
+                    "results, 0 means no limit.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    0
+            );
+
+    public static final ConfigOption<Integer> HBASE_GET_BATCH_SIZE =
+            new ConfigOption<>(
+                    "hbase.get_batch_size",
+                    "The max number of gets sent to a region server in one " +
+                    "multi-get request when querying by ids.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    500
+            );
+
+    public static final ConfigOption<Integer> HBASE_PARALLEL_GET_THRESHOLD =
+            new ConfigOption<>(
+                    "hbase.parallel_get_threshold",
+                    "The min number of ids of a query to get them by " +
+                    "multi-get requests of each region in parallel.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    16
+            );
+
+    public static final ConfigOption<Integer> HBASE_QUERY_PARALLELISM =
+            new ConfigOption<>(
+                    "hbase.query_parallelism",
+                    "The number of threads to send the multi-get requests " +
+                    "of different regions in parallel.",
+                    rangeInt(1, 1000),
+                    8
+            );
 }
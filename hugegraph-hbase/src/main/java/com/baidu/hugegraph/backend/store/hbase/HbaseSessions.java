@@ -29,7 +29,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.Cell;
@@ -37,6 +48,7 @@ import org.apache.hadoop.hbase.CellScanner;
 import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionLocation;
 import org.apache.hadoop.hbase.NamespaceDescriptor;
 import org.apache.hadoop.hbase.RegionMetrics;
 import org.apache.hadoop.hbase.ServerName;
@@ -49,13 +61,17 @@ import org.apache.hadoop.hbase.client.ConnectionFactory;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RegionLocator;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Row;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.client.TableDescriptorBuilder;
+import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
 import org.apache.hadoop.hbase.filter.FilterList.Operator;
 import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
 import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
@@ -69,19 +85,73 @@ import com.baidu.hugegraph.backend.store.BackendEntry.BackendIterator;
 import com.baidu.hugegraph.backend.store.BackendSession;
 import com.baidu.hugegraph.backend.store.BackendSessionPool;
 import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.Bytes;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.StringEncoding;
 import com.baidu.hugegraph.util.VersionUtil;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class HbaseSessions extends BackendSessionPool {
 
+    private static final String GET_WORKER = "hbase-get-worker-%d";
+    // The max number of multi-get requests waiting for each worker
+    private static final int GET_QUEUE_SIZE_PER_WORKER = 16;
+    private static final long GET_WORKER_CLOSE_TIMEOUT = 10L;
+
     private final String namespace;
     private Connection hbase;
 
+    // Metrics of the batch writes of tables when committing
+    private final AtomicLong writeCount;
+    private final AtomicLong writeNanos;
+    private final AtomicLong maxWriteNanos;
+
+    // The type of each table, used to choose the scanner caching
+    private final Map<String, HugeType> tableTypes;
+    private int scanCaching;
+    private int edgeScanCaching;
+    private int indexScanCaching;
+    private int scanBatch;
+
+    // The executor to send multi-get requests of regions in parallel
+    private ExecutorService getExecutor;
+    private int getBatchSize;
+    private int parallelGetThreshold;
+
     public HbaseSessions(String namespace, String store) {
         super(namespace + "/" + store);
         this.namespace = namespace;
+
+        this.writeCount = new AtomicLong();
+        this.writeNanos = new AtomicLong();
+        this.maxWriteNanos = new AtomicLong();
+
+        this.tableTypes = new ConcurrentHashMap<>();
+        this.scanCaching = 1;
+        this.edgeScanCaching = 0;
+        this.indexScanCaching = 0;
+        this.scanBatch = 0;
+
+        this.getExecutor = null;
+        this.getBatchSize = 1;
+        this.parallelGetThreshold = 1;
+    }
+
+    public void registerTableType(String table, HugeType type) {
+        this.tableTypes.put(table, type);
+    }
+
+    private int scanCaching(String table) {
+        HugeType type = this.tableTypes.get(table);
+        if (type != null && type.isEdge() && this.edgeScanCaching > 0) {
+            return this.edgeScanCaching;
+        }
+        if (type != null && type.isIndex() && this.indexScanCaching > 0) {
+            return this.indexScanCaching;
+        }
+        return this.scanCaching;
     }
 
     private Table table(String table) throws IOException {
@@ -90,6 +160,125 @@ public class HbaseSessions extends BackendSessionPool {
         return this.hbase.getTable(tableName);
     }
 
+    private void write(String table, List<Row> rows)
+                       throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try (Table htable = this.table(table)) {
+            htable.batch(rows, new Object[rows.size()]);
+        }
+        long cost = System.nanoTime() - start;
+
+        this.writeCount.incrementAndGet();
+        this.writeNanos.addAndGet(cost);
+        this.maxWriteNanos.accumulateAndGet(cost, Math::max);
+    }
+
+    private static Get newGet(byte[] family, byte[] rowkey) {
+        Get get = new Get(rowkey);
+        if (family != null) {
+            get.addFamily(family);
+        }
+        return get;
+    }
+
+    /**
+     * Get multi records by rowkeys from a table: the gets are grouped by
+     * the regions they belong to, and each region is requested in batches
+     * of at most getBatchSize gets, the batches are sent in parallel and
+     * the results are returned in the order of rowkeys
+     */
+    private RowIterator multiGet(String table, byte[] family,
+                                 List<byte[]> rowkeys) {
+        Map<String, List<Integer>> regions = new LinkedHashMap<>();
+        TableName tableName = TableName.valueOf(this.namespace, table);
+        try (RegionLocator locator = this.hbase.getRegionLocator(tableName)) {
+            for (int i = 0; i < rowkeys.size(); i++) {
+                // The region locations are cached by the connection
+                HRegionLocation location = locator.getRegionLocation(
+                                           rowkeys.get(i));
+                String region = location.getRegion().getEncodedName();
+                regions.computeIfAbsent(region, k -> new ArrayList<>())
+                       .add(i);
+            }
+        } catch (IOException e) {
+            throw new BackendException("Failed to locate regions of " +
+                                       "table '%s'", e, table);
+        }
+
+        @SuppressWarnings("unchecked")
+        Future<Result[]>[] futures = new Future[rowkeys.size()];
+        int[] offsets = new int[rowkeys.size()];
+        for (List<Integer> indexes : regions.values()) {
+            for (int from = 0; from < indexes.size();
+                 from += this.getBatchSize) {
+                int to = Math.min(from + this.getBatchSize, indexes.size());
+                List<Integer> batch = indexes.subList(from, to);
+                List<Get> gets = new ArrayList<>(batch.size());
+                for (int index : batch) {
+                    gets.add(newGet(family, rowkeys.get(index)));
+                }
+                Future<Result[]> future = this.getExecutor.submit(() -> {
+                    try (Table htable = this.table(table)) {
+                        return htable.get(gets);
+                    }
+                });
+                for (int offset = 0; offset < batch.size(); offset++) {
+                    futures[batch.get(offset)] = future;
+                    offsets[batch.get(offset)] = offset;
+                }
+            }
+        }
+
+        // Cancel the requests not finished if the iterator is abandoned
+        Runnable cancel = () -> {
+            for (Future<Result[]> future : futures) {
+                future.cancel(true);
+            }
+        };
+        // Wait for the batch of each rowkey lazily while iterating
+        Iterator<Result> results = IntStream.range(0, rowkeys.size())
+                                            .mapToObj(i -> {
+            try {
+                return futures[i].get()[offsets[i]];
+            } catch (InterruptedException e) {
+                cancel.run();
+                throw new BackendException("Interrupted while querying", e);
+            } catch (ExecutionException | CancellationException e) {
+                cancel.run();
+                throw new BackendException("Failed to query table '%s'",
+                                           e.getCause(), table);
+            }
+        }).iterator();
+        return new RowIterator(results, cancel);
+    }
+
+    /**
+     * Get the smallest rowkey greater than all the rowkeys with the prefix,
+     * an empty array is returned if there is no such rowkey
+     */
+    public static byte[] prefixEnd(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xff) {
+                byte[] end = Arrays.copyOf(prefix, i + 1);
+                end[i]++;
+                return end;
+            }
+        }
+        return HConstants.EMPTY_END_ROW;
+    }
+
+    public long writeCount() {
+        return this.writeCount.get();
+    }
+
+    public long writeNanos() {
+        return this.writeNanos.get();
+    }
+
+    public long maxWriteNanos() {
+        return this.maxWriteNanos.get();
+    }
+
     @Override
     public synchronized void open(HugeConfig conf) throws IOException {
         String hosts = conf.get(HbaseOptions.HBASE_HOSTS);
@@ -104,6 +293,37 @@ public class HbaseSessions extends BackendSessionPool {
         config.setInt("hbase.hconnection.threads.max",
                       conf.get(HbaseOptions.HBASE_THREADS_MAX));
 
+        this.scanCaching = conf.get(HbaseOptions.HBASE_SCAN_CACHING);
+        this.edgeScanCaching = conf.get(HbaseOptions.HBASE_EDGE_SCAN_CACHING);
+        this.indexScanCaching = conf.get(
+                                HbaseOptions.HBASE_INDEX_SCAN_CACHING);
+        this.scanBatch = conf.get(HbaseOptions.HBASE_SCAN_BATCH);
+
+        this.getBatchSize = conf.get(HbaseOptions.HBASE_GET_BATCH_SIZE);
+        this.parallelGetThreshold = conf.get(
+                                    HbaseOptions.HBASE_PARALLEL_GET_THRESHOLD);
+        int parallelism = conf.get(HbaseOptions.HBASE_QUERY_PARALLELISM);
+        /*
+         * The requests are queued in a bounded queue, the caller sends a
+         * request by itself if the queue is full, which slows down the
+         * queries when the workers are busy
+         */
+        this.getExecutor = new ThreadPoolExecutor(
+                           parallelism, parallelism, 0L, TimeUnit.SECONDS,
+                           new ArrayBlockingQueue<>(
+                               parallelism * GET_QUEUE_SIZE_PER_WORKER),
+                           new ThreadFactoryBuilder()
+                           .setNameFormat(GET_WORKER)
+                           .setDaemon(true).build(),
+                           (task, executor) -> {
+                               if (executor.isShutdown()) {
+                                   throw new RejectedExecutionException(
+                                             "HBase sessions have been " +
+                                             "closed");
+                               }
+                               task.run();
+                           });
+
         this.hbase = ConnectionFactory.createConnection(config);
     }
 
@@ -127,6 +347,20 @@ public class HbaseSessions extends BackendSessionPool {
         if (this.hbase == null || this.hbase.isClosed()) {
             return;
         }
+        // Stop the get workers before closing the connection they use
+        if (this.getExecutor != null) {
+            this.getExecutor.shutdown();
+            try {
+                if (!this.getExecutor.awaitTermination(
+                     GET_WORKER_CLOSE_TIMEOUT, TimeUnit.SECONDS)) {
+                    this.getExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                this.getExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            this.getExecutor = null;
+        }
         try {
             this.hbase.close();
         } catch (IOException e) {
@@ -282,10 +516,8 @@ public class HbaseSessions extends BackendSessionPool {
 
             // TODO: this will not be atomic, to be improved
             for (Entry<String, List<Row>> action : this.batch.entrySet()) {
-                List<Row> rows = action.getValue();
-                Object[] results = new Object[rows.size()];
-                try (Table table = table(action.getKey())) {
-                    table.batch(rows, results);
+                try {
+                    write(action.getKey(), action.getValue());
                 } catch (InterruptedException e) {
                     // Try again
                     continue;
@@ -401,16 +633,16 @@ public class HbaseSessions extends BackendSessionPool {
          * Get multi records by rowkeys from a table
          */
         public RowIterator get(String table, byte[] family,
-                               Set<byte[]> rowkeys) {
+                               List<byte[]> rowkeys) {
             assert !this.hasChanges();
 
+            if (rowkeys.size() >= parallelGetThreshold) {
+                return multiGet(table, family, rowkeys);
+            }
+
             List<Get> gets = new ArrayList<>(rowkeys.size());
             for (byte[] rowkey : rowkeys) {
-                Get get = new Get(rowkey);
-                if (family != null) {
-                    get.addFamily(family);
-                }
-                gets.add(get);
+                gets.add(newGet(family, rowkey));
             }
 
             try (Table htable = table(table)) {
@@ -425,13 +657,32 @@ public class HbaseSessions extends BackendSessionPool {
          */
         public RowIterator scan(String table, long limit) {
             assert !this.hasChanges();
-            Scan scan = new Scan();
+            // Don't fill the block cache with the blocks of a full scan
+            Scan scan = new Scan().setCacheBlocks(false);
             if (limit >= 0) {
                 scan.setFilter(new PageFilter(limit));
+                if (limit > 0 && limit < scanCaching(table)) {
+                    scan.setCaching((int) limit);
+                }
             }
             return this.scan(table, scan);
         }
 
+        /**
+         * Scan all rowkeys with a specified prefix from a table, the values
+         * are not returned and only the first column of each row is read
+         */
+        public RowIterator scanKeys(String table, byte[] prefix) {
+            assert !this.hasChanges();
+            FilterList filters = new FilterList(Operator.MUST_PASS_ALL);
+            filters.addFilter(new FirstKeyOnlyFilter());
+            filters.addFilter(new KeyOnlyFilter());
+            Scan scan = new Scan().setRowPrefixFilter(prefix)
+                                  .setFilter(filters)
+                                  .setCacheBlocks(false);
+            return this.scan(table, scan);
+        }
+
         /**
          * Scan records by rowkey prefix from a table
          */
@@ -446,18 +697,30 @@ public class HbaseSessions extends BackendSessionPool {
         public RowIterator scan(String table, Set<byte[]> prefixs) {
             assert !this.hasChanges();
 
-            FilterList orFilters = new FilterList(Operator.MUST_PASS_ONE);
-            for (byte[] prefix : prefixs) {
-                FilterList andFilters = new FilterList(Operator.MUST_PASS_ALL);
-                List<RowRange> ranges = new ArrayList<>();
-                ranges.add(new RowRange(prefix, true, null, true));
-                andFilters.addFilter(new MultiRowRangeFilter(ranges));
-                andFilters.addFilter(new PrefixFilter(prefix));
-
-                orFilters.addFilter(andFilters);
+            if (prefixs.isEmpty()) {
+                return new RowIterator();
             }
 
-            Scan scan = new Scan().setFilter(orFilters);
+            /*
+             * Merge all the prefixes into the sorted ranges of one filter,
+             * which seeks to the next range instead of evaluating each row
+             * with every prefix
+             */
+            List<RowRange> ranges = new ArrayList<>(prefixs.size());
+            for (byte[] prefix : prefixs) {
+                byte[] end = prefixEnd(prefix);
+                ranges.add(new RowRange(prefix, true, end, false));
+            }
+            MultiRowRangeFilter filter = new MultiRowRangeFilter(ranges);
+
+            // The ranges are sorted and merged by the filter
+            List<RowRange> sorted = filter.getRowRanges();
+            Scan scan = new Scan().withStartRow(sorted.get(0).getStartRow())
+                                  .setFilter(filter);
+            byte[] stopRow = sorted.get(sorted.size() - 1).getStopRow();
+            if (stopRow.length > 0) {
+                scan.withStopRow(stopRow);
+            }
             return this.scan(table, scan);
         }
 
@@ -469,6 +732,11 @@ public class HbaseSessions extends BackendSessionPool {
             assert !this.hasChanges();
             Scan scan = new Scan().withStartRow(startRow, inclusiveStart)
                                   .setFilter(new PrefixFilter(prefix));
+            byte[] stopRow = prefixEnd(prefix);
+            if (stopRow.length > 0) {
+                // Stop at the end of the prefix rather than the region end
+                scan.withStopRow(stopRow);
+            }
             return this.scan(table, scan);
         }
 
@@ -477,7 +745,7 @@ public class HbaseSessions extends BackendSessionPool {
          */
         public RowIterator scan(String table, byte[] startRow, byte[] stopRow) {
             assert !this.hasChanges();
-            return this.scan(table, startRow, true, stopRow, false);
+            return this.scan(table, startRow, true, stopRow, false, false);
         }
 
         /**
@@ -487,7 +755,21 @@ public class HbaseSessions extends BackendSessionPool {
                                 byte[] startRow, boolean inclusiveStart,
                                 byte[] stopRow, boolean inclusiveStop) {
             assert !this.hasChanges();
-            Scan scan = new Scan().withStartRow(startRow, inclusiveStart);
+            return this.scan(table, startRow, inclusiveStart,
+                             stopRow, inclusiveStop, true);
+        }
+
+        /**
+         * Scan records by rowkey range from a table, the blocks read by
+         * the scan will not be cached by region server if cacheBlocks is
+         * false, which is expected for full scans and shard scans
+         */
+        private RowIterator scan(String table,
+                                 byte[] startRow, boolean inclusiveStart,
+                                 byte[] stopRow, boolean inclusiveStop,
+                                 boolean cacheBlocks) {
+            Scan scan = new Scan().withStartRow(startRow, inclusiveStart)
+                                  .setCacheBlocks(cacheBlocks);
             if (stopRow != null) {
                 String version = VersionInfo.getVersion();
                 if (inclusiveStop && !VersionUtil.gte(version, "2.0")) {
@@ -511,6 +793,14 @@ public class HbaseSessions extends BackendSessionPool {
          * Inner scan: send scan request to HBase and get iterator
          */
         private RowIterator scan(String table, Scan scan) {
+            if (scan.getCaching() <= 0) {
+                scan.setCaching(scanCaching(table));
+            }
+            Filter filter = scan.getFilter();
+            if (scanBatch > 0 && (filter == null || !filter.hasFilterRow())) {
+                // Split a wide row into multi results, merged by the reader
+                scan.setBatch(scanBatch);
+            }
             try (Table htable = table(table)) {
                 return new RowIterator(htable.getScanner(scan));
             } catch (IOException e) {
@@ -566,16 +856,26 @@ public class HbaseSessions extends BackendSessionPool {
 
         private final ResultScanner resultScanner;
         private final Iterator<Result> results;
+        private final Runnable closer;
 
         private byte[] position = null;
 
         public RowIterator(ResultScanner resultScanner) {
             this.resultScanner = resultScanner;
             this.results = resultScanner.iterator();
+            this.closer = null;
+        }
+
+        public RowIterator(Iterator<Result> results, Runnable closer) {
+            this.resultScanner = null;
+            // Get by Ids may return empty result
+            this.results = Iterators.filter(results, r -> !r.isEmpty());
+            this.closer = closer;
         }
 
         public RowIterator(Result... results) {
             this.resultScanner = null;
+            this.closer = null;
             List<Result> rs = new ArrayList<>(results.length);
             for (Result result : results) {
                 // Get by Ids may return empty result
@@ -614,6 +914,9 @@ public class HbaseSessions extends BackendSessionPool {
             if (this.resultScanner != null) {
                 this.resultScanner.close();
             }
+            if (this.closer != null) {
+                this.closer.run();
+            }
         }
 
         @Override
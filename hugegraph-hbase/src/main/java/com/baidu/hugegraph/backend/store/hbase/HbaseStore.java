@@ -68,10 +68,20 @@ public abstract class HbaseStore extends AbstractBackendStore<Session> {
         this.namespace = namespace;
         this.store = store;
         this.sessions =  new HbaseSessions(namespace, store);
+
+        this.registerMetaHandlers();
+    }
+
+    private void registerMetaHandlers() {
+        this.registerMetaHandler("metrics", (session, meta, args) -> {
+            HbaseMetrics metrics = new HbaseMetrics(this.sessions);
+            return metrics.getMetrics();
+        });
     }
 
     protected void registerTableManager(HugeType type, HbaseTable table) {
         this.tables.put(type, table);
+        this.sessions.registerTableType(table.table(), type);
     }
 
     @Override
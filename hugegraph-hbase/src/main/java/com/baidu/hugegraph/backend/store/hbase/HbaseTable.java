@@ -178,8 +178,8 @@ public class HbaseTable extends BackendTable<Session, BackendEntry> {
     }
 
     protected RowIterator queryByIds(Session session, Set<Id> ids) {
-        Set<byte[]> rowkeys = ids.stream().map(Id::asBytes)
-                                 .collect(Collectors.toSet());
+        List<byte[]> rowkeys = ids.stream().map(Id::asBytes)
+                                  .collect(Collectors.toList());
         return session.get(this.table(), null, rowkeys);
     }
 
@@ -192,7 +192,7 @@ public class HbaseTables {
             for (BackendColumn column : entry.columns()) {
                 session.commit();
                 // Prefix query index label related indexes
-                RowIterator iter = session.scan(this.table(), column.name);
+                RowIterator iter = session.scanKeys(this.table(), column.name);
                 while (iter.hasNext()) {
                     session.delete(this.table(), CF, iter.next().getRow());
                     // Commit once reaching batch size
@@ -27,6 +27,7 @@ import java.util.Base64;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.query.Query;
@@ -39,17 +40,34 @@ import com.baidu.hugegraph.util.JsonUtil;
 
 public class MysqlEntryIterator extends BackendEntryIterator {
 
-    private final ResultSet results;
     private final BiFunction<BackendEntry, BackendEntry, BackendEntry> merger;
+    // Fetch the next batch of rows after the last row, null if no batch
+    private final Function<BackendEntry, ResultSet> nextBatch;
+    private final long batchSize;
 
+    private ResultSet results;
+    private long batchRows;
     private BackendEntry next;
     private BackendEntry last;
 
     public MysqlEntryIterator(ResultSet rs, Query query,
            BiFunction<BackendEntry, BackendEntry, BackendEntry> merger) {
+        this(rs, query, merger, null, 0L);
+    }
+
+    /**
+     * Iterate rows batch by batch, the next batch would be fetched by the
+     * last row if the current batch is full with batchSize rows
+     */
+    public MysqlEntryIterator(ResultSet rs, Query query,
+           BiFunction<BackendEntry, BackendEntry, BackendEntry> merger,
+           Function<BackendEntry, ResultSet> nextBatch, long batchSize) {
         super(query);
         this.results = rs;
         this.merger = merger;
+        this.nextBatch = nextBatch;
+        this.batchSize = batchSize;
+        this.batchRows = 0L;
         this.next = null;
         this.last = null;
     }
@@ -63,7 +81,7 @@ public class MysqlEntryIterator extends BackendEntryIterator {
         }
 
         try {
-            while (!this.results.isClosed() && this.results.next()) {
+            while (this.nextRow()) {
                 MysqlBackendEntry e = this.row2Entry(this.results);
                 this.last = e;
                 BackendEntry merged = this.merger.apply(this.current, e);
@@ -86,6 +104,21 @@ public class MysqlEntryIterator extends BackendEntryIterator {
         return this.current != null;
     }
 
+    private boolean nextRow() throws SQLException {
+        if (!this.results.isClosed() && this.results.next()) {
+            this.batchRows++;
+            return true;
+        }
+        if (this.nextBatch == null || this.batchRows < this.batchSize) {
+            // No more batch if the current batch is not full
+            return false;
+        }
+        this.results.close();
+        this.results = this.nextBatch.apply(this.last);
+        this.batchRows = 0L;
+        return this.nextRow();
+    }
+
     @Override
     protected String pageState() {
         if (this.last == null) {
@@ -89,4 +89,63 @@ public class MysqlOptions extends OptionHolder {
                     rangeInt(1, 10),
                     3
             );
+
+    public static final ConfigOption<Integer> JDBC_POOL_MAX_SIZE =
+            new ConfigOption<>(
+                    "jdbc.pool_max_size",
+                    "The max number of connections opened by each store, " +
+                    "including the connection of each session and the " +
+                    "connections of query workers, should be larger than " +
+                    "the number of threads accessing the store plus " +
+                    "jdbc.query_parallelism.",
+                    rangeInt(1, 10000),
+                    100
+            );
+
+    public static final ConfigOption<Integer> JDBC_POOL_WAIT_TIMEOUT =
+            new ConfigOption<>(
+                    "jdbc.pool_wait_timeout",
+                    "The timeout(seconds) to wait for a free connection " +
+                    "when the connections of the store are exhausted.",
+                    rangeInt(1, 3600),
+                    30
+            );
+
+    public static final ConfigOption<Integer> JDBC_IDS_BATCH_SIZE =
+            new ConfigOption<>(
+                    "jdbc.ids_batch_size",
+                    "The max number of ids in the IN clause of a statement " +
+                    "when querying by ids.",
+                    rangeInt(1, 65535),
+                    1000
+            );
+
+    public static final ConfigOption<Integer> JDBC_QUERY_PARALLELISM =
+            new ConfigOption<>(
+                    "jdbc.query_parallelism",
+                    "The max number of connections used to execute " +
+                    "the statements of a query by ids concurrently, " +
+                    "1 means executing them one by one.",
+                    rangeInt(1, 64),
+                    4
+            );
+
+    public static final ConfigOption<Integer> JDBC_SCAN_BATCH_SIZE =
+            new ConfigOption<>(
+                    "jdbc.scan_batch_size",
+                    "The number of rows read by a statement when scanning " +
+                    "a table, the next batch is read after the primary key " +
+                    "of the last row, 0 means reading all with a statement.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    10000
+            );
+
+    public static final ConfigOption<Integer> JDBC_INSERT_PACKET_SIZE =
+            new ConfigOption<>(
+                    "jdbc.insert_packet_size",
+                    "The max size(bytes) of a multi-row insert statement, " +
+                    "should be less than max_allowed_packet of MySQL.",
+                    rangeInt(1024, Integer.MAX_VALUE),
+                    1048576
+            );
 }
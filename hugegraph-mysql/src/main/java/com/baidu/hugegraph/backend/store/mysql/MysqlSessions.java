@@ -25,10 +25,25 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
+
 import org.apache.http.client.utils.URIBuilder;
 import org.slf4j.Logger;
 
@@ -38,6 +53,7 @@ import com.baidu.hugegraph.backend.store.BackendSessionPool;
 import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class MysqlSessions extends BackendSessionPool {
 
@@ -45,15 +61,50 @@ public class MysqlSessions extends BackendSessionPool {
 
     private static final int DROP_DB_TIMEOUT = 10000;
 
+    // Validate a connection if it has been idle for a while
+    private static final long VALIDATE_IDLE_TIME = 10000L;
+    private static final int VALIDATE_TIMEOUT = 3;
+
+    private static final String QUERY_WORKER = "mysql-query-worker-%d";
+
     private HugeConfig config;
     private String database;
     private volatile boolean opened;
 
+    /*
+     * The permits of connections can be opened by the store, which are
+     * held by the connections of sessions and query workers until closed
+     */
+    private final Semaphore connectionPermits;
+    /*
+     * The idle connections of the query workers, which execute the
+     * statements of a query concurrently, a worker borrows a connection
+     * for a statement (the connection of a session is owned by the session)
+     */
+    private final BlockingQueue<Connection> idleConnections;
+    private final ExecutorService queryExecutor;
+    private final RowSetFactory rowSetFactory;
+
     public MysqlSessions(HugeConfig config, String database, String store) {
         super(database + "/" + store);
         this.config = config;
         this.database = database;
         this.opened = false;
+
+        int poolSize = config.get(MysqlOptions.JDBC_POOL_MAX_SIZE);
+        this.connectionPermits = new Semaphore(poolSize, true);
+
+        int parallelism = config.get(MysqlOptions.JDBC_QUERY_PARALLELISM);
+        this.idleConnections = new ArrayBlockingQueue<>(parallelism);
+        this.queryExecutor = Executors.newFixedThreadPool(parallelism,
+                             new ThreadFactoryBuilder()
+                             .setNameFormat(QUERY_WORKER)
+                             .setDaemon(true).build());
+        try {
+            this.rowSetFactory = RowSetProvider.newFactory();
+        } catch (SQLException e) {
+            throw new BackendException("Failed to create row set factory", e);
+        }
     }
 
     public HugeConfig config() {
@@ -70,7 +121,7 @@ public class MysqlSessions extends BackendSessionPool {
      */
     @Override
     public synchronized void open(HugeConfig config) throws Exception {
-        try (Connection conn = this.open(false)) {
+        try (Connection conn = this.open()) {
             this.opened = true;
         }
     }
@@ -83,7 +134,7 @@ public class MysqlSessions extends BackendSessionPool {
     /**
      * Connect DB with specified database
      */
-    private Connection open(boolean autoReconnect) throws SQLException {
+    private Connection open() throws SQLException {
         String url = this.config.get(MysqlOptions.JDBC_URL);
         if (url.endsWith("/")) {
             url = String.format("%s%s", url, this.database);
@@ -91,19 +142,155 @@ public class MysqlSessions extends BackendSessionPool {
             url = String.format("%s/%s", url, this.database);
         }
 
-        int maxTimes = this.config.get(MysqlOptions.JDBC_RECONNECT_MAX_TIMES);
-        int interval = this.config.get(MysqlOptions.JDBC_RECONNECT_INTERVAL);
-
         URIBuilder uriBuilder = new URIBuilder();
         uriBuilder.setPath(url)
                   .setParameter("rewriteBatchedStatements", "true")
                   .setParameter("useServerPrepStmts", "false")
-                  .setParameter("autoReconnect", String.valueOf(autoReconnect))
-                  .setParameter("maxReconnects", String.valueOf(maxTimes))
-                  .setParameter("initialTimeout", String.valueOf(interval));
+                  .setParameter("autoReconnect", "false");
         return this.connect(uriBuilder.toString());
     }
 
+    /**
+     * Open a new connection after acquiring a permit of the pool, wait for
+     * a permit if the pool is exhausted, retry to connect if failed due to
+     * network error
+     */
+    private Connection acquireConnection() throws SQLException {
+        int timeout = this.config.get(MysqlOptions.JDBC_POOL_WAIT_TIMEOUT);
+        try {
+            if (!this.connectionPermits.tryAcquire(timeout,
+                                                   TimeUnit.SECONDS)) {
+                throw new BackendException(
+                          "Timeout to get connection from pool of '%s' " +
+                          "after %s seconds", this.database, timeout);
+            }
+        } catch (InterruptedException e) {
+            throw new BackendException("Interrupted while waiting for " +
+                                       "connection of '%s'", this.database);
+        }
+        try {
+            return this.reconnect();
+        } catch (Throwable e) {
+            this.connectionPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close a connection and give back its permit to the pool
+     */
+    private void releaseConnection(Connection conn) {
+        closeQuietly(conn);
+        this.connectionPermits.release();
+    }
+
+    /**
+     * Get a valid idle connection of query workers, or open a new one if
+     * there is no idle connection
+     */
+    private Connection borrowConnection() throws SQLException {
+        Connection conn;
+        while ((conn = this.idleConnections.poll()) != null) {
+            if (conn.isValid(VALIDATE_TIMEOUT)) {
+                return conn;
+            }
+            this.releaseConnection(conn);
+        }
+        return this.acquireConnection();
+    }
+
+    private Connection reconnect() throws SQLException {
+        int maxTimes = this.config.get(MysqlOptions.JDBC_RECONNECT_MAX_TIMES);
+        int interval = this.config.get(MysqlOptions.JDBC_RECONNECT_INTERVAL);
+        for (int times = 1;; times++) {
+            try {
+                return this.open();
+            } catch (SQLException e) {
+                // Only retry for connection errors(SQLState class '08')
+                String state = e.getSQLState();
+                if (times >= maxTimes || state == null ||
+                    !state.startsWith("08")) {
+                    throw e;
+                }
+                LOG.warn("Failed to connect database '{}', retry({}) " +
+                         "after {}s", this.database, times, interval, e);
+            }
+            try {
+                Thread.sleep(interval * 1000L);
+            } catch (InterruptedException e) {
+                throw new BackendException("Interrupted while reconnecting " +
+                                           "database '%s'", this.database);
+            }
+        }
+    }
+
+    /**
+     * Give back a connection to the idle connections, it would be closed
+     * if it's broken or the sessions have been closed
+     */
+    private void returnConnection(Connection conn) {
+        try {
+            if (!conn.isClosed() && !this.queryExecutor.isShutdown() &&
+                this.idleConnections.offer(conn)) {
+                return;
+            }
+        } catch (SQLException ignored) {
+            // Close the broken connection
+        }
+        this.releaseConnection(conn);
+    }
+
+    private List<ResultSet> selectConcurrently(List<String> sqls)
+                                               throws SQLException {
+        List<Future<ResultSet>> futures = new ArrayList<>(sqls.size());
+        for (String sql : sqls) {
+            futures.add(this.queryExecutor.submit(() -> {
+                return this.selectWithPooledConnection(sql);
+            }));
+        }
+
+        List<ResultSet> results = new ArrayList<>(sqls.size());
+        for (Future<ResultSet> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                throw new BackendException("Interrupted while querying", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+                throw new BackendException("Failed to query", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private ResultSet selectWithPooledConnection(String sql)
+                                                 throws SQLException {
+        Connection conn = this.borrowConnection();
+        /*
+         * Copy the rows out before giving back the connection, then the
+         * connection can be reused by another statement while the rows
+         * are being read by the query
+         */
+        try (Statement statement = conn.createStatement();
+             ResultSet results = statement.executeQuery(sql)) {
+            CachedRowSet rows = this.rowSetFactory.createCachedRowSet();
+            rows.populate(results);
+            return rows;
+        } finally {
+            this.returnConnection(conn);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            LOG.debug("Failed to close connection", e);
+        }
+    }
+
     private Connection connect(String url) throws SQLException {
         String driverName = this.config.get(MysqlOptions.JDBC_DRIVER);
         String username = this.config.get(MysqlOptions.JDBC_USERNAME);
@@ -120,7 +307,18 @@ public class MysqlSessions extends BackendSessionPool {
 
     @Override
     protected void doClose() {
-        // pass
+        this.queryExecutor.shutdown();
+        try {
+            // The connections are closed when the workers return them
+            this.queryExecutor.awaitTermination(VALIDATE_TIMEOUT,
+                                                TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            LOG.warn("Interrupted while waiting for query workers", e);
+        }
+        Connection conn;
+        while ((conn = this.idleConnections.poll()) != null) {
+            this.releaseConnection(conn);
+        }
     }
 
     @Override
@@ -212,14 +410,19 @@ public class MysqlSessions extends BackendSessionPool {
 
         private Connection conn;
         private Map<String, PreparedStatement> statements;
+        // Rows to insert of each table, written with multi-row inserts
+        private Map<String, InsertRows> inserts;
         private boolean opened;
         private int count;
+        private long lastUsed;
 
         public Session() {
             this.conn = null;
-            this.statements = new HashMap<>();
+            this.statements = new LinkedHashMap<>();
+            this.inserts = new LinkedHashMap<>();
             this.opened = false;
             this.count = 0;
+            this.lastUsed = 0L;
             try {
                 this.open();
             } catch (SQLException ignored) {
@@ -231,17 +434,43 @@ public class MysqlSessions extends BackendSessionPool {
             if (this.conn != null && !this.conn.isClosed()) {
                 return;
             }
-            this.conn = MysqlSessions.this.open(true);
+            if (this.conn != null) {
+                MysqlSessions.this.releaseConnection(this.conn);
+                this.conn = null;
+            }
+            /*
+             * Each thread holds a session, which owns its connection until
+             * the session is closed, the connection holds a permit of the
+             * pool, so the threads beyond the pool size wait for a permit
+             */
+            this.conn = MysqlSessions.this.acquireConnection();
             this.opened = true;
+            this.lastUsed = System.currentTimeMillis();
         }
 
-        @Override
-        public void close() {
-            assert this.closeable();
+        /**
+         * Reconnect if the connection has been idle for a while and it's
+         * no longer valid (like closed by server due to wait_timeout)
+         */
+        private void checkConnection() throws SQLException {
             if (this.conn == null) {
-                return;
+                this.open();
+            }
+            long now = System.currentTimeMillis();
+            if (now - this.lastUsed > VALIDATE_IDLE_TIME &&
+                !this.conn.isValid(VALIDATE_TIMEOUT)) {
+                LOG.info("Reconnect database '{}' due to invalid connection",
+                         MysqlSessions.this.database);
+                this.closeStatements();
+                this.statements = new LinkedHashMap<>();
+                MysqlSessions.this.releaseConnection(this.conn);
+                this.conn = null;
+                this.open();
             }
+            this.lastUsed = now;
+        }
 
+        private SQLException closeStatements() {
             SQLException exception = null;
             for (PreparedStatement statement : this.statements.values()) {
                 try {
@@ -250,12 +479,26 @@ public class MysqlSessions extends BackendSessionPool {
                     exception = e;
                 }
             }
+            return exception;
+        }
+
+        @Override
+        public void close() {
+            assert this.closeable();
+            if (this.conn == null) {
+                return;
+            }
+
+            SQLException exception = this.closeStatements();
 
             try {
                 this.conn.close();
             } catch (SQLException e) {
                 exception = e;
+            } finally {
+                MysqlSessions.this.connectionPermits.release();
             }
+            this.conn = null;
 
             this.opened = false;
             if (exception != null) {
@@ -271,6 +514,7 @@ public class MysqlSessions extends BackendSessionPool {
 
         public void clear() {
             this.count = 0;
+            this.inserts.clear();
             SQLException exception = null;
             for (PreparedStatement statement : this.statements.values()) {
                 try {
@@ -284,11 +528,12 @@ public class MysqlSessions extends BackendSessionPool {
                  * Will throw exception when the database connection error,
                  * we clear statements because clearBatch() failed
                  */
-                this.statements = new HashMap<>();
+                this.statements = new LinkedHashMap<>();
             }
         }
 
         public void begin() throws SQLException {
+            this.checkConnection();
             this.conn.setAutoCommit(false);
         }
 
@@ -303,6 +548,10 @@ public class MysqlSessions extends BackendSessionPool {
                 for (PreparedStatement statement : this.statements.values()) {
                     updated += IntStream.of(statement.executeBatch()).sum();
                 }
+                // Write inserted rows after deleted ones like delete-insert
+                for (InsertRows rows : this.inserts.values()) {
+                    updated += rows.write(this.conn);
+                }
                 this.conn.commit();
                 this.clear();
             } catch (SQLException e) {
@@ -335,11 +584,39 @@ public class MysqlSessions extends BackendSessionPool {
         }
 
         public ResultSet select(String sql) throws SQLException {
+            this.checkConnection();
             assert this.conn.getAutoCommit();
             return this.conn.createStatement().executeQuery(sql);
         }
 
+        /**
+         * Execute the selections, which are executed concurrently with
+         * pooled connections if there are more than one selections
+         */
+        public List<ResultSet> select(List<String> sqls) throws SQLException {
+            int parallelism = config.get(MysqlOptions.JDBC_QUERY_PARALLELISM);
+            if (sqls.size() > 1 && parallelism > 1) {
+                this.checkConnection();
+                assert this.conn.getAutoCommit();
+                return MysqlSessions.this.selectConcurrently(sqls);
+            }
+            List<ResultSet> results = new ArrayList<>(sqls.size());
+            for (String sql : sqls) {
+                results.add(this.select(sql));
+            }
+            return results;
+        }
+
+        public int idsBatchSize() {
+            return config.get(MysqlOptions.JDBC_IDS_BATCH_SIZE);
+        }
+
+        public int scanBatchSize() {
+            return config.get(MysqlOptions.JDBC_SCAN_BATCH_SIZE);
+        }
+
         public boolean execute(String sql) throws SQLException {
+            this.checkConnection();
             return this.conn.createStatement().execute(sql);
         }
 
@@ -354,6 +631,26 @@ public class MysqlSessions extends BackendSessionPool {
             }
         }
 
+        /**
+         * Add a row to insert into the table, the rows of a table are
+         * written by multi-row insert statements when committing
+         * @param table the table to insert into
+         * @param columns the column names, the same for rows of a table
+         * @param values the column values of the row
+         */
+        public void add(String table, List<String> columns, Object[] values) {
+            assert columns.size() == values.length;
+            InsertRows rows = this.inserts.get(table);
+            if (rows == null) {
+                int packetSize = config.get(
+                                 MysqlOptions.JDBC_INSERT_PACKET_SIZE);
+                rows = new InsertRows(table, columns, packetSize);
+                this.inserts.put(table, rows);
+            }
+            rows.add(values);
+            this.count++;
+        }
+
         public PreparedStatement prepareStatement(String sqlTemplate)
                                                   throws SQLException {
             PreparedStatement statement = this.statements.get(sqlTemplate);
@@ -364,4 +661,102 @@ public class MysqlSessions extends BackendSessionPool {
             return statement;
         }
     }
+
+    /**
+     * The rows to insert into a table, which are written with statements
+     * like 'INSERT INTO t (a, b) VALUES (?, ?), (?, ?) ON DUPLICATE KEY
+     * UPDATE a = VALUES(a), b = VALUES(b)', each statement contains the
+     * rows up to the packet size
+     */
+    private static class InsertRows {
+
+        // The estimated bytes of a value besides its text, like ", ''"
+        private static final int VALUE_OVERHEAD = 4;
+
+        private final String table;
+        private final List<String> columns;
+        private final int packetSize;
+        private final List<Object[]> rows;
+
+        public InsertRows(String table, List<String> columns, int packetSize) {
+            this.table = table;
+            this.columns = columns;
+            this.packetSize = packetSize;
+            this.rows = new ArrayList<>();
+        }
+
+        public void add(Object[] values) {
+            this.rows.add(values);
+        }
+
+        public int write(Connection conn) throws SQLException {
+            int updated = 0;
+            int from = 0;
+            long size = 0L;
+            for (int i = 0; i < this.rows.size(); i++) {
+                long rowSize = this.sizeOf(this.rows.get(i));
+                if (i > from && size + rowSize > this.packetSize) {
+                    updated += this.write(conn, from, i);
+                    from = i;
+                    size = 0L;
+                }
+                size += rowSize;
+            }
+            if (from < this.rows.size()) {
+                updated += this.write(conn, from, this.rows.size());
+            }
+            return updated;
+        }
+
+        private int write(Connection conn, int from, int to)
+                          throws SQLException {
+            String sql = this.buildInsert(to - from);
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                int index = 1;
+                for (int i = from; i < to; i++) {
+                    for (Object value : this.rows.get(i)) {
+                        statement.setObject(index++, value);
+                    }
+                }
+                return statement.executeUpdate();
+            }
+        }
+
+        private String buildInsert(int rowsCount) {
+            StringBuilder row = new StringBuilder("(");
+            for (int i = 0, n = this.columns.size(); i < n; i++) {
+                row.append(i == 0 ? "?" : ", ?");
+            }
+            row.append(")");
+
+            StringBuilder insert = new StringBuilder();
+            insert.append("INSERT INTO ").append(this.table).append(" (")
+                  .append(String.join(", ", this.columns))
+                  .append(") VALUES ");
+            for (int i = 0; i < rowsCount; i++) {
+                if (i > 0) {
+                    insert.append(", ");
+                }
+                insert.append(row);
+            }
+            insert.append(" ON DUPLICATE KEY UPDATE ");
+            for (int i = 0, n = this.columns.size(); i < n; i++) {
+                String column = this.columns.get(i);
+                if (i > 0) {
+                    insert.append(", ");
+                }
+                insert.append(column).append(" = VALUES(")
+                      .append(column).append(")");
+            }
+            return insert.toString();
+        }
+
+        private long sizeOf(Object[] values) {
+            long size = 0L;
+            for (Object value : values) {
+                size += String.valueOf(value).length() + VALUE_OVERHEAD;
+            }
+            return size;
+        }
+    }
 }
@@ -23,10 +23,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 
@@ -42,6 +44,7 @@ import com.baidu.hugegraph.backend.store.mysql.MysqlSessions.Session;
 import com.baidu.hugegraph.exception.NotFoundException;
 import com.baidu.hugegraph.iterator.ExtendableIterator;
 import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
 import com.google.common.collect.ImmutableList;
 
@@ -50,13 +53,13 @@ public abstract class MysqlTable
 
     private static final Logger LOG = Log.logger(MysqlStore.class);
 
-    // The template for insert and delete statements
-    private String insertTemplate;
+    // The columns of insert statement and the template of delete statement
+    private List<String> insertColumns;
     private String deleteTemplate;
 
     public MysqlTable(String table) {
         super(table);
-        this.insertTemplate = null;
+        this.insertColumns = null;
         this.deleteTemplate = null;
     }
 
@@ -143,34 +146,18 @@ public abstract class MysqlTable
         return ImmutableList.of(id.asObject());
     }
 
-    protected String buildInsertTemplate(MysqlBackendEntry.Row entry) {
-        if (this.insertTemplate != null) {
-            return this.insertTemplate;
+    protected List<String> buildInsertColumns(MysqlBackendEntry.Row entry) {
+        if (this.insertColumns != null) {
+            return this.insertColumns;
         }
 
-        StringBuilder insert = new StringBuilder();
-        insert.append("REPLACE INTO ").append(this.table()).append(" (");
-
-        int i = 0;
-        int n = entry.columns().size();
+        List<String> columns = new ArrayList<>(entry.columns().size());
         for (HugeKeys key : entry.columns().keySet()) {
-            insert.append(formatKey(key));
-            if (++i != n) {
-                insert.append(", ");
-            }
+            columns.add(formatKey(key));
         }
-        insert.append(") VALUES (");
-        // Fill with '?'
-        for (i = 0; i < n; i++) {
-            insert.append("?");
-            if (i != n - 1) {
-                insert.append(", ");
-            }
-        }
-        insert.append(")");
 
-        this.insertTemplate = insert.toString();
-        return this.insertTemplate;
+        this.insertColumns = Collections.unmodifiableList(columns);
+        return this.insertColumns;
     }
 
     protected String buildDeleteTemplate(List<HugeKeys> idNames) {
@@ -195,21 +182,11 @@ public abstract class MysqlTable
      */
     @Override
     public void insert(Session session, MysqlBackendEntry.Row entry) {
-        String template = this.buildInsertTemplate(entry);
-
-        PreparedStatement insertStmt;
-        try {
-            // Create or get insert prepare statement
-            insertStmt = session.prepareStatement(template);
-            int i = 1;
-            for (Object object : entry.columns().values()) {
-                insertStmt.setObject(i++, object);
-            }
-        } catch (SQLException e) {
-            throw new BackendException("Failed to prepare statement '%s'" +
-                                       "for entry: %s", template, entry);
-        }
-        session.add(insertStmt);
+        List<String> columns = this.buildInsertColumns(entry);
+        E.checkState(columns.size() == entry.columns().size(),
+                     "Expect %s columns for inserting into table '%s', " +
+                     "but got entry: %s", columns.size(), this.table(), entry);
+        session.add(this.table(), columns, entry.columns().values().toArray());
     }
 
     @Override
@@ -264,11 +241,24 @@ public abstract class MysqlTable
             return rs;
         }
 
-        List<StringBuilder> selections = this.query2Select(this.table(), query);
+        List<StringBuilder> selections = this.query2Select(
+                                         this.table(), query,
+                                         session.idsBatchSize());
         try {
-            for (StringBuilder selection : selections) {
-                ResultSet results = session.select(selection.toString());
-                rs.extend(this.results2Entries(query, results));
+            int scanBatch = session.scanBatchSize();
+            if (scanBatch > 0 && selections.size() == 1 &&
+                this.isScan(query)) {
+                String select = selections.get(0).toString();
+                rs.extend(this.scanByKeyset(session, query, select,
+                                            scanBatch));
+            } else {
+                List<String> sqls = new ArrayList<>(selections.size());
+                for (StringBuilder selection : selections) {
+                    sqls.add(selection.toString());
+                }
+                for (ResultSet results : session.select(sqls)) {
+                    rs.extend(this.results2Entries(query, results));
+                }
             }
         } catch (SQLException e) {
             throw new BackendException("Failed to query [%s]", e, query);
@@ -278,13 +268,66 @@ public abstract class MysqlTable
         return rs;
     }
 
-    protected List<StringBuilder> query2Select(String table, Query query) {
+    /**
+     * Whether the query reads all matched rows of the table without order
+     * or range, it can be read batch by batch in the primary key order
+     */
+    protected boolean isScan(Query query) {
+        return !query.paging() && query.ids().isEmpty() &&
+               query.orders().isEmpty() && query.offset() == 0L &&
+               query.limit() == Query.NO_LIMIT;
+    }
+
+    /**
+     * Read rows by keyset pagination, every batch is read after the
+     * primary key of the last row of the previous batch, like:
+     * SELECT * FROM t WHERE ... AND (k1, k2) > (v1, v2) ORDER BY k1, k2
+     * LIMIT batch
+     */
+    protected Iterator<BackendEntry> scanByKeyset(Session session, Query query,
+                                                  String select, int batch)
+                                                  throws SQLException {
+        List<HugeKeys> idNames = this.idColumnName();
+        boolean hasWhere = select.contains(" WHERE ");
+
+        Function<BackendEntry, ResultSet> nextBatch = last -> {
+            MysqlBackendEntry entry = (MysqlBackendEntry) last;
+            List<Object> values = new ArrayList<>(idNames.size());
+            for (HugeKeys key : idNames) {
+                values.add(entry.column(key));
+            }
+
+            StringBuilder selection = new StringBuilder(select);
+            selection.append(hasWhere ? " AND" : " WHERE");
+            WhereBuilder where = new WhereBuilder(false);
+            where.gt(formatKeys(idNames), values);
+            selection.append(where.build());
+            this.wrapKeyOrder(selection, idNames);
+            selection.append(" limit ").append(batch).append(";");
+            try {
+                return session.select(selection.toString());
+            } catch (SQLException e) {
+                throw new BackendException("Failed to query [%s]", e, query);
+            }
+        };
+
+        StringBuilder selection = new StringBuilder(select);
+        this.wrapKeyOrder(selection, idNames);
+        selection.append(" limit ").append(batch).append(";");
+        ResultSet results = session.select(selection.toString());
+        return new MysqlEntryIterator(results, query, this::mergeEntries,
+                                      nextBatch, batch);
+    }
+
+    protected List<StringBuilder> query2Select(String table, Query query,
+                                               int idsBatchSize) {
         // Set table
         StringBuilder select = new StringBuilder(64);
         select.append("SELECT * FROM ").append(table);
 
         // Is query by id?
-        List<StringBuilder> ids = this.queryId2Select(query, select);
+        List<StringBuilder> ids = this.queryId2Select(query, select,
+                                                      idsBatchSize);
 
         List<StringBuilder> selections;
 
@@ -302,12 +345,14 @@ public abstract class MysqlTable
         }
         // Set page, order-by and limit
         for (StringBuilder selection : selections) {
+            if (query.paging()) {
+                this.wrapPage(selection, query);
+                continue;
+            }
             if (!query.orders().isEmpty()) {
                 this.wrapOrderBy(selection, query);
             }
-            if (query.paging()) {
-                this.wrapPage(selection, query);
-            } else if (query.limit() != Query.NO_LIMIT || query.offset() > 0) {
+            if (query.limit() != Query.NO_LIMIT || query.offset() > 0) {
                 this.wrapOffset(selection, query);
             }
         }
@@ -316,7 +361,8 @@ public abstract class MysqlTable
     }
 
     protected List<StringBuilder> queryId2Select(Query query,
-                                                 StringBuilder select) {
+                                                 StringBuilder select,
+                                                 int idsBatchSize) {
         // Query by id(s)
         if (query.ids().isEmpty()) {
             return ImmutableList.of(select);
@@ -335,38 +381,34 @@ public abstract class MysqlTable
             ids.add(idParts);
         }
 
-        // Query only by partition-key
-        if (nameParts.size() == 1) {
-            List<Object> values = new ArrayList<>(ids.size());
-            for (List<Object> objects : ids) {
-                assert objects.size() == 1;
-                values.add(objects.get(0));
-            }
-
-            WhereBuilder where = new WhereBuilder();
-            where.in(formatKey(nameParts.get(0)), values);
-            select.append(where.build());
-            return ImmutableList.of(select);
-        }
-
         /*
-         * Query by partition-key + clustering-key
-         * NOTE: Error if multi-column IN clause include partition key:
-         * error: multi-column relations can only be applied to clustering
-         * columns when using: select.where(QueryBuilder.in(names, idList));
-         * So we use multi-query instead of IN
+         * Query ids batch by batch, like "pk IN (id1, id2)" for single
+         * column ids, or "(pk = id and ck1 = v1 and ck2 = v2) OR (...)"
+         * for multi-column ids.
+         * NOTE: the row constructor IN like "(pk, ck1, ck2) IN ((id, v1,
+         * v2), ...)" is not used, because MySQL can't optimize it with
+         * index range scan before version 5.7, it would scan whole table
          */
-        List<StringBuilder> selections = new ArrayList<>(ids.size());
-        for (List<Object> objects : ids) {
-            assert nameParts.size() == objects.size();
+        int batches = (ids.size() + idsBatchSize - 1) / idsBatchSize;
+        List<StringBuilder> selections = new ArrayList<>(batches);
+        for (int i = 0; i < ids.size(); i += idsBatchSize) {
+            List<List<Object>> batch = ids.subList(i, Math.min(
+                                                   i + idsBatchSize,
+                                                   ids.size()));
             StringBuilder idSelection = new StringBuilder(select);
-            /*
-             * NOTE: concat with AND relation, like:
-             * "pk = id and ck1 = v1 and ck2 = v2"
-             */
             WhereBuilder where = new WhereBuilder();
-            where.and(formatKeys(nameParts), objects);
-
+            if (nameParts.size() == 1) {
+                // Query only by partition-key
+                List<Object> values = new ArrayList<>(batch.size());
+                for (List<Object> objects : batch) {
+                    assert objects.size() == 1;
+                    values.add(objects.get(0));
+                }
+                where.in(formatKey(nameParts.get(0)), values);
+            } else {
+                // Query by partition-key + clustering-key
+                where.or(formatKeys(nameParts), batch);
+            }
             idSelection.append(where.build());
             selections.add(idSelection);
         }
@@ -481,25 +523,35 @@ public abstract class MysqlTable
     }
 
     protected void wrapPage(StringBuilder select, Query query) {
+        List<HugeKeys> idColumnNames = this.idColumnName();
         String page = query.page();
         // It's the first time if page is empty
         if (!page.isEmpty()) {
             PageState pageState = PageState.fromString(page);
             Map<HugeKeys, Object> columns = pageState.columns();
 
-            List<HugeKeys> idColumnNames = this.idColumnName();
             List<Object> values = new ArrayList<>(idColumnNames.size());
             for (HugeKeys key : idColumnNames) {
                 values.add(columns.get(key));
             }
 
-            // Need add `where` to `select` when query is IdQuery
-            boolean startWithWhere = query.conditions().isEmpty();
-            WhereBuilder where = new WhereBuilder(startWithWhere);
+            // Need add `where` to `select` if there is no id or condition
+            boolean hasWhere = select.indexOf(" WHERE ") >= 0;
+            if (hasWhere) {
+                select.append(" AND");
+            }
+            WhereBuilder where = new WhereBuilder(!hasWhere);
             where.gte(formatKeys(idColumnNames), values);
             select.append(where.build());
         }
 
+        // Seek from the page position requires the primary key order
+        if (!query.orders().isEmpty()) {
+            this.wrapOrderBy(select, query);
+        } else {
+            this.wrapKeyOrder(select, idColumnNames);
+        }
+
         assert query.limit() != Query.NO_LIMIT;
         // Fetch `limit + 1` records for judging whether reached the last page
         select.append(" limit ");
@@ -507,6 +559,11 @@ public abstract class MysqlTable
         select.append(";");
     }
 
+    protected void wrapKeyOrder(StringBuilder select, List<HugeKeys> keys) {
+        select.append(" ORDER BY ");
+        select.append(String.join(", ", formatKeys(keys)));
+    }
+
     protected void wrapOffset(StringBuilder select, Query query) {
         assert query.limit() >= 0;
         assert query.offset() >= 0;
@@ -186,6 +186,39 @@ public class WhereBuilder {
      * @param values the values to be concatted with {@code >=} operator
      */
     public void gte(List<String> keys, List<Object> values) {
+        this.compare(keys, " >= ", values);
+    }
+
+    /**
+     * Concat as: (key1, key2...keyn) {@code >} (val1, val2...valn)
+     * @param keys the keys to be concatted with {@code >} operator
+     * @param values the values to be concatted with {@code >} operator
+     */
+    public void gt(List<String> keys, List<Object> values) {
+        this.compare(keys, " > ", values);
+    }
+
+    /**
+     * Concat as: ((key1 = val11 and key2 = val12) or (key1 = val21 ...))
+     * @param keys the keys to be concatted with values according to the
+     *             same index
+     * @param values the value tuples, each has the same size as keys
+     */
+    public void or(List<String> keys, List<List<Object>> values) {
+        this.builder.append("(");
+        for (int i = 0, n = values.size(); i < n; i++) {
+            this.builder.append("(");
+            this.and(keys, values.get(i));
+            this.builder.append(")");
+            if (i != n - 1) {
+                this.builder.append(" OR ");
+            }
+        }
+        this.builder.append(")");
+    }
+
+    private void compare(List<String> keys, String operator,
+                         List<Object> values) {
         E.checkArgument(keys.size() == values.size(),
                         "The size of keys '%s' is not equal with " +
                         "values size '%s'",
@@ -197,7 +230,12 @@ public class WhereBuilder {
                 this.builder.append(", ");
             }
         }
-        this.builder.append(") >= (");
+        this.builder.append(")").append(operator).append("(");
+        this.appendValues(values);
+        this.builder.append(")");
+    }
+
+    private void appendValues(List<Object> values) {
         for (int i = 0, n = values.size(); i < n; i++) {
             Object value = values.get(i);
             if (value instanceof String) {
@@ -209,7 +247,6 @@ public class WhereBuilder {
                 this.builder.append(", ");
             }
         }
-        this.builder.append(")");
     }
 
     public String build() {
@@ -79,6 +79,11 @@ public class PaloFeatures implements BackendFeatures {
         return true;
     }
 
+    @Override
+    public boolean supportsQueryIndexByPage() {
+        return true;
+    }
+
     @Override
     public boolean supportsDeleteEdgeByLabel() {
         return true;
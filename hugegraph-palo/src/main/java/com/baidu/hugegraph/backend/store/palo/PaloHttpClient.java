@@ -19,19 +19,25 @@
 
 package com.baidu.hugegraph.backend.store.palo;
 
-import java.util.Map;
-
-import javax.ws.rs.core.MultivaluedHashMap;
-import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
+
 import com.baidu.hugegraph.config.HugeConfig;
-import com.baidu.hugegraph.rest.RestClient;
-import com.google.common.collect.ImmutableMap;
+import com.baidu.hugegraph.rest.RestResult;
 
 public class PaloHttpClient {
 
-    private final RestClient client;
+    private static final int SECOND = 1000;
+
+    private final Client client;
+    private final WebTarget target;
 
     public PaloHttpClient(HugeConfig config, String database) {
         String url = this.buildUrl(config, database);
@@ -39,7 +45,17 @@ public class PaloHttpClient {
         String password = config.get(PaloOptions.PALO_PASSWORD);
         Integer timeout = config.get(PaloOptions.PALO_HTTP_TIMEOUT);
 
-        this.client = new Client(url, username, password, timeout);
+        /*
+         * The RestClient can't send headers with a PUT request, but Palo
+         * expects the 'Expect: 100-continue' header of a load, so that
+         * the body is only sent after the redirection to a backend
+         */
+        ClientConfig conf = new ClientConfig();
+        conf.property(ClientProperties.CONNECT_TIMEOUT, timeout * SECOND);
+        conf.property(ClientProperties.READ_TIMEOUT, timeout * SECOND);
+        conf.register(HttpAuthenticationFeature.basic(username, password));
+        this.client = ClientBuilder.newClient(conf);
+        this.target = this.client.target(url);
     }
 
     private String buildUrl(HugeConfig config, String database) {
@@ -49,29 +65,24 @@ public class PaloHttpClient {
     }
 
     public void bulkLoadAsync(String table, String body, String label) {
-        // Format path
-        String path = table + "/_load";
-        // Format headers
-        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
-        headers.putSingle("Expect", "100-continue");
-        // Format params
-        Map<String, Object> params = ImmutableMap.of("label", label);
-        // Send request
-        this.client.put(path, body, headers, params);
+        this.load(table, body, label);
     }
 
-    private static class Client extends RestClient {
-
-        private static final int SECOND = 1000;
+    public RestResult streamLoad(String table, String body, String label) {
+        return this.load(table, body, label);
+    }
 
-        public Client(String url, String user, String password, int timeout) {
-            super(url, user, password, timeout * SECOND);
-        }
+    public void close() {
+        this.client.close();
+    }
 
-        @Override
-        protected void checkStatus(Response response,
-                                   Response.Status... statuses) {
-            // pass
-        }
+    private RestResult load(String table, String body, String label) {
+        // Send the rows as request body to path '{table}/_load'
+        Response response = this.target.path(table).path("_load")
+                                .queryParam("label", label)
+                                .request()
+                                .header("Expect", "100-continue")
+                                .put(Entity.text(body));
+        return new RestResult(response);
     }
 }
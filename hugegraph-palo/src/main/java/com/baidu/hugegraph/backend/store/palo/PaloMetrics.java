@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.store.palo;
+
+import java.util.Map;
+
+import com.baidu.hugegraph.backend.store.BackendMetrics;
+import com.baidu.hugegraph.util.InsertionOrderUtil;
+
+public class PaloMetrics implements BackendMetrics {
+
+    public static final String LOAD_MODE = "load_mode";
+    public static final String PENDING_BYTES = "pending_bytes";
+    public static final String LOAD_COUNT = "load_count";
+    public static final String LOAD_FAILED_COUNT = "load_failed_count";
+    public static final String LOAD_RETRIED_COUNT = "load_retried_count";
+    public static final String LOADED_BYTES = "loaded_bytes";
+    public static final String LOAD_AVG_LATENCY = "load_avg_latency_ms";
+    public static final String LOAD_MAX_LATENCY = "load_max_latency_ms";
+    public static final String LOAD_THROUGHPUT = "load_throughput_mb_per_s";
+
+    private static final double NANOS_PER_MS = 1000000.0;
+    private static final double NANOS_PER_SECOND = 1000000000.0;
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final PaloSessions sessions;
+
+    public PaloMetrics(PaloSessions sessions) {
+        this.sessions = sessions;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = InsertionOrderUtil.newMap();
+        PaloStreamLoader loader = this.sessions.streamLoader();
+        if (loader == null) {
+            metrics.put(LOAD_MODE, "file");
+            return metrics;
+        }
+
+        metrics.put(LOAD_MODE, "stream");
+        metrics.put(PENDING_BYTES, loader.pendingBytes());
+
+        long loads = loader.loadCount();
+        long bytes = loader.loadedBytes();
+        long nanos = loader.loadNanos();
+        metrics.put(LOAD_COUNT, loads);
+        metrics.put(LOAD_FAILED_COUNT, loader.failedCount());
+        metrics.put(LOAD_RETRIED_COUNT, loader.retriedCount());
+        metrics.put(LOADED_BYTES, bytes);
+        metrics.put(LOAD_AVG_LATENCY,
+                    loads == 0L ? 0.0 : nanos / loads / NANOS_PER_MS);
+        metrics.put(LOAD_MAX_LATENCY, loader.maxLoadNanos() / NANOS_PER_MS);
+        // The throughput of a single load, concurrent loads are not summed
+        double seconds = nanos / NANOS_PER_SECOND;
+        metrics.put(LOAD_THROUGHPUT, nanos == 0L ? 0.0 : bytes / MB / seconds);
+        return metrics;
+    }
+}
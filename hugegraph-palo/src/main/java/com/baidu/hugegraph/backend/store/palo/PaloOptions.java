@@ -19,6 +19,7 @@
 
 package com.baidu.hugegraph.backend.store.palo;
 
+import static com.baidu.hugegraph.config.OptionChecker.allowValues;
 import static com.baidu.hugegraph.config.OptionChecker.disallowEmpty;
 import static com.baidu.hugegraph.config.OptionChecker.nonNegativeInt;
 import static com.baidu.hugegraph.config.OptionChecker.positiveInt;
@@ -107,4 +108,72 @@ public class PaloOptions extends OptionHolder {
                     rangeInt(10, 1000),
                     50
             );
+
+    public static final ConfigOption<String> PALO_LOAD_MODE =
+            new ConfigOption<>(
+                    "palo.load_mode",
+                    "The mode to load data into Palo: file(write rows to " +
+                    "local files which are loaded by a polling thread) or " +
+                    "stream(buffer rows in memory and load them by http " +
+                    "when reaching the flush size or interval).",
+                    allowValues("file", "stream"),
+                    "file"
+            );
+
+    public static final ConfigOption<Integer> PALO_STREAM_FLUSH_SIZE =
+            new ConfigOption<>(
+                    "palo.stream_flush_size",
+                    "The buffer size(MB) of each table to trigger a load " +
+                    "in stream load mode.",
+                    rangeInt(1, 1000),
+                    16
+            );
+
+    public static final ConfigOption<Integer> PALO_STREAM_FLUSH_INTERVAL =
+            new ConfigOption<>(
+                    "palo.stream_flush_interval",
+                    "The max time(ms) that buffered rows wait before being " +
+                    "loaded in stream load mode with async commit.",
+                    rangeInt(10, Integer.MAX_VALUE),
+                    1000
+            );
+
+    public static final ConfigOption<Integer> PALO_STREAM_LOAD_PARALLELISM =
+            new ConfigOption<>(
+                    "palo.stream_load_parallelism",
+                    "The max number of concurrent loads of each table in " +
+                    "stream load mode.",
+                    rangeInt(1, 100),
+                    2
+            );
+
+    public static final ConfigOption<Integer> PALO_STREAM_MAX_PENDING_SIZE =
+            new ConfigOption<>(
+                    "palo.stream_max_pending_size",
+                    "The max size(MB) of rows buffered or being loaded in " +
+                    "stream load mode, committing blocks when exceeded.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    256
+            );
+
+    public static final ConfigOption<String> PALO_STREAM_COMMIT_MODE =
+            new ConfigOption<>(
+                    "palo.stream_commit_mode",
+                    "The commit mode in stream load mode: sync(commit " +
+                    "returns after the rows are loaded, and throws the " +
+                    "error of their loads) or async(commit returns after " +
+                    "the rows are buffered, and a load failed after retries " +
+                    "is only logged and counted in metrics).",
+                    allowValues("sync", "async"),
+                    "sync"
+            );
+
+    public static final ConfigOption<Integer> PALO_STREAM_LOAD_RETRIES =
+            new ConfigOption<>(
+                    "palo.stream_load_retries",
+                    "The max times to retry a failed load with the same " +
+                    "label in stream load mode.",
+                    rangeInt(0, 10),
+                    3
+            );
 }
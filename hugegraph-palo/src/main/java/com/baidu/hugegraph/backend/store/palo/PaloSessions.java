@@ -56,6 +56,7 @@ public class PaloSessions extends MysqlSessions {
 
     private final Timer timer;
     private final PaloLoadTask loadTask;
+    private final PaloStreamLoader streamLoader;
 
     public PaloSessions(HugeConfig config, String database, String store,
                         List<String> tableDirs) {
@@ -69,6 +70,18 @@ public class PaloSessions extends MysqlSessions {
         long interval = config.get(PaloOptions.PALO_POLL_INTERVAL);
         this.loadTask = new PaloLoadTask(tableDirs);
         this.timer.schedule(this.loadTask, 0, interval * 1000);
+
+        /*
+         * The load task is still scheduled in stream mode, to load the
+         * files left by file mode
+         */
+        String loadMode = config.get(PaloOptions.PALO_LOAD_MODE);
+        if (loadMode.equals("stream")) {
+            PaloHttpClient client = new PaloHttpClient(config, database());
+            this.streamLoader = new PaloStreamLoader(config, client);
+        } else {
+            this.streamLoader = null;
+        }
     }
 
     private void restoreSessionInfo(HugeConfig config, List<String> tableDirs) {
@@ -106,8 +119,15 @@ public class PaloSessions extends MysqlSessions {
         return new Session(id);
     }
 
+    public PaloStreamLoader streamLoader() {
+        return this.streamLoader;
+    }
+
     @Override
     public void close() {
+        if (this.streamLoader != null) {
+            this.streamLoader.close();
+        }
         this.loadTask.join();
         this.timer.cancel();
         super.close();
@@ -143,7 +163,11 @@ public class PaloSessions extends MysqlSessions {
         public Integer commit() {
             int updated = 0;
             if (!this.batch.isEmpty()) {
-                updated += this.writeBatch();
+                if (PaloSessions.this.streamLoader != null) {
+                    updated += this.streamBatch();
+                } else {
+                    updated += this.writeBatch();
+                }
             }
             updated += super.commit();
             this.clear();
@@ -176,6 +200,15 @@ public class PaloSessions extends MysqlSessions {
             return updated;
         }
 
+        private int streamBatch() {
+            /*
+             * May block until enough buffered rows are loaded, and until
+             * the rows of this batch are loaded in sync commit mode
+             */
+            PaloSessions.this.streamLoader.append(this.batch.asMap());
+            return this.batch.size();
+        }
+
         private PaloFile getOrCreate(String table) {
             String tempDir = config().get(PaloOptions.PALO_TEMP_DIR);
             long limitSize = PaloFile.limitSize(config());
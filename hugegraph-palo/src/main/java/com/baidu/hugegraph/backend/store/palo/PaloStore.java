@@ -28,22 +28,38 @@ import com.baidu.hugegraph.backend.store.BackendStoreProvider;
 import com.baidu.hugegraph.backend.store.BackendTable;
 import com.baidu.hugegraph.backend.store.mysql.MysqlStore;
 import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
 
 public abstract class PaloStore extends MysqlStore {
 
     private static final Logger LOG = Log.logger(PaloStore.class);
 
+    private PaloSessions sessions;
+
     public PaloStore(BackendStoreProvider provider,
                      String database, String name) {
         super(provider, database, name);
+        this.sessions = null;
+
+        this.registerMetaHandlers();
+    }
+
+    private void registerMetaHandlers() {
+        this.registerMetaHandler("metrics", (session, meta, args) -> {
+            E.checkState(this.sessions != null,
+                         "Palo store has not been opened");
+            PaloMetrics metrics = new PaloMetrics(this.sessions);
+            return metrics.getMetrics();
+        });
     }
 
     @Override
     protected PaloSessions openSessionPool(HugeConfig config) {
         LOG.info("Open palo session pool for {}", this);
-        return new PaloSessions(config, this.database(), this.store(),
-                                this.tableNames());
+        this.sessions = new PaloSessions(config, this.database(), this.store(),
+                                         this.tableNames());
+        return this.sessions;
     }
 
     private List<String> tableNames() {
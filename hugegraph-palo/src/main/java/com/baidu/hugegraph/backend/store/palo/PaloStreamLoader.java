@@ -0,0 +1,455 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.store.palo;
+
+import java.text.DateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.date.SafeDateFormat;
+import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.util.Log;
+import com.google.common.base.Utf8;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Buffer the rows of each table in memory and load them into Palo by http
+ * when the buffer of a table reaches the flush size or its oldest row has
+ * waited for the flush interval. The bytes buffered or being loaded are
+ * bounded by the max pending size, appending rows blocks until enough
+ * loads finished.
+ *
+ * In sync commit mode, appending rows flushes the buffers of their tables
+ * and waits for the loads carrying them, the error of a load is thrown to
+ * the committers of its rows. In async commit mode, appending rows returns
+ * once they are buffered, and a load failed after retries is only logged
+ * and counted.
+ */
+public class PaloStreamLoader {
+
+    private static final Logger LOG = Log.logger(PaloStore.class);
+
+    private static final String LOAD_WORKER = "palo-stream-load-%d";
+    private static final String FLUSH_WORKER = "palo-stream-flush-%d";
+    private static final String DF = "yyyy-MM-dd-HH-mm-ss";
+    private static final long MB = 1024L * 1024L;
+    private static final long RETRY_INTERVAL = 100L;
+
+    private static final String LOAD_SUCCESS = "Success";
+    // A retry succeeded if the label was loaded by the previous try
+    private static final String LABEL_EXISTS = "Label Already Exists";
+
+    private final DateFormat dateFormat = new SafeDateFormat(DF);
+
+    private final PaloHttpClient client;
+    private final long flushSize;
+    private final long flushInterval;
+    private final int parallelism;
+    private final long maxPendingSize;
+    private final boolean syncCommit;
+    private final int loadRetries;
+
+    private final Map<String, TableBuffer> buffers;
+    private final ExecutorService loadExecutor;
+    private final ScheduledExecutorService flushExecutor;
+    private final AtomicLong labelCounter;
+
+    // The bytes buffered or being loaded, guarded by pendingLock
+    private long pendingBytes;
+    private final Lock pendingLock;
+    private final Condition pendingReleased;
+
+    // Metrics of loads
+    private final AtomicLong loadCount;
+    private final AtomicLong failedCount;
+    private final AtomicLong retriedCount;
+    private final AtomicLong loadedBytes;
+    private final AtomicLong loadNanos;
+    private final AtomicLong maxLoadNanos;
+
+    public PaloStreamLoader(HugeConfig config, PaloHttpClient client) {
+        this.client = client;
+        this.flushSize = config.get(PaloOptions.PALO_STREAM_FLUSH_SIZE) * MB;
+        this.flushInterval = config.get(
+                             PaloOptions.PALO_STREAM_FLUSH_INTERVAL);
+        this.parallelism = config.get(
+                           PaloOptions.PALO_STREAM_LOAD_PARALLELISM);
+        this.maxPendingSize = config.get(
+                              PaloOptions.PALO_STREAM_MAX_PENDING_SIZE) * MB;
+        this.syncCommit = config.get(PaloOptions.PALO_STREAM_COMMIT_MODE)
+                                .equals("sync");
+        this.loadRetries = config.get(PaloOptions.PALO_STREAM_LOAD_RETRIES);
+
+        this.buffers = new ConcurrentHashMap<>();
+        // The concurrent loads are bounded by the permits of each table
+        this.loadExecutor = Executors.newCachedThreadPool(
+                            new ThreadFactoryBuilder()
+                            .setNameFormat(LOAD_WORKER)
+                            .setDaemon(true).build());
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(
+                             new ThreadFactoryBuilder()
+                             .setNameFormat(FLUSH_WORKER)
+                             .setDaemon(true).build());
+        this.labelCounter = new AtomicLong();
+
+        this.pendingBytes = 0L;
+        this.pendingLock = new ReentrantLock();
+        this.pendingReleased = this.pendingLock.newCondition();
+
+        this.loadCount = new AtomicLong();
+        this.failedCount = new AtomicLong();
+        this.retriedCount = new AtomicLong();
+        this.loadedBytes = new AtomicLong();
+        this.loadNanos = new AtomicLong();
+        this.maxLoadNanos = new AtomicLong();
+
+        long period = Math.max(this.flushInterval / 2, 10L);
+        this.flushExecutor.scheduleAtFixedRate(this::flushExpired, period,
+                                               period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Append rows of each table, wait for the loads of them in sync
+     * commit mode
+     */
+    public void append(Map<String, Collection<String>> batch) {
+        Map<String, CompletableFuture<Void>> loads = new HashMap<>();
+        for (Map.Entry<String, Collection<String>> e : batch.entrySet()) {
+            loads.put(e.getKey(), this.append(e.getKey(), e.getValue()));
+        }
+        if (!this.syncCommit) {
+            return;
+        }
+
+        for (String table : loads.keySet()) {
+            TableBuffer buffer = this.buffers.get(table);
+            if (buffer != null) {
+                this.flush(buffer);
+            }
+        }
+        for (Map.Entry<String, CompletableFuture<Void>> e : loads.entrySet()) {
+            try {
+                e.getValue().get();
+            } catch (InterruptedException ex) {
+                throw new BackendException("Interrupted while waiting for " +
+                                           "palo stream loads", ex);
+            } catch (ExecutionException ex) {
+                throw new BackendException("Failed to commit rows of palo " +
+                                           "table '%s'", ex.getCause(),
+                                           e.getKey());
+            }
+        }
+    }
+
+    public void close() {
+        // Stop flushing expired buffers before stopping the loads
+        this.flushExecutor.shutdown();
+        awaitTermination(this.flushExecutor);
+        for (TableBuffer buffer : this.buffers.values()) {
+            this.flush(buffer);
+        }
+        this.loadExecutor.shutdown();
+        awaitTermination(this.loadExecutor);
+        this.client.close();
+    }
+
+    public long pendingBytes() {
+        this.pendingLock.lock();
+        try {
+            return this.pendingBytes;
+        } finally {
+            this.pendingLock.unlock();
+        }
+    }
+
+    public long loadCount() {
+        return this.loadCount.get();
+    }
+
+    public long failedCount() {
+        return this.failedCount.get();
+    }
+
+    public long retriedCount() {
+        return this.retriedCount.get();
+    }
+
+    public long loadedBytes() {
+        return this.loadedBytes.get();
+    }
+
+    public long loadNanos() {
+        return this.loadNanos.get();
+    }
+
+    public long maxLoadNanos() {
+        return this.maxLoadNanos.get();
+    }
+
+    private CompletableFuture<Void> append(String table,
+                                           Collection<String> rows) {
+        if (rows.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long size = 0L;
+        for (String row : rows) {
+            // One more byte for the line separator
+            size += Utf8.encodedLength(row) + 1;
+        }
+        this.acquire(size);
+
+        TableBuffer buffer = this.buffers.computeIfAbsent(table,
+                                                          TableBuffer::new);
+        CompletableFuture<Void> future;
+        LoadBatch batch = null;
+        synchronized (buffer) {
+            future = buffer.append(rows, size);
+            if (buffer.size >= this.flushSize) {
+                batch = buffer.drain();
+            }
+        }
+        if (batch != null) {
+            this.load(buffer, batch);
+        }
+        return future;
+    }
+
+    private void acquire(long size) {
+        this.pendingLock.lock();
+        try {
+            // Let a batch larger than the max pending size go alone
+            while (this.pendingBytes > 0L &&
+                   this.pendingBytes + size > this.maxPendingSize) {
+                this.pendingReleased.await();
+            }
+            this.pendingBytes += size;
+        } catch (InterruptedException e) {
+            throw new BackendException("Interrupted while waiting for " +
+                                       "palo stream loads", e);
+        } finally {
+            this.pendingLock.unlock();
+        }
+    }
+
+    private void release(long size) {
+        this.pendingLock.lock();
+        try {
+            this.pendingBytes -= size;
+            this.pendingReleased.signalAll();
+        } finally {
+            this.pendingLock.unlock();
+        }
+    }
+
+    private void flushExpired() {
+        long now = System.currentTimeMillis();
+        for (TableBuffer buffer : this.buffers.values()) {
+            if (buffer.size > 0L &&
+                now - buffer.firstAppendTime >= this.flushInterval) {
+                this.flush(buffer);
+            }
+        }
+    }
+
+    private void flush(TableBuffer buffer) {
+        LoadBatch batch;
+        synchronized (buffer) {
+            if (buffer.size == 0L) {
+                return;
+            }
+            batch = buffer.drain();
+        }
+        this.load(buffer, batch);
+    }
+
+    private void load(TableBuffer buffer, LoadBatch batch) {
+        // Wait for a load permit of the table
+        buffer.loads.acquireUninterruptibly();
+        try {
+            this.loadExecutor.submit(() -> {
+                Throwable error = null;
+                try {
+                    this.doLoad(buffer.table, batch);
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    buffer.loads.release();
+                    this.release(batch.size);
+                }
+                /*
+                 * Complete the load after releasing its bytes and permit,
+                 * then the committers waiting for it see them released
+                 */
+                if (error == null) {
+                    batch.future.complete(null);
+                } else {
+                    batch.future.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            buffer.loads.release();
+            this.release(batch.size);
+            batch.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void doLoad(String table, LoadBatch batch) {
+        // Retry with the same label, which is loaded at most once by Palo
+        String label = String.format("%s-%s-%s", table,
+                                     this.dateFormat.format(new Date()),
+                                     this.labelCounter.incrementAndGet());
+        long start = System.nanoTime();
+        for (int retries = 0; ; retries++) {
+            try {
+                RestResult result = this.client.streamLoad(table, batch.data,
+                                                           label);
+                checkLoadResult(result);
+                break;
+            } catch (Exception e) {
+                if (retries >= this.loadRetries ||
+                    !this.waitForRetry(retries)) {
+                    this.failedCount.incrementAndGet();
+                    LOG.error("Failed to load {} bytes into palo table '{}' " +
+                              "with label '{}'", batch.size, table, label, e);
+                    throw new BackendException(
+                              "Failed to load data into palo table '%s' " +
+                              "with label '%s'", e, table, label);
+                }
+                this.retriedCount.incrementAndGet();
+                LOG.warn("Failed to load into palo table '{}' with label " +
+                         "'{}', retry {}/{}", table, label, retries + 1,
+                         this.loadRetries, e);
+            }
+        }
+        long cost = System.nanoTime() - start;
+
+        this.loadCount.incrementAndGet();
+        this.loadedBytes.addAndGet(batch.size);
+        this.loadNanos.addAndGet(cost);
+        this.maxLoadNanos.accumulateAndGet(cost, Math::max);
+    }
+
+    private boolean waitForRetry(int retries) {
+        try {
+            Thread.sleep(RETRY_INTERVAL << retries);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void checkLoadResult(RestResult result) {
+        String content = result.content();
+        if (result.status() != 200 || content == null ||
+            !(content.contains(LOAD_SUCCESS) ||
+              content.contains(LABEL_EXISTS))) {
+            throw new BackendException("Unexpected load result: %s",
+                                       content);
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            while (!executor.awaitTermination(1L, TimeUnit.SECONDS)) {
+                LOG.info("Waiting for palo stream loads to finish");
+            }
+        } catch (InterruptedException e) {
+            throw new BackendException("Interrupted while waiting for " +
+                                       "palo stream loads", e);
+        }
+    }
+
+    private static final class LoadBatch {
+
+        private final String data;
+        private final long size;
+        private final CompletableFuture<Void> future;
+
+        public LoadBatch(String data, long size,
+                         CompletableFuture<Void> future) {
+            this.data = data;
+            this.size = size;
+            this.future = future;
+        }
+    }
+
+    private final class TableBuffer {
+
+        private final String table;
+        private final Semaphore loads;
+
+        private StringBuilder data;
+        private volatile long size;
+        private volatile long firstAppendTime;
+        // Completed when the buffered rows are loaded
+        private CompletableFuture<Void> future;
+
+        public TableBuffer(String table) {
+            this.table = table;
+            this.loads = new Semaphore(PaloStreamLoader.this.parallelism);
+            this.data = new StringBuilder();
+            this.size = 0L;
+            this.firstAppendTime = 0L;
+            this.future = new CompletableFuture<>();
+        }
+
+        public CompletableFuture<Void> append(Collection<String> rows,
+                                              long size) {
+            if (this.size == 0L) {
+                this.firstAppendTime = System.currentTimeMillis();
+            }
+            for (String row : rows) {
+                this.data.append(row).append('\n');
+            }
+            this.size += size;
+            return this.future;
+        }
+
+        public LoadBatch drain() {
+            LoadBatch batch = new LoadBatch(this.data.toString(), this.size,
+                                            this.future);
+            this.data = new StringBuilder();
+            this.size = 0L;
+            this.future = new CompletableFuture<>();
+            return batch;
+        }
+    }
+}
@@ -77,6 +77,11 @@ public class RocksDBFeatures implements BackendFeatures {
         return true;
     }
 
+    @Override
+    public boolean supportsQueryIndexByPage() {
+        return true;
+    }
+
     @Override
     public boolean supportsDeleteEdgeByLabel() {
         // No index in RocksDB
@@ -83,6 +83,14 @@ public class RocksDBOptions extends OptionHolder {
                     ""
             );
 
+    public static final ConfigOption<String> SNAPSHOT_PATH =
+            new ConfigOption<>(
+                    "rocksdb.snapshot_path",
+                    "The path for storing snapshots(checkpoints) of RocksDB.",
+                    disallowEmpty(),
+                    "rocksdb-snapshot"
+            );
+
     // TODO: support ConfigOption<InfoLogLevel>
     public static final ConfigOption<String> LOG_LEVEL =
             new ConfigOption<>(
@@ -269,4 +277,70 @@ public class RocksDBOptions extends OptionHolder {
                     disallowEmpty(),
                     false
             );
+
+    public static final ConfigOption<Long> SCAN_READAHEAD_SIZE =
+            new ConfigOption<>(
+                    "rocksdb.scan_readahead_size",
+                    "The read-ahead size in bytes of full table scan and " +
+                    "shard scan, 0 means use the default of RocksDB.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    2L * Bytes.MB
+            );
+
+    public static final ConfigOption<Integer> SCAN_PREFETCH_CHUNKS =
+            new ConfigOption<>(
+                    "rocksdb.scan_prefetch_chunks",
+                    "The max number of chunks prefetched by a background " +
+                    "thread for full table scan and shard scan, " +
+                    "0 means disable the asynchronous prefetch.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    0
+            );
+
+    public static final ConfigOption<Integer> SCAN_PREFETCH_CHUNK_SIZE =
+            new ConfigOption<>(
+                    "rocksdb.scan_prefetch_chunk_size",
+                    "The number of key-values in each prefetched chunk.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    1000
+            );
+
+    public static final ConfigOption<Integer> SCAN_PREFETCH_THREADS =
+            new ConfigOption<>(
+                    "rocksdb.scan_prefetch_threads",
+                    "The max number of threads prefetching for full table " +
+                    "scans, the scans are not prefetched if all of the " +
+                    "threads are busy.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    8
+            );
+
+    public static final ConfigOption<Integer> SCAN_PREFETCH_TIMEOUT =
+            new ConfigOption<>(
+                    "rocksdb.scan_prefetch_timeout",
+                    "The timeout in seconds to wait for the caller to take " +
+                    "a prefetched chunk, the prefetch thread gives up the " +
+                    "scan after timeout in case the caller abandoned it.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    600
+            );
+
+    public static final ConfigOption<Integer> READ_SNAPSHOT_TTL =
+            new ConfigOption<>(
+                    "rocksdb.read_snapshot_ttl",
+                    "The time in seconds a read snapshot is kept after it's " +
+                    "used lastly, the expired snapshots are released to " +
+                    "let compaction reclaim the old versions of data.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    3600
+            );
+
+    public static final ConfigOption<Integer> MAX_READ_SNAPSHOTS =
+            new ConfigOption<>(
+                    "rocksdb.max_read_snapshots",
+                    "The max number of read snapshots opened at the same " +
+                    "time in a RocksDB instance.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    100
+            );
 }
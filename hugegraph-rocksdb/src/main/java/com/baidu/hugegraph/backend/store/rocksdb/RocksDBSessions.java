@@ -19,6 +19,7 @@
 
 package com.baidu.hugegraph.backend.store.rocksdb;
 
+import java.util.List;
 import java.util.Set;
 
 import org.rocksdb.RocksDBException;
@@ -40,6 +41,10 @@ public abstract class RocksDBSessions extends BackendSessionPool {
 
     public abstract String property(String property);
 
+    public abstract void createSnapshot(String snapshotPath);
+    public abstract void restoreSnapshot(String snapshotPath,
+                                         List<String> tables);
+
     @Override
     public abstract Session session();
 
@@ -56,6 +61,8 @@ public abstract class RocksDBSessions extends BackendSessionPool {
         public static final int SCAN_LT_END = 0x10;
         public static final int SCAN_LTE_END = 0x30;
 
+        public static final long NO_READ_SNAPSHOT = 0L;
+
         public abstract String property(String table, String property);
 
         public abstract void put(String table, byte[] key, byte[] value);
@@ -67,10 +74,17 @@ public abstract class RocksDBSessions extends BackendSessionPool {
         public abstract void delete(String table, byte[] key);
 
         public abstract byte[] get(String table, byte[] key);
+        public abstract List<byte[]> get(String table, List<byte[]> keys);
+
+        public abstract long openReadSnapshot();
+        public abstract void closeReadSnapshot(long snapshot);
+        public abstract void useReadSnapshot(long snapshot);
 
         public abstract BackendColumnIterator scan(String table);
         public abstract BackendColumnIterator scan(String table,
                                                    byte[] prefix);
+        public abstract BackendColumnIterator scan(String table,
+                                                   List<byte[]> prefixes);
         public abstract BackendColumnIterator scan(String table,
                                                    byte[] keyFrom,
                                                    byte[] keyTo,
@@ -19,17 +19,38 @@
 
 package com.baidu.hugegraph.backend.store.rocksdb;
 
+import static com.baidu.hugegraph.backend.store.rocksdb.RocksDBOptions.SCAN_PREFETCH_CHUNKS;
+import static com.baidu.hugegraph.backend.store.rocksdb.RocksDBOptions.SCAN_PREFETCH_CHUNK_SIZE;
+import static com.baidu.hugegraph.backend.store.rocksdb.RocksDBOptions.SCAN_PREFETCH_THREADS;
+import static com.baidu.hugegraph.backend.store.rocksdb.RocksDBOptions.SCAN_PREFETCH_TIMEOUT;
+import static com.baidu.hugegraph.backend.store.rocksdb.RocksDBOptions.SCAN_READAHEAD_SIZE;
+
+import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+import org.apache.commons.io.FileUtils;
+import org.rocksdb.Checkpoint;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
@@ -46,6 +67,7 @@ import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.Snapshot;
 import org.rocksdb.SstFileManager;
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
@@ -59,14 +81,39 @@ import com.baidu.hugegraph.util.Bytes;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.StringEncoding;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class RocksDBStdSessions extends RocksDBSessions {
 
-    private final Map<String, ColumnFamilyHandle> cfs = new HashMap<>();
+    private static final int RESTORE_BATCH_SIZE = 10000;
+    private static final String SCAN_PREFETCHER = "rocksdb-scan-prefetch-%d";
+    private static final long SCAN_PREFETCHER_CLOSE_TIMEOUT = 30L; // s
+
+    private final Map<String, ColumnFamilyHandle> cfs =
+                                                new ConcurrentHashMap<>();
 
     private final HugeConfig conf;
-    private final RocksDB rocksdb;
-    private final SstFileManager sstFileManager;
+    private final String dataPath;
+    private final String walPath;
+
+    private volatile RocksDB rocksdb;
+    private volatile SstFileManager sstFileManager;
+
+    // The CFs dropped by restoring, which may be still used by the writes
+    private final List<ColumnFamilyHandle> droppedCFs;
+
+    // Pinned read views used by point-in-time scans, keyed by snapshot id
+    private final Map<Long, ReadSnapshot> readSnapshots;
+    private final AtomicLong readSnapshotIds;
+
+    /*
+     * Each open iterator holds a read stamp of the lock of its table,
+     * a table is restored with the write stamp
+     */
+    private final Map<String, StampedLock> tableLocks;
+    private final ReadOptions defaultReadOptions;
+
+    private final ExecutorService scanPrefetcher;
 
     public RocksDBStdSessions(HugeConfig config, String dataPath,
                               String walPath, String database, String store)
@@ -74,6 +121,14 @@ public class RocksDBStdSessions extends RocksDBSessions {
         super(database, store);
 
         this.conf = config;
+        this.dataPath = dataPath;
+        this.walPath = walPath;
+        this.readSnapshots = new ConcurrentHashMap<>();
+        this.readSnapshotIds = new AtomicLong(0L);
+        this.droppedCFs = new ArrayList<>();
+        this.tableLocks = new ConcurrentHashMap<>();
+        this.scanPrefetcher = newScanPrefetcher(
+                              config.get(SCAN_PREFETCH_THREADS));
 
         // Init options
         Options options = new Options();
@@ -88,6 +143,8 @@ public class RocksDBStdSessions extends RocksDBSessions {
          * Don't merge old CFs, we expect a clear DB when using this one
          */
         this.rocksdb = RocksDB.open(options, dataPath);
+        // NOTE: the native library is loaded when opening RocksDB
+        this.defaultReadOptions = new ReadOptions();
     }
 
     public RocksDBStdSessions(HugeConfig config, String dataPath,
@@ -95,9 +152,24 @@ public class RocksDBStdSessions extends RocksDBSessions {
                               List<String> cfNames) throws RocksDBException {
         super(database, store);
         this.conf = config;
+        this.dataPath = dataPath;
+        this.walPath = walPath;
+        this.readSnapshots = new ConcurrentHashMap<>();
+        this.readSnapshotIds = new AtomicLong(0L);
+        this.droppedCFs = new ArrayList<>();
+        this.tableLocks = new ConcurrentHashMap<>();
+        this.scanPrefetcher = newScanPrefetcher(
+                              config.get(SCAN_PREFETCH_THREADS));
+
+        this.openRocksDB(cfNames);
+        this.defaultReadOptions = new ReadOptions();
+
+        ingestExternalFile();
+    }
 
+    private void openRocksDB(List<String> cfNames) throws RocksDBException {
         // Old CFs should always be opened
-        Set<String> mergedCFs = this.mergeOldCFs(dataPath, cfNames);
+        Set<String> mergedCFs = this.mergeOldCFs(this.dataPath, cfNames);
         List<String> cfs = ImmutableList.copyOf(mergedCFs);
 
         // Init CFs options
@@ -112,14 +184,14 @@ public class RocksDBStdSessions extends RocksDBSessions {
         // Init DB options
         DBOptions options = new DBOptions();
         RocksDBStdSessions.initOptions(this.conf, options, null, null);
-        options.setWalDir(walPath);
+        options.setWalDir(this.walPath);
 
         this.sstFileManager = new SstFileManager(Env.getDefault());
         options.setSstFileManager(this.sstFileManager);
 
         // Open RocksDB with CFs
         List<ColumnFamilyHandle> cfhs = new ArrayList<>();
-        this.rocksdb = RocksDB.open(options, dataPath, cfds, cfhs);
+        this.rocksdb = RocksDB.open(options, this.dataPath, cfds, cfhs);
         E.checkState(cfhs.size() == cfs.size(),
                      "Expect same size of cf-handles and cf-names");
 
@@ -127,8 +199,25 @@ public class RocksDBStdSessions extends RocksDBSessions {
         for (int i = 0; i < cfs.size(); i++) {
             this.cfs.put(cfs.get(i), cfhs.get(i));
         }
+    }
 
-        ingestExternalFile();
+    private void closeRocksDB() {
+        for (ReadSnapshot snapshot : this.readSnapshots.values()) {
+            snapshot.close();
+        }
+        this.readSnapshots.clear();
+
+        for (ColumnFamilyHandle cf : this.cfs.values()) {
+            cf.close();
+        }
+        this.cfs.clear();
+        for (ColumnFamilyHandle cf : this.droppedCFs) {
+            cf.close();
+        }
+        this.droppedCFs.clear();
+
+        this.rocksdb.close();
+        this.sstFileManager.close();
     }
 
     @Override
@@ -154,11 +243,7 @@ public class RocksDBStdSessions extends RocksDBSessions {
 
         this.checkValid();
 
-        // Should we use options.setCreateMissingColumnFamilies() to create CF
-        ColumnFamilyDescriptor cfd = new ColumnFamilyDescriptor(encode(table));
-        ColumnFamilyOptions options = cfd.getOptions();
-        initOptions(this.conf, null, options, options);
-        this.cfs.put(table, this.rocksdb.createColumnFamily(cfd));
+        this.cfs.put(table, this.createCF(table));
 
         ingestExternalFile();
     }
@@ -185,6 +270,135 @@ public class RocksDBStdSessions extends RocksDBSessions {
         }
     }
 
+    /**
+     * Create a checkpoint of the whole DB at `snapshotPath`, the sst files
+     * are hard-linked if the snapshot is on the same filesystem as the DB
+     */
+    @Override
+    public void createSnapshot(String snapshotPath) {
+        File snapshot = new File(snapshotPath);
+        E.checkArgument(!snapshot.exists(),
+                        "The snapshot '%s' has existed", snapshotPath);
+        // https://github.com/facebook/rocksdb/wiki/Checkpoints
+        try (Checkpoint checkpoint = Checkpoint.create(this.rocksdb())) {
+            FileUtils.forceMkdir(snapshot.getParentFile());
+            checkpoint.createCheckpoint(snapshotPath);
+        } catch (IOException | RocksDBException e) {
+            throw new BackendException("Failed to create snapshot at '%s'",
+                                       e, snapshotPath);
+        }
+    }
+
+    /**
+     * Restore the `tables` from a checkpoint created by createSnapshot(),
+     * the other tables sharing the DB are not affected. It fails at once if
+     * there are iterators opened on the tables, and the new iterators wait
+     * until restored. NOTE: the writes to the tables while restoring may be
+     * lost, and the tables are partly restored if it failed, which can be
+     * restored again. The read snapshots opened before don't see the
+     * restored data of the tables
+     */
+    @Override
+    public synchronized void restoreSnapshot(String snapshotPath,
+                                             List<String> tables) {
+        File snapshot = new File(snapshotPath);
+        E.checkArgument(snapshot.isDirectory(),
+                        "The snapshot '%s' does not exist", snapshotPath);
+        this.checkValid();
+
+        List<StampedLock> locks = new ArrayList<>(tables.size());
+        List<Long> stamps = new ArrayList<>(tables.size());
+        try {
+            for (String table : tables) {
+                StampedLock lock = this.tableLock(table);
+                long stamp = lock.tryWriteLock();
+                if (stamp == 0L) {
+                    throw new BackendException(
+                              "Failed to restore snapshot '%s' since there " +
+                              "are iterators opened on table '%s'",
+                              snapshotPath, table);
+                }
+                locks.add(lock);
+                stamps.add(stamp);
+            }
+            this.restoreTables(snapshotPath, tables);
+        } catch (RocksDBException e) {
+            throw new BackendException("Failed to restore snapshot '%s'",
+                                       e, snapshotPath);
+        } finally {
+            for (int i = 0; i < locks.size(); i++) {
+                locks.get(i).unlockWrite(stamps.get(i));
+            }
+        }
+    }
+
+    private void restoreTables(String snapshotPath, List<String> tables)
+                               throws RocksDBException {
+        Set<String> snapshotCFs = listCFs(snapshotPath);
+        // The default CF must be opened, and the tables may be created later
+        List<String> cfNames = new ArrayList<>();
+        cfNames.add(decode(RocksDB.DEFAULT_COLUMN_FAMILY));
+        for (String table : tables) {
+            if (snapshotCFs.contains(table)) {
+                cfNames.add(table);
+            }
+        }
+        List<ColumnFamilyDescriptor> cfds = new ArrayList<>(cfNames.size());
+        for (String cf : cfNames) {
+            ColumnFamilyDescriptor cfd = new ColumnFamilyDescriptor(encode(cf));
+            ColumnFamilyOptions options = cfd.getOptions();
+            // The merge operator is needed to read the merged values
+            initOptions(this.conf, null, options, options);
+            cfds.add(cfd);
+        }
+
+        List<ColumnFamilyHandle> cfhs = new ArrayList<>(cfds.size());
+        try (DBOptions options = new DBOptions();
+             RocksDB snapshot = RocksDB.openReadOnly(options, snapshotPath,
+                                                     cfds, cfhs)) {
+            try {
+                for (String table : tables) {
+                    int index = cfNames.indexOf(table);
+                    ColumnFamilyHandle source = index < 0 ?
+                                                null : cfhs.get(index);
+                    this.restoreTable(table, snapshot, source);
+                }
+            } finally {
+                for (ColumnFamilyHandle cfh : cfhs) {
+                    cfh.close();
+                }
+            }
+        }
+    }
+
+    private void restoreTable(String table, RocksDB snapshot,
+                              ColumnFamilyHandle source)
+                              throws RocksDBException {
+        // Drop all the data of the table at once by recreating it
+        ColumnFamilyHandle dropped = this.cf(table);
+        this.rocksdb.dropColumnFamily(dropped);
+        this.droppedCFs.add(dropped);
+        ColumnFamilyHandle cf = this.createCF(table);
+        this.cfs.put(table, cf);
+        if (source == null) {
+            return;
+        }
+
+        try (RocksIterator itor = snapshot.newIterator(source);
+             WriteBatch batch = new WriteBatch();
+             WriteOptions options = new WriteOptions()) {
+            for (itor.seekToFirst(); itor.isValid(); itor.next()) {
+                batch.put(cf, itor.key(), itor.value());
+                if (batch.count() >= RESTORE_BATCH_SIZE) {
+                    this.rocksdb.write(options, batch);
+                    batch.clear();
+                }
+            }
+            itor.status();
+            this.rocksdb.write(options, batch);
+        }
+    }
+
     @Override
     public final Session session() {
         return (Session) super.getOrNewSession();
@@ -200,13 +414,23 @@ public class RocksDBStdSessions extends RocksDBSessions {
     @Override
     protected synchronized void doClose() {
         this.checkValid();
-
-        for (ColumnFamilyHandle cf : this.cfs.values()) {
-            cf.close();
+        // The prefetch threads must close their iterators before the DB
+        this.scanPrefetcher.shutdownNow();
+        try {
+            if (!this.scanPrefetcher.awaitTermination(
+                                     SCAN_PREFETCHER_CLOSE_TIMEOUT,
+                                     TimeUnit.SECONDS)) {
+                throw new BackendException(
+                          "Failed to close RocksDB since the scan prefetch " +
+                          "threads are not stopped in %s seconds",
+                          SCAN_PREFETCHER_CLOSE_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            throw new BackendException("Interrupted while waiting for " +
+                                       "the scan prefetch threads to stop", e);
         }
-        this.cfs.clear();
-
-        this.rocksdb.close();
+        this.closeRocksDB();
+        this.defaultReadOptions.close();
     }
 
     private void checkValid() {
@@ -227,6 +451,57 @@ public class RocksDBStdSessions extends RocksDBSessions {
         return cfh;
     }
 
+    private static ExecutorService newScanPrefetcher(int threads) {
+        /*
+         * Each prefetching scan holds a thread until it's finished or closed,
+         * so don't queue the scans to avoid them waiting for each other, the
+         * scans rejected by the busy threads are done without prefetch
+         */
+        return new ThreadPoolExecutor(0, threads, 60L, TimeUnit.SECONDS,
+                                      new SynchronousQueue<>(),
+                                      new ThreadFactoryBuilder()
+                                      .setNameFormat(SCAN_PREFETCHER)
+                                      .setDaemon(true).build());
+    }
+
+    private ColumnFamilyHandle createCF(String table)
+                                        throws RocksDBException {
+        // Should we use options.setCreateMissingColumnFamilies() to create
+        ColumnFamilyDescriptor cfd = new ColumnFamilyDescriptor(encode(table));
+        ColumnFamilyOptions options = cfd.getOptions();
+        initOptions(this.conf, null, options, options);
+        return this.rocksdb.createColumnFamily(cfd);
+    }
+
+    private StampedLock tableLock(String table) {
+        return this.tableLocks.computeIfAbsent(table, t -> new StampedLock());
+    }
+
+    private ReadSnapshot readSnapshot(long snapshot) {
+        ReadSnapshot readSnapshot = this.readSnapshots.get(snapshot);
+        if (readSnapshot == null) {
+            throw new BackendException("Read snapshot '%s' does not exist",
+                                       snapshot);
+        }
+        return readSnapshot;
+    }
+
+    /**
+     * Release the read snapshots not used in read_snapshot_ttl, which are
+     * most likely leaked by the clients not closing them
+     */
+    private void expireReadSnapshots() {
+        long ttl = this.conf.get(RocksDBOptions.READ_SNAPSHOT_TTL) * 1000L;
+        long now = System.currentTimeMillis();
+        this.readSnapshots.values().removeIf(snapshot -> {
+            if (now - snapshot.accessTime() <= ttl) {
+                return false;
+            }
+            snapshot.close();
+            return true;
+        });
+    }
+
     private Set<String> mergeOldCFs(String path, List<String> cfNames)
                                     throws RocksDBException {
         Set<String> cfs = listCFs(path);
@@ -387,8 +662,21 @@ public class RocksDBStdSessions extends RocksDBSessions {
         private WriteBatch batch;
         private WriteOptions writeOptions;
 
+        private long readSnapshot;
+
+        private final long scanReadaheadSize;
+        private final int scanPrefetchChunks;
+        private final int scanPrefetchChunkSize;
+        private final long scanPrefetchTimeout;
+
         public StdSession(HugeConfig conf) {
             this.closed = false;
+            this.readSnapshot = NO_READ_SNAPSHOT;
+
+            this.scanReadaheadSize = conf.get(SCAN_READAHEAD_SIZE);
+            this.scanPrefetchChunks = conf.get(SCAN_PREFETCH_CHUNKS);
+            this.scanPrefetchChunkSize = conf.get(SCAN_PREFETCH_CHUNK_SIZE);
+            this.scanPrefetchTimeout = conf.get(SCAN_PREFETCH_TIMEOUT);
 
             boolean bulkload = conf.get(RocksDBOptions.BULKLOAD_MODE);
             this.batch = new WriteBatch();
@@ -517,11 +805,7 @@ public class RocksDBStdSessions extends RocksDBSessions {
             byte[] keyFrom = key;
             byte[] keyTo = Arrays.copyOf(key, key.length);
             keyTo = BinarySerializer.increaseOne(keyTo);
-            try {
-                this.batch.deleteRange(cf(table), keyFrom, keyTo);
-            } catch (RocksDBException e) {
-                throw new BackendException(e);
-            }
+            this.delete(table, keyFrom, keyTo);
         }
 
         /**
@@ -543,11 +827,163 @@ public class RocksDBStdSessions extends RocksDBSessions {
         public byte[] get(String table, byte[] key) {
             assert !this.hasChanges();
 
+            ReadContext context = this.readContext(false);
+            try {
+                return rocksdb().get(cf(table), context.options(), key);
+            } catch (RocksDBException e) {
+                throw new BackendException(e);
+            } finally {
+                context.close();
+            }
+        }
+
+        /**
+         * Get multi records by keys from a table with one multi-get, the
+         * values are returned in the order of keys, null if not exist
+         */
+        @Override
+        public List<byte[]> get(String table, List<byte[]> keys) {
+            assert !this.hasChanges();
+
+            Map<byte[], byte[]> results;
+            ReadContext context = this.readContext(false);
             try {
-                return rocksdb().get(cf(table), key);
+                List<ColumnFamilyHandle> cfs = Collections.nCopies(
+                                               keys.size(), cf(table));
+                results = rocksdb().multiGet(context.options(), cfs, keys);
             } catch (RocksDBException e) {
                 throw new BackendException(e);
+            } finally {
+                context.close();
+            }
+            // NOTE: the results are keyed by the identity of the keys
+            List<byte[]> values = new ArrayList<>(keys.size());
+            for (byte[] key : keys) {
+                values.add(results.get(key));
+            }
+            return values;
+        }
+
+        /**
+         * Pin a point-in-time view of the DB which can be shared by the
+         * sessions of other threads through useReadSnapshot(), it will be
+         * released if not used in read_snapshot_ttl
+         */
+        @Override
+        public long openReadSnapshot() {
+            expireReadSnapshots();
+            int max = conf.get(RocksDBOptions.MAX_READ_SNAPSHOTS);
+            if (readSnapshots.size() >= max) {
+                throw new BackendException("Too many read snapshots opened, " +
+                                           "the max number is %s", max);
+            }
+            long snapshot = readSnapshotIds.incrementAndGet();
+            Snapshot readSnapshot = rocksdb().getSnapshot();
+            readSnapshots.put(snapshot, new ReadSnapshot(readSnapshot));
+            return snapshot;
+        }
+
+        /**
+         * Release a point-in-time view opened by openReadSnapshot(), the
+         * running reads of it are not affected
+         */
+        @Override
+        public void closeReadSnapshot(long snapshot) {
+            ReadSnapshot readSnapshot = readSnapshots.remove(snapshot);
+            if (readSnapshot == null) {
+                throw new BackendException("Read snapshot '%s' does not exist",
+                                           snapshot);
+            }
+            readSnapshot.close();
+            if (this.readSnapshot == snapshot) {
+                this.readSnapshot = NO_READ_SNAPSHOT;
+            }
+        }
+
+        /**
+         * Read from the specified snapshot in subsequent get() and scan(),
+         * pass NO_READ_SNAPSHOT to read the latest data again
+         */
+        @Override
+        public void useReadSnapshot(long snapshot) {
+            if (snapshot != NO_READ_SNAPSHOT) {
+                expireReadSnapshots();
+                // Check the snapshot exists and refresh its access time
+                readSnapshot(snapshot).touch();
+            }
+            this.readSnapshot = snapshot;
+        }
+
+        /**
+         * Hold the read snapshot in use until the returned context is closed,
+         * the read options are allocated only if `newOptions` or reading
+         * from a snapshot, otherwise the shared default is used
+         */
+        private ReadContext readContext(boolean newOptions) {
+            ReadSnapshot snapshot = null;
+            ReadOptions options = null;
+            try {
+                if (this.readSnapshot != NO_READ_SNAPSHOT) {
+                    snapshot = readSnapshot(this.readSnapshot);
+                    options = new ReadOptions();
+                    options.setSnapshot(snapshot.acquire(this.readSnapshot));
+                } else if (newOptions) {
+                    options = new ReadOptions();
+                }
+            } catch (RuntimeException e) {
+                if (options != null) {
+                    options.close();
+                }
+                throw e;
+            }
+            return new ReadContext(snapshot, options);
+        }
+
+        /**
+         * Read context for the scans over a whole table or a shard of it,
+         * which read sequentially and most of the data is read only once,
+         * it's not used by the range scans like the range index queries
+         */
+        private ReadContext fullScanReadContext() {
+            ReadContext context = this.readContext(true);
+            ReadOptions options = context.options();
+            if (this.scanReadaheadSize > 0L) {
+                options.setReadaheadSize(this.scanReadaheadSize);
+            }
+            // Don't evict the hot blocks from block cache by a full scan
+            options.setFillCache(false);
+            options.setTotalOrderSeek(true);
+            return context;
+        }
+
+        private BackendColumnIterator fullScan(String table, byte[] keyFrom,
+                                               byte[] keyTo, int scanType) {
+            ReadContext context = this.fullScanReadContext();
+            RocksIterator itor = context.newIterator(table);
+            ColumnIterator columns = new ColumnIterator(table, itor, context,
+                                                        keyFrom, keyTo,
+                                                        scanType);
+            if (this.scanPrefetchChunks <= 0) {
+                return columns;
             }
+            PrefetchColumnIterator prefetch = new PrefetchColumnIterator(
+                                              columns,
+                                              this.scanPrefetchChunks,
+                                              this.scanPrefetchChunkSize,
+                                              this.scanPrefetchTimeout);
+            try {
+                scanPrefetcher.execute(prefetch);
+            } catch (RejectedExecutionException e) {
+                if (scanPrefetcher.isShutdown()) {
+                    columns.close();
+                    throw new BackendException("Failed to start scan " +
+                                               "prefetch, maybe RocksDB " +
+                                               "has been closed", e);
+                }
+                // All of the prefetch threads are busy, scan synchronously
+                return columns;
+            }
+            return prefetch;
         }
 
         /**
@@ -556,8 +992,7 @@ public class RocksDBStdSessions extends RocksDBSessions {
         @Override
         public BackendColumnIterator scan(String table) {
             assert !this.hasChanges();
-            RocksIterator itor = rocksdb().newIterator(cf(table));
-            return new ColumnIterator(table, itor, null, null, SCAN_ANY);
+            return this.fullScan(table, null, null, SCAN_ANY);
         }
 
         /**
@@ -566,14 +1001,41 @@ public class RocksDBStdSessions extends RocksDBSessions {
         @Override
         public BackendColumnIterator scan(String table, byte[] prefix) {
             assert !this.hasChanges();
-            ReadOptions options = new ReadOptions();
+            ReadContext context = this.readContext(true);
             // NOTE: Options.prefix_extractor is a prerequisite
-            options.setPrefixSameAsStart(true);
-            RocksIterator itor = rocksdb().newIterator(cf(table), options);
-            return new ColumnIterator(table, itor, prefix, null,
+            context.options().setPrefixSameAsStart(true);
+            RocksIterator itor = context.newIterator(table);
+            return new ColumnIterator(table, itor, context, prefix, null,
                                       SCAN_PREFIX_BEGIN);
         }
 
+        /**
+         * Scan records by multi key prefixes from a table, the prefixes are
+         * sought in turn by one iterator instead of an iterator per prefix,
+         * and the records are returned in the order of the prefixes
+         */
+        @Override
+        public BackendColumnIterator scan(String table,
+                                          List<byte[]> prefixes) {
+            assert !this.hasChanges();
+            ReadContext context = this.readContext(true);
+            // NOTE: Options.prefix_extractor is a prerequisite
+            context.options().setPrefixSameAsStart(true);
+            RocksIterator itor = context.newIterator(table);
+            return new MultiPrefixColumnIterator(itor, context, prefixes);
+        }
+
+        /**
+         * Scan records of a shard from a table, the shards are used to scan
+         * the whole table in parts
+         */
+        @Override
+        public BackendColumnIterator scan(String table, byte[] keyFrom,
+                                          byte[] keyTo) {
+            assert !this.hasChanges();
+            return this.fullScan(table, keyFrom, keyTo, SCAN_LT_END);
+        }
+
         /**
          * Scan records by key range from a table
          */
@@ -581,10 +1043,124 @@ public class RocksDBStdSessions extends RocksDBSessions {
         public BackendColumnIterator scan(String table, byte[] keyFrom,
                                           byte[] keyTo, int scanType) {
             assert !this.hasChanges();
-            ReadOptions options = new ReadOptions();
-            options.setTotalOrderSeek(true); // Not sure if it must be set
-            RocksIterator itor = rocksdb().newIterator(cf(table), options);
-            return new ColumnIterator(table, itor, keyFrom, keyTo, scanType);
+            ReadContext context = this.readContext(true);
+            // Not sure if it must be set
+            context.options().setTotalOrderSeek(true);
+            RocksIterator itor = context.newIterator(table);
+            return new ColumnIterator(table, itor, context, keyFrom, keyTo,
+                                      scanType);
+        }
+    }
+
+    /**
+     * A read snapshot shared by the sessions, the native snapshot is released
+     * when it's closed or expired and there is no running read of it
+     */
+    private final class ReadSnapshot {
+
+        private final Snapshot snapshot;
+        private int readers;
+        private boolean closed;
+        private volatile long accessTime;
+
+        public ReadSnapshot(Snapshot snapshot) {
+            this.snapshot = snapshot;
+            this.readers = 0;
+            this.closed = false;
+            this.accessTime = System.currentTimeMillis();
+        }
+
+        public long accessTime() {
+            return this.accessTime;
+        }
+
+        public void touch() {
+            this.accessTime = System.currentTimeMillis();
+        }
+
+        public synchronized Snapshot acquire(long id) {
+            if (this.closed) {
+                throw new BackendException("Read snapshot '%s' does not exist",
+                                           id);
+            }
+            this.readers++;
+            this.touch();
+            return this.snapshot;
+        }
+
+        public synchronized void release() {
+            assert this.readers > 0;
+            if (--this.readers == 0 && this.closed) {
+                rocksdb.releaseSnapshot(this.snapshot);
+            }
+        }
+
+        public synchronized void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            if (this.readers == 0) {
+                rocksdb.releaseSnapshot(this.snapshot);
+            }
+        }
+    }
+
+    /**
+     * The resources held by a read or an iterator until it's finished: the
+     * table of the iterator can't be restored, the read snapshot can't be
+     * released and the read options can't be freed before that
+     */
+    private final class ReadContext {
+
+        private final ReadSnapshot snapshot;
+        private final ReadOptions options;
+        private StampedLock tableLock;
+        private long stamp;
+        private boolean closed;
+
+        public ReadContext(ReadSnapshot snapshot, ReadOptions options) {
+            this.snapshot = snapshot;
+            this.options = options;
+            this.tableLock = null;
+            this.stamp = 0L;
+            this.closed = false;
+        }
+
+        public ReadOptions options() {
+            return this.options != null ? this.options : defaultReadOptions;
+        }
+
+        public RocksIterator newIterator(String table) {
+            assert this.options != null;
+            assert this.tableLock == null;
+            try {
+                this.tableLock = tableLock(table);
+                this.stamp = this.tableLock.readLock();
+                return rocksdb().newIterator(cf(table), this.options);
+            } catch (RuntimeException e) {
+                this.close();
+                throw e;
+            }
+        }
+
+        public synchronized void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                if (this.options != null) {
+                    this.options.close();
+                }
+                if (this.snapshot != null) {
+                    this.snapshot.release();
+                }
+            } finally {
+                if (this.stamp != 0L) {
+                    this.tableLock.unlockRead(this.stamp);
+                }
+            }
         }
     }
 
@@ -595,6 +1171,7 @@ public class RocksDBStdSessions extends RocksDBSessions {
 
         private final String table;
         private final RocksIterator itor;
+        private final ReadContext context;
         private final byte[] keyBegin;
         private final byte[] keyEnd;
         private final int scanType;
@@ -603,11 +1180,13 @@ public class RocksDBStdSessions extends RocksDBSessions {
         private boolean matched;
 
         public ColumnIterator(String table, RocksIterator itor,
-                              byte[] keyBegin, byte[] keyEnd, int scanType) {
+                              ReadContext context, byte[] keyBegin,
+                              byte[] keyEnd, int scanType) {
             E.checkNotNull(itor, "itor");
             this.table = table;
 
             this.itor = itor;
+            this.context = context;
             this.keyBegin = keyBegin;
             this.keyEnd = keyEnd;
             this.scanType = scanType;
@@ -615,11 +1194,16 @@ public class RocksDBStdSessions extends RocksDBSessions {
             this.position = keyBegin;
             this.matched = false;
 
-            this.checkArguments();
+            try {
+                this.checkArguments();
 
-            //this.dump();
+                //this.dump();
 
-            this.seek();
+                this.seek();
+            } catch (RuntimeException e) {
+                this.close();
+                throw e;
+            }
         }
 
         private void checkArguments() {
@@ -799,6 +1383,238 @@ public class RocksDBStdSessions extends RocksDBSessions {
             if (this.itor.isOwningHandle()) {
                 this.itor.close();
             }
+            // Release the table and the read snapshot after the iterator closed
+            this.context.close();
+        }
+    }
+
+    /**
+     * A wrapper for RocksIterator that seeks multi prefixes in turn and
+     * returns the records with each prefix
+     */
+    private static class MultiPrefixColumnIterator
+                   implements BackendColumnIterator {
+
+        private final RocksIterator itor;
+        private final ReadContext context;
+        private final Iterator<byte[]> prefixes;
+
+        private byte[] prefix;
+        private boolean matched;
+
+        public MultiPrefixColumnIterator(RocksIterator itor,
+                                         ReadContext context,
+                                         List<byte[]> prefixes) {
+            E.checkNotNull(itor, "itor");
+            this.itor = itor;
+            this.context = context;
+            this.prefixes = prefixes.iterator();
+            this.prefix = null;
+            this.matched = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.matched) {
+                return true;
+            }
+            if (!this.itor.isOwningHandle()) {
+                // Maybe closed
+                return false;
+            }
+            while (this.prefix == null || !this.itor.isValid() ||
+                   !Bytes.prefixWith(this.itor.key(), this.prefix)) {
+                if (!this.prefixes.hasNext()) {
+                    // Free the iterator if finished
+                    this.close();
+                    return false;
+                }
+                this.prefix = this.prefixes.next();
+                this.itor.seek(this.prefix);
+            }
+            this.matched = true;
+            return true;
+        }
+
+        @Override
+        public BackendColumn next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BackendColumn col = BackendColumn.of(this.itor.key(),
+                                                 this.itor.value());
+            this.itor.next();
+            this.matched = false;
+            return col;
+        }
+
+        @Override
+        public byte[] position() {
+            // Paging is not supported
+            return null;
+        }
+
+        @Override
+        public void close() {
+            if (this.itor.isOwningHandle()) {
+                this.itor.close();
+            }
+            // Release the table and the read snapshot after the iterator closed
+            this.context.close();
+        }
+    }
+
+    /**
+     * A ColumnIterator wrapper that pulls key-values from RocksDB in a
+     * background thread, the key-values are passed to the caller in chunks
+     * through a bounded queue, so that the JNI calls of RocksIterator and
+     * the deserialization of the caller can be done in parallel
+     */
+    private static class PrefetchColumnIterator
+                   implements BackendColumnIterator, Runnable {
+
+        private static final List<BackendColumn> END = new ArrayList<>(0);
+        private static final long OFFER_TIMEOUT = 100L; // ms
+
+        private final ColumnIterator columns;
+        private final int chunkSize;
+        private final long timeout;
+        private final BlockingQueue<List<BackendColumn>> chunks;
+
+        private volatile boolean closed;
+        private volatile Throwable error;
+
+        private List<BackendColumn> chunk;
+        private int offset;
+        private byte[] position;
+        private boolean finished;
+
+        public PrefetchColumnIterator(ColumnIterator columns, int chunks,
+                                      int chunkSize, long timeout) {
+            this.columns = columns;
+            this.chunkSize = chunkSize;
+            this.timeout = timeout;
+            this.chunks = new ArrayBlockingQueue<>(chunks);
+
+            this.closed = false;
+            this.error = null;
+
+            this.chunk = END;
+            this.offset = 0;
+            this.position = columns.position();
+            this.finished = false;
+        }
+
+        /**
+         * Prefetch key-values in the background thread
+         */
+        @Override
+        public void run() {
+            try {
+                List<BackendColumn> chunk = new ArrayList<>(this.chunkSize);
+                while (!this.closed && this.columns.hasNext()) {
+                    chunk.add(this.columns.next());
+                    if (chunk.size() >= this.chunkSize) {
+                        if (!this.offer(chunk)) {
+                            return;
+                        }
+                        chunk = new ArrayList<>(this.chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    this.offer(chunk);
+                }
+            } catch (Throwable e) {
+                this.error = e;
+            } finally {
+                this.columns.close();
+                if (!this.offer(END)) {
+                    // Drop the chunks not taken, and let the caller see END
+                    this.chunks.clear();
+                    this.chunks.offer(END);
+                }
+            }
+        }
+
+        private boolean offer(List<BackendColumn> chunk) {
+            long deadline = System.currentTimeMillis() + this.timeout * 1000L;
+            try {
+                // Give up if the caller closed this iterator
+                while (!this.closed) {
+                    if (this.chunks.offer(chunk, OFFER_TIMEOUT,
+                                          TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                    if (System.currentTimeMillis() > deadline) {
+                        // The caller may abandon this iterator without close
+                        this.error = new BackendException(
+                                     "The prefetched key-values are not " +
+                                     "taken in %s seconds", this.timeout);
+                        this.closed = true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Interrupted when shutdown the prefetcher
+                this.error = new BackendException("Interrupted while " +
+                                                  "prefetching key-values, " +
+                                                  "maybe RocksDB is closing");
+                this.closed = true;
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.offset >= this.chunk.size()) {
+                if (this.finished) {
+                    return false;
+                }
+                List<BackendColumn> chunk;
+                try {
+                    chunk = this.chunks.take();
+                } catch (InterruptedException e) {
+                    throw new BackendException("Interrupted while waiting " +
+                                               "for prefetched key-values", e);
+                }
+                if (chunk == END) {
+                    this.finished = true;
+                    // The end
+                    this.position = null;
+                    if (this.error != null) {
+                        throw new BackendException("Failed to prefetch " +
+                                                   "key-values", this.error);
+                    }
+                    return false;
+                }
+                this.chunk = chunk;
+                this.offset = 0;
+            }
+            // Update position for paging
+            this.position = this.chunk.get(this.offset).name;
+            return true;
+        }
+
+        @Override
+        public BackendColumn next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.chunk.get(this.offset++);
+        }
+
+        @Override
+        public byte[] position() {
+            return this.position;
+        }
+
+        @Override
+        public void close() {
+            // The RocksIterator will be closed by the prefetch thread
+            this.closed = true;
+            this.finished = true;
+            this.chunk = END;
+            this.chunks.clear();
         }
     }
 }
@@ -69,6 +69,8 @@ public abstract class RocksDBStore extends AbstractBackendStore<Session> {
     private RocksDBSessions sessions;
     private final Map<HugeType, String> tableDiskMapping;
 
+    private String snapshotPath;
+
     // DataPath:RocksDB mapping
     protected static final ConcurrentMap<String, RocksDBSessions> dbs;
 
@@ -151,6 +153,8 @@ public abstract class RocksDBStore extends AbstractBackendStore<Session> {
             return;
         }
 
+        this.snapshotPath = config.get(RocksDBOptions.SNAPSHOT_PATH);
+
         // Open base disk
         this.sessions = this.open(config, this.tableNames());
 
@@ -385,6 +389,57 @@ public abstract class RocksDBStore extends AbstractBackendStore<Session> {
         LOG.debug("Store truncated: {}", this.store);
     }
 
+    @Override
+    public void createSnapshot(String snapshotName) {
+        this.checkOpened();
+
+        for (Map.Entry<String, RocksDBSessions> e :
+             this.snapshotDBMapping(snapshotName).entrySet()) {
+            e.getValue().createSnapshot(e.getKey());
+        }
+
+        LOG.debug("Store {} created snapshot '{}'", this.store, snapshotName);
+    }
+
+    /**
+     * Only the tables of this store are restored, the other graphs sharing
+     * the same data path are not affected
+     */
+    @Override
+    public void restoreSnapshot(String snapshotName) {
+        this.checkOpened();
+
+        for (Map.Entry<String, RocksDBSessions> e :
+             this.snapshotDBMapping(snapshotName).entrySet()) {
+            RocksDBSessions db = e.getValue();
+            List<String> tables = this.tableNames().stream()
+                                      .filter(db.openedTables()::contains)
+                                      .collect(Collectors.toList());
+            db.restoreSnapshot(e.getKey(), tables);
+        }
+
+        LOG.debug("Store {} restored snapshot '{}'", this.store, snapshotName);
+    }
+
+    /**
+     * Get the snapshot path of each db, the layout of a snapshot is like:
+     * `SNAPSHOT_PATH/SNAPSHOT_NAME/DATABASE/STORE[_TABLE]`
+     */
+    private Map<String, RocksDBSessions> snapshotDBMapping(String snapshot) {
+        E.checkArgument(snapshot != null && snapshot.matches("[\\w\\-.]+") &&
+                        !snapshot.equals(".") && !snapshot.equals(".."),
+                        "Invalid snapshot name '%s'", snapshot);
+        Map<String, RocksDBSessions> dbs = InsertionOrderUtil.newMap();
+        String parent = Paths.get(this.snapshotPath, snapshot,
+                                  this.database).toString();
+        dbs.put(Paths.get(parent, this.store).toString(), this.sessions);
+        for (Entry<HugeType, String> e : this.tableDiskMapping.entrySet()) {
+            String name = this.store + "_" + e.getKey().name().toLowerCase();
+            dbs.put(Paths.get(parent, name).toString(), db(e.getValue()));
+        }
+        return dbs;
+    }
+
     @Override
     public void beginTx() {
         // pass
@@ -19,7 +19,10 @@
 
 package com.baidu.hugegraph.backend.store.rocksdb;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.slf4j.Logger;
 
@@ -40,7 +43,6 @@ import com.baidu.hugegraph.backend.store.BackendTable;
 import com.baidu.hugegraph.backend.store.Shard;
 import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions.Session;
 import com.baidu.hugegraph.exception.NotSupportException;
-import com.baidu.hugegraph.iterator.ExtendableIterator;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
@@ -65,6 +67,32 @@ public class RocksDBTable extends BackendTable<Session, BackendEntry> {
             long splitSize = (long) args[0];
             return this.shardSpliter.getSplits(session, splitSize);
         });
+
+        /*
+         * A read snapshot pins a point-in-time view of the table, parallel
+         * shard scans can share it to read consistent data without blocking
+         * the writers. The args are like: ["open"], ["close", snapshot-id],
+         * ["use", snapshot-id] and ["use", Session.NO_READ_SNAPSHOT]
+         */
+        this.registerMetaHandler("read_snapshot", (session, meta, args) -> {
+            E.checkArgument(args.length >= 1,
+                            "The args count of %s must be >= 1", meta);
+            String action = (String) args[0];
+            if (action.equals("open")) {
+                return session.openReadSnapshot();
+            }
+            E.checkArgument(args.length == 2,
+                            "The args count of %s %s must be 2", meta, action);
+            long snapshot = (long) args[1];
+            if (action.equals("close")) {
+                session.closeReadSnapshot(snapshot);
+            } else if (action.equals("use")) {
+                session.useReadSnapshot(snapshot);
+            } else {
+                throw new NotSupportException("%s action '%s'", meta, action);
+            }
+            return null;
+        });
     }
 
     @Override
@@ -137,11 +165,18 @@ public class RocksDBTable extends BackendTable<Session, BackendEntry> {
         // Query by id
         if (query.conditions().isEmpty()) {
             assert !query.ids().isEmpty();
-            ExtendableIterator<BackendEntry> rs = new ExtendableIterator<>();
-            for (Id id : query.ids()) {
-                rs.extend(newEntryIterator(this.queryById(session, id), query));
+            if (query.paging() && query.ids().size() == 1) {
+                // Continue to scan the id prefix from the page position
+                Id id = query.ids().iterator().next();
+                return newEntryIterator(this.queryById(session, id, query),
+                                        query);
+            }
+            if (query.ids().size() == 1) {
+                Id id = query.ids().iterator().next();
+                return newEntryIterator(this.queryById(session, id), query);
             }
-            return rs;
+            return newEntryIterator(this.queryByIds(session, query.ids()),
+                                    query);
         }
 
         // Query by condition (or condition + id)
@@ -164,12 +199,39 @@ public class RocksDBTable extends BackendTable<Session, BackendEntry> {
         return session.scan(this.table(), id.asBytes());
     }
 
+    protected BackendColumnIterator queryByIds(Session session,
+                                               Collection<Id> ids) {
+        List<byte[]> prefixes = new ArrayList<>(ids.size());
+        for (Id id : ids) {
+            prefixes.add(id.asBytes());
+        }
+        // The records are returned in the order of the ids
+        return session.scan(this.table(), prefixes);
+    }
+
+    protected BackendColumnIterator queryById(Session session, Id id,
+                                              Query query) {
+        byte[] position = pagePosition(query);
+        if (position == null) {
+            return this.queryById(session, id);
+        }
+        int type = Session.SCAN_GTE_BEGIN | Session.SCAN_PREFIX_END;
+        return session.scan(this.table(), position, id.asBytes(), type);
+    }
+
     protected BackendColumnIterator queryByPrefix(Session session,
                                                   IdPrefixQuery query) {
+        byte[] start = query.start().asBytes();
         int type = query.inclusiveStart() ?
                    Session.SCAN_GTE_BEGIN : Session.SCAN_GT_BEGIN;
+        byte[] position = pagePosition(query);
+        if (position != null) {
+            // Continue from the position where the last page stopped
+            start = position;
+            type = Session.SCAN_GTE_BEGIN;
+        }
         type |= Session.SCAN_PREFIX_END;
-        return session.scan(this.table(), query.start().asBytes(),
+        return session.scan(this.table(), start,
                             query.prefix().asBytes(), type);
     }
 
@@ -179,6 +241,12 @@ public class RocksDBTable extends BackendTable<Session, BackendEntry> {
         byte[] end = query.end() == null ? null : query.end().asBytes();
         int type = query.inclusiveStart() ?
                    Session.SCAN_GTE_BEGIN : Session.SCAN_GT_BEGIN;
+        byte[] position = pagePosition(query);
+        if (position != null) {
+            // Continue from the position where the last page stopped
+            start = position;
+            type = Session.SCAN_GTE_BEGIN;
+        }
         if (end != null) {
             type |= query.inclusiveEnd() ?
                     Session.SCAN_LTE_END : Session.SCAN_LT_END;
@@ -204,6 +272,15 @@ public class RocksDBTable extends BackendTable<Session, BackendEntry> {
         return session.scan(this.table(), start, end);
     }
 
+    protected static byte[] pagePosition(Query query) {
+        if (!query.paging()) {
+            return null;
+        }
+        byte[] position = PageState.fromString(query.page()).position();
+        // Empty position means the first page
+        return position.length > 0 ? position : null;
+    }
+
     protected static BackendEntryIterator newEntryIterator(
                                           BackendColumnIterator cols,
                                           Query query) {
@@ -21,6 +21,8 @@ package com.baidu.hugegraph.backend.store.rocksdb;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import com.baidu.hugegraph.backend.id.Id;
@@ -148,6 +150,23 @@ public class RocksDBTables {
             BackendColumn col = BackendColumn.of(id.asBytes(), value);
             return new BackendColumnIteratorWrapper(col);
         }
+
+        @Override
+        protected BackendColumnIterator queryByIds(Session session,
+                                                   Collection<Id> ids) {
+            List<byte[]> keys = new ArrayList<>(ids.size());
+            for (Id id : ids) {
+                keys.add(id.asBytes());
+            }
+            List<byte[]> values = session.get(this.table(), keys);
+            List<BackendColumn> cols = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                if (values.get(i) != null) {
+                    cols.add(BackendColumn.of(keys.get(i), values.get(i)));
+                }
+            }
+            return new BackendColumnIteratorWrapper(cols.iterator());
+        }
     }
 
     public static class IndexTable extends RocksDBTable {
@@ -23,6 +23,7 @@ import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -111,6 +112,16 @@ public class RocksDBSstSessions extends RocksDBSessions {
         throw new NotSupportException("RocksDBSstStore property()");
     }
 
+    @Override
+    public void createSnapshot(String snapshotPath) {
+        throw new NotSupportException("RocksDBSstStore createSnapshot()");
+    }
+
+    @Override
+    public void restoreSnapshot(String snapshotPath, List<String> tables) {
+        throw new NotSupportException("RocksDBSstStore restoreSnapshot()");
+    }
+
     private SstFileWriter table(String table) {
         SstFileWriter sst = this.tables.get(table);
         if (sst == null) {
@@ -293,6 +304,32 @@ public class RocksDBSstSessions extends RocksDBSessions {
             return null;
         }
 
+        /**
+         * Get multi records by keys from a table
+         */
+        @Override
+        public List<byte[]> get(String table, List<byte[]> keys) {
+            return Collections.nCopies(keys.size(), null);
+        }
+
+        @Override
+        public long openReadSnapshot() {
+            throw new NotSupportException(
+                      "RocksDBSstStore openReadSnapshot()");
+        }
+
+        @Override
+        public void closeReadSnapshot(long snapshot) {
+            throw new NotSupportException(
+                      "RocksDBSstStore closeReadSnapshot()");
+        }
+
+        @Override
+        public void useReadSnapshot(long snapshot) {
+            throw new NotSupportException(
+                      "RocksDBSstStore useReadSnapshot()");
+        }
+
         /**
          * Scan all records from a table
          */
@@ -311,6 +348,16 @@ public class RocksDBSstSessions extends RocksDBSessions {
             return BackendColumnIterator.empty();
         }
 
+        /**
+         * Scan records by multi key prefixes from a table
+         */
+        @Override
+        public BackendColumnIterator scan(String table,
+                                          List<byte[]> prefixes) {
+            assert !this.hasChanges();
+            return BackendColumnIterator.empty();
+        }
+
         /**
          * Scan records by key range from a table
          */
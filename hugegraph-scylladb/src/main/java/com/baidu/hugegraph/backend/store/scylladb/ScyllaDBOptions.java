@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.store.scylladb;
+
+import static com.baidu.hugegraph.config.OptionChecker.allowValues;
+
+import com.baidu.hugegraph.config.ConfigOption;
+import com.baidu.hugegraph.config.OptionHolder;
+
+public class ScyllaDBOptions extends OptionHolder {
+
+    private ScyllaDBOptions() {
+        super();
+    }
+
+    private static volatile ScyllaDBOptions instance;
+
+    public static synchronized ScyllaDBOptions instance() {
+        if (instance == null) {
+            instance = new ScyllaDBOptions();
+            instance.registerOptions();
+        }
+        return instance;
+    }
+
+    public static final ConfigOption<String> LABEL_INDEX =
+            new ConfigOption<>(
+                    "scylladb.label_index",
+                    "The way to index vertices and edges by label: " +
+                    "table(maintain label index tables in the same batches " +
+                    "as the elements) or mv(use materialized views, " +
+                    "requires ScyllaDB 2.0 or later), it can't be changed " +
+                    "after the graph is initialized.",
+                    allowValues("table", "mv"),
+                    "table"
+            );
+}
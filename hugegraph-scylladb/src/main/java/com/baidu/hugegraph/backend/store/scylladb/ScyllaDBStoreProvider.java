@@ -19,16 +19,24 @@
 
 package com.baidu.hugegraph.backend.store.scylladb;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.slf4j.Logger;
 
+import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.store.BackendFeatures;
 import com.baidu.hugegraph.backend.store.BackendStore;
 import com.baidu.hugegraph.backend.store.BackendStoreProvider;
 import com.baidu.hugegraph.backend.store.cassandra.CassandraStore;
 import com.baidu.hugegraph.backend.store.cassandra.CassandraStoreProvider;
+import com.baidu.hugegraph.backend.store.cassandra.CassandraTable;
+import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
+import com.datastax.driver.core.KeyspaceMetadata;
 
 public class ScyllaDBStoreProvider extends CassandraStoreProvider {
 
@@ -36,6 +44,9 @@ public class ScyllaDBStoreProvider extends CassandraStoreProvider {
 
     private static final BackendFeatures FEATURES = new ScyllaDBFeatures();
 
+    private static final String LABEL_INDEX_TABLE = "table";
+    private static final String LABEL_INDEX_MV = "mv";
+
     @Override
     public String type() {
         return "scylladb";
@@ -99,14 +110,82 @@ public class ScyllaDBStoreProvider extends CassandraStoreProvider {
     public static class ScyllaDBGraphStore
                   extends CassandraStore.CassandraGraphStore {
 
+        private final ScyllaDBTables.Meta meta;
+        private String labelIndex;
+
         public ScyllaDBGraphStore(BackendStoreProvider provider,
                                   String keyspace, String store) {
             super(provider, keyspace, store);
 
-            // TODO: read Scylla version from conf
-            int version = 17;
+            this.meta = new ScyllaDBTables.Meta(store);
+            this.labelIndex = LABEL_INDEX_TABLE;
+            this.registerLabelIndexTables(LABEL_INDEX_TABLE);
+        }
+
+        @Override
+        public void open(HugeConfig config) {
+            // The label index layout is chosen by the config of each graph
+            String labelIndex = config.get(ScyllaDBOptions.LABEL_INDEX);
+            this.registerLabelIndexTables(labelIndex);
+            this.labelIndex = labelIndex;
+            super.open(config);
+
+            try {
+                this.checkLabelIndex();
+            } catch (Throwable e) {
+                this.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void init() {
+            super.init();
+            // Record the layout to check it when opening the store later
+            this.meta.labelIndex(this.session(null), this.labelIndex);
+        }
+
+        @Override
+        protected Collection<CassandraTable> tables() {
+            List<CassandraTable> tables = new ArrayList<>(super.tables());
+            tables.add(this.meta);
+            return tables;
+        }
+
+        private void checkLabelIndex() {
+            if (!this.existsKeyspace()) {
+                // The layout will be recorded when initializing the store
+                return;
+            }
+
+            KeyspaceMetadata keyspace = this.cluster().getMetadata()
+                                            .getKeyspace(this.database());
+            String vertices = this.table(HugeType.VERTEX).table();
+            String stored;
+            if (keyspace.getTable(this.meta.table()) != null) {
+                stored = this.meta.labelIndex(this.session(null));
+            } else if (keyspace.getTable(vertices) != null) {
+                // The stores initialized without meta table use index tables
+                stored = LABEL_INDEX_TABLE;
+            } else {
+                stored = null;
+            }
+
+            /*
+             * Reading the graph with another layout would miss the elements
+             * indexed by the layout it was written with
+             */
+            if (stored != null && !stored.equals(this.labelIndex)) {
+                throw new BackendException(
+                          "The label index layout of store '%s' is '%s', " +
+                          "can't open it with %s=%s", this.store(), stored,
+                          ScyllaDBOptions.LABEL_INDEX.name(), this.labelIndex);
+            }
+        }
 
-            if (version >= 20) {
+        private void registerLabelIndexTables(String labelIndex) {
+            String store = this.store();
+            if (labelIndex.equals(LABEL_INDEX_MV)) {
                 registerTableManager(HugeType.VERTEX,
                                      new ScyllaDBTablesWithMV.Vertex(store));
                 registerTableManager(HugeType.EDGE_OUT,
@@ -114,6 +193,11 @@ public class ScyllaDBStoreProvider extends CassandraStoreProvider {
                 registerTableManager(HugeType.EDGE_IN,
                                      ScyllaDBTablesWithMV.Edge.in(store));
             } else {
+                assert labelIndex.equals(LABEL_INDEX_TABLE);
+                /*
+                 * The label index tables are updated by the statements
+                 * added to the same session batch as the vertices/edges
+                 */
                 registerTableManager(HugeType.VERTEX,
                                      new ScyllaDBTables.Vertex(store));
                 registerTableManager(HugeType.EDGE_OUT,
@@ -45,6 +45,7 @@ import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.exceptions.DriverException;
 import com.datastax.driver.core.querybuilder.Delete;
+import com.datastax.driver.core.querybuilder.Insert;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
 import com.datastax.driver.core.querybuilder.Update;
@@ -85,9 +86,9 @@ public class ScyllaDBTables {
 
         update.with(QueryBuilder.append(ELEMENT_IDS,
                                         IdUtil.writeString(entry.id())));
-        update.where(CassandraTable.formatEQ(HugeKeys.LABEL,
-                                             entry.column(HugeKeys.LABEL)));
-        session.add(update);
+        Object label = entry.column(HugeKeys.LABEL);
+        update.where(CassandraTable.formatEQ(HugeKeys.LABEL, label));
+        session.add(update, CassandraTable.partition(table, label));
     }
 
     /**
@@ -107,7 +108,7 @@ public class ScyllaDBTables {
         update.with(QueryBuilder.remove(ELEMENT_IDS,
                                         IdUtil.writeString(entry.id())));
         update.where(CassandraTable.formatEQ(HugeKeys.LABEL, label));
-        session.add(update);
+        session.add(update, CassandraTable.partition(table, label));
     }
 
     /**
@@ -287,7 +288,7 @@ public class ScyllaDBTables {
             // Delete index
             Delete del = QueryBuilder.delete().from(indexTable());
             del.where(formatEQ(HugeKeys.LABEL, label.asLong()));
-            session.add(del);
+            session.add(del, partition(indexTable(), label.asLong()));
 
             // Delete edges by id(s)
             List<HugeKeys> idNames = idColumnName();
@@ -302,7 +303,8 @@ public class ScyllaDBTables {
                 for (int i = 0, n = idNames.size(); i < n; i++) {
                     delete.where(formatEQ(idNames.get(i), idValues.get(i)));
                 }
-                session.add(delete);
+                // The first id column is the partition key(owner vertex)
+                session.add(delete, partition(table, idValues.get(0)));
             };
 
             for (String idValue : ids) {
@@ -364,9 +366,9 @@ public class ScyllaDBTables {
             Update update = QueryBuilder.update(this.table);
 
             update.with(QueryBuilder.add(ELEMENT_IDS, entry.id().asLong()));
-            update.where(CassandraTable.formatEQ(HugeKeys.NAME,
-                                                 entry.column(HugeKeys.NAME)));
-            session.add(update);
+            Object name = entry.column(HugeKeys.NAME);
+            update.where(CassandraTable.formatEQ(HugeKeys.NAME, name));
+            session.add(update, CassandraTable.partition(this.table, name));
         }
 
         public void delete(CassandraSessionPool.Session session,
@@ -387,7 +389,7 @@ public class ScyllaDBTables {
             Update update = QueryBuilder.update(this.table);
             update.with(QueryBuilder.remove(ELEMENT_IDS, entry.id().asLong()));
             update.where(CassandraTable.formatEQ(HugeKeys.NAME, name));
-            session.add(update);
+            session.add(update, CassandraTable.partition(this.table, name));
         }
 
         public Query query(CassandraSessionPool.Session session, Query query) {
@@ -627,4 +629,49 @@ public class ScyllaDBTables {
             return super.query(session, query);
         }
     }
+
+    /**
+     * The meta table of a graph store, which records the label index layout
+     * that the store was initialized with
+     */
+    public static class Meta extends CassandraTable {
+
+        public static final String TABLE = "meta";
+
+        private static final String VALUE = "value";
+        private static final String LABEL_INDEX = "label_index";
+
+        public Meta(String store) {
+            super(joinTableName(store, TABLE));
+        }
+
+        @Override
+        public void init(CassandraSessionPool.Session session) {
+            Create table = SchemaBuilder.createTable(this.table())
+                                        .ifNotExists();
+            table.addPartitionKey(NAME, DataType.text());
+            table.addColumn(VALUE, DataType.text());
+            session.execute(table);
+        }
+
+        @Override
+        protected void truncateTable(CassandraSessionPool.Session session) {
+            // Keep the layout since the label index tables are kept
+        }
+
+        public String labelIndex(CassandraSessionPool.Session session) {
+            Select select = QueryBuilder.select(VALUE).from(this.table());
+            select.where(QueryBuilder.eq(NAME, LABEL_INDEX));
+            Row row = session.execute(select).one();
+            return row == null ? null : row.getString(VALUE);
+        }
+
+        public void labelIndex(CassandraSessionPool.Session session,
+                               String labelIndex) {
+            Insert insert = QueryBuilder.insertInto(this.table())
+                                        .value(NAME, LABEL_INDEX)
+                                        .value(VALUE, labelIndex);
+            session.execute(insert);
+        }
+    }
 }
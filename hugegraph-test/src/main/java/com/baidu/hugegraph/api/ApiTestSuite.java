@@ -33,6 +33,7 @@ import com.baidu.hugegraph.dist.RegisterUtil;
     IndexLabelApiTest.class,
     VertexApiTest.class,
     EdgeApiTest.class,
+    IngestApiTest.class,
     TaskApiTest.class,
     GremlinApiTest.class,
     MetricsApiTest.class
@@ -19,6 +19,7 @@
 
 package com.baidu.hugegraph.api;
 
+import java.util.List;
 import java.util.Map;
 
 import javax.ws.rs.core.Response;
@@ -26,6 +27,7 @@ import javax.ws.rs.core.Response;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 public class GremlinApiTest extends BaseApiTest {
@@ -49,4 +51,59 @@ public class GremlinApiTest extends BaseApiTest {
         Response r = client().get(path, params);
         Assert.assertEquals(r.readEntity(String.class), 200, r.getStatus());
     }
+
+    @Test
+    public void testPostWithBindings() {
+        String body = "{"
+                + "\"gremlin\":\"g.inject(x, y, z)\","
+                + "\"bindings\":{\"x\":1,\"y\":2,\"z\":3},"
+                + "\"language\":\"gremlin-groovy\","
+                + "\"aliases\":{\"g\":\"__g_hugegraph\"}}";
+        Response r = client().post(path, body);
+        String content = assertResponseStatus(200, r);
+        Assert.assertEquals(ImmutableList.of(1, 2, 3), resultData(content));
+    }
+
+    @Test
+    public void testPostWithManyResults() {
+        // The results are larger than the buffer of response
+        String body = "{"
+                + "\"gremlin\":\"(1..5000).collect{ 'value-' + it }\","
+                + "\"bindings\":{},"
+                + "\"language\":\"gremlin-groovy\","
+                + "\"aliases\":{}}";
+        Response r = client().post(path, body);
+        String content = assertResponseStatus(200, r);
+        List<?> data = resultData(content);
+        Assert.assertEquals(5000, data.size());
+        Assert.assertEquals("value-1", data.get(0));
+        Assert.assertEquals("value-5000", data.get(4999));
+    }
+
+    @Test
+    public void testGetWithBindings() {
+        Map<String, Object> params = ImmutableMap.of(
+                "gremlin", "hugegraph.traversal().inject(name)",
+                "bindings.name", "marko");
+        Response r = client().get(path, params);
+        String content = assertResponseStatus(200, r);
+        Assert.assertEquals(ImmutableList.of("marko"), resultData(content));
+    }
+
+    @Test
+    public void testPostWithInvalidScript() {
+        String body = "{"
+                + "\"gremlin\":\"g.V(\","
+                + "\"bindings\":{},"
+                + "\"language\":\"gremlin-groovy\","
+                + "\"aliases\":{\"g\":\"__g_hugegraph\"}}";
+        Response r = client().post(path, body);
+        String content = r.readEntity(String.class);
+        Assert.assertNotEquals(content, 200, r.getStatus());
+    }
+
+    private static List<?> resultData(String content) {
+        Map<?, ?> result = assertJsonContains(content, "result");
+        return assertMapContains(result, "data");
+    }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.api;
+
+import java.io.IOException;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Response;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.testutil.Assert;
+
+public class IngestApiTest extends BaseApiTest {
+
+    private static String path = "/graphs/hugegraph/graph/ingest";
+    private static String ndjson = "application/x-ndjson";
+
+    @Before
+    public void prepareSchema() {
+        BaseApiTest.initPropertyKey();
+        BaseApiTest.initVertexLabel();
+        BaseApiTest.initEdgeLabel();
+    }
+
+    @Test
+    public void testIngest() throws IOException {
+        String vertices = "{\"type\":\"vertex\",\"label\":\"person\","
+                + "\"properties\":{\"name\":\"James\",\"city\":\"Beijing\","
+                + "\"age\":19}}\n"
+                + "\n"
+                + "{\"type\":\"vertex\",\"label\":\"software\","
+                + "\"properties\":{\"name\":\"lop\",\"lang\":\"java\","
+                + "\"price\":328}}\n";
+        Response r = client().post(path, Entity.entity(vertices, ndjson));
+        String content = assertResponseStatus(200, r);
+        int acknowledged = assertJsonContains(content, "acknowledged");
+        Assert.assertEquals(3, acknowledged);
+        int vertexCount = assertJsonContains(content, "vertices");
+        Assert.assertEquals(2, vertexCount);
+
+        String outVId = getVertexId("person", "name", "James");
+        String inVId = getVertexId("software", "name", "lop");
+        String edges = String.format("{\"type\":\"edge\","
+                + "\"label\":\"created\","
+                + "\"outV\":\"%s\",\"outVLabel\":\"person\","
+                + "\"inV\":\"%s\",\"inVLabel\":\"software\","
+                + "\"properties\":{\"date\":\"20170324\",\"weight\":0.5}}",
+                outVId, inVId);
+        r = client().post(path, Entity.entity(edges, ndjson));
+        content = assertResponseStatus(200, r);
+        int edgeCount = assertJsonContains(content, "edges");
+        Assert.assertEquals(1, edgeCount);
+    }
+
+    @Test
+    public void testIngestEdgesWithoutVertexLabel() throws IOException {
+        String vertices = "{\"type\":\"vertex\",\"label\":\"person\","
+                + "\"properties\":{\"name\":\"James\",\"city\":\"Beijing\","
+                + "\"age\":19}}\n"
+                + "{\"type\":\"vertex\",\"label\":\"software\","
+                + "\"properties\":{\"name\":\"lop\",\"lang\":\"java\","
+                + "\"price\":328}}\n";
+        Response r = client().post(path, Entity.entity(vertices, ndjson));
+        assertResponseStatus(200, r);
+
+        String outVId = getVertexId("person", "name", "James");
+        String inVId = getVertexId("software", "name", "lop");
+        String edge = "{\"type\":\"edge\",\"label\":\"created\","
+                + "\"outV\":\"%s\",\"inV\":\"%s\","
+                + "\"properties\":{\"date\":\"%s\",\"weight\":0.5}}\n";
+        String edges = String.format(edge, outVId, inVId, "20170324")
+                     + String.format(edge, outVId, inVId, "20170325");
+        r = client().post(path, Entity.entity(edges, ndjson));
+        String content = assertResponseStatus(200, r);
+        int edgeCount = assertJsonContains(content, "edges");
+        Assert.assertEquals(2, edgeCount);
+
+        edges = String.format(edge, outVId, "1:not-exist", "20170326");
+        r = client().post(path, Entity.entity(edges, ndjson));
+        content = assertResponseStatus(400, r);
+        Assert.assertTrue(content.contains("Invalid vertex id '1:not-exist'"));
+    }
+
+    @Test
+    public void testIngestWithInvalidLine() {
+        String vertices = "{\"type\":\"vertex\",\"label\":\"person\","
+                + "\"properties\":{\"name\":\"James\",\"city\":\"Beijing\","
+                + "\"age\":19}}\n"
+                + "{\"type\":\"vertex\",\"label\":\"person\"\n";
+        Response r = client().post(path, Entity.entity(vertices, ndjson));
+        String content = assertResponseStatus(400, r);
+        Assert.assertTrue(content.contains("Invalid element at line 2"));
+    }
+}
@@ -52,6 +52,8 @@ import com.baidu.hugegraph.config.CoreOptions;
 import com.baidu.hugegraph.exception.LimitExceedException;
 import com.baidu.hugegraph.exception.NotFoundException;
 import com.baidu.hugegraph.schema.SchemaManager;
+import com.baidu.hugegraph.structure.HugeEdge;
+import com.baidu.hugegraph.structure.HugeVertex;
 import com.baidu.hugegraph.testutil.Assert;
 import com.baidu.hugegraph.testutil.FakeObjects.FakeEdge;
 import com.baidu.hugegraph.testutil.Utils;
@@ -59,7 +61,9 @@ import com.baidu.hugegraph.traversal.optimize.Text;
 import com.baidu.hugegraph.traversal.optimize.TraversalUtil;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.type.define.UpdateStrategy;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 public class EdgeCoreTest extends BaseCoreTest {
@@ -308,6 +312,65 @@ public class EdgeCoreTest extends BaseCoreTest {
                        "contribution", "1990-1-1", "score", 5);
     }
 
+    @Test
+    public void testUpsertEdges() {
+        HugeGraph graph = graph();
+
+        Vertex james = graph.addVertex(T.label, "author", "id", 1,
+                                       "name", "James Gosling", "age", 62,
+                                       "lived", "Canadian");
+        Vertex book1 = graph.addVertex(T.label, "book", "name", "Test-Book-1");
+        Vertex book2 = graph.addVertex(T.label, "book", "name", "Test-Book-2");
+        james.addEdge("authored", book1,
+                      "contribution", "1990-1-1", "score", 5);
+        graph.tx().commit();
+
+        HugeVertex source = (HugeVertex) james;
+        List<HugeEdge> edges = ImmutableList.of(
+                source.constructEdge("authored", book1, "score", 3),
+                source.constructEdge("authored", book2, "score", 4)
+        );
+        Id score = graph.propertyKey("score").id();
+        graph.graphTransaction().upsertEdges(edges, ImmutableMap.of(
+                                             score, UpdateStrategy.SUM));
+        graph.tx().commit();
+
+        List<Edge> results = graph.traversal().E().toList();
+        Assert.assertEquals(2, results.size());
+        assertContains(results, "authored", james, book1,
+                       "contribution", "1990-1-1", "score", 8);
+        assertContains(results, "authored", james, book2, "score", 4);
+    }
+
+    @Test
+    public void testUpsertEdgesWithDuplicateIds() {
+        HugeGraph graph = graph();
+
+        Vertex james = graph.addVertex(T.label, "author", "id", 1,
+                                       "name", "James Gosling", "age", 62,
+                                       "lived", "Canadian");
+        Vertex book = graph.addVertex(T.label, "book", "name", "Test-Book-1");
+        james.addEdge("authored", book,
+                      "contribution", "1990-1-1", "score", 5);
+        graph.tx().commit();
+
+        HugeVertex source = (HugeVertex) james;
+        List<HugeEdge> edges = ImmutableList.of(
+                source.constructEdge("authored", book, "score", 3),
+                source.constructEdge("authored", book, "score", 4)
+        );
+        Id score = graph.propertyKey("score").id();
+        graph.graphTransaction().upsertEdges(edges, ImmutableMap.of(
+                                             score, UpdateStrategy.SUM));
+        graph.tx().commit();
+
+        // The edges with the same id are merged before upserted
+        List<Edge> results = graph.traversal().E().toList();
+        Assert.assertEquals(1, results.size());
+        assertContains(results, "authored", james, book,
+                       "contribution", "1990-1-1", "score", 12);
+    }
+
     @Test
     public void testAddEdgeWithPropSet() {
         HugeGraph graph = graph();
@@ -19,7 +19,10 @@
 
 package com.baidu.hugegraph.core;
 
+import java.math.BigInteger;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.structure.Edge;
@@ -29,15 +32,23 @@ import org.junit.Assume;
 import org.junit.Test;
 
 import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.store.Shard;
+import com.baidu.hugegraph.backend.tx.ShardScanner;
 import com.baidu.hugegraph.exception.NoIndexException;
 import com.baidu.hugegraph.exception.NotFoundException;
+import com.baidu.hugegraph.job.JobBuilder;
+import com.baidu.hugegraph.job.schema.RebuildIndexCallable;
+import com.baidu.hugegraph.job.schema.SchemaCallable;
 import com.baidu.hugegraph.schema.EdgeLabel;
 import com.baidu.hugegraph.schema.IndexLabel;
 import com.baidu.hugegraph.schema.SchemaManager;
 import com.baidu.hugegraph.schema.VertexLabel;
+import com.baidu.hugegraph.task.HugeTask;
+import com.baidu.hugegraph.task.TaskStatus;
 import com.baidu.hugegraph.testutil.Assert;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.IndexType;
+import com.google.common.collect.ImmutableSet;
 
 public class IndexLabelCoreTest extends SchemaCoreTest {
 
@@ -724,6 +735,116 @@ public class IndexLabelCoreTest extends SchemaCoreTest {
         Assert.assertNotNull(vertex);
     }
 
+    @Test
+    public void testRebuildIndexLabelWithCheckpoint() throws Exception {
+        HugeGraph graph = graph();
+        Assume.assumeTrue("Not support scan",
+                          new ShardScanner(graph).supported());
+        super.initPropertyKeys();
+        SchemaManager schema = graph.schema();
+        // Scan the shards instead of traversing by the label index
+        schema.vertexLabel("person").properties("name", "age", "city")
+              .primaryKeys("name").enableLabelIndex(false).create();
+        schema.indexLabel("personByCity").onV("person").secondary()
+              .by("city").create();
+
+        graph.addVertex(T.label, "person", "name", "Baby",
+                        "city", "Hongkong", "age", 3);
+        graph.addVertex(T.label, "person", "name", "James",
+                        "city", "Beijing", "age", 19);
+        graph.tx().commit();
+
+        IndexLabel il = schema.getIndexLabel("personByCity");
+        String name = SchemaCallable.formatTaskName(HugeType.INDEX_LABEL,
+                                                    il.id(), il.name());
+        HugeTask<Object> task = JobBuilder.of(graph).name(name)
+                                          .job(new RebuildIndexCallable())
+                                          .schedule();
+        task.get();
+        Assert.assertEquals(TaskStatus.SUCCESS, task.status());
+        Assert.assertEquals(100, task.progress());
+        Assert.assertTrue(task.input().contains("\"elements\":2"));
+        Vertex vertex = graph.traversal().V().hasLabel("person")
+                             .has("city", "Hongkong").next();
+        Assert.assertNotNull(vertex);
+
+        // Resume from a checkpoint with all shards finished
+        String checkpoint = "{\"elements\":2,\"elapsed\":10," +
+                            "\"rate\":200,\"finished\":[],\"shards\":[]}";
+        task = JobBuilder.of(graph).name(name).input(checkpoint)
+                         .job(new RebuildIndexCallable()).schedule();
+        task.get();
+        Assert.assertEquals(TaskStatus.SUCCESS, task.status());
+        Assert.assertEquals(100, task.progress());
+        // The index is kept since it is not removed when resuming
+        vertex = graph.traversal().V().hasLabel("person")
+                      .has("city", "Hongkong").next();
+        Assert.assertNotNull(vertex);
+    }
+
+    @Test
+    public void testRebuildIndexLabelWithPartlyFinishedCheckpoint()
+                                                      throws Exception {
+        HugeGraph graph = graph();
+        ShardScanner scanner = new ShardScanner(graph);
+        Assume.assumeTrue("Not support scan", scanner.supported());
+        super.initPropertyKeys();
+        SchemaManager schema = graph.schema();
+        // Scan the shards instead of traversing by the label index
+        schema.vertexLabel("person").properties("name", "age", "city")
+              .primaryKeys("name").enableLabelIndex(false).create();
+        schema.indexLabel("personByCity").onV("person").secondary()
+              .by("city").create();
+
+        graph.addVertex(T.label, "person", "name", "Baby",
+                        "city", "Hongkong", "age", 3);
+        graph.addVertex(T.label, "person", "name", "James",
+                        "city", "Beijing", "age", 19);
+        graph.tx().commit();
+
+        // Split the whole table into 2 shards at the middle
+        List<Shard> shards = scanner.shards(HugeType.VERTEX);
+        BigInteger start = new BigInteger(shards.get(0).start());
+        BigInteger end = new BigInteger(shards.get(shards.size() - 1).end());
+        String middle = start.add(end).shiftRight(1).toString();
+        String shardsJson = String.format(
+                            "[{\"start\":\"%s\",\"end\":\"%s\"," +
+                            "\"length\":0},{\"start\":\"%s\"," +
+                            "\"end\":\"%s\",\"length\":0}]",
+                            start, middle, middle, end);
+
+        IndexLabel il = schema.getIndexLabel("personByCity");
+        String name = SchemaCallable.formatTaskName(HugeType.INDEX_LABEL,
+                                                    il.id(), il.name());
+        /*
+         * Resume with one of the shards finished, only the other one is
+         * scanned and its elements are added to the 5 elements checkpointed
+         */
+        Set<String> inputs = new HashSet<>();
+        for (int finished = 0; finished < 2; finished++) {
+            String checkpoint = String.format(
+                                "{\"elements\":5,\"elapsed\":10," +
+                                "\"rate\":500,\"finished\":[%s]," +
+                                "\"shards\":%s}", finished, shardsJson);
+            HugeTask<Object> task = JobBuilder.of(graph).name(name)
+                                              .input(checkpoint)
+                                              .job(new RebuildIndexCallable())
+                                              .schedule();
+            task.get();
+            Assert.assertEquals(TaskStatus.SUCCESS, task.status());
+            Assert.assertEquals(100, task.progress());
+            Assert.assertTrue(task.input().contains("\"finished\":[0,1]"));
+            inputs.add(task.input().replaceAll(".*\"elements\":(\\d+).*",
+                                               "$1"));
+        }
+        // The 2 vertices are in one of the shards
+        Assert.assertEquals(ImmutableSet.of("5", "7"), inputs);
+
+        Vertex vertex = graph.traversal().V().hasLabel("person")
+                             .has("city", "Hongkong").next();
+        Assert.assertNotNull(vertex);
+    }
+
     @Test
     public void testRebuildIndexLabelOfVertexLabel() {
         Assume.assumeTrue("Not support range condition query",
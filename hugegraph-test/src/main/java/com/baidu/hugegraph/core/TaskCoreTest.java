@@ -0,0 +1,396 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.exception.NotFoundException;
+import com.baidu.hugegraph.job.Job;
+import com.baidu.hugegraph.job.JobBuilder;
+import com.baidu.hugegraph.job.schema.RebuildIndexCallable;
+import com.baidu.hugegraph.task.HugeTask;
+import com.baidu.hugegraph.task.ResourceClass;
+import com.baidu.hugegraph.task.TaskManager;
+import com.baidu.hugegraph.task.TaskPriority;
+import com.baidu.hugegraph.task.TaskScheduler;
+import com.baidu.hugegraph.task.TaskStatus;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.testutil.Whitebox;
+import com.baidu.hugegraph.util.ExecutorUtil;
+
+public class TaskCoreTest extends BaseCoreTest {
+
+    private static final Semaphore BLOCKER = new Semaphore(0);
+    private static final Semaphore LOOPING = new Semaphore(0);
+    private static final List<String> EXECUTED = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testTaskPriorityAndResourceClass() throws Exception {
+        HugeGraph graph = graph();
+
+        HugeTask<Object> task = JobBuilder.<Object>of(graph).name("high")
+                                          .job(new RecordJob())
+                                          .priority(TaskPriority.HIGH)
+                                          .schedule();
+        task.get();
+        Assert.assertEquals(TaskStatus.SUCCESS, task.status());
+        Map<String, Object> map = task.asMap();
+        Assert.assertEquals("high", map.get("task_priority"));
+        Assert.assertEquals("short", map.get("task_class"));
+
+        RebuildIndexCallable rebuild = new RebuildIndexCallable();
+        Assert.assertEquals(TaskPriority.NORMAL, rebuild.priority());
+        Assert.assertEquals(ResourceClass.REBUILD_INDEX,
+                            rebuild.resourceClass());
+    }
+
+    @Test
+    public void testTaskExecutedInOrderOfPriority() throws Exception {
+        HugeGraph graph = graph();
+        TaskScheduler scheduler = graph.taskScheduler();
+        EXECUTED.clear();
+
+        // Occupy all the workers of the short class
+        int workers = TaskManager.instance()
+                                 .workerPoolSize(ResourceClass.SHORT);
+        for (int i = 0; i < workers; i++) {
+            JobBuilder.<Object>of(graph).name("blocker-" + i)
+                      .job(new BlockJob()).schedule();
+        }
+        waitUntil(() -> {
+            return scheduler.runningTasks(ResourceClass.SHORT) == workers;
+        });
+
+        HugeTask<Object> low = JobBuilder.<Object>of(graph).name("low")
+                                         .job(new RecordJob())
+                                         .priority(TaskPriority.LOW)
+                                         .schedule();
+        HugeTask<Object> normal = JobBuilder.<Object>of(graph).name("normal")
+                                            .job(new RecordJob())
+                                            .schedule();
+        HugeTask<Object> high = JobBuilder.<Object>of(graph).name("high")
+                                          .job(new RecordJob())
+                                          .priority(TaskPriority.HIGH)
+                                          .schedule();
+        Assert.assertEquals(3, scheduler.queuedTasks(ResourceClass.SHORT));
+        Map<String, Object> stats = scheduler.stats();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> shortStats = (Map<String, Object>)
+                                         stats.get("short");
+        Assert.assertEquals(3, shortStats.get("queued"));
+        Assert.assertEquals(workers, shortStats.get("running"));
+
+        // Free one worker to execute the queued tasks one by one
+        BLOCKER.release();
+        low.get();
+        normal.get();
+        high.get();
+        Assert.assertEquals(EXECUTED.toString(), 3, EXECUTED.size());
+        Assert.assertEquals("high", EXECUTED.get(0));
+        Assert.assertEquals("normal", EXECUTED.get(1));
+        Assert.assertEquals("low", EXECUTED.get(2));
+
+        BLOCKER.release(workers - 1);
+        scheduler.waitUntilAllTasksCompleted(10L);
+        waitUntil(() -> {
+            return scheduler.runningTasks(ResourceClass.SHORT) == 0;
+        });
+        Assert.assertEquals(0, scheduler.queuedTasks(ResourceClass.SHORT));
+    }
+
+    @Test
+    public void testCancelTaskCheckingCancelled() throws Exception {
+        HugeGraph graph = graph();
+        TaskScheduler scheduler = graph.taskScheduler();
+
+        HugeTask<Object> task = JobBuilder.<Object>of(graph).name("loop")
+                                          .job(new LoopJob()).schedule();
+        // Wait until the job is executing instead of saving the task
+        Assert.assertTrue(LOOPING.tryAcquire(10L, TimeUnit.SECONDS));
+
+        scheduler.cancel(task);
+        scheduler.waitUntilTaskCompleted(task.id(), 10L);
+        Assert.assertEquals(TaskStatus.CANCELLED, task.status());
+        waitUntil(() -> {
+            return scheduler.runningTasks(ResourceClass.CPU_HEAVY) == 0;
+        });
+    }
+
+    @Test
+    public void testWaitUntilTaskCompletedWokenUp() throws Exception {
+        HugeGraph graph = graph();
+        TaskScheduler scheduler = graph.taskScheduler();
+
+        HugeTask<Object> task = JobBuilder.<Object>of(graph).name("block")
+                                          .job(new BlockJob()).schedule();
+        CompletableFuture<HugeTask<Object>> future;
+        future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return scheduler.waitUntilTaskCompleted(task.id(), 10L);
+            } catch (TimeoutException e) {
+                throw new HugeException("Timeout to wait for task", e);
+            }
+        });
+        Assert.assertThrows(TimeoutException.class, () -> {
+            future.get(100L, TimeUnit.MILLISECONDS);
+        });
+
+        // The waiting is woken up once the task completed
+        BLOCKER.release();
+        HugeTask<Object> completed = future.get(5L, TimeUnit.SECONDS);
+        Assert.assertEquals(TaskStatus.SUCCESS, completed.status());
+        Assert.assertEquals(TaskStatus.SUCCESS, task.status());
+    }
+
+    @Test
+    public void testSaveTasksInBatchAcrossPartitions() throws Exception {
+        HugeGraph graph = graph();
+        int partitions = 4;
+        List<ExecutorService> dbExecutors = newDbExecutors(partitions);
+        TaskScheduler scheduler = newScheduler(graph, dbExecutors);
+
+        List<HugeTask<Object>> tasks = new ArrayList<>();
+        Set<Long> saved = new HashSet<>();
+        for (int i = 0; i < 4 * partitions; i++) {
+            tasks.add(newTask(100000L + i, "record", "batch-" + i));
+        }
+        try {
+            List<Throwable> errors = saveBlocked(scheduler, dbExecutors,
+                                                 tasks);
+            for (Throwable error : errors) {
+                Assert.assertNull(error);
+            }
+
+            for (HugeTask<Object> task : tasks) {
+                HugeTask<Object> found = scheduler.findTask(task.id());
+                Assert.assertEquals(task.name(), found.name());
+                Assert.assertEquals(TaskStatus.NEW, found.status());
+                saved.add(task.id().asLong() % partitions);
+            }
+            // Saved by the db executor of each partition
+            Assert.assertEquals(partitions, saved.size());
+        } finally {
+            Assert.assertTrue(scheduler.close());
+        }
+    }
+
+    @Test
+    public void testSaveTasksInBatchWithFailedTask() throws Exception {
+        HugeGraph graph = graph();
+        List<ExecutorService> dbExecutors = newDbExecutors(1);
+        TaskScheduler scheduler = newScheduler(graph, dbExecutors);
+
+        List<HugeTask<Object>> tasks = new ArrayList<>();
+        tasks.add(newTask(200000L, "record", "good-0"));
+        // Failed to save the task without type, which fails the batch
+        tasks.add(newTask(200001L, null, "bad"));
+        tasks.add(newTask(200002L, "record", "good-1"));
+        try {
+            List<Throwable> errors = saveBlocked(scheduler, dbExecutors,
+                                                 tasks);
+            // The tasks of the failed batch are saved one by one
+            Assert.assertNull(errors.get(0));
+            Assert.assertNull(errors.get(2));
+            Throwable error = errors.get(1);
+            Assert.assertTrue(error instanceof HugeException);
+            Assert.assertEquals("Task type can't be null",
+                                error.getCause().getCause().getMessage());
+
+            HugeTask<Object> found = scheduler.findTask(tasks.get(0).id());
+            Assert.assertEquals("good-0", found.name());
+            found = scheduler.findTask(tasks.get(2).id());
+            Assert.assertEquals("good-1", found.name());
+            Assert.assertThrows(NotFoundException.class, () -> {
+                scheduler.findTask(tasks.get(1).id());
+            });
+        } finally {
+            Assert.assertTrue(scheduler.close());
+        }
+    }
+
+    private static List<ExecutorService> newDbExecutors(int partitions) {
+        List<ExecutorService> executors = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            executors.add(ExecutorUtil.newFixedThreadPool(
+                          1, "task-db-worker-test-" + i));
+        }
+        return executors;
+    }
+
+    private static TaskScheduler newScheduler(HugeGraph graph,
+                                              List<ExecutorService> db) {
+        @SuppressWarnings("unchecked")
+        Map<ResourceClass, ThreadPoolExecutor> taskExecutors =
+                (Map<ResourceClass, ThreadPoolExecutor>)
+                Whitebox.getInternalState(TaskManager.instance(),
+                                          "taskExecutors");
+        return new TaskScheduler(graph, taskExecutors, db, 0);
+    }
+
+    private static HugeTask<Object> newTask(long id, String type,
+                                            String name) {
+        HugeTask<Object> task = new HugeTask<>(IdGenerator.of(id), null,
+                                               new RecordJob());
+        task.type(type);
+        task.name(name);
+        return task;
+    }
+
+    /**
+     * Save the tasks by multiple threads while the db executors are blocked,
+     * so the tasks of each partition are committed in one batch
+     * @return the error of saving each task, null if saved
+     */
+    private static List<Throwable> saveBlocked(TaskScheduler scheduler,
+                                               List<ExecutorService> db,
+                                               List<HugeTask<Object>> tasks)
+                                               throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        for (ExecutorService executor : db) {
+            executor.submit(() -> {
+                blocker.await();
+                return null;
+            });
+        }
+        ExecutorService savers = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (HugeTask<Object> task : tasks) {
+                futures.add(savers.submit(() -> scheduler.save(task)));
+            }
+            waitUntil(() -> queuedSaves(scheduler) == tasks.size());
+            blocker.countDown();
+
+            List<Throwable> errors = new ArrayList<>(tasks.size());
+            for (Future<?> future : futures) {
+                try {
+                    future.get(10L, TimeUnit.SECONDS);
+                    errors.add(null);
+                } catch (ExecutionException e) {
+                    errors.add(e.getCause());
+                }
+            }
+            return errors;
+        } finally {
+            savers.shutdown();
+        }
+    }
+
+    private static int queuedSaves(TaskScheduler scheduler) {
+        int size = 0;
+        List<?> savers = (List<?>) Whitebox.getInternalState(scheduler,
+                                                             "savers");
+        for (Object saver : savers) {
+            size += ((Queue<?>) Whitebox.getInternalState(saver, "queue"))
+                    .size();
+        }
+        return size;
+    }
+
+    private static void waitUntil(Condition condition)
+                                  throws InterruptedException,
+                                         TimeoutException {
+        for (int i = 0; i < 1000; i++) {
+            if (condition.check()) {
+                return;
+            }
+            Thread.sleep(10L);
+        }
+        throw new TimeoutException("Timeout to wait for the condition");
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+
+        public boolean check();
+    }
+
+    public static class RecordJob extends Job<Object> {
+
+        @Override
+        public String type() {
+            return "record";
+        }
+
+        @Override
+        public Object execute() {
+            EXECUTED.add(this.task().name());
+            return null;
+        }
+    }
+
+    public static class BlockJob extends Job<Object> {
+
+        @Override
+        public String type() {
+            return "block";
+        }
+
+        @Override
+        public Object execute() throws Exception {
+            BLOCKER.acquire();
+            return null;
+        }
+    }
+
+    public static class LoopJob extends Job<Object> {
+
+        @Override
+        public String type() {
+            return "loop";
+        }
+
+        @Override
+        public ResourceClass resourceClass() {
+            return ResourceClass.CPU_HEAVY;
+        }
+
+        @Override
+        public Object execute() {
+            LOOPING.release();
+            // Not interruptible, stopped by checking cancelled
+            while (true) {
+                this.checkCancelled();
+                Thread.yield();
+            }
+        }
+    }
+}
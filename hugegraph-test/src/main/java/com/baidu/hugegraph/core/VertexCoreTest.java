@@ -19,14 +19,20 @@
 
 package com.baidu.hugegraph.core;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
@@ -47,14 +53,18 @@ import com.baidu.hugegraph.backend.id.IdGenerator;
 import com.baidu.hugegraph.backend.id.SnowflakeIdGenerator;
 import com.baidu.hugegraph.backend.id.SplicingIdGenerator;
 import com.baidu.hugegraph.backend.query.ConditionQuery;
+import com.baidu.hugegraph.backend.query.PageIds;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.store.BackendFeatures;
 import com.baidu.hugegraph.backend.store.Shard;
+import com.baidu.hugegraph.backend.tx.GraphIndexTransaction;
 import com.baidu.hugegraph.backend.tx.GraphTransaction;
+import com.baidu.hugegraph.backend.tx.ShardScanner;
 import com.baidu.hugegraph.exception.NoIndexException;
 import com.baidu.hugegraph.schema.PropertyKey;
 import com.baidu.hugegraph.schema.SchemaManager;
 import com.baidu.hugegraph.schema.VertexLabel;
+import com.baidu.hugegraph.structure.HugeVertex;
 import com.baidu.hugegraph.testutil.Assert;
 import com.baidu.hugegraph.testutil.FakeObjects.FakeVertex;
 import com.baidu.hugegraph.testutil.Utils;
@@ -63,7 +73,9 @@ import com.baidu.hugegraph.traversal.optimize.Text;
 import com.baidu.hugegraph.traversal.optimize.TraversalUtil;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.type.define.UpdateStrategy;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 public class VertexCoreTest extends BaseCoreTest {
@@ -537,6 +549,46 @@ public class VertexCoreTest extends BaseCoreTest {
                        "age", 18, "city", "Beijing");
     }
 
+    @Test
+    public void testAddVertexWithCustomizeIdExistedWithOtherLabel() {
+        HugeGraph graph = graph();
+        SchemaManager schema = graph.schema();
+
+        schema.vertexLabel("programmer")
+              .useCustomizeStringId()
+              .properties("name", "age", "city")
+              .nullableKeys("age", "city")
+              .create();
+        schema.vertexLabel("designer")
+              .useCustomizeStringId()
+              .properties("name", "age", "city")
+              .nullableKeys("age", "city")
+              .create();
+        graph.addVertex(T.label, "programmer", T.id, "p1", "name", "marko");
+        graph.addVertex(T.label, "programmer", T.id, "p2", "name", "josh");
+        graph.addVertex(T.label, "programmer", T.id, "p3", "name", "lop");
+        graph.tx().commit();
+
+        // Overwrite the existed vertices with the same label
+        graph.addVertex(T.label, "programmer", T.id, "p1", "name", "marko",
+                        "age", 18);
+        graph.addVertex(T.label, "programmer", T.id, "p2", "name", "josh",
+                        "age", 19);
+        graph.addVertex(T.label, "programmer", T.id, "p4", "name", "tom");
+        graph.tx().commit();
+        Assert.assertEquals(4L, (long) graph.traversal().V().count().next());
+
+        // Any one of the existed vertices is with different label
+        graph.addVertex(T.label, "programmer", T.id, "p1", "name", "marko");
+        graph.addVertex(T.label, "designer", T.id, "p3", "name", "lop");
+        graph.addVertex(T.label, "programmer", T.id, "p5", "name", "bob");
+        Assert.assertThrows(HugeException.class, () -> {
+            graph.tx().commit();
+        });
+        graph.tx().rollback();
+        Assert.assertEquals(4L, (long) graph.traversal().V().count().next());
+    }
+
     @Test
     public void testAddVertexWithCustomizeStringIdStrategyWithoutValidId() {
         HugeGraph graph = graph();
@@ -632,6 +684,262 @@ public class VertexCoreTest extends BaseCoreTest {
         Assert.assertEquals(2, count);
     }
 
+    @Test
+    public void testUpsertVertices() {
+        HugeGraph graph = graph();
+        initPersonIndex(true);
+
+        graph.addVertex(T.label, "person", "name", "Baby",
+                        "city", "Hongkong", "age", 3);
+        graph.tx().commit();
+
+        GraphTransaction tx = graph.graphTransaction();
+        List<HugeVertex> vertices = ImmutableList.of(
+                tx.constructVertex(true, T.label, "person", "name", "Baby",
+                                   "city", "Hongkong", "age", 5),
+                tx.constructVertex(true, T.label, "person", "name", "James",
+                                   "city", "Beijing", "age", 19)
+        );
+        Id age = graph.propertyKey("age").id();
+        tx.upsertVertices(vertices, ImmutableMap.of(age, UpdateStrategy.SUM));
+        graph.tx().commit();
+
+        List<Vertex> persons = graph.traversal().V().hasLabel("person")
+                                    .toList();
+        Assert.assertEquals(2, persons.size());
+        assertContains(persons, T.label, "person", "name", "Baby",
+                       "city", "Hongkong", "age", 8);
+        assertContains(persons, T.label, "person", "name", "James",
+                       "city", "Beijing", "age", 19);
+
+        // The index of the old value is removed
+        Assert.assertEquals(0, graph.traversal().V().hasLabel("person")
+                                   .has("age", 3).toList().size());
+        Assert.assertEquals(1, graph.traversal().V().hasLabel("person")
+                                   .has("age", 8).toList().size());
+
+        vertices = ImmutableList.of(
+                tx.constructVertex(true, T.label, "person", "name", "Baby",
+                                   "city", "Shanghai")
+        );
+        tx.upsertVertices(vertices, ImmutableMap.of());
+        graph.tx().commit();
+
+        Vertex baby = vertex("person", "name", "Baby");
+        Assert.assertEquals("Shanghai", baby.value("city"));
+        Assert.assertEquals(8, (int) baby.value("age"));
+        Assert.assertEquals(0, graph.traversal().V().hasLabel("person")
+                                   .has("city", "Hongkong").toList().size());
+        Assert.assertEquals(1, graph.traversal().V().hasLabel("person")
+                                   .has("city", "Shanghai").toList().size());
+    }
+
+    @Test
+    public void testUpsertVerticesWithDuplicateIds() {
+        HugeGraph graph = graph();
+
+        graph.addVertex(T.label, "person", "name", "Baby",
+                        "city", "Hongkong", "age", 3);
+        graph.tx().commit();
+
+        GraphTransaction tx = graph.graphTransaction();
+        List<HugeVertex> vertices = ImmutableList.of(
+                tx.constructVertex(true, T.label, "person", "name", "Baby",
+                                   "city", "Hongkong", "age", 2),
+                tx.constructVertex(true, T.label, "person", "name", "James",
+                                   "city", "Beijing", "age", 19),
+                tx.constructVertex(true, T.label, "person", "name", "Baby",
+                                   "city", "Shanghai", "age", 4)
+        );
+        Id age = graph.propertyKey("age").id();
+        tx.upsertVertices(vertices, ImmutableMap.of(age, UpdateStrategy.SUM));
+        graph.tx().commit();
+
+        // The vertices with the same id are merged before upserted
+        List<Vertex> persons = graph.traversal().V().hasLabel("person")
+                                    .toList();
+        Assert.assertEquals(2, persons.size());
+        assertContains(persons, T.label, "person", "name", "Baby",
+                       "city", "Shanghai", "age", 9);
+        assertContains(persons, T.label, "person", "name", "James",
+                       "city", "Beijing", "age", 19);
+    }
+
+    @Test
+    public void testUpsertVerticesConcurrently() throws InterruptedException {
+        HugeGraph graph = graph();
+
+        graph.addVertex(T.label, "person", "name", "Baby",
+                        "city", "Hongkong", "age", 3);
+        graph.tx().commit();
+
+        Id age = graph.propertyKey("age").id();
+        GraphTransaction tx = graph.graphTransaction();
+        tx.upsertVertices(ImmutableList.of(
+                          tx.constructVertex(true, T.label, "person",
+                                             "name", "Baby",
+                                             "city", "Hongkong", "age", 1)),
+                          ImmutableMap.of(age, UpdateStrategy.SUM));
+
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread t = new Thread(() -> {
+            try {
+                GraphTransaction tx2 = graph.graphTransaction();
+                tx2.upsertVertices(ImmutableList.of(
+                           tx2.constructVertex(true, T.label, "person",
+                                               "name", "Baby",
+                                               "city", "Hongkong", "age", 2)),
+                           ImmutableMap.of(age, UpdateStrategy.SUM));
+                graph.tx().commit();
+            } catch (Throwable e) {
+                error.set(e);
+            } finally {
+                graph.closeTx();
+                done.countDown();
+            }
+        });
+        t.start();
+
+        // The upsert of the vertex waits until the previous one committed
+        Assert.assertFalse(done.await(200L, TimeUnit.MILLISECONDS));
+        graph.tx().commit();
+        Assert.assertTrue(done.await(10L, TimeUnit.SECONDS));
+        Assert.assertNull(error.get());
+
+        Vertex baby = vertex("person", "name", "Baby");
+        Assert.assertEquals(6, (int) baby.value("age"));
+    }
+
+    @Test
+    public void testUpsertVerticesInterleaved() throws InterruptedException {
+        HugeGraph graph = graph();
+
+        GraphTransaction tx = graph.graphTransaction();
+        Id age = graph.propertyKey("age").id();
+        Map<Id, UpdateStrategy> strategies = ImmutableMap.of(
+                                             age, UpdateStrategy.SUM);
+        // The vertices locked by different stripes in order
+        HugeVertex low = null;
+        HugeVertex high = null;
+        for (int i = 0; low == null || high == null; i++) {
+            HugeVertex v = tx.constructVertex(true, T.label, "person",
+                                              "name", "p" + i,
+                                              "city", "Beijing", "age", 1);
+            if (low == null) {
+                low = v;
+            } else if (stripe(v) != stripe(low)) {
+                high = stripe(v) > stripe(low) ? v : low;
+                low = stripe(v) > stripe(low) ? low : v;
+            }
+        }
+        String lowName = low.value("name");
+        String highName = high.value("name");
+
+        // Upsert low then high in tx1, and high then low in tx2
+        tx.upsertVertices(ImmutableList.of(low), strategies);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread t = new Thread(() -> {
+            try {
+                GraphTransaction tx2 = graph.graphTransaction();
+                tx2.upsertVertices(ImmutableList.of(
+                        tx2.constructVertex(true, T.label, "person",
+                                            "name", highName,
+                                            "city", "Beijing", "age", 2)),
+                        strategies);
+                locked.countDown();
+                Thread.sleep(200L);
+                tx2.upsertVertices(ImmutableList.of(
+                        tx2.constructVertex(true, T.label, "person",
+                                            "name", lowName,
+                                            "city", "Beijing", "age", 2)),
+                        strategies);
+                graph.tx().commit();
+            } catch (Throwable e) {
+                error.set(e);
+                graph.tx().rollback();
+            } finally {
+                locked.countDown();
+                graph.closeTx();
+                done.countDown();
+            }
+        });
+        t.start();
+
+        /*
+         * Tx1 waits for high held by tx2, and tx2 fails to lock low out of
+         * order instead of waiting for tx1, then tx1 goes on
+         */
+        Assert.assertTrue(locked.await(10L, TimeUnit.SECONDS));
+        tx.upsertVertices(ImmutableList.of(high), strategies);
+        graph.tx().commit();
+        Assert.assertTrue(done.await(10L, TimeUnit.SECONDS));
+        Assert.assertTrue(error.get() instanceof HugeException);
+        Assert.assertTrue(error.get().getMessage().contains("is locked"));
+
+        Assert.assertEquals(1, (int) vertex("person", "name", lowName)
+                                     .value("age"));
+        Assert.assertEquals(1, (int) vertex("person", "name", highName)
+                                     .value("age"));
+    }
+
+    private static int stripe(HugeVertex vertex) {
+        return Math.floorMod(vertex.id().hashCode(), 1024);
+    }
+
+    @Test
+    public void testUpsertVerticesWithBiggerAndAppendStrategy() {
+        HugeGraph graph = graph();
+
+        graph.addVertex(T.label, "person", "name", "Baby",
+                        "city", "Hongkong", "age", 3);
+        graph.addVertex(T.label, "review", "id", 1,
+                        "comment", ImmutableList.of("looks good"));
+        graph.tx().commit();
+
+        GraphTransaction tx = graph.graphTransaction();
+        List<HugeVertex> vertices = ImmutableList.of(
+                tx.constructVertex(true, T.label, "person", "name", "Baby",
+                                   "city", "Hongkong", "age", 2),
+                tx.constructVertex(true, T.label, "review", "id", 1,
+                                   "comment", ImmutableList.of("LGTM"))
+        );
+        Id age = graph.propertyKey("age").id();
+        Id comment = graph.propertyKey("comment").id();
+        tx.upsertVertices(vertices, ImmutableMap.of(
+                          age, UpdateStrategy.BIGGER,
+                          comment, UpdateStrategy.APPEND));
+        graph.tx().commit();
+
+        Vertex baby = vertex("person", "name", "Baby");
+        Assert.assertEquals(3, (int) baby.value("age"));
+        Vertex review = vertex("review", "id", 1);
+        Assert.assertEquals(ImmutableList.of("looks good", "LGTM"),
+                            review.value("comment"));
+    }
+
+    @Test
+    public void testUpsertVerticesWithStrategyOfPrimaryKey() {
+        HugeGraph graph = graph();
+
+        graph.addVertex(T.label, "author", "id", 1,
+                        "name", "James Gosling", "age", 62);
+        graph.tx().commit();
+
+        GraphTransaction tx = graph.graphTransaction();
+        List<HugeVertex> vertices = ImmutableList.of(
+                tx.constructVertex(true, T.label, "author", "id", 1,
+                                   "name", "James Gosling")
+        );
+        Id id = graph.propertyKey("id").id();
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            tx.upsertVertices(vertices,
+                              ImmutableMap.of(id, UpdateStrategy.SUM));
+        });
+    }
+
     @Test
     public void testQueryAll() {
         HugeGraph graph = graph();
@@ -3008,6 +3316,104 @@ public class VertexCoreTest extends BaseCoreTest {
         Assert.assertEquals(10, vertexes.size());
     }
 
+    @Test
+    public void testScanVertexInParallel() {
+        HugeGraph graph = graph();
+        ShardScanner scanner = new ShardScanner(graph, 2, 1 * 1024 * 1024);
+        Assume.assumeTrue("Not support scan", scanner.supported());
+        init10Vertices();
+
+        VertexLabel book = graph.vertexLabel("book");
+        List<Object> names = Collections.synchronizedList(new ArrayList<>());
+        scanner.scanVertices(book, (tx, vertex) -> {
+            names.add(vertex.value("name"));
+        });
+        Assert.assertEquals(5, names.size());
+        Assert.assertTrue(names.contains("java-1"));
+        Assert.assertTrue(names.contains("java-5"));
+
+        // Traverse by the label index instead if the label is selective
+        Assert.assertTrue(scanner.selective(book));
+        Assert.assertFalse(scanner.supported(book));
+
+        List<Long> sizes = scanner.scan(HugeType.VERTEX, (tx, shard) -> {
+            ConditionQuery q = new ConditionQuery(HugeType.VERTEX);
+            q.scan(shard.start(), shard.end());
+            return IteratorUtils.count(tx.queryVertices(q));
+        });
+        Assert.assertEquals(10L, sizes.stream().mapToLong(i -> i).sum());
+
+        // Remove the vertices in each shard with their own transaction
+        scanner.scanVertices(book, (tx, vertex) -> {
+            tx.removeVertex((HugeVertex) vertex);
+        });
+        Assert.assertEquals(0L, graph.traversal().V().hasLabel("book")
+                                     .count().next().longValue());
+        Assert.assertEquals(5L, graph.traversal().V().count().next()
+                                     .longValue());
+
+        VertexLabel author = graph.vertexLabel("author");
+        Assert.assertThrows(HugeException.class, () -> {
+            scanner.scanVertices(author, (tx, vertex) -> {
+                throw new RuntimeException("scan failed");
+            });
+        });
+    }
+
+    @Test
+    public void testQueryByLabelIndexWithPage() {
+        HugeGraph graph = graph();
+        BackendFeatures features = graph.graphTransaction().store().features();
+        Assume.assumeTrue("Not support paging index query",
+                          !features.supportsQueryByLabel() &&
+                          features.supportsQueryIndexByPage());
+        init10Vertices();
+
+        GraphIndexTransaction indexTx = (GraphIndexTransaction)
+                Whitebox.getInternalState(graph.graphTransaction(), "indexTx");
+        ConditionQuery query = new ConditionQuery(HugeType.VERTEX);
+        query.eq(HugeKeys.LABEL, graph.vertexLabel("book").id());
+        query.limit(2);
+
+        Set<Id> ids = new HashSet<>();
+        int pages = 0;
+        String page = "";
+        do {
+            query.page(page);
+            PageIds result = indexTx.indexQueryByPage(query);
+            Assert.assertTrue(result.ids().size() <= 2);
+            Assert.assertTrue(ids.addAll(result.ids()));
+            page = result.page();
+            pages++;
+        } while (page != null);
+        Assert.assertEquals(5, ids.size());
+        Assert.assertEquals(3, pages);
+
+        // Traverse all the vertices of a label page by page
+        List<Object> names = new ArrayList<>();
+        graph.graphTransaction().traverseVerticesByLabel(
+                                 graph.vertexLabel("book"),
+                                 vertex -> names.add(vertex.value("name")),
+                                 false);
+        Assert.assertEquals(5, names.size());
+        Assert.assertTrue(names.contains("java-1"));
+        Assert.assertTrue(names.contains("java-5"));
+
+        // Traverse with the changes not committed in tx
+        graph.addVertex(T.label, "book", "name", "java-6");
+        graph.traversal().V().hasLabel("book").has("name", "java-1")
+             .next().remove();
+        names.clear();
+        graph.graphTransaction().traverseVerticesByLabel(
+                                 graph.vertexLabel("book"),
+                                 vertex -> names.add(vertex.value("name")),
+                                 false);
+        Assert.assertEquals(5, names.size());
+        Assert.assertFalse(names.contains("java-1"));
+        Assert.assertTrue(names.contains("java-6"));
+        graph.tx().rollback();
+    }
+
     @Test
     public void testScanVertexWithSplitSizeLt1MB() {
         HugeGraph graph = graph();
@@ -24,12 +24,25 @@ import org.junit.runners.Suite;
 
 import com.baidu.hugegraph.unit.cache.CacheManagerTest;
 import com.baidu.hugegraph.unit.cache.RamCacheTest;
+import com.baidu.hugegraph.unit.cassandra.CassandraEntryIteratorTest;
+import com.baidu.hugegraph.unit.cassandra.CassandraSessionPoolTest;
+import com.baidu.hugegraph.unit.core.AdmissionControllerTest;
 import com.baidu.hugegraph.unit.core.AnalyzerTest;
 import com.baidu.hugegraph.unit.core.BackendMutationTest;
 import com.baidu.hugegraph.unit.core.ConditionQueryFlattenTest;
 import com.baidu.hugegraph.unit.core.EdgeIdTest;
+import com.baidu.hugegraph.unit.core.GremlinScriptCacheTest;
+import com.baidu.hugegraph.unit.core.IngestWriteGateTest;
 import com.baidu.hugegraph.unit.core.JsonUtilTest;
+import com.baidu.hugegraph.unit.core.LoadReleaseFilterTest;
+import com.baidu.hugegraph.unit.core.QueryBudgetTest;
+import com.baidu.hugegraph.unit.core.RebuildIndexCheckpointTest;
+import com.baidu.hugegraph.unit.core.SchemaEpochTest;
 import com.baidu.hugegraph.unit.core.VersionTest;
+import com.baidu.hugegraph.unit.hbase.HbaseSessionsTest;
+import com.baidu.hugegraph.unit.mysql.MysqlSessionsTest;
+import com.baidu.hugegraph.unit.mysql.WhereBuilderTest;
+import com.baidu.hugegraph.unit.palo.PaloStreamLoaderTest;
 import com.baidu.hugegraph.unit.rocksdb.RocksDBCountersTest;
 import com.baidu.hugegraph.unit.rocksdb.RocksDBSessionsTest;
 
@@ -44,9 +57,26 @@ import com.baidu.hugegraph.unit.rocksdb.RocksDBSessionsTest;
     EdgeIdTest.class,
     AnalyzerTest.class,
     JsonUtilTest.class,
+    GremlinScriptCacheTest.class,
+    QueryBudgetTest.class,
+    SchemaEpochTest.class,
+    RebuildIndexCheckpointTest.class,
+    AdmissionControllerTest.class,
+    IngestWriteGateTest.class,
+    LoadReleaseFilterTest.class,
 
     RocksDBSessionsTest.class,
-    RocksDBCountersTest.class
+    RocksDBCountersTest.class,
+
+    CassandraSessionPoolTest.class,
+    CassandraEntryIteratorTest.class,
+
+    MysqlSessionsTest.class,
+    WhereBuilderTest.class,
+
+    HbaseSessionsTest.class,
+
+    PaloStreamLoaderTest.class
 })
 public class UnitTestSuite {
 }
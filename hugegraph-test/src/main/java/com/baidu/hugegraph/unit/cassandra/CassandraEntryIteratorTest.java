@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.cassandra;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.store.cassandra.CassandraBackendEntry;
+import com.baidu.hugegraph.backend.store.cassandra.CassandraEntryIterator;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.datastax.driver.core.ExecutionInfo;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.google.common.collect.ImmutableList;
+
+public class CassandraEntryIteratorTest extends BaseUnitTest {
+
+    @Test
+    public void testPrefetchNextPage() {
+        Row row = Mockito.mock(Row.class);
+        ResultSet results = Mockito.mock(ResultSet.class);
+        Mockito.when(results.iterator()).thenReturn(
+                ImmutableList.of(row, row, row, row).iterator());
+        Mockito.when(results.getAvailableWithoutFetching())
+               .thenReturn(4, 3, 2, 1, 0);
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(statement.getFetchSize()).thenReturn(4);
+        ExecutionInfo info = Mockito.mock(ExecutionInfo.class);
+        Mockito.when(info.getStatement()).thenReturn(statement);
+        Mockito.when(results.getExecutionInfo()).thenReturn(info);
+
+        AtomicInteger ids = new AtomicInteger();
+        CassandraEntryIterator iter = new CassandraEntryIterator(
+                results, new Query(HugeType.VERTEX), (entry, r) -> {
+                    return new CassandraBackendEntry(
+                               HugeType.VERTEX,
+                               IdGenerator.of(ids.incrementAndGet()));
+                });
+        int count = 0;
+        while (iter.hasNext()) {
+            iter.next();
+            count++;
+        }
+        Assert.assertEquals(4, count);
+
+        // The fetch size is got once, rather than once per row
+        Mockito.verify(results, Mockito.times(1)).getExecutionInfo();
+        // Prefetch when no more than half of the fetch size is available
+        Mockito.verify(results, Mockito.times(3)).fetchMoreResults();
+    }
+
+    @Test
+    public void testNotPrefetchIfPaging() {
+        Row row = Mockito.mock(Row.class);
+        ResultSet results = Mockito.mock(ResultSet.class);
+        Mockito.when(results.iterator()).thenReturn(
+                ImmutableList.of(row, row).iterator());
+        Mockito.when(results.getAvailableWithoutFetching()).thenReturn(2);
+
+        Query query = new Query(HugeType.VERTEX);
+        query.page("");
+        query.limit(2);
+        AtomicInteger ids = new AtomicInteger();
+        CassandraEntryIterator iter = new CassandraEntryIterator(
+                results, query, (entry, r) -> {
+                    return new CassandraBackendEntry(
+                               HugeType.VERTEX,
+                               IdGenerator.of(ids.incrementAndGet()));
+                });
+        int count = 0;
+        while (iter.hasNext()) {
+            iter.next();
+            count++;
+        }
+        Assert.assertEquals(2, count);
+
+        Mockito.verify(results, Mockito.never()).getExecutionInfo();
+        Mockito.verify(results, Mockito.never()).fetchMoreResults();
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.cassandra;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.store.cassandra.CassandraOptions;
+import com.baidu.hugegraph.backend.store.cassandra.CassandraSessionPool;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.OptionSpace;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.testutil.Whitebox;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.ProtocolOptions;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.datastax.driver.core.exceptions.ReadTimeoutException;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+public class CassandraSessionPoolTest extends BaseUnitTest {
+
+    private CassandraSessionPool pool;
+    private Session driverSession;
+    private CassandraSessionPool.Session session;
+
+    @Before
+    public void setup() {
+        this.pool = new CassandraSessionPool("ks", "g");
+        this.driverSession = Mockito.mock(Session.class);
+        this.session = this.pool.new Session();
+        Whitebox.setInternalState(this.session, "session", this.driverSession);
+    }
+
+    @Test
+    public void testOpenWithTokenAwarePolicy() {
+        OptionSpace.register("cassandra", CassandraOptions.instance());
+        PropertiesConfiguration conf = Mockito.mock(
+                                       PropertiesConfiguration.class);
+        Mockito.when(conf.getKeys()).thenReturn(Collections.emptyIterator());
+        HugeConfig config = new HugeConfig(conf);
+
+        // The cluster is built without connecting to the contact points
+        this.pool.open(config);
+        try {
+            LoadBalancingPolicy policy = this.pool.cluster().getConfiguration()
+                                             .getPolicies()
+                                             .getLoadBalancingPolicy();
+            Assert.assertTrue(policy instanceof TokenAwarePolicy);
+            Assert.assertTrue(((TokenAwarePolicy) policy).getChildPolicy()
+                              instanceof DCAwareRoundRobinPolicy);
+        } finally {
+            this.pool.cluster().close();
+        }
+    }
+
+    @Test
+    public void testQueryAsyncWithError() {
+        Whitebox.setInternalState(this.pool, "maxInflightQueries", 2);
+
+        ResultSet rs1 = Mockito.mock(ResultSet.class);
+        ResultSetFuture future1 = Mockito.mock(ResultSetFuture.class);
+        Mockito.when(future1.getUninterruptibly()).thenReturn(rs1);
+        ResultSetFuture future2 = Mockito.mock(ResultSetFuture.class);
+        Mockito.when(future2.getUninterruptibly()).thenThrow(
+                new ReadTimeoutException(ConsistencyLevel.ONE, 0, 1, false));
+        ResultSetFuture future3 = Mockito.mock(ResultSetFuture.class);
+        Mockito.when(this.driverSession.executeAsync(
+                     Mockito.any(Statement.class)))
+               .thenReturn(future1, future2, future3);
+
+        Statement statement = Mockito.mock(Statement.class);
+        Iterator<ResultSet> results = this.session.query(ImmutableList.of(
+                                      statement, statement, statement));
+        Assert.assertSame(rs1, results.next());
+        Assert.assertThrows(BackendException.class, () -> {
+            results.next();
+        }, (e) -> {
+            String message = "Failed to execute async query";
+            Assert.assertTrue(e.getMessage().contains(message));
+            Assert.assertTrue(e.getCause() instanceof ReadTimeoutException);
+        });
+        Mockito.verify(future3).cancel(true);
+        Assert.assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void testPrepareWithError() {
+        Configuration conf = Mockito.mock(Configuration.class);
+        Mockito.when(conf.getCodecRegistry())
+               .thenReturn(CodecRegistry.DEFAULT_INSTANCE);
+        ProtocolOptions protocol = Mockito.mock(ProtocolOptions.class);
+        Mockito.when(protocol.getProtocolVersion())
+               .thenReturn(ProtocolVersion.V4);
+        Mockito.when(conf.getProtocolOptions()).thenReturn(protocol);
+        Cluster cluster = Mockito.mock(Cluster.class);
+        Mockito.when(cluster.getConfiguration()).thenReturn(conf);
+        Whitebox.setInternalState(this.pool, "cluster", cluster);
+        Whitebox.setInternalState(this.pool, "preparedStatements",
+                                  CacheBuilder.newBuilder().build());
+
+        Mockito.when(this.driverSession.prepare(Mockito.anyString()))
+               .thenThrow(new InvalidQueryException("Undefined column"));
+
+        Select select = QueryBuilder.select().from("ks", "t");
+        select.where(QueryBuilder.eq("id", "v1"));
+        Assert.assertThrows(BackendException.class, () -> {
+            this.session.prepare(select);
+        }, (e) -> {
+            String message = "Failed to prepare statement";
+            Assert.assertTrue(e.getMessage().contains(message));
+            Assert.assertTrue(e.getCause() instanceof InvalidQueryException);
+        });
+    }
+
+    @Test
+    public void testCommitByPartition() {
+        Whitebox.setInternalState(this.pool, "commitByPartition", true);
+        Whitebox.setInternalState(this.pool, "commitParallelism", 2);
+        Whitebox.setInternalState(this.pool, "commitRetries", 1);
+
+        Statement s1 = Mockito.mock(Statement.class);
+        Statement s2 = Mockito.mock(Statement.class);
+        ResultSetFuture done = Mockito.mock(ResultSetFuture.class);
+        Mockito.when(this.driverSession.executeAsync(s1)).thenReturn(done);
+        Mockito.when(this.driverSession.executeAsync(s2)).thenReturn(done);
+
+        this.session.add(s1, "p1");
+        this.session.add(s2, "p2");
+        Assert.assertNull(this.session.commit());
+        Assert.assertFalse(this.session.hasChanges());
+        Mockito.verify(this.driverSession, Mockito.never())
+               .execute(Mockito.any(Statement.class));
+    }
+
+    @Test
+    public void testCommitByPartitionWithFailedBatch() {
+        Whitebox.setInternalState(this.pool, "commitByPartition", true);
+        Whitebox.setInternalState(this.pool, "commitParallelism", 1);
+        Whitebox.setInternalState(this.pool, "commitRetries", 1);
+
+        Statement s1 = Mockito.mock(Statement.class);
+        Statement s2 = Mockito.mock(Statement.class);
+        Statement s3 = Mockito.mock(Statement.class);
+        ResultSetFuture done = Mockito.mock(ResultSetFuture.class);
+        ResultSetFuture failed = Mockito.mock(ResultSetFuture.class);
+        Mockito.when(failed.getUninterruptibly()).thenThrow(
+                new ReadTimeoutException(ConsistencyLevel.ONE, 0, 1, false));
+        Mockito.when(this.driverSession.executeAsync(s1)).thenReturn(done);
+        Mockito.when(this.driverSession.executeAsync(s2)).thenReturn(failed);
+        Mockito.when(this.driverSession.executeAsync(s3)).thenReturn(done);
+
+        this.session.add(s1, "p1");
+        this.session.add(s2, "p2");
+        this.session.add(s3, "p3");
+        this.session.commit();
+        Assert.assertFalse(this.session.hasChanges());
+
+        /*
+         * The failed batch is retried once, then committed in a logged
+         * batch with s3 which is not sent since s2 failed
+         */
+        Mockito.verify(this.driverSession, Mockito.times(2)).executeAsync(s2);
+        Mockito.verify(this.driverSession, Mockito.never()).executeAsync(s3);
+        ArgumentCaptor<Statement> logged = ArgumentCaptor.forClass(
+                                           Statement.class);
+        Mockito.verify(this.driverSession).execute(logged.capture());
+        BatchStatement batch = (BatchStatement) logged.getValue();
+        Assert.assertEquals(ImmutableList.of(s2, s3),
+                            ImmutableList.copyOf(batch.getStatements()));
+
+        // The batch of session is retained if the logged batch failed
+        Mockito.when(this.driverSession.execute(Mockito.any(Statement.class)))
+               .thenThrow(new InvalidQueryException("Batch too large"));
+        this.session.add(s1, "p1");
+        this.session.add(s2, "p2");
+        Assert.assertThrows(InvalidQueryException.class, () -> {
+            this.session.commit();
+        });
+        Assert.assertTrue(this.session.hasChanges());
+        Assert.assertEquals(2, this.session.statements().size());
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.ServiceUnavailableException;
+
+import org.junit.Test;
+
+import com.baidu.hugegraph.core.AdmissionController;
+import com.baidu.hugegraph.core.AdmissionController.Limiter;
+import com.baidu.hugegraph.core.AdmissionController.RequestClass;
+import com.baidu.hugegraph.testutil.Assert;
+
+public class AdmissionControllerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    private static RequestClass classify(String method, String path) {
+        return AdmissionController.classify(method, path);
+    }
+
+    @Test
+    public void testClassify() {
+        Assert.assertEquals(RequestClass.GREMLIN, classify("GET", "gremlin"));
+        Assert.assertEquals(RequestClass.GREMLIN, classify("POST", "/gremlin"));
+        Assert.assertEquals(RequestClass.GREMLIN,
+                            classify("POST", "graphs/g/jobs/gremlin"));
+
+        Assert.assertEquals(RequestClass.TRAVERSAL,
+                            classify("GET", "graphs/g/traversers/kout"));
+        Assert.assertEquals(RequestClass.TRAVERSAL,
+                            classify("POST", "graphs/g/traversers/kneighbor"));
+        Assert.assertEquals(RequestClass.TRAVERSAL,
+                            classify("GET", "graphs/g/graph/vertices"));
+
+        Assert.assertEquals(RequestClass.POINT_READ,
+                            classify("GET", "graphs/g/graph/vertices/1"));
+        Assert.assertEquals(RequestClass.POINT_READ,
+                            classify("GET", "graphs/g/graph/edges/S1>1>>S2"));
+
+        Assert.assertEquals(RequestClass.POINT_WRITE,
+                            classify("POST", "graphs/g/graph/vertices"));
+        Assert.assertEquals(RequestClass.POINT_WRITE,
+                            classify("PUT", "graphs/g/graph/vertices/1"));
+        Assert.assertEquals(RequestClass.POINT_WRITE,
+                            classify("DELETE", "graphs/g/graph/edges/1"));
+
+        Assert.assertEquals(RequestClass.BATCH_WRITE,
+                            classify("POST", "graphs/g/graph/vertices/batch"));
+        Assert.assertEquals(RequestClass.BATCH_WRITE,
+                            classify("PUT", "graphs/g/graph/edges/batch"));
+        Assert.assertEquals(RequestClass.BATCH_WRITE,
+                            classify("POST", "graphs/g/graph/ingest"));
+    }
+
+    @Test
+    public void testClassifyExempted() {
+        Assert.assertNull(classify("GET", "metrics"));
+        Assert.assertNull(classify("GET", "versions"));
+        Assert.assertNull(classify("GET", "graphs"));
+        Assert.assertNull(classify("GET", "graphs/g"));
+        Assert.assertNull(classify("DELETE", "graphs/g/clear"));
+        Assert.assertNull(classify("POST", "graphs/g/schema/vertexlabels"));
+        Assert.assertNull(classify("GET", "graphs/g/schema/vertexlabels/v"));
+        Assert.assertNull(classify("GET", "graphs/g/tasks"));
+        Assert.assertNull(classify("DELETE", "graphs/g/tasks/1"));
+        Assert.assertNull(classify("GET", "graphs/g/variables"));
+        Assert.assertNull(classify("PUT", "graphs/g/jobs/rebuild/v"));
+    }
+
+    @Test
+    public void testRoute() {
+        Assert.assertEquals("GET graph/vertices/{id}",
+                            AdmissionController.route(
+                            "GET", "graphs/g1/graph/vertices/1"));
+        Assert.assertEquals("GET graph/vertices/{id}",
+                            AdmissionController.route(
+                            "GET", "/graphs/g2/graph/vertices/2"));
+        Assert.assertEquals("GET graph/vertices",
+                            AdmissionController.route(
+                            "GET", "graphs/g1/graph/vertices"));
+        Assert.assertEquals("POST graph/edges/batch",
+                            AdmissionController.route(
+                            "POST", "graphs/g1/graph/edges/batch"));
+        Assert.assertEquals("GET traversers/kout",
+                            AdmissionController.route(
+                            "GET", "graphs/g1/traversers/kout"));
+        Assert.assertEquals("POST gremlin",
+                            AdmissionController.route("POST", "gremlin"));
+    }
+
+    @Test
+    public void testLimiterBackoffOnceInBaseline() throws Exception {
+        Limiter limiter = new Limiter("test-backoff", 10, 0, 0L, 2.0);
+        for (int i = 0; i < 8; i++) {
+            limiter.acquire("r");
+        }
+        Assert.assertEquals(8, limiter.inflight());
+
+        // The first request of the route sets the baseline
+        limiter.release("r", 10 * MS);
+        Assert.assertEquals(10 * MS, limiter.baseline("r"));
+        Assert.assertEquals(10, limiter.limit());
+
+        limiter.release("r", 100 * MS);
+        Assert.assertEquals(9, limiter.limit());
+        // The slow requests at the same time only back off once
+        limiter.release("r", 100 * MS);
+        Assert.assertEquals(9, limiter.limit());
+
+        Thread.sleep(20L);
+        limiter.release("r", 100 * MS);
+        Assert.assertEquals(8, limiter.limit());
+        Assert.assertEquals(4, limiter.inflight());
+    }
+
+    @Test
+    public void testLimiterBaselinePerRoute() {
+        Limiter limiter = new Limiter("test-route", 10, 0, 0L, 2.0);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(i % 2 == 0 ? "fast" : "slow");
+        }
+        limiter.release("fast", 1 * MS);
+        limiter.release("slow", 100 * MS);
+        // Slow as usual of the route
+        limiter.release("slow", 120 * MS);
+        limiter.release("slow", 110 * MS);
+        Assert.assertEquals(10, limiter.limit());
+
+        limiter.release("fast", 100 * MS);
+        Assert.assertEquals(9, limiter.limit());
+    }
+
+    @Test
+    public void testLimiterIncreaseWhileInUse() {
+        Limiter limiter = new Limiter("test-increase", 10, 0, 0L, 2.0);
+        for (int i = 0; i < 8; i++) {
+            limiter.acquire("r");
+        }
+        limiter.release("r", 10 * MS);
+        limiter.release("r", 100 * MS);
+        Assert.assertEquals(9, limiter.limit());
+
+        // Increase 1/limit per fast request while half of limit in use
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("r");
+        }
+        for (int i = 0; i < 10; i++) {
+            limiter.release("r", 10 * MS);
+            limiter.acquire("r");
+        }
+        Assert.assertEquals(10, limiter.limit());
+
+        // Not increase if idle
+        Limiter idle = new Limiter("test-idle", 10, 0, 0L, 2.0);
+        idle.acquire("r");
+        idle.release("r", 10 * MS);
+        idle.acquire("r");
+        idle.release("r", 100 * MS);
+        Assert.assertEquals(10, idle.limit());
+    }
+
+    @Test
+    public void testLimiterQueue() {
+        Limiter limiter = new Limiter("test-queue", 1, 1, 10L, 2.0);
+        limiter.acquire("r");
+        // Wait in the queue until timeout
+        Assert.assertThrows(ServiceUnavailableException.class, () -> {
+            limiter.acquire("r");
+        }, e -> {
+            Assert.assertTrue(e.getMessage().startsWith("Timeout to wait"));
+        });
+        Assert.assertEquals(0, limiter.waiting());
+
+        limiter.release("r", 10 * MS);
+        limiter.acquire("r");
+
+        Limiter rejecter = new Limiter("test-reject", 1, 0, 10L, 2.0);
+        rejecter.acquire("r");
+        Assert.assertThrows(ServiceUnavailableException.class, () -> {
+            rejecter.acquire("r");
+        }, e -> {
+            Assert.assertTrue(e.getMessage().startsWith("The server is " +
+                                                        "too busy"));
+        });
+    }
+}
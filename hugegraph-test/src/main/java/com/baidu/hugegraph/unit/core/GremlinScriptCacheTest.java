@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.apache.tinkerpop.gremlin.jsr223.SingleGremlinScriptEngineManager;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.cache.CacheManager;
+import com.baidu.hugegraph.config.CoreOptions;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.traversal.optimize.GremlinScriptCache;
+import com.google.common.collect.ImmutableMap;
+
+public class GremlinScriptCacheTest {
+
+    private static final String LANGUAGE = "gremlin-groovy";
+
+    private static GremlinScriptCache cache(String graph, int maxVariants) {
+        return cache(graph, maxVariants, 60);
+    }
+
+    private static GremlinScriptCache cache(String graph, int maxVariants,
+                                            int window) {
+        HugeConfig conf = Mockito.mock(HugeConfig.class);
+        Mockito.when(conf.get(CoreOptions.SCRIPT_CACHE_CAPACITY))
+               .thenReturn(10);
+        Mockito.when(conf.get(CoreOptions.SCRIPT_MAX_VARIANTS))
+               .thenReturn(maxVariants);
+        Mockito.when(conf.get(CoreOptions.SCRIPT_VARIANTS_WINDOW))
+               .thenReturn(window);
+        HugeGraph g = Mockito.mock(HugeGraph.class);
+        Mockito.when(g.configuration()).thenReturn(conf);
+        Mockito.when(g.name()).thenReturn(graph);
+        return GremlinScriptCache.of(g);
+    }
+
+    @Test
+    public void testNormalize() {
+        Assert.assertEquals("a\nb\nc",
+                            GremlinScriptCache.normalize(" a  \r\nb\t\rc\n"));
+        Assert.assertEquals("x = 'a  '\ny",
+                            GremlinScriptCache.normalize("x = 'a  '\ny"));
+    }
+
+    @Test
+    public void testCompileWithCache() throws ScriptException {
+        ScriptEngine engine = SingleGremlinScriptEngineManager.get(LANGUAGE);
+        GremlinScriptCache cache = cache("script_cache_test", 0);
+
+        long compiles = GremlinScriptCache.compiles();
+        CompiledScript script1 = cache.compile(engine, LANGUAGE, "x + 1");
+        CompiledScript script2 = cache.compile(engine, LANGUAGE, "x + 1 \n");
+        Assert.assertSame(script1, script2);
+        Assert.assertEquals(compiles + 1, GremlinScriptCache.compiles());
+
+        Assert.assertEquals(2, script1.eval(new SimpleBindings(
+                                            ImmutableMap.of("x", 1))));
+        Assert.assertEquals(3, script2.eval(new SimpleBindings(
+                                            ImmutableMap.of("x", 2))));
+    }
+
+    @Test
+    public void testCompileWithTooManyVariants() throws ScriptException {
+        ScriptEngine engine = SingleGremlinScriptEngineManager.get(LANGUAGE);
+        GremlinScriptCache cache = cache("script_variants_test", 2);
+
+        cache.compile(engine, LANGUAGE, "'a' + 1");
+        cache.compile(engine, LANGUAGE, "'b' + 2");
+        // Compiled before and hit the cache
+        cache.compile(engine, LANGUAGE, "'a' + 1");
+        // Different shape
+        cache.compile(engine, LANGUAGE, "'c'");
+
+        Assert.assertThrows(HugeException.class, () -> {
+            cache.compile(engine, LANGUAGE, "'c' + 3");
+        });
+    }
+
+    @Test
+    public void testCompileVariantsEvictedFromCache() throws ScriptException {
+        ScriptEngine engine = SingleGremlinScriptEngineManager.get(LANGUAGE);
+        GremlinScriptCache cache = cache("script_evicted_test", 2);
+
+        cache.compile(engine, LANGUAGE, "'a' + 1");
+        cache.compile(engine, LANGUAGE, "'b' + 2");
+        CacheManager.instance().cache("gremlin-script-script_evicted_test")
+                               .clear();
+        // Compiled again after evicted, but not counted as new variants
+        cache.compile(engine, LANGUAGE, "'a' + 1");
+        cache.compile(engine, LANGUAGE, "'b' + 2");
+
+        Assert.assertThrows(HugeException.class, () -> {
+            cache.compile(engine, LANGUAGE, "'c' + 3");
+        });
+    }
+
+    @Test
+    public void testCompileVariantsInNextWindow() throws Exception {
+        ScriptEngine engine = SingleGremlinScriptEngineManager.get(LANGUAGE);
+        GremlinScriptCache cache = cache("script_window_test", 1, 1);
+
+        cache.compile(engine, LANGUAGE, "'a' + 1");
+        Assert.assertThrows(HugeException.class, () -> {
+            cache.compile(engine, LANGUAGE, "'b' + 2");
+        });
+
+        Thread.sleep(1100L);
+        cache.compile(engine, LANGUAGE, "'b' + 2");
+    }
+
+    @Test
+    public void testCompileWithoutVariantsLimitByDefault()
+                                                throws ScriptException {
+        Assert.assertEquals(0, (int) CoreOptions.SCRIPT_MAX_VARIANTS
+                                                .defaultValue());
+        ScriptEngine engine = SingleGremlinScriptEngineManager.get(LANGUAGE);
+        GremlinScriptCache cache = cache("script_unlimited_test", 0);
+        for (int i = 0; i < 20; i++) {
+            cache.compile(engine, LANGUAGE, "'a' + " + i);
+        }
+    }
+}
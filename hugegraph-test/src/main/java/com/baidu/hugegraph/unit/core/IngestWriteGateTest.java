@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.api.graph.BatchAPI;
+import com.baidu.hugegraph.api.graph.IngestAPI;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.OptionSpace;
+import com.baidu.hugegraph.config.ServerOptions;
+import com.baidu.hugegraph.core.GraphManager;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.testutil.Whitebox;
+
+public class IngestWriteGateTest {
+
+    private static final String VERTICES =
+            "{\"type\":\"vertex\",\"label\":\"person\"}\n" +
+            "{\"type\":\"vertex\",\"label\":\"person\"}\n" +
+            "{\"type\":\"vertex\",\"label\":\"person\"}\n";
+
+    private static GraphManager manager;
+
+    private HugeConfig config;
+    private HugeGraph graph;
+    private Semaphore permits;
+
+    @BeforeClass
+    public static void init() {
+        OptionSpace.register("server", ServerOptions.instance());
+    }
+
+    @Before
+    public void setup() throws Exception {
+        Configuration conf = Mockito.mock(PropertiesConfiguration.class);
+        Mockito.when(conf.getKeys()).thenReturn(Collections.emptyIterator());
+        this.config = new HugeConfig(conf);
+        this.config.addProperty(ServerOptions.MAX_WRITE_THREADS.name(), "1");
+        this.config.addProperty(ServerOptions.INGEST_COMMIT_SIZE.name(), "1");
+        this.config.setProperty(ServerOptions.ADMISSION_ENABLE.name(), "false");
+
+        this.graph = Mockito.mock(HugeGraph.class);
+        Transaction tx = Mockito.mock(Transaction.class);
+        Mockito.when(this.graph.tx()).thenReturn(tx);
+        if (manager == null) {
+            // NOTE: the manager registers metrics which can't be repeated
+            manager = new GraphManager(this.config);
+        }
+        // No graph is loaded from the config, add the mocked one to manager
+        @SuppressWarnings("unchecked")
+        Map<String, Graph> graphs = (Map<String, Graph>)
+                                    Whitebox.getInternalState(manager,
+                                                              "graphs");
+        graphs.put("g", this.graph);
+
+        // Saturate the write permits shared by the batch and ingest writes
+        this.permits = new Semaphore(1);
+        this.permits.acquire();
+        setWritePermits(this.permits);
+    }
+
+    @After
+    public void teardown() throws Exception {
+        setWritePermits(null);
+    }
+
+    @Test
+    public void testBatchCommitWithSaturatedGate() {
+        BatchAPI api = new BatchAPI();
+        Assert.assertThrows(HugeException.class, () -> {
+            api.commit(this.config, this.graph, 1, () -> null);
+        }, (e) -> {
+            Assert.assertEquals("The rest server is too busy to write",
+                                e.getMessage());
+        });
+        Mockito.verify(this.graph.tx(), Mockito.never()).commit();
+    }
+
+    @Test
+    public void testBatchCommitWithAdmission() {
+        // The admission controller limits the batch requests instead
+        this.config.setProperty(ServerOptions.ADMISSION_ENABLE.name(), "true");
+        BatchAPI api = new BatchAPI();
+        Assert.assertEquals("ok", api.commit(this.config, this.graph, 1,
+                                             () -> "ok"));
+        Mockito.verify(this.graph.tx()).commit();
+        Assert.assertEquals(0, this.permits.availablePermits());
+    }
+
+    @Test
+    public void testIngestWithSaturatedGate() throws Exception {
+        IngestAPI api = new IngestAPI();
+        InputStream body = new ByteArrayInputStream(
+                           VERTICES.getBytes(StandardCharsets.UTF_8));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<String, Long>> future = executor.submit(() -> {
+                return api.ingest(this.config, manager, "g", 0L, body);
+            });
+
+            // The ingest workers wait for a write permit instead of failing
+            Thread.sleep(500L);
+            Assert.assertFalse(future.isDone());
+            Mockito.verify(this.graph.tx(), Mockito.never()).commit();
+
+            this.permits.release();
+            Map<String, Long> result = future.get(10L, TimeUnit.SECONDS);
+            Assert.assertEquals(3L, (long) result.get("acknowledged"));
+            Assert.assertEquals(3L, (long) result.get("vertices"));
+            Assert.assertEquals(0L, (long) result.get("edges"));
+            Mockito.verify(this.graph.tx(), Mockito.times(3)).commit();
+            Assert.assertEquals(1, this.permits.availablePermits());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void setWritePermits(Semaphore permits) throws Exception {
+        Field field = BatchAPI.class.getDeclaredField("writePermits");
+        field.setAccessible(true);
+        field.set(null, permits);
+    }
+}
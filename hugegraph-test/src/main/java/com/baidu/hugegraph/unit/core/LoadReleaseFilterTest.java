@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.api.filter.LoadDetectFilter;
+import com.baidu.hugegraph.api.filter.LoadReleaseFilter;
+import com.baidu.hugegraph.core.AdmissionController.Limiter;
+import com.baidu.hugegraph.core.WorkLoad;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.testutil.Whitebox;
+
+public class LoadReleaseFilterTest {
+
+    private LoadReleaseFilter filter;
+    private WorkLoad load;
+    private Limiter limiter;
+    private Map<String, Object> properties;
+    private ContainerRequestContext request;
+    private WriterInterceptorContext writer;
+
+    @Before
+    public void setup() {
+        this.load = new WorkLoad(1);
+        javax.inject.Provider<WorkLoad> provider = () -> this.load;
+        this.filter = new LoadReleaseFilter();
+        Whitebox.setInternalState(this.filter, "loadProvider", provider);
+
+        this.limiter = new Limiter("test-release", 10, 0, 0L, 2.0);
+        this.properties = new HashMap<>();
+        this.properties.put(LoadDetectFilter.ADMISSION_PERMIT,
+                            this.limiter.acquire("r"));
+
+        // The request and the writer share the properties of the request
+        this.request = Mockito.mock(ContainerRequestContext.class);
+        Mockito.when(this.request.getMethod()).thenReturn("POST");
+        this.writer = Mockito.mock(WriterInterceptorContext.class);
+        Mockito.when(this.request.getProperty(Mockito.anyString()))
+               .thenAnswer(invocation -> this.properties.get(
+                           (String) invocation.getArguments()[0]));
+        Mockito.when(this.writer.getProperty(Mockito.anyString()))
+               .thenAnswer(invocation -> this.properties.get(
+                           (String) invocation.getArguments()[0]));
+        Mockito.doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            return this.properties.put((String) args[0], args[1]);
+        }).when(this.request).setProperty(Mockito.anyString(),
+                                          Mockito.any());
+        Mockito.doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            return this.properties.put((String) args[0], args[1]);
+        }).when(this.writer).setProperty(Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    public void testReleaseResponseWithoutEntity() throws IOException {
+        this.filter.filter(this.request, response(false));
+        Assert.assertEquals(0, this.load.get().get());
+        Assert.assertEquals(0, this.limiter.inflight());
+
+        // Release only once even if filtered again
+        this.filter.filter(this.request, response(false));
+        Assert.assertEquals(0, this.load.get().get());
+    }
+
+    @Test
+    public void testReleaseAfterEntityWritten() throws IOException {
+        this.filter.filter(this.request, response(true));
+        Assert.assertEquals(1, this.load.get().get());
+        Assert.assertEquals(1, this.limiter.inflight());
+
+        Mockito.doAnswer(invocation -> {
+            // Still hold the load while writing a streaming entity
+            Assert.assertEquals(1, this.load.get().get());
+            Assert.assertEquals(1, this.limiter.inflight());
+            return null;
+        }).when(this.writer).proceed();
+        this.filter.aroundWriteTo(this.writer);
+        Mockito.verify(this.writer).proceed();
+        Assert.assertEquals(0, this.load.get().get());
+        Assert.assertEquals(0, this.limiter.inflight());
+    }
+
+    @Test
+    public void testReleaseAfterEntityWriteFailed() throws IOException {
+        this.filter.filter(this.request, response(true));
+        Mockito.doThrow(new IOException("Broken pipe"))
+               .when(this.writer).proceed();
+        Assert.assertThrows(IOException.class, () -> {
+            this.filter.aroundWriteTo(this.writer);
+        });
+        Assert.assertEquals(0, this.load.get().get());
+        Assert.assertEquals(0, this.limiter.inflight());
+
+        // The error response written after the failure releases nothing
+        this.filter.filter(this.request, response(true));
+        Mockito.doNothing().when(this.writer).proceed();
+        this.filter.aroundWriteTo(this.writer);
+        Assert.assertEquals(0, this.load.get().get());
+    }
+
+    private static ContainerResponseContext response(boolean entity) {
+        ContainerResponseContext response = Mockito.mock(
+                                            ContainerResponseContext.class);
+        Mockito.when(response.hasEntity()).thenReturn(entity);
+        return response;
+    }
+}
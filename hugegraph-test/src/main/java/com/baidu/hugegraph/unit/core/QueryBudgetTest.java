@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.query.QueryBudget;
+import com.baidu.hugegraph.exception.LimitExceedException;
+import com.baidu.hugegraph.testutil.Assert;
+
+public class QueryBudgetTest {
+
+    @After
+    public void teardown() {
+        QueryBudget.current(null);
+    }
+
+    @Test
+    public void testBindToThread() {
+        Assert.assertNull(QueryBudget.current());
+
+        QueryBudget budget = QueryBudget.unlimited();
+        Assert.assertNull(QueryBudget.current(budget));
+        Assert.assertSame(budget, QueryBudget.current());
+
+        Assert.assertSame(budget, QueryBudget.current(null));
+        Assert.assertNull(QueryBudget.current());
+    }
+
+    @Test
+    public void testConsume() {
+        QueryBudget budget = new QueryBudget(0L, 10L, 100L, 5L);
+        budget.consumeRows(10L, 100L);
+        budget.consumeElements(5L);
+        Assert.assertEquals(10L, budget.rows());
+        Assert.assertEquals(100L, budget.bytes());
+        Assert.assertEquals(5L, budget.elements());
+
+        Assert.assertThrows(LimitExceedException.class, () -> {
+            budget.consumeRows(1L, 0L);
+        });
+        Assert.assertThrows(LimitExceedException.class, () -> {
+            new QueryBudget(0L, 0L, 100L, 0L).consumeRows(1L, 101L);
+        });
+        Assert.assertThrows(LimitExceedException.class, () -> {
+            new QueryBudget(0L, 0L, 0L, 5L).consumeElements(6L);
+        });
+    }
+
+    @Test
+    public void testTimeoutAndCancel() throws InterruptedException {
+        QueryBudget budget = new QueryBudget(10L, 0L, 0L, 0L);
+        budget.check();
+        Thread.sleep(20L);
+        Assert.assertThrows(LimitExceedException.class, () -> {
+            budget.check();
+        });
+
+        QueryBudget unlimited = QueryBudget.unlimited();
+        unlimited.consumeRows(Long.MAX_VALUE / 2, Long.MAX_VALUE / 2);
+        unlimited.cancel();
+        Assert.assertThrows(LimitExceedException.class, () -> {
+            unlimited.check();
+        });
+    }
+
+    @Test
+    public void testCancelWhileConsuming() {
+        QueryBudget budget = QueryBudget.unlimited();
+        budget.consumeRows(1L, 10L);
+        budget.cancel();
+        // The cancellation is checked once every some consumes
+        Assert.assertThrows(LimitExceedException.class, () -> {
+            for (int i = 0; i < 64; i++) {
+                budget.consumeRows(1L, 10L);
+            }
+        }, e -> {
+            Assert.assertEquals("The query has been cancelled",
+                                e.getMessage());
+        });
+        Assert.assertTrue(budget.rows() <= 65L);
+    }
+}
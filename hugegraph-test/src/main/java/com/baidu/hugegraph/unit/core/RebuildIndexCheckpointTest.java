@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.store.Shard;
+import com.baidu.hugegraph.job.schema.RebuildIndexCallable;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+
+public class RebuildIndexCheckpointTest {
+
+    private Class<?> clazz;
+    private List<Shard> shards;
+
+    @Before
+    public void setup() throws Exception {
+        String name = RebuildIndexCallable.class.getName() + "$Checkpoint";
+        this.clazz = Class.forName(name);
+        this.shards = ImmutableList.of(new Shard("0", "100", 0L),
+                                       new Shard("100", "200", 0L));
+    }
+
+    @Test
+    public void testFinishRetriedShard() throws Exception {
+        Object checkpoint = this.newCheckpoint();
+
+        this.finish(checkpoint, this.shards.get(0), 3L);
+        Assert.assertEquals(3L, this.elements(checkpoint));
+
+        // The shard retried is not counted twice
+        this.finish(checkpoint, this.shards.get(0), 4L);
+        Assert.assertEquals(4L, this.elements(checkpoint));
+
+        this.finish(checkpoint, this.shards.get(1), 2L);
+        Assert.assertEquals(6L, this.elements(checkpoint));
+    }
+
+    @Test
+    public void testFinishShardAfterResuming() throws Exception {
+        Object checkpoint = this.newCheckpoint();
+        this.finish(checkpoint, this.shards.get(0), 5L);
+        String json = this.toJson(checkpoint);
+
+        Method fromJson = this.clazz.getDeclaredMethod("fromJson",
+                                                       String.class);
+        fromJson.setAccessible(true);
+        Object resumed = fromJson.invoke(null, json);
+        List<?> shards = (List<?>) this.invoke(resumed, "shards");
+
+        // The shard finished before resuming has been counted
+        this.finish(resumed, (Shard) shards.get(0), 5L);
+        Assert.assertEquals(5L, this.elements(resumed));
+
+        this.finish(resumed, (Shard) shards.get(1), 2L);
+        Assert.assertEquals(7L, this.elements(resumed));
+        Assert.assertTrue(this.toJson(resumed).contains("\"elements\":7"));
+    }
+
+    private Object newCheckpoint() throws Exception {
+        Constructor<?> constructor = this.clazz.getDeclaredConstructor(
+                                     List.class);
+        constructor.setAccessible(true);
+        return constructor.newInstance(this.shards);
+    }
+
+    private void finish(Object checkpoint, Shard shard, long elements)
+                        throws Exception {
+        Method finish = this.clazz.getDeclaredMethod("finish", Shard.class,
+                                                     long.class);
+        finish.setAccessible(true);
+        finish.invoke(checkpoint, shard, elements);
+    }
+
+    private long elements(Object checkpoint) throws Exception {
+        return (long) this.invoke(checkpoint, "elements");
+    }
+
+    private String toJson(Object checkpoint) throws Exception {
+        return (String) this.invoke(checkpoint, "toJson");
+    }
+
+    private Object invoke(Object checkpoint, String name) throws Exception {
+        Method method = this.clazz.getDeclaredMethod(name);
+        method.setAccessible(true);
+        return method.invoke(checkpoint);
+    }
+}
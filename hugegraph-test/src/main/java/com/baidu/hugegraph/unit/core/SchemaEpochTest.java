@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.util.LockUtil;
+import com.baidu.hugegraph.util.SchemaEpoch;
+import com.google.common.collect.ImmutableList;
+
+public class SchemaEpochTest {
+
+    private static final String GROUP = LockUtil.VERTEX_LABEL_DELETE;
+
+    @Test
+    public void testCheckMutatingIds() throws Exception {
+        SchemaEpoch epoch = new SchemaEpoch("graph");
+        Id id1 = IdGenerator.of(1L);
+        Id id2 = IdGenerator.of(2L);
+
+        SchemaEpoch.Mutation mutation = CompletableFuture.supplyAsync(() -> {
+            return epoch.mutate(GROUP, id1);
+        }).get();
+
+        SchemaEpoch.Reader reader = epoch.reader();
+        reader.check(GROUP, id2);
+        reader.check(LockUtil.EDGE_LABEL_DELETE, id1);
+        Assert.assertThrows(HugeException.class, () -> {
+            reader.check(GROUP, id1);
+        });
+        Assert.assertThrows(HugeException.class, () -> {
+            reader.check(GROUP, ImmutableList.of(id2, id1));
+        });
+        reader.release();
+
+        mutation.finish();
+        reader.check(GROUP, id1);
+        reader.release();
+    }
+
+    @Test
+    public void testCheckByMutationOwner() {
+        SchemaEpoch epoch = new SchemaEpoch("graph");
+        Id id = IdGenerator.of(1L);
+
+        SchemaEpoch.Mutation mutation = epoch.mutate(GROUP, id);
+        try {
+            SchemaEpoch.Reader reader = epoch.reader();
+            reader.check(GROUP, id);
+            reader.release();
+
+            // Reentrant mutation of the same ids by the owner
+            epoch.mutate(GROUP, id).finish();
+        } finally {
+            mutation.finish();
+        }
+    }
+
+    @Test
+    public void testMutateWaitForInflightReaders() throws Exception {
+        SchemaEpoch epoch = new SchemaEpoch("graph");
+        Id id = IdGenerator.of(1L);
+
+        SchemaEpoch.Reader reader = epoch.reader();
+        reader.check(GROUP, id);
+
+        CompletableFuture<SchemaEpoch.Mutation> future;
+        future = CompletableFuture.supplyAsync(() -> {
+            return epoch.mutate(GROUP, id);
+        });
+        // The mutation can't be done until the reader exits the epoch
+        Assert.assertThrows(TimeoutException.class, () -> {
+            future.get(100L, TimeUnit.MILLISECONDS);
+        });
+        reader.check(GROUP, IdGenerator.of(2L));
+
+        reader.release();
+        SchemaEpoch.Mutation mutation = future.get(5L, TimeUnit.SECONDS);
+
+        SchemaEpoch.Reader reader2 = epoch.reader();
+        Assert.assertThrows(HugeException.class, () -> {
+            reader2.check(GROUP, id);
+        });
+        reader2.release();
+        mutation.finish();
+    }
+
+    @Test
+    public void testMutateWithUnrelatedReaders() throws Exception {
+        SchemaEpoch epoch = new SchemaEpoch("graph");
+        Id id1 = IdGenerator.of(1L);
+        Id id2 = IdGenerator.of(2L);
+
+        SchemaEpoch.Reader reader = epoch.reader();
+        reader.check(GROUP, id2);
+        reader.check(LockUtil.EDGE_LABEL_DELETE, id1);
+
+        long before = epoch.epoch();
+        SchemaEpoch.Mutation mutation = CompletableFuture.supplyAsync(() -> {
+            return epoch.mutate(GROUP, id1);
+        }).get(5L, TimeUnit.SECONDS);
+        Assert.assertEquals(before + 1L, epoch.epoch());
+
+        reader.check(GROUP, id2);
+        Assert.assertThrows(HugeException.class, () -> {
+            reader.check(GROUP, id1);
+        });
+        reader.release();
+
+        mutation.finish();
+        Assert.assertEquals(before + 2L, epoch.epoch());
+    }
+
+    @Test
+    public void testMutateWithInvalidGroup() {
+        SchemaEpoch epoch = new SchemaEpoch("graph");
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            epoch.mutate(LockUtil.INDEX_LABEL_ADD_UPDATE, IdGenerator.of(1L));
+        });
+    }
+
+    @Test
+    public void testMutateConflictedIds() throws ExecutionException,
+                                                 InterruptedException {
+        SchemaEpoch epoch = new SchemaEpoch("graph");
+        Id id = IdGenerator.of(1L);
+
+        SchemaEpoch.Mutation mutation = epoch.mutate(GROUP, id);
+        CompletableFuture<SchemaEpoch.Mutation> future;
+        future = CompletableFuture.supplyAsync(() -> {
+            return epoch.mutate(GROUP, id);
+        });
+        Assert.assertThrows(TimeoutException.class, () -> {
+            future.get(100L, TimeUnit.MILLISECONDS);
+        });
+        mutation.finish();
+        future.get().finish();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.hbase;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.RegionInfo;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.client.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumn;
+import com.baidu.hugegraph.backend.store.BackendEntry.BackendIterator;
+import com.baidu.hugegraph.backend.store.hbase.HbaseSessions;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.testutil.Whitebox;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.google.common.collect.ImmutableList;
+
+public class HbaseSessionsTest extends BaseUnitTest {
+
+    private static final byte[] FAMILY = "f".getBytes();
+
+    private HbaseSessions sessions;
+    private Connection hbase;
+
+    @Before
+    public void setup() throws IOException {
+        this.sessions = new HbaseSessions("ns", "s");
+        this.hbase = Mockito.mock(Connection.class);
+        Whitebox.setInternalState(this.sessions, "hbase", this.hbase);
+    }
+
+    @Test
+    public void testCommitWithBatchOfEachTable() throws Exception {
+        Table table = Mockito.mock(Table.class);
+        Mockito.when(this.hbase.getTable(Mockito.any(TableName.class)))
+               .thenReturn(table);
+
+        HbaseSessions.Session session = this.sessions.new Session();
+        put(session, "k1");
+        put(session, "k2");
+        Assert.assertEquals(2, (int) session.commit());
+        Assert.assertFalse(session.hasChanges());
+
+        // The rows of a table are written with a batch, then recorded
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArgumentCaptor<List<Row>> rows = ArgumentCaptor.forClass(
+                                         (Class) List.class);
+        Mockito.verify(table).batch(rows.capture(), Mockito.any());
+        Assert.assertEquals(2, rows.getValue().size());
+        Mockito.verify(table).close();
+        Assert.assertEquals(1L, this.sessions.writeCount());
+        Assert.assertTrue(this.sessions.maxWriteNanos() > 0L);
+
+        // The rows are retained if failed to write
+        Mockito.doThrow(new IOException("Failed to write"))
+               .when(table).batch(Mockito.anyList(), Mockito.any());
+        put(session, "k3");
+        Assert.assertThrows(BackendException.class, () -> {
+            session.commit();
+        });
+        Assert.assertTrue(session.hasChanges());
+        Assert.assertEquals(1L, this.sessions.writeCount());
+    }
+
+    @Test
+    public void testPrefixEnd() {
+        Assert.assertArrayEquals(new byte[]{1, 3},
+                                 HbaseSessions.prefixEnd(new byte[]{1, 2}));
+        Assert.assertArrayEquals(new byte[]{1, (byte) 0x80},
+                                 HbaseSessions.prefixEnd(
+                                 new byte[]{1, (byte) 0x7f}));
+        // The trailing 0xff bytes are dropped
+        Assert.assertArrayEquals(new byte[]{2},
+                                 HbaseSessions.prefixEnd(
+                                 new byte[]{1, (byte) 0xff}));
+        Assert.assertArrayEquals(new byte[]{1, 3},
+                                 HbaseSessions.prefixEnd(
+                                 new byte[]{1, 2, (byte) 0xff, (byte) 0xff}));
+        // No end if all bytes are 0xff or the prefix is empty
+        Assert.assertArrayEquals(HConstants.EMPTY_END_ROW,
+                                 HbaseSessions.prefixEnd(
+                                 new byte[]{(byte) 0xff, (byte) 0xff}));
+        Assert.assertArrayEquals(HConstants.EMPTY_END_ROW,
+                                 HbaseSessions.prefixEnd(new byte[0]));
+
+        // The prefix is not changed
+        byte[] prefix = new byte[]{1, 2};
+        HbaseSessions.prefixEnd(prefix);
+        Assert.assertArrayEquals(new byte[]{1, 2}, prefix);
+    }
+
+    @Test
+    public void testGetByIdsInParallel() throws IOException {
+        ExecutorService executor = this.mockMultiGet(2);
+        Table table = Mockito.mock(Table.class);
+        Mockito.when(this.hbase.getTable(Mockito.any(TableName.class)))
+               .thenReturn(table);
+        Mockito.when(table.get(Mockito.anyListOf(Get.class)))
+               .thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            List<Get> gets = (List<Get>) invocation.getArguments()[0];
+            Result[] results = new Result[gets.size()];
+            for (int i = 0; i < gets.size(); i++) {
+                byte[] row = gets.get(i).getRow();
+                results[i] = Result.create(new Cell[]{
+                             new KeyValue(row, FAMILY, row, row)});
+            }
+            return results;
+        });
+
+        try {
+            HbaseSessions.Session session = this.sessions.new Session();
+            List<byte[]> rowkeys = ImmutableList.of(
+                                   "a1".getBytes(), "b1".getBytes(),
+                                   "a2".getBytes(), "a3".getBytes());
+            Iterator<Result> results = session.get("t", FAMILY, rowkeys);
+            for (byte[] rowkey : rowkeys) {
+                Assert.assertArrayEquals(rowkey, results.next().getRow());
+            }
+            Assert.assertFalse(results.hasNext());
+
+            // The gets of region 'a' are sent in 2 batches and 1 of 'b'
+            Mockito.verify(table, Mockito.times(3))
+                   .get(Mockito.anyListOf(Get.class));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetByIdsWithAbandonedIterator() throws Exception {
+        ExecutorService executor = this.mockMultiGet(1);
+        Table table = Mockito.mock(Table.class);
+        Mockito.when(this.hbase.getTable(Mockito.any(TableName.class)))
+               .thenReturn(table);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Mockito.when(table.get(Mockito.anyListOf(Get.class)))
+               .thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(60000L);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return new Result[0];
+        });
+
+        try {
+            HbaseSessions.Session session = this.sessions.new Session();
+            BackendIterator<Result> results = session.get(
+                    "t", FAMILY, ImmutableList.of("a1".getBytes(),
+                                                  "a2".getBytes()));
+            Assert.assertTrue(started.await(10L, TimeUnit.SECONDS));
+            // The requests in flight are cancelled if closed before read
+            results.close();
+            Assert.assertTrue(interrupted.await(10L, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCloseAfterGetWorkersStopped() throws Exception {
+        ExecutorService executor = this.mockMultiGet(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean(false);
+        executor.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(200L);
+            } catch (InterruptedException ignored) {
+                // pass
+            }
+            finished.set(true);
+        });
+        Assert.assertTrue(started.await(10L, TimeUnit.SECONDS));
+
+        Mockito.doAnswer(invocation -> {
+            // The connection is closed after the workers stopped
+            Assert.assertTrue(finished.get());
+            return null;
+        }).when(this.hbase).close();
+        this.sessions.close();
+        Assert.assertTrue(executor.isTerminated());
+        Mockito.verify(this.hbase).close();
+    }
+
+    /**
+     * Mock the region of each rowkey by its first byte, and set a get
+     * executor which is shutdown by the caller
+     */
+    private ExecutorService mockMultiGet(int batchSize) throws IOException {
+        RegionLocator locator = Mockito.mock(RegionLocator.class);
+        Mockito.when(this.hbase.getRegionLocator(Mockito.any(TableName.class)))
+               .thenReturn(locator);
+        Mockito.when(locator.getRegionLocation(Mockito.any(byte[].class)))
+               .thenAnswer(invocation -> {
+            byte[] rowkey = (byte[]) invocation.getArguments()[0];
+            RegionInfo region = Mockito.mock(RegionInfo.class);
+            Mockito.when(region.getEncodedName())
+                   .thenReturn(String.valueOf((char) rowkey[0]));
+            HRegionLocation location = Mockito.mock(HRegionLocation.class);
+            Mockito.when(location.getRegion()).thenReturn(region);
+            return location;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Whitebox.setInternalState(this.sessions, "getExecutor", executor);
+        Whitebox.setInternalState(this.sessions, "getBatchSize", batchSize);
+        Whitebox.setInternalState(this.sessions, "parallelGetThreshold", 2);
+        return executor;
+    }
+
+    private static void put(HbaseSessions.Session session, String key) {
+        BackendColumn column = BackendColumn.of(key.getBytes(),
+                                                key.getBytes());
+        session.put("t", FAMILY, key.getBytes(), ImmutableList.of(column));
+    }
+}
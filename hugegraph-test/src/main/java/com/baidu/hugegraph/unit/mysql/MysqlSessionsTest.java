@@ -0,0 +1,253 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.mysql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.store.mysql.MysqlOptions;
+import com.baidu.hugegraph.backend.store.mysql.MysqlSessions;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.OptionSpace;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.testutil.Whitebox;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class MysqlSessionsTest extends BaseUnitTest {
+
+    private static final String DELETE = "DELETE FROM t WHERE ID = ?;";
+    private static final List<String> COLUMNS = ImmutableList.of("ID",
+                                                                 "NAME");
+
+    private HugeConfig config;
+    private Connection conn;
+    private MysqlSessions.Session session;
+
+    @BeforeClass
+    public static void init() {
+        OptionSpace.register("mysql", MysqlOptions.instance());
+    }
+
+    @Before
+    public void setup() throws SQLException {
+        Configuration conf = Mockito.mock(PropertiesConfiguration.class);
+        Mockito.when(conf.getKeys()).thenReturn(Collections.emptyIterator());
+        this.config = new HugeConfig(conf);
+        // Fail fast without retry if connect to the database
+        this.config.addProperty(MysqlOptions.JDBC_URL.name(),
+                                "jdbc:none://127.0.0.1:3306");
+        this.config.addProperty(MysqlOptions.JDBC_RECONNECT_MAX_TIMES.name(),
+                                "1");
+        this.config.addProperty(MysqlOptions.JDBC_INSERT_PACKET_SIZE.name(),
+                                "1024");
+
+        MysqlSessions sessions = new MysqlSessions(this.config, "db", "s");
+        this.session = sessions.new Session();
+        this.conn = Mockito.mock(Connection.class);
+        Mockito.when(this.conn.getAutoCommit()).thenReturn(true);
+        Mockito.when(this.conn.isValid(Mockito.anyInt())).thenReturn(true);
+        Whitebox.setInternalState(this.session, "conn", this.conn);
+    }
+
+    @Test
+    public void testCommitInsertsAfterDeletes() throws SQLException {
+        PreparedStatement delete = Mockito.mock(PreparedStatement.class);
+        Mockito.when(delete.executeBatch()).thenReturn(new int[]{1});
+        Mockito.when(this.conn.prepareStatement(DELETE)).thenReturn(delete);
+        PreparedStatement insert = Mockito.mock(PreparedStatement.class);
+        Mockito.when(insert.executeUpdate()).thenReturn(2);
+        Mockito.when(this.conn.prepareStatement(
+                     Mockito.startsWith("INSERT"))).thenReturn(insert);
+
+        // Insert rows before deleting a row
+        this.session.begin();
+        this.session.add("t", COLUMNS, new Object[]{1, "a"});
+        this.session.add("t", COLUMNS, new Object[]{2, "b"});
+        this.session.add(this.session.prepareStatement(DELETE));
+        Assert.assertEquals(3, (int) this.session.commit());
+        Assert.assertFalse(this.session.hasChanges());
+
+        // The rows are deleted before inserted with a multi-row insert
+        InOrder inOrder = Mockito.inOrder(this.conn, delete, insert);
+        inOrder.verify(delete).executeBatch();
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        inOrder.verify(this.conn).prepareStatement(sql.capture());
+        inOrder.verify(insert).setObject(1, 1);
+        inOrder.verify(insert).setObject(2, "a");
+        inOrder.verify(insert).setObject(3, 2);
+        inOrder.verify(insert).setObject(4, "b");
+        inOrder.verify(insert).executeUpdate();
+        inOrder.verify(this.conn).commit();
+        Assert.assertEquals("INSERT INTO t (ID, NAME) VALUES (?, ?), " +
+                            "(?, ?) ON DUPLICATE KEY UPDATE " +
+                            "ID = VALUES(ID), NAME = VALUES(NAME)",
+                            sql.getValue());
+        Mockito.verify(insert).close();
+    }
+
+    @Test
+    public void testCommitInsertsSplitByPacketSize() throws SQLException {
+        PreparedStatement insert = Mockito.mock(PreparedStatement.class);
+        Mockito.when(insert.executeUpdate()).thenReturn(1);
+        Mockito.when(this.conn.prepareStatement(Mockito.anyString()))
+               .thenReturn(insert);
+
+        // Each row is larger than half of the packet size
+        char[] chars = new char[600];
+        Arrays.fill(chars, 'x');
+        String name = new String(chars);
+        this.session.begin();
+        this.session.add("t", COLUMNS, new Object[]{1, name});
+        this.session.add("t", COLUMNS, new Object[]{2, name});
+        this.session.add("t", COLUMNS, new Object[]{3, "c"});
+        Assert.assertEquals(2, (int) this.session.commit());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(this.conn, Mockito.times(2))
+               .prepareStatement(sql.capture());
+        Assert.assertEquals("INSERT INTO t (ID, NAME) VALUES (?, ?) " +
+                            "ON DUPLICATE KEY UPDATE " +
+                            "ID = VALUES(ID), NAME = VALUES(NAME)",
+                            sql.getAllValues().get(0));
+        Assert.assertTrue(sql.getAllValues().get(1).contains(
+                          "VALUES (?, ?), (?, ?) ON DUPLICATE KEY"));
+    }
+
+    @Test
+    public void testSelectWithoutConnection() {
+        Whitebox.setInternalState(this.session, "conn", null);
+        // Reconnect before checking auto-commit of the connection
+        Assert.assertThrows(SQLException.class, () -> {
+            this.session.select("SELECT * FROM t");
+        });
+    }
+
+    @Test
+    public void testSelectConcurrentlyWithExhaustedPool() throws Exception {
+        this.config.addProperty(MysqlOptions.JDBC_POOL_MAX_SIZE.name(), "1");
+        this.config.addProperty(MysqlOptions.JDBC_POOL_WAIT_TIMEOUT.name(),
+                                "1");
+        MysqlSessions sessions = new MysqlSessions(this.config, "db", "s");
+        MysqlSessions.Session session = sessions.new Session();
+        Whitebox.setInternalState(session, "conn", this.conn);
+        List<String> sqls = ImmutableList.of("SELECT * FROM t WHERE ID = 0",
+                                             "SELECT * FROM t WHERE ID = 1");
+
+        // The only permit is held by the connection of another session
+        Semaphore permits = (Semaphore) Whitebox.getInternalState(
+                            sessions, "connectionPermits");
+        permits.acquire();
+        Assert.assertThrows(BackendException.class, () -> {
+            session.select(sqls);
+        }, (e) -> {
+            Assert.assertTrue(e.getCause().getMessage().contains(
+                              "Timeout to get connection from pool"));
+        });
+
+        // The permit is given back if failed to connect
+        permits.release();
+        Assert.assertThrows(SQLException.class, () -> {
+            session.select(sqls);
+        });
+        Assert.assertEquals(1, permits.availablePermits());
+        sessions.close();
+    }
+
+    @Test
+    public void testSelectConcurrently() throws Exception {
+        MysqlSessions sessions = new MysqlSessions(this.config, "db", "s");
+        MysqlSessions.Session session = sessions.new Session();
+        Whitebox.setInternalState(session, "conn", this.conn);
+
+        ResultSetMetaData meta = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(meta.getColumnCount()).thenReturn(1);
+        Mockito.when(meta.getColumnLabel(1)).thenReturn("ID");
+        Mockito.when(meta.getColumnName(1)).thenReturn("ID");
+        Mockito.when(meta.getColumnType(1)).thenReturn(Types.INTEGER);
+
+        @SuppressWarnings("unchecked")
+        BlockingQueue<Connection> idles = (BlockingQueue<Connection>)
+                Whitebox.getInternalState(sessions, "idleConnections");
+        List<ResultSet> rawResults = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ResultSet results = Mockito.mock(ResultSet.class);
+            Mockito.when(results.getMetaData()).thenReturn(meta);
+            Mockito.when(results.next()).thenReturn(true, false);
+            Mockito.when(results.getObject(1)).thenReturn(i);
+            Statement statement = Mockito.mock(Statement.class);
+            Mockito.when(statement.executeQuery(Mockito.anyString()))
+                   .thenReturn(results);
+            Connection conn = Mockito.mock(Connection.class);
+            Mockito.when(conn.isValid(Mockito.anyInt())).thenReturn(true);
+            Mockito.when(conn.createStatement()).thenReturn(statement);
+            idles.add(conn);
+            rawResults.add(results);
+        }
+
+        List<ResultSet> results = session.select(ImmutableList.of(
+                                  "SELECT * FROM t WHERE ID IN (0)",
+                                  "SELECT * FROM t WHERE ID IN (1)"));
+        Assert.assertEquals(2, results.size());
+
+        // The rows are copied out before giving back the connections
+        for (ResultSet raw : rawResults) {
+            Mockito.verify(raw).close();
+        }
+        Assert.assertEquals(2, idles.size());
+        Set<Object> ids = new HashSet<>();
+        for (ResultSet rs : results) {
+            Assert.assertTrue(rs.next());
+            ids.add(rs.getObject(1));
+            Assert.assertFalse(rs.next());
+        }
+        Assert.assertEquals(ImmutableSet.of(0, 1), ids);
+
+        // The idle connections are closed with the sessions
+        Connection idle = idles.peek();
+        sessions.close();
+        Assert.assertEquals(0, idles.size());
+        Mockito.verify(idle).close();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.mysql;
+
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.store.mysql.WhereBuilder;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.google.common.collect.ImmutableList;
+
+public class WhereBuilderTest extends BaseUnitTest {
+
+    @Test
+    public void testIn() {
+        WhereBuilder where = new WhereBuilder();
+        where.in("ID", ImmutableList.of(1, "a'b"));
+        Assert.assertEquals(" WHERE ID IN (1, 'a\\'b')", where.build());
+    }
+
+    @Test
+    public void testOr() {
+        WhereBuilder where = new WhereBuilder();
+        where.or(ImmutableList.of("OWNER", "LABEL"),
+                 ImmutableList.of(ImmutableList.of("v1", 1),
+                                  ImmutableList.of("v2", 2)));
+        Assert.assertEquals(" WHERE ((OWNER = 'v1' AND LABEL = 1) OR " +
+                            "(OWNER = 'v2' AND LABEL = 2))", where.build());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new WhereBuilder().or(ImmutableList.of("OWNER", "LABEL"),
+                                  ImmutableList.of(ImmutableList.of("v1")));
+        });
+    }
+
+    @Test
+    public void testGt() {
+        WhereBuilder where = new WhereBuilder(false);
+        where.gt(ImmutableList.of("OWNER", "LABEL"),
+                 ImmutableList.of("v1", 1));
+        Assert.assertEquals(" (OWNER, LABEL) > ('v1', 1)", where.build());
+    }
+}
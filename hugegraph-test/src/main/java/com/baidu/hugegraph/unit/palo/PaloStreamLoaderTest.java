@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.palo;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.store.palo.PaloHttpClient;
+import com.baidu.hugegraph.backend.store.palo.PaloOptions;
+import com.baidu.hugegraph.backend.store.palo.PaloStreamLoader;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.OptionSpace;
+import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.CharStreams;
+import com.sun.net.httpserver.HttpServer;
+
+public class PaloStreamLoaderTest extends BaseUnitTest {
+
+    private static final String SUCCESS = "{\"Status\": \"Success\"}";
+    private static final String FAILED = "{\"Status\": \"Fail\"}";
+
+    private HugeConfig config;
+    private PaloHttpClient client;
+    private PaloStreamLoader loader;
+
+    @BeforeClass
+    public static void init() {
+        OptionSpace.register("palo", PaloOptions.instance());
+    }
+
+    @Before
+    public void setup() {
+        Configuration conf = Mockito.mock(PropertiesConfiguration.class);
+        Mockito.when(conf.getKeys()).thenReturn(Collections.emptyIterator());
+        this.config = new HugeConfig(conf);
+        this.config.addProperty(PaloOptions.PALO_STREAM_LOAD_RETRIES.name(),
+                                "1");
+        this.client = Mockito.mock(PaloHttpClient.class);
+        this.loader = null;
+    }
+
+    @After
+    public void teardown() {
+        if (this.loader != null) {
+            this.loader.close();
+        }
+    }
+
+    @Test
+    public void testSyncCommitWaitsForLoad() {
+        this.mockLoadResults(SUCCESS);
+        this.loader = new PaloStreamLoader(this.config, this.client);
+
+        this.loader.append(batch("t1", "r1", "r2"));
+
+        // The rows are loaded before the commit returns
+        Mockito.verify(this.client).streamLoad(Mockito.eq("t1"),
+                                               Mockito.eq("r1\nr2\n"),
+                                               Mockito.startsWith("t1-"));
+        Assert.assertEquals(1L, this.loader.loadCount());
+        Assert.assertEquals(6L, this.loader.loadedBytes());
+        Assert.assertEquals(0L, this.loader.pendingBytes());
+    }
+
+    @Test
+    public void testRetryFailedLoadWithSameLabel() {
+        this.mockLoadResults(FAILED, SUCCESS);
+        this.loader = new PaloStreamLoader(this.config, this.client);
+
+        this.loader.append(batch("t1", "r1"));
+
+        ArgumentCaptor<String> labels = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(this.client, Mockito.times(2))
+               .streamLoad(Mockito.eq("t1"), Mockito.eq("r1\n"),
+                           labels.capture());
+        List<String> values = labels.getAllValues();
+        Assert.assertEquals(values.get(0), values.get(1));
+        Assert.assertEquals(1L, this.loader.loadCount());
+        Assert.assertEquals(1L, this.loader.retriedCount());
+        Assert.assertEquals(0L, this.loader.failedCount());
+    }
+
+    @Test
+    public void testFailedLoadThrownToItsCommitter() {
+        this.mockLoadResults(FAILED, FAILED, SUCCESS);
+        this.loader = new PaloStreamLoader(this.config, this.client);
+
+        Assert.assertThrows(BackendException.class, () -> {
+            this.loader.append(batch("t1", "r1"));
+        }, e -> {
+            Assert.assertTrue(e.getMessage().contains("table 't1'"));
+        });
+        Assert.assertEquals(1L, this.loader.failedCount());
+
+        // The error is not thrown to the commit of other rows
+        this.loader.append(batch("t2", "r2"));
+        Assert.assertEquals(1L, this.loader.loadCount());
+    }
+
+    @Test
+    public void testAsyncCommitLoadsWhenClosed() {
+        this.config.addProperty(PaloOptions.PALO_STREAM_COMMIT_MODE.name(),
+                                "async");
+        this.config.addProperty(PaloOptions.PALO_STREAM_FLUSH_INTERVAL.name(),
+                                String.valueOf(Integer.MAX_VALUE));
+        this.mockLoadResults(SUCCESS);
+        PaloStreamLoader loader = new PaloStreamLoader(this.config,
+                                                       this.client);
+
+        // The buffered size is counted in bytes of UTF-8
+        loader.append(batch("t1", "r1", "\u56fe"));
+        Assert.assertEquals(7L, loader.pendingBytes());
+        Mockito.verify(this.client, Mockito.never())
+               .streamLoad(Mockito.anyString(), Mockito.anyString(),
+                           Mockito.anyString());
+
+        loader.close();
+        Mockito.verify(this.client).streamLoad(Mockito.eq("t1"),
+                                               Mockito.eq("r1\n\u56fe\n"),
+                                               Mockito.anyString());
+        Mockito.verify(this.client).close();
+        Assert.assertEquals(0L, loader.pendingBytes());
+    }
+
+    @Test
+    public void testStreamLoadByHttp() throws IOException {
+        // A stand-in of the stream load endpoint of Palo
+        Queue<String> responses = new ConcurrentLinkedQueue<>(
+                                  ImmutableList.of(FAILED, SUCCESS));
+        List<String> requests = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(
+                            new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/db/", exchange -> {
+            String body = CharStreams.toString(new InputStreamReader(
+                          exchange.getRequestBody(), Charsets.UTF_8));
+            requests.add(String.format("%s %s %s %s",
+                         exchange.getRequestMethod(),
+                         exchange.getRequestURI(),
+                         exchange.getRequestHeaders().getFirst("Expect"),
+                         body));
+            byte[] content = responses.poll().getBytes(Charsets.UTF_8);
+            exchange.sendResponseHeaders(200, content.length);
+            exchange.getResponseBody().write(content);
+            exchange.close();
+        });
+        server.start();
+        try {
+            int port = server.getAddress().getPort();
+            this.config.addProperty(PaloOptions.PALO_HTTP_PORT.name(),
+                                    String.valueOf(port));
+            this.loader = new PaloStreamLoader(this.config,
+                                               new PaloHttpClient(
+                                               this.config, "db"));
+
+            this.loader.append(batch("t1", "r1", "r2"));
+            Assert.assertEquals(1L, this.loader.loadCount());
+            Assert.assertEquals(1L, this.loader.retriedCount());
+            Assert.assertEquals(0L, this.loader.pendingBytes());
+
+            // The rows are put to the table with the same label on retry
+            Assert.assertEquals(2, requests.size());
+            String request = requests.get(0);
+            Assert.assertTrue(request, request.startsWith(
+                              "PUT /api/db/t1/_load?label=t1-"));
+            Assert.assertTrue(request, request.endsWith(
+                              " 100-continue r1\nr2\n"));
+            Assert.assertEquals(request, requests.get(1));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private void mockLoadResults(String... contents) {
+        RestResult[] results = new RestResult[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            results[i] = Mockito.mock(RestResult.class);
+            Mockito.when(results[i].status()).thenReturn(200);
+            Mockito.when(results[i].content()).thenReturn(contents[i]);
+        }
+        RestResult[] rest = new RestResult[results.length - 1];
+        System.arraycopy(results, 1, rest, 0, rest.length);
+        Mockito.when(this.client.streamLoad(Mockito.anyString(),
+                                            Mockito.anyString(),
+                                            Mockito.anyString()))
+               .thenReturn(results[0], rest);
+    }
+
+    private static Map<String, Collection<String>> batch(String table,
+                                                         String... rows) {
+        return ImmutableMap.of(table, ImmutableList.copyOf(rows));
+    }
+}
@@ -19,17 +19,30 @@
 
 package com.baidu.hugegraph.unit.rocksdb;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assume;
 import org.junit.Test;
+import org.mockito.Mockito;
 import org.rocksdb.RocksDBException;
 
 import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumn;
+import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumnIterator;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBStdSessions;
 import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions.Session;
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.testutil.Assert;
 
 public class RocksDBSessionsTest extends BaseRocksDBUnitTest {
@@ -136,6 +149,23 @@ public class RocksDBSessionsTest extends BaseRocksDBUnitTest {
         Assert.assertEquals("Lisa", get("person:2gname"));
     }
 
+    @Test
+    public void testScanByMultiPrefixes() throws RocksDBException {
+        put("person:1gname", "James");
+        put("person:2gname", "Lisa");
+        put("person:3gname", "Hebe");
+
+        // The records are returned in the order of the prefixes
+        Session session = this.rocks.session();
+        Iterator<BackendColumn> itor = session.scan(TABLE, Arrays.asList(
+                                                    b("person:3"),
+                                                    b("person:4"),
+                                                    b("person:1")));
+        Assert.assertEquals("Hebe", s(itor.next().value));
+        Assert.assertEquals("James", s(itor.next().value));
+        Assert.assertFalse(itor.hasNext());
+    }
+
     @Test
     public void testScanByRange() throws RocksDBException {
         put("person:1gname", "James");
@@ -466,4 +496,283 @@ public class RocksDBSessionsTest extends BaseRocksDBUnitTest {
         Assert.assertArrayEquals(null, session.get(TABLE, key14));
         Assert.assertArrayEquals(value20, session.get(TABLE, key20));
     }
+
+    @Test
+    public void testGetAndScanWithReadSnapshot() throws RocksDBException {
+        this.put("person:1gname", "James");
+        this.put("person:2gname", "Lisa");
+
+        Session session = this.rocks.session();
+        long snapshot = session.openReadSnapshot();
+        try {
+            this.put("person:1gname", "Jame2");
+            this.put("person:3gname", "Hebe");
+
+            session.useReadSnapshot(snapshot);
+            Assert.assertEquals("James", this.get("person:1gname"));
+            Assert.assertEquals(null, this.get("person:3gname"));
+            Iterator<BackendColumn> iter = session.scan(TABLE,
+                                                        b("person:"));
+            Assert.assertEquals(2, sizeOf(iter));
+
+            session.useReadSnapshot(Session.NO_READ_SNAPSHOT);
+            Assert.assertEquals("Jame2", this.get("person:1gname"));
+            Assert.assertEquals("Hebe", this.get("person:3gname"));
+            iter = session.scan(TABLE, b("person:"));
+            Assert.assertEquals(3, sizeOf(iter));
+        } finally {
+            session.closeReadSnapshot(snapshot);
+        }
+
+        Assert.assertThrows(BackendException.class, () -> {
+            session.useReadSnapshot(snapshot);
+        });
+    }
+
+    @Test
+    public void testCreateAndRestoreSnapshot() throws RocksDBException,
+                                                      IOException {
+        String tmpDir = System.getProperty("java.io.tmpdir");
+        File snapshotDir = new File(tmpDir, "rocksdb-snapshot");
+        FileUtils.deleteQuietly(snapshotDir);
+
+        this.put("person:1gname", "James");
+        try {
+            this.rocks.createSnapshot(snapshotDir.getPath());
+            Assert.assertTrue(snapshotDir.isDirectory());
+
+            Assert.assertThrows(IllegalArgumentException.class, () -> {
+                this.rocks.createSnapshot(snapshotDir.getPath());
+            });
+
+            this.put("person:1gname", "Jame2");
+            this.put("person:2gname", "Lisa");
+            Assert.assertEquals("Jame2", this.get("person:1gname"));
+
+            this.rocks.restoreSnapshot(snapshotDir.getPath(),
+                                       Arrays.asList(TABLE));
+            Assert.assertEquals("James", this.get("person:1gname"));
+            Assert.assertEquals(null, this.get("person:2gname"));
+        } finally {
+            FileUtils.deleteQuietly(snapshotDir);
+        }
+    }
+
+    @Test
+    public void testRestoreSnapshotWithOpenedIterator()
+                                           throws RocksDBException {
+        String tmpDir = System.getProperty("java.io.tmpdir");
+        File dbDir = new File(tmpDir, "rocksdb-restore");
+        File snapshotDir = new File(tmpDir, "rocksdb-restore-snapshot");
+        FileUtils.deleteQuietly(snapshotDir);
+
+        String other = "other";
+        RocksDBSessions rocks = new RocksDBStdSessions(newConfig(),
+                                                       dbDir.getPath(),
+                                                       dbDir.getPath(),
+                                                       "db", "store");
+        try {
+            rocks.createTable(TABLE);
+            rocks.createTable(other);
+            Session session = rocks.session();
+            session.put(TABLE, b("person:1gname"), b("James"));
+            session.put(other, b("person:1gname"), b("Tom"));
+            session.commit();
+            rocks.createSnapshot(snapshotDir.getPath());
+
+            session.put(TABLE, b("person:1gname"), b("Jame2"));
+            session.put(other, b("person:1gname"), b("Tom2"));
+            session.commit();
+
+            // The table can't be restored while it's still being read
+            BackendColumnIterator columns = session.scan(TABLE, b("person:"));
+            Assert.assertThrows(BackendException.class, () -> {
+                rocks.restoreSnapshot(snapshotDir.getPath(),
+                                      Arrays.asList(TABLE));
+            }, (e) -> {
+                Assert.assertTrue(e.getMessage().contains(
+                                  "iterators opened on table 'test-table'"));
+            });
+            Assert.assertEquals("Jame2", s(columns.next().value));
+
+            // The iterators of the other tables don't block the restore
+            rocks.restoreSnapshot(snapshotDir.getPath(),
+                                  Arrays.asList(other));
+            Assert.assertEquals("Tom",
+                                s(session.get(other, b("person:1gname"))));
+            columns.close();
+
+            rocks.restoreSnapshot(snapshotDir.getPath(),
+                                  Arrays.asList(TABLE));
+            Assert.assertEquals("James",
+                                s(session.get(TABLE, b("person:1gname"))));
+            Assert.assertEquals("Tom",
+                                s(session.get(other, b("person:1gname"))));
+
+            // The restored table can be written and scanned as before
+            session.put(TABLE, b("person:2gname"), b("Lisa"));
+            session.commit();
+            Assert.assertEquals(2, sizeOf(session.scan(TABLE,
+                                                       b("person:"))));
+        } finally {
+            rocks.close();
+            FileUtils.deleteQuietly(dbDir);
+            FileUtils.deleteQuietly(snapshotDir);
+        }
+    }
+
+    @Test
+    public void testReadSnapshotWithLimitAndTTL() throws RocksDBException,
+                                                         InterruptedException {
+        String tmpDir = System.getProperty("java.io.tmpdir");
+        File dbDir = new File(tmpDir, "rocksdb-read-snapshot");
+
+        HugeConfig config = newConfig();
+        config.addProperty("rocksdb.max_read_snapshots", 2);
+        config.addProperty("rocksdb.read_snapshot_ttl", 1);
+        RocksDBSessions rocks = new RocksDBStdSessions(config,
+                                                       dbDir.getPath(),
+                                                       dbDir.getPath(),
+                                                       "db", "store");
+        try {
+            rocks.createTable(TABLE);
+            Session session = rocks.session();
+            long snapshot1 = session.openReadSnapshot();
+            long snapshot2 = session.openReadSnapshot();
+            Assert.assertThrows(BackendException.class, () -> {
+                session.openReadSnapshot();
+            }, (e) -> {
+                Assert.assertTrue(e.getMessage().contains(
+                                  "Too many read snapshots opened"));
+            });
+
+            // The leaked snapshots are released after expired
+            Thread.sleep(1100L);
+            session.useReadSnapshot(Session.NO_READ_SNAPSHOT);
+            long snapshot3 = session.openReadSnapshot();
+            Assert.assertThrows(BackendException.class, () -> {
+                session.useReadSnapshot(snapshot1);
+            });
+            Assert.assertThrows(BackendException.class, () -> {
+                session.closeReadSnapshot(snapshot2);
+            });
+            session.useReadSnapshot(snapshot3);
+            Assert.assertNull(session.get(TABLE, b("person:1gname")));
+            session.closeReadSnapshot(snapshot3);
+        } finally {
+            rocks.close();
+            FileUtils.deleteQuietly(dbDir);
+        }
+    }
+
+    @Test
+    public void testScanWithPrefetch() throws RocksDBException {
+        HugeConfig config = newConfig();
+        config.addProperty("rocksdb.scan_prefetch_chunks", 2);
+        config.addProperty("rocksdb.scan_prefetch_chunk_size", 3);
+
+        String tmpDir = System.getProperty("java.io.tmpdir");
+        File dbDir = new File(tmpDir, "rocksdb-prefetch");
+        RocksDBSessions rocks = new RocksDBStdSessions(config,
+                                                       dbDir.getPath(),
+                                                       dbDir.getPath(),
+                                                       "db", "store");
+        try {
+            rocks.createTable(TABLE);
+            Session session = rocks.session();
+            for (int i = 0; i < 20; i++) {
+                session.put(TABLE, b("person:" + (char) ('a' + i)),
+                            b("name" + i));
+            }
+            session.commit();
+
+            // Full scan
+            Iterator<BackendColumn> iter = session.scan(TABLE);
+            Assert.assertEquals(20, sizeOf(iter));
+
+            // Shard scan
+            BackendColumnIterator columns = session.scan(TABLE,
+                                                         b("person:c"),
+                                                         b("person:m"));
+            Assert.assertArrayEquals(b("person:c"), columns.position());
+            Assert.assertTrue(columns.hasNext());
+            Assert.assertArrayEquals(b("person:c"), columns.position());
+            BackendColumn col = columns.next();
+            Assert.assertEquals("person:c", s(col.name));
+            Assert.assertEquals("name2", s(col.value));
+            Assert.assertTrue(columns.hasNext());
+            Assert.assertArrayEquals(b("person:d"), columns.position());
+            Assert.assertEquals(9, sizeOf(columns));
+            Assert.assertNull(columns.position());
+            Assert.assertFalse(columns.hasNext());
+
+            // Close before reading all
+            columns = session.scan(TABLE);
+            Assert.assertTrue(columns.hasNext());
+            columns.close();
+            Assert.assertFalse(columns.hasNext());
+        } finally {
+            rocks.close();
+            FileUtils.deleteQuietly(dbDir);
+        }
+    }
+
+    @Test
+    public void testScanWithPrefetchBusyAndAbandoned()
+                                           throws RocksDBException,
+                                                  InterruptedException {
+        HugeConfig config = newConfig();
+        config.addProperty("rocksdb.scan_prefetch_chunks", 2);
+        config.addProperty("rocksdb.scan_prefetch_chunk_size", 3);
+        config.addProperty("rocksdb.scan_prefetch_threads", 1);
+        config.addProperty("rocksdb.scan_prefetch_timeout", 1);
+
+        String tmpDir = System.getProperty("java.io.tmpdir");
+        File dbDir = new File(tmpDir, "rocksdb-prefetch-abandoned");
+        RocksDBSessions rocks = new RocksDBStdSessions(config,
+                                                       dbDir.getPath(),
+                                                       dbDir.getPath(),
+                                                       "db", "store");
+        try {
+            rocks.createTable(TABLE);
+            Session session = rocks.session();
+            for (int i = 0; i < 20; i++) {
+                session.put(TABLE, b("person:" + (char) ('a' + i)),
+                            b("name" + i));
+            }
+            session.commit();
+
+            // The only prefetch thread is blocked by the abandoned scan
+            BackendColumnIterator abandoned = session.scan(TABLE);
+            // Scan without prefetch if the prefetch threads are busy
+            Assert.assertEquals(20, sizeOf(session.scan(TABLE)));
+
+            // The prefetch thread gives up if the chunks are not taken
+            Thread.sleep(1500L);
+            Assert.assertThrows(BackendException.class, () -> {
+                abandoned.hasNext();
+            }, (e) -> {
+                Assert.assertTrue(e.getCause().getMessage().contains(
+                                  "not taken in 1 seconds"));
+            });
+        } finally {
+            rocks.close();
+            FileUtils.deleteQuietly(dbDir);
+        }
+    }
+
+    private static HugeConfig newConfig() {
+        Configuration conf = Mockito.mock(PropertiesConfiguration.class);
+        Mockito.when(conf.getKeys()).thenReturn(Collections.emptyIterator());
+        return new HugeConfig(conf);
+    }
+
+    private static int sizeOf(Iterator<BackendColumn> iter) {
+        int size = 0;
+        while (iter.hasNext()) {
+            iter.next();
+            size++;
+        }
+        return size;
+    }
 }